@@ -0,0 +1,81 @@
+package org.alien4cloud.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.alien4cloud.tosca.catalog.ArchiveParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+import alien4cloud.tosca.model.ArchiveRoot;
+import alien4cloud.tosca.parser.ParsingErrorLevel;
+import alien4cloud.tosca.parser.ParsingException;
+import alien4cloud.tosca.parser.ParsingResult;
+import alien4cloud.utils.AlienConstants;
+import alien4cloud.utils.FileUtil;
+
+/**
+ * Measure the parsing of a TOSCA types archive.
+ *
+ * The parsed archive is the tosca base types archive of the test data, read from the repository so that results remain comparable and no network access
+ * is required. Benchmarks are expected to run from the repository root, set the <code>benchmarks.archive.path</code> system property to the directory of
+ * another archive to parse it instead. Catalog services are mocked so no elasticsearch node is required.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class ArchiveParsingBenchmark {
+    private static final String ARCHIVE_PATH_PROPERTY = "benchmarks.archive.path";
+    private static final String DEFAULT_ARCHIVE_PATH = "alien4cloud-test-common/src/test/resources/data/csars/tosca-base-types-1.0";
+
+    private ClassPathXmlApplicationContext applicationContext;
+    private ArchiveParser archiveParser;
+    private Path archiveZipPath;
+
+    @Setup
+    public void setup() throws IOException, ParsingException {
+        Path archivePath = Paths.get(System.getProperty(ARCHIVE_PATH_PROPERTY, DEFAULT_ARCHIVE_PATH));
+        if (!Files.isDirectory(archivePath)) {
+            throw new IllegalStateException("Archive directory <" + archivePath.toAbsolutePath()
+                    + "> doesn't exist, run the benchmarks from the repository root or set the <" + ARCHIVE_PATH_PROPERTY + "> system property.");
+        }
+        Path artifactsDirectory = Paths.get("target/benchmark-artifacts");
+        Files.createDirectories(artifactsDirectory);
+        archiveZipPath = artifactsDirectory.resolve(archivePath.getFileName() + ".zip");
+        FileUtil.zip(archivePath, archiveZipPath);
+
+        applicationContext = new ClassPathXmlApplicationContext("benchmark-parser-context.xml");
+        archiveParser = applicationContext.getBean(ArchiveParser.class);
+
+        // fail fast rather than measuring the parsing of an invalid archive.
+        if (parseArchive().hasError(ParsingErrorLevel.ERROR)) {
+            throw new IllegalStateException("Archive <" + archivePath + "> cannot be parsed without errors.");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public ParsingResult<ArchiveRoot> parseArchive() throws ParsingException {
+        return archiveParser.parse(archiveZipPath, AlienConstants.GLOBAL_WORKSPACE_ID);
+    }
+}
@@ -0,0 +1,92 @@
+package org.alien4cloud.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compare JMH json results (<code>-rf json</code>) against a baseline results file and report the benchmarks that regressed.
+ *
+ * Usage: <code>java -cp benchmarks.jar org.alien4cloud.benchmarks.BaselineComparator baseline.json results.json [thresholdPercent]</code>. The process exits
+ * with status 1 when at least one benchmark is slower than the baseline by more than the threshold (10% by default) or has no baseline result. An empty
+ * baseline means that no reference has been recorded for the machine running the comparison: the results are printed and the process exits with status 0.
+ */
+public final class BaselineComparator {
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+
+    private BaselineComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <results.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> results = read(new File(args[1]));
+        if (baseline.isEmpty()) {
+            // scores depend on the hardware, there is nothing to compare to until a baseline is recorded on the machine running the comparison.
+            System.out.println(String.format("Baseline %s contains no results, comparison skipped. Record it by copying the results of a full run.", args[0]));
+            for (String key : results.keySet()) {
+                System.out.println(String.format("NEW        %s", key));
+            }
+            System.exit(0);
+        }
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> result : results.entrySet()) {
+            JsonNode reference = baseline.get(result.getKey());
+            if (reference == null) {
+                // a benchmark without reference could regress unnoticed, the baseline must be updated when benchmarks are added.
+                regressions++;
+                System.out.println(String.format("NEW        %s: no baseline result", result.getKey()));
+                continue;
+            }
+            double referenceScore = reference.path("primaryMetric").path("score").asDouble();
+            double score = result.getValue().path("primaryMetric").path("score").asDouble();
+            double change = referenceScore == 0 ? 0 : (score - referenceScore) * 100 / referenceScore;
+            // for throughput higher is better, for all time based modes lower is better.
+            double degradation = "thrpt".equals(result.getValue().path("mode").asText()) ? -change : change;
+            boolean regressed = degradation > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.println(String.format("%-10s %s: %.3f -> %.3f %s (%+.1f%%)", regressed ? "REGRESSION" : "OK", result.getKey(), referenceScore, score,
+                    result.getValue().path("primaryMetric").path("scoreUnit").asText(), change));
+        }
+        for (String key : baseline.keySet()) {
+            if (!results.containsKey(key)) {
+                System.out.println(String.format("MISSING    %s", key));
+            }
+        }
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> benchmarks = new TreeMap<>();
+        for (JsonNode benchmark : new ObjectMapper().readTree(file)) {
+            benchmarks.put(key(benchmark), benchmark);
+        }
+        return benchmarks;
+    }
+
+    private static String key(JsonNode benchmark) {
+        StringBuilder key = new StringBuilder(benchmark.path("benchmark").asText());
+        JsonNode params = benchmark.path("params");
+        Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> param = fields.next();
+            key.append(key.indexOf("[") < 0 ? "[" : ",").append(param.getKey()).append("=").append(param.getValue().asText());
+        }
+        if (key.indexOf("[") >= 0) {
+            key.append("]");
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package org.alien4cloud.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.alien4cloud.tosca.model.definitions.PropertyDefinition;
+import org.alien4cloud.tosca.model.definitions.ScalarPropertyValue;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Maps;
+
+import alien4cloud.dao.ElasticSearchMapper;
+
+/**
+ * Measure the json (de)serialization performed by the DAOs when indexing documents and when mapping search hits.
+ *
+ * The DAOs read hits from the source bytes (see ESGenericSearchDAO#hitToObject), the string based deserialization is kept to measure the gain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ElasticSearchMappingBenchmark {
+    /** Number of nodes of the serialized topology. */
+    @Param({ "10", "100" })
+    private int nodeCount;
+
+    private ElasticSearchMapper mapper;
+    private NodeType nodeType;
+    private Topology topology;
+    private byte[] nodeTypeBytes;
+    private String nodeTypeString;
+    private byte[] topologyBytes;
+    private String topologyString;
+
+    @Setup
+    public void setup() throws IOException {
+        mapper = ElasticSearchMapper.getInstance();
+
+        nodeType = SyntheticTopologies.nodeType(SyntheticTopologies.SOFTWARE_TYPE, "tosca.nodes.SoftwareComponent", "tosca.nodes.Root");
+        Map<String, PropertyDefinition> properties = Maps.newLinkedHashMap();
+        for (int i = 0; i < 20; i++) {
+            PropertyDefinition propertyDefinition = new PropertyDefinition();
+            propertyDefinition.setType("string");
+            propertyDefinition.setDescription("Property number " + i);
+            propertyDefinition.setDefault(new ScalarPropertyValue("value-" + i));
+            properties.put("property_" + i, propertyDefinition);
+        }
+        nodeType.setProperties(properties);
+        nodeTypeBytes = mapper.writeValueAsBytes(nodeType);
+        nodeTypeString = new String(nodeTypeBytes, StandardCharsets.UTF_8);
+
+        topology = SyntheticTopologies.topology(nodeCount);
+        topologyBytes = mapper.writeValueAsBytes(topology);
+        topologyString = new String(topologyBytes, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serializeNodeType() throws IOException {
+        return mapper.writeValueAsBytes(nodeType);
+    }
+
+    @Benchmark
+    public NodeType deserializeNodeTypeFromBytes() throws IOException {
+        return mapper.readValue(nodeTypeBytes, 0, nodeTypeBytes.length, NodeType.class);
+    }
+
+    @Benchmark
+    public NodeType deserializeNodeTypeFromString() throws IOException {
+        return mapper.readValue(nodeTypeString, NodeType.class);
+    }
+
+    @Benchmark
+    public byte[] serializeTopology() throws IOException {
+        return mapper.writeValueAsBytes(topology);
+    }
+
+    @Benchmark
+    public Topology deserializeTopologyFromBytes() throws IOException {
+        return mapper.readValue(topologyBytes, 0, topologyBytes.length, Topology.class);
+    }
+
+    @Benchmark
+    public Topology deserializeTopologyFromString() throws IOException {
+        return mapper.readValue(topologyString, Topology.class);
+    }
+}
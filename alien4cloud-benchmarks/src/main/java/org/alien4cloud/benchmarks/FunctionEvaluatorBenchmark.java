@@ -0,0 +1,105 @@
+package org.alien4cloud.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.alien4cloud.tosca.model.Csar;
+import org.alien4cloud.tosca.model.definitions.AbstractPropertyValue;
+import org.alien4cloud.tosca.model.definitions.FunctionPropertyValue;
+import org.alien4cloud.tosca.model.definitions.ScalarPropertyValue;
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.RelationshipTemplate;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.normative.constants.NormativeComputeConstants;
+import org.alien4cloud.tosca.normative.constants.NormativeRelationshipConstants;
+import org.alien4cloud.tosca.normative.constants.ToscaFunctionConstants;
+import org.alien4cloud.tosca.utils.FunctionEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import alien4cloud.tosca.context.ToscaContext;
+import alien4cloud.tosca.model.ArchiveRoot;
+
+/**
+ * Measure the resolution of get_property functions that have to walk down a chain of hosted on relationships.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class FunctionEvaluatorBenchmark {
+    private static final String PROPERTY = "os_distribution";
+
+    /** Number of software nodes stacked on top of the compute that defines the property. */
+    @Param({ "1", "5", "20" })
+    private int hostDepth;
+
+    private Topology topology;
+    private NodeTemplate topTemplate;
+    private FunctionPropertyValue selfFunction;
+    private FunctionPropertyValue hostFunction;
+
+    @Setup
+    public void setup() {
+        ArchiveRoot archiveRoot = new ArchiveRoot();
+        archiveRoot.setArchive(new Csar(SyntheticTopologies.ARCHIVE_NAME, SyntheticTopologies.ARCHIVE_VERSION));
+        archiveRoot.getRelationshipTypes().put(NormativeRelationshipConstants.HOSTED_ON,
+                SyntheticTopologies.relationshipType(NormativeRelationshipConstants.HOSTED_ON));
+        // ToscaContext is thread local, the Thread scope ensures that setup and benchmark methods run in the same thread.
+        ToscaContext.Context context = new ToscaContext.Context(Sets.newHashSet());
+        context.register(archiveRoot);
+        ToscaContext.set(context);
+
+        Map<String, NodeTemplate> nodeTemplates = Maps.newLinkedHashMap();
+        NodeTemplate compute = SyntheticTopologies.nodeTemplate("Compute", NormativeComputeConstants.COMPUTE_TYPE);
+        compute.getProperties().put(PROPERTY, new ScalarPropertyValue("ubuntu"));
+        nodeTemplates.put(compute.getName(), compute);
+        NodeTemplate host = compute;
+        for (int i = 0; i < hostDepth; i++) {
+            NodeTemplate software = SyntheticTopologies.nodeTemplate("Software_" + i, SyntheticTopologies.SOFTWARE_TYPE);
+            Map<String, RelationshipTemplate> relationships = Maps.newHashMap();
+            relationships.put("hostedOn" + host.getName(),
+                    SyntheticTopologies.relationship(NormativeRelationshipConstants.HOSTED_ON, host.getName(), "host", "tosca.capabilities.Container"));
+            software.setRelationships(relationships);
+            nodeTemplates.put(software.getName(), software);
+            host = software;
+        }
+        topology = new Topology();
+        topology.setNodeTemplates(nodeTemplates);
+        topTemplate = host;
+
+        selfFunction = new FunctionPropertyValue(ToscaFunctionConstants.GET_PROPERTY, Lists.newArrayList(ToscaFunctionConstants.SELF, PROPERTY));
+        hostFunction = new FunctionPropertyValue(ToscaFunctionConstants.GET_PROPERTY, Lists.newArrayList(ToscaFunctionConstants.HOST, PROPERTY));
+    }
+
+    @TearDown
+    public void tearDown() {
+        ToscaContext.destroy();
+    }
+
+    @Benchmark
+    public AbstractPropertyValue getSelfProperty() {
+        return FunctionEvaluator.getProperty(topology, topTemplate, null, selfFunction);
+    }
+
+    @Benchmark
+    public AbstractPropertyValue getHostProperty() {
+        return FunctionEvaluator.getProperty(topology, topTemplate, null, hostFunction);
+    }
+}
@@ -0,0 +1,88 @@
+package org.alien4cloud.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.alien4cloud.tosca.model.definitions.ScalarPropertyValue;
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.alien4cloud.tosca.normative.constants.NormativeComputeConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import alien4cloud.deployment.matching.services.nodes.DefaultNodeMatcher;
+import alien4cloud.model.deployment.matching.MatchingConfiguration;
+import alien4cloud.model.orchestrators.locations.LocationResourceTemplate;
+import alien4cloud.model.orchestrators.locations.LocationResources;
+
+/**
+ * Measure the matching of a node against the resources of a location.
+ *
+ * The node matcher service only loads the location resources and the matching configurations from elasticsearch before delegating to the
+ * {@link DefaultNodeMatcher}, the benchmark measures this matcher against in-memory location resources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class NodeMatchingBenchmark {
+    /** Number of on-demand resources of the location, one out of ten is a compute. */
+    @Param({ "10", "100", "1000" })
+    private int resourceCount;
+
+    private DefaultNodeMatcher nodeMatcher;
+    private LocationResources locationResources;
+    private NodeTemplate computeTemplate;
+    private NodeType computeType;
+    private Map<String, MatchingConfiguration> matchingConfigurations;
+
+    @Setup
+    public void setup() {
+        nodeMatcher = new DefaultNodeMatcher();
+
+        Map<String, NodeType> nodeTypes = Maps.newHashMap();
+        List<LocationResourceTemplate> resourceTemplates = Lists.newArrayList();
+        for (int i = 0; i < resourceCount; i++) {
+            String typeName = "org.alien4cloud.benchmarks.location.Resource_" + i;
+            NodeType resourceType = i % 10 == 0 ? SyntheticTopologies.nodeType(typeName, NormativeComputeConstants.COMPUTE_TYPE, "tosca.nodes.Root")
+                    : SyntheticTopologies.nodeType(typeName, "tosca.nodes.Root");
+            nodeTypes.put(typeName, resourceType);
+
+            NodeTemplate template = SyntheticTopologies.nodeTemplate("resource_" + i, typeName);
+            template.getProperties().put("image", new ScalarPropertyValue("image-" + i));
+            LocationResourceTemplate resourceTemplate = new LocationResourceTemplate();
+            resourceTemplate.setId("resource_" + i);
+            resourceTemplate.setTemplate(template);
+            resourceTemplates.add(resourceTemplate);
+        }
+        locationResources = new LocationResources();
+        locationResources.setNodeTypes(nodeTypes);
+        locationResources.setNodeTemplates(resourceTemplates);
+        locationResources.setCapabilityTypes(Maps.newHashMap());
+
+        computeTemplate = SyntheticTopologies.nodeTemplate("Compute", NormativeComputeConstants.COMPUTE_TYPE);
+        computeType = SyntheticTopologies.nodeType(NormativeComputeConstants.COMPUTE_TYPE, "tosca.nodes.Root");
+        computeType.setAbstract(true);
+        matchingConfigurations = Maps.newHashMap();
+    }
+
+    @Benchmark
+    public List<LocationResourceTemplate> matchCompute() {
+        return nodeMatcher.matchNode(computeTemplate, computeType, locationResources, matchingConfigurations);
+    }
+}
@@ -0,0 +1,150 @@
+package org.alien4cloud.benchmarks;
+
+import java.util.Map;
+
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.definitions.ScalarPropertyValue;
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.RelationshipTemplate;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.model.types.AbstractToscaType;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.alien4cloud.tosca.model.types.RelationshipType;
+import org.alien4cloud.tosca.normative.constants.NormativeComputeConstants;
+import org.alien4cloud.tosca.normative.constants.NormativeRelationshipConstants;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import alien4cloud.paas.wf.WorkflowsBuilderService.TopologyContext;
+
+/**
+ * Build synthetic topologies and the types they rely on so that benchmarks do not need a catalog stored in elasticsearch.
+ *
+ * A topology of n nodes contains one compute for every ten nodes, every other node is a software component hosted on a compute (round robin) and depending
+ * on the previously created software component so that workflows contain cross host edges.
+ */
+public final class SyntheticTopologies {
+    public static final String ARCHIVE_NAME = "benchmark-types";
+    public static final String ARCHIVE_VERSION = "1.0.0";
+    public static final String SOFTWARE_TYPE = "org.alien4cloud.benchmarks.nodes.SoftwareComponent";
+    private static final String SOFTWARE_COMPONENT_TYPE = "tosca.nodes.SoftwareComponent";
+    private static final String ROOT_TYPE = "tosca.nodes.Root";
+
+    private SyntheticTopologies() {
+    }
+
+    /**
+     * Create a topology with the given number of nodes.
+     *
+     * @param nodeCount The number of nodes of the topology.
+     * @return A new topology instance.
+     */
+    public static Topology topology(int nodeCount) {
+        Topology topology = new Topology();
+        topology.setArchiveName("benchmark-topology");
+        topology.setArchiveVersion(ARCHIVE_VERSION);
+        topology.setDependencies(Sets.newHashSet(new CSARDependency(ARCHIVE_NAME, ARCHIVE_VERSION)));
+
+        int computeCount = Math.max(1, nodeCount / 10);
+        Map<String, NodeTemplate> nodeTemplates = Maps.newLinkedHashMap();
+        for (int i = 0; i < computeCount; i++) {
+            nodeTemplates.put(computeName(i), nodeTemplate(computeName(i), NormativeComputeConstants.COMPUTE_TYPE));
+        }
+        String previous = null;
+        for (int i = 0; i < nodeCount - computeCount; i++) {
+            String name = "Software_" + i;
+            NodeTemplate software = nodeTemplate(name, SOFTWARE_TYPE);
+            Map<String, RelationshipTemplate> relationships = Maps.newLinkedHashMap();
+            relationships.put("hostedOn" + computeName(i % computeCount),
+                    relationship(NormativeRelationshipConstants.HOSTED_ON, computeName(i % computeCount), "host", "tosca.capabilities.Container"));
+            if (previous != null) {
+                relationships.put("dependsOn" + previous, relationship(NormativeRelationshipConstants.DEPENDS_ON, previous, "dependency", "tosca.capabilities.Node"));
+            }
+            software.setRelationships(relationships);
+            nodeTemplates.put(name, software);
+            previous = name;
+        }
+        topology.setNodeTemplates(nodeTemplates);
+        return topology;
+    }
+
+    /**
+     * Get the types used by the synthetic topologies, indexed by element id.
+     *
+     * @return A map of element id to type.
+     */
+    public static Map<String, AbstractToscaType> types() {
+        Map<String, AbstractToscaType> types = Maps.newHashMap();
+        types.put(NormativeComputeConstants.COMPUTE_TYPE, nodeType(NormativeComputeConstants.COMPUTE_TYPE, ROOT_TYPE));
+        types.put(SOFTWARE_COMPONENT_TYPE, nodeType(SOFTWARE_COMPONENT_TYPE, ROOT_TYPE));
+        types.put(SOFTWARE_TYPE, nodeType(SOFTWARE_TYPE, SOFTWARE_COMPONENT_TYPE, ROOT_TYPE));
+        types.put(NormativeRelationshipConstants.HOSTED_ON, relationshipType(NormativeRelationshipConstants.HOSTED_ON));
+        types.put(NormativeRelationshipConstants.DEPENDS_ON, relationshipType(NormativeRelationshipConstants.DEPENDS_ON));
+        return types;
+    }
+
+    /**
+     * Create a topology context that resolves types from the synthetic types rather than from the catalog.
+     *
+     * @param topology The topology of the context.
+     * @return A topology context backed by {@link #types()}.
+     */
+    public static TopologyContext topologyContext(Topology topology) {
+        Map<String, AbstractToscaType> types = types();
+        return new TopologyContext() {
+            @Override
+            public Topology getTopology() {
+                return topology;
+            }
+
+            @Override
+            public <T extends AbstractToscaType> T findElement(Class<T> clazz, String id) {
+                AbstractToscaType type = types.get(id);
+                return clazz.isInstance(type) ? clazz.cast(type) : null;
+            }
+        };
+    }
+
+    public static NodeType nodeType(String elementId, String... derivedFrom) {
+        NodeType nodeType = new NodeType();
+        nodeType.setElementId(elementId);
+        nodeType.setArchiveName(ARCHIVE_NAME);
+        nodeType.setArchiveVersion(ARCHIVE_VERSION);
+        nodeType.setDerivedFrom(Lists.newArrayList(derivedFrom));
+        return nodeType;
+    }
+
+    public static RelationshipType relationshipType(String elementId) {
+        RelationshipType relationshipType = new RelationshipType();
+        relationshipType.setElementId(elementId);
+        relationshipType.setArchiveName(ARCHIVE_NAME);
+        relationshipType.setArchiveVersion(ARCHIVE_VERSION);
+        relationshipType.setDerivedFrom(Lists.newArrayList(NormativeRelationshipConstants.ROOT));
+        return relationshipType;
+    }
+
+    public static NodeTemplate nodeTemplate(String name, String type) {
+        NodeTemplate nodeTemplate = new NodeTemplate();
+        nodeTemplate.setName(name);
+        nodeTemplate.setType(type);
+        nodeTemplate.setProperties(Maps.newLinkedHashMap());
+        nodeTemplate.getProperties().put("component_version", new ScalarPropertyValue("1.0"));
+        return nodeTemplate;
+    }
+
+    public static RelationshipTemplate relationship(String type, String target, String requirementName, String capabilityType) {
+        RelationshipTemplate relationshipTemplate = new RelationshipTemplate();
+        relationshipTemplate.setType(type);
+        relationshipTemplate.setTarget(target);
+        relationshipTemplate.setRequirementName(requirementName);
+        relationshipTemplate.setRequirementType(capabilityType);
+        relationshipTemplate.setTargetedCapabilityName(requirementName.equals("host") ? "host" : "feature");
+        return relationshipTemplate;
+    }
+
+    private static String computeName(int index) {
+        return "Compute_" + index;
+    }
+}
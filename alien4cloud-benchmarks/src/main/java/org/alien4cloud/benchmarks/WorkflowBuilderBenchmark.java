@@ -0,0 +1,77 @@
+package org.alien4cloud.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import alien4cloud.component.ICSARRepositorySearchService;
+import alien4cloud.paas.wf.Workflow;
+import alien4cloud.paas.wf.WorkflowsBuilderService;
+import alien4cloud.paas.wf.WorkflowsBuilderService.TopologyContext;
+
+/**
+ * Measure the generation and the validation of the standard workflows on synthetic topologies of growing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class WorkflowBuilderBenchmark {
+    @Param({ "10", "100", "500" })
+    private int nodeCount;
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private WorkflowsBuilderService workflowsBuilderService;
+    private TopologyContext topologyContext;
+    private Workflow installWorkflow;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        applicationContext = new AnnotationConfigApplicationContext();
+        // types are resolved from the synthetic topology context, the catalog is never queried.
+        applicationContext.getBeanFactory().registerSingleton("csarRepoSearchService", Mockito.mock(ICSARRepositorySearchService.class));
+        applicationContext.scan("alien4cloud.paas.wf");
+        applicationContext.refresh();
+        workflowsBuilderService = applicationContext.getBean(WorkflowsBuilderService.class);
+
+        topologyContext = SyntheticTopologies.topologyContext(SyntheticTopologies.topology(nodeCount));
+        workflowsBuilderService.initWorkflows(topologyContext);
+        installWorkflow = topologyContext.getTopology().getWorkflows().get("install");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public Topology initWorkflows() {
+        Topology topology = topologyContext.getTopology();
+        // initWorkflows only generates the missing workflows.
+        topology.setWorkflows(null);
+        workflowsBuilderService.initWorkflows(topologyContext);
+        return topology;
+    }
+
+    @Benchmark
+    public int validateInstallWorkflow() {
+        return workflowsBuilderService.validateWorkflow(topologyContext, installWorkflow);
+    }
+}
@@ -0,0 +1,191 @@
+package alien4cloud.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.bind.DatatypeConverter;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * SHA-1 hashing of files and directory trees.
+ *
+ * Files are read through large buffers and the files of a tree are hashed concurrently. The hash of a tree is computed over the list of its files sorted by
+ * relative path, every entry being the relative path followed by the hash of the file, so the result doesn't depend on the file system walk order and
+ * detects renamed files. Digests of files on the default file system are cached by path and invalidated when the size, the last modified time, the file key
+ * or the change time changes so that unchanged files are never read twice. As git does for its index, a digest is not trusted while the file has been
+ * modified less than a few seconds before it was read: a same size rewrite within the file system time resolution would not be detected otherwise.
+ */
+final class ContentHasher {
+    private static final String ALGORITHM = "SHA1";
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int CACHE_MAX_SIZE = 50000;
+    /** Files modified less than this delay before being read may be modified again without any visible change of their attributes. */
+    private static final long RACY_DELAY_MS = 3000;
+
+    private static final Cache<String, CachedDigest> DIGEST_CACHE = CacheBuilder.newBuilder().maximumSize(CACHE_MAX_SIZE).build();
+    private static final ExecutorService HASH_EXECUTOR = Executors.newFixedThreadPool(Math.max(Runtime.getRuntime().availableProcessors(), 2),
+            new ThreadFactoryBuilder().setNameFormat("content-hasher-%d").setDaemon(true).build());
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocate(BUFFER_SIZE));
+
+    private ContentHasher() {
+    }
+
+    /**
+     * Compute the hash of a single file.
+     *
+     * @param file The file to hash.
+     * @return The SHA-1 digest of the file content.
+     */
+    static byte[] hashFile(Path file) throws IOException {
+        boolean cacheable = file.getFileSystem() == FileSystems.getDefault();
+        String key = null;
+        BasicFileAttributes attributes = null;
+        FileTime changeTime = null;
+        if (cacheable) {
+            key = file.toAbsolutePath().normalize().toString();
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            changeTime = getChangeTime(file);
+            CachedDigest cached = DIGEST_CACHE.getIfPresent(key);
+            if (cached != null && cached.matches(attributes, changeTime)) {
+                return cached.digest;
+            }
+        }
+        long readDate = System.currentTimeMillis();
+        byte[] digest = readDigest(file);
+        if (cacheable && attributes.lastModifiedTime().toMillis() < readDate - RACY_DELAY_MS) {
+            DIGEST_CACHE.put(key, new CachedDigest(attributes.size(), attributes.lastModifiedTime(), attributes.fileKey(), changeTime, digest));
+        }
+        return digest;
+    }
+
+    /**
+     * Get the time of the last change of the file content or attributes, changed by any write even if the last modified time is set back.
+     *
+     * @return The change time of the file or null if the file system doesn't provide it.
+     */
+    private static FileTime getChangeTime(Path file) throws IOException {
+        if (!file.getFileSystem().supportedFileAttributeViews().contains("unix")) {
+            return null;
+        }
+        try {
+            return (FileTime) Files.getAttribute(file, "unix:ctime");
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Compute the hash of a directory tree, hidden files and directories are ignored.
+     *
+     * @param rootPath The root of the tree to hash.
+     * @return The SHA-1 digest of the tree.
+     */
+    static byte[] hashTree(Path rootPath) throws IOException {
+        Map<String, Path> files = Maps.newTreeMap();
+        Files.walkFileTree(rootPath, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                return dir.equals(rootPath) || !Files.isHidden(dir) ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile() && !Files.isHidden(file)) {
+                    files.put(FileUtil.relativizePath(rootPath, file), file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        List<Future<byte[]>> fileDigests = Lists.newArrayListWithCapacity(files.size());
+        for (Path file : files.values()) {
+            fileDigests.add(HASH_EXECUTOR.submit(() -> hashFile(file)));
+        }
+        MessageDigest treeDigest = newDigest();
+        int index = 0;
+        for (String relativePath : files.keySet()) {
+            treeDigest.update(relativePath.getBytes(StandardCharsets.UTF_8));
+            treeDigest.update((byte) 0);
+            treeDigest.update(get(fileDigests.get(index++)));
+        }
+        return treeDigest.digest();
+    }
+
+    static String toHex(byte[] digest) {
+        return DatatypeConverter.printHexBinary(digest);
+    }
+
+    private static byte[] get(Future<byte[]> fileDigest) throws IOException {
+        try {
+            return fileDigest.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while computing file hash", e);
+        } catch (ExecutionException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private static byte[] readDigest(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = BUFFERS.get();
+        try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not supported by the JVM", e);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class CachedDigest {
+        private final long size;
+        private final FileTime lastModified;
+        private final Object fileKey;
+        private final FileTime changeTime;
+        private final byte[] digest;
+
+        private boolean matches(BasicFileAttributes attributes, FileTime currentChangeTime) {
+            return size == attributes.size() && lastModified.equals(attributes.lastModifiedTime()) && Objects.equals(fileKey, attributes.fileKey())
+                    && Objects.equals(changeTime, currentChangeTime);
+        }
+    }
+}
@@ -5,11 +5,11 @@ import java.nio.charset.Charset;
 import java.nio.file.*;
 import java.nio.file.FileSystem;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -25,10 +25,14 @@ import com.google.common.io.Closeables;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
-import javax.xml.bind.DatatypeConverter;
-
 @Slf4j
 public final class FileUtil {
+    /**
+     * Prefix of the directory and zip hashes computed by {@link #deepSHA1(Path)}. Hashes stored without it were computed by the previous algorithm (the
+     * content of all the files in walk order) and must not be compared with the current ones, see {@link #isSameDeepSHA1(String, String, Path)}.
+     */
+    public static final String DEEP_SHA1_PREFIX = "tree-sha1:";
+
     /**
      * Utility class should have private constructor.
      */
@@ -344,23 +348,23 @@ public final class FileUtil {
     }
 
     /**
-     * Computes a SHA-1 checksum on a single file.
+     * Computes a SHA-1 checksum on a single file. Checksums are cached and computed again only if the size or the last modification date of the file changes.
      * 
      * @param path The path of the file for which to compute the SHA-1 hash.
      * @return The SHA-1 hash string.
      */
-    @SneakyThrows({ Exception.class })
+    @SneakyThrows({ IOException.class })
     public static String getSHA1Checksum(Path path) {
         if (!Files.exists(path)) {
             throw new FileNotFoundException("File not found in hash processor" + path);
         }
-        MessageDigest digest = MessageDigest.getInstance("SHA1");
-        addFileToDigest(digest, path);
-        return DatatypeConverter.printHexBinary(digest.digest());
+        return ContentHasher.toHex(ContentHasher.hashFile(path));
     }
 
     /**
-     * Computes a SHA-1 checksum on a directory. The checksum ignores hidden files.
+     * Computes a SHA-1 checksum on a directory. The checksum ignores hidden files and directories, it depends only on the relative paths and the content of
+     * the files (files are hashed concurrently and combined in the order of their relative paths). Checksums of directories and zip files are prefixed with
+     * {@link #DEEP_SHA1_PREFIX}.
      *
      * @param rootPath The root path for which to compute SHA-1 on every sub files and folders.
      * @return The SHA-1 hash string.
@@ -370,34 +374,71 @@ public final class FileUtil {
         if (isZipFile(rootPath)) {
             try (FileSystem csarFS = FileSystems.newFileSystem(rootPath, null)) {
                 Path innerZipPath = csarFS.getPath(FileSystems.getDefault().getSeparator());
-                return computeDirectoryHash(innerZipPath);
+                return DEEP_SHA1_PREFIX + ContentHasher.toHex(ContentHasher.hashTree(innerZipPath));
             }
         } else if (Files.isRegularFile(rootPath)) {
             return getSHA1Checksum(rootPath);
         } else if (Files.isDirectory(rootPath)) {
-            return computeDirectoryHash(rootPath);
+            return DEEP_SHA1_PREFIX + ContentHasher.toHex(ContentHasher.hashTree(rootPath));
         }
         throw new FileNotFoundException("Unable to compute hash for file " + rootPath);
     }
 
-    @SneakyThrows({ IOException.class, NoSuchAlgorithmException.class })
-    private static String computeDirectoryHash(Path rootPath) {
-        MessageDigest digest = MessageDigest.getInstance("SHA1");
-        Files.walk(rootPath).filter(FileUtil::isNotHidden).filter(Files::isRegularFile).forEach(path -> addFileToDigest(digest, path));
-        return DatatypeConverter.printHexBinary(digest.digest());
-
+    /**
+     * Check if a hash stored before describes the same content as a hash computed by {@link #deepSHA1(Path)}. A stored hash computed by the previous
+     * algorithm is compared with the previous algorithm checksum of the given path so that unchanged content is still recognized after an upgrade.
+     *
+     * @param storedHash The hash stored with the content, may be computed by the previous algorithm.
+     * @param hash The hash computed by {@link #deepSHA1(Path)} on the path.
+     * @param rootPath The path from which the hash has been computed, null if not known.
+     * @return True if both hashes describe the same content.
+     */
+    public static boolean isSameDeepSHA1(String storedHash, String hash, Path rootPath) {
+        if (storedHash == null || hash == null) {
+            return false;
+        }
+        if (storedHash.equals(hash)) {
+            return true;
+        }
+        if (rootPath == null || storedHash.startsWith(DEEP_SHA1_PREFIX) || !hash.startsWith(DEEP_SHA1_PREFIX)) {
+            return false;
+        }
+        return storedHash.equals(legacyDeepSHA1(rootPath));
     }
 
+    /**
+     * Computes the checksum of a directory or zip file as it was computed before {@link #DEEP_SHA1_PREFIX} (SHA-1 of the content of the non hidden files in
+     * walk order). Used only to recognize the content of hashes stored by previous versions.
+     */
     @SneakyThrows({ IOException.class })
-    private static void addFileToDigest(MessageDigest digest, Path path) {
-        try (InputStream digestInputStream = new DigestInputStream(new BufferedInputStream(Files.newInputStream(path)), digest)) {
-            while (digestInputStream.read() != -1) {
+    private static String legacyDeepSHA1(Path rootPath) {
+        if (isZipFile(rootPath)) {
+            try (FileSystem csarFS = FileSystems.newFileSystem(rootPath, null)) {
+                return legacyDirectoryHash(csarFS.getPath(FileSystems.getDefault().getSeparator()));
             }
+        } else if (Files.isDirectory(rootPath)) {
+            return legacyDirectoryHash(rootPath);
         }
+        return null;
     }
 
-    @SneakyThrows({ IOException.class })
-    private static boolean isNotHidden(Path path) {
-        return !Files.isHidden(path);
+    @SneakyThrows({ NoSuchAlgorithmException.class })
+    private static String legacyDirectoryHash(Path rootPath) throws IOException {
+        MessageDigest digest = MessageDigest.getInstance("SHA1");
+        byte[] buffer = new byte[8192];
+        try (Stream<Path> paths = Files.walk(rootPath)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (Files.isHidden(path) || !Files.isRegularFile(path)) {
+                    continue;
+                }
+                try (InputStream inputStream = Files.newInputStream(path)) {
+                    int read;
+                    while ((read = inputStream.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+            }
+        }
+        return ContentHasher.toHex(digest.digest());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+package alien4cloud.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileUtilHashTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void directoryHashShouldDependOnContentAndPaths() throws IOException {
+        Path first = createArchive("first");
+        Path second = createArchive("second");
+        Assert.assertEquals(FileUtil.deepSHA1(first), FileUtil.deepSHA1(second));
+
+        // hidden files are ignored
+        Files.write(second.resolve(".hidden"), "hidden".getBytes());
+        Assert.assertEquals(FileUtil.deepSHA1(first), FileUtil.deepSHA1(second));
+
+        // renaming a file changes the hash
+        Files.move(second.resolve("images/icon.png"), second.resolve("images/other.png"));
+        Assert.assertNotEquals(FileUtil.deepSHA1(first), FileUtil.deepSHA1(second));
+    }
+
+    @Test
+    public void fileHashShouldBeComputedAgainWhenFileChanges() throws IOException {
+        Path archive = createArchive("archive");
+        Path definition = archive.resolve("definition.yml");
+        String hash = FileUtil.deepSHA1(archive);
+        String fileHash = FileUtil.getSHA1Checksum(definition);
+
+        Files.write(definition, "tosca_definitions_version: alien_dsl_1_3_0".getBytes());
+        Assert.assertNotEquals(hash, FileUtil.deepSHA1(archive));
+        Assert.assertNotEquals(fileHash, FileUtil.getSHA1Checksum(definition));
+    }
+
+    @Test
+    public void fileHashShouldBeComputedAgainWhenFileIsRewrittenWithSameSizeAndModificationTime() throws IOException {
+        Path archive = createArchive("archive");
+        Path definition = archive.resolve("definition.yml");
+        // the file has not been modified recently so its digest is cached
+        FileTime lastModifiedTime = FileTime.fromMillis(System.currentTimeMillis() - 60000);
+        Files.setLastModifiedTime(definition, lastModifiedTime);
+        String hash = FileUtil.deepSHA1(archive);
+        String fileHash = FileUtil.getSHA1Checksum(definition);
+
+        // a version change in place keeps the same size, restore the modification time as a checkout within the time resolution would
+        Files.write(definition, "tosca_definitions_version: alien_dsl_1_3_1".getBytes());
+        Files.setLastModifiedTime(definition, lastModifiedTime);
+        Assert.assertNotEquals(hash, FileUtil.deepSHA1(archive));
+        Assert.assertNotEquals(fileHash, FileUtil.getSHA1Checksum(definition));
+    }
+
+    @Test
+    public void zipHashShouldMatchDirectoryHash() throws IOException {
+        Path archive = createArchive("archive");
+        Path zip = temporaryFolder.getRoot().toPath().resolve("archive.zip");
+        FileUtil.zip(archive, zip);
+        Assert.assertEquals(FileUtil.deepSHA1(archive), FileUtil.deepSHA1(zip));
+    }
+
+    @Test
+    public void hashOfThePreviousAlgorithmShouldMatchUnchangedContent() throws IOException {
+        Path archive = temporaryFolder.newFolder("archive").toPath();
+        Path definition = archive.resolve("definition.yml");
+        Files.write(definition, "tosca_definitions_version: alien_dsl_1_2_0".getBytes());
+        // the previous algorithm hashed the content of the files in walk order, for a single file it is the hash of the file.
+        String legacyHash = FileUtil.getSHA1Checksum(definition);
+        String hash = FileUtil.deepSHA1(archive);
+        Assert.assertTrue(hash.startsWith(FileUtil.DEEP_SHA1_PREFIX));
+        Assert.assertTrue(FileUtil.isSameDeepSHA1(legacyHash, hash, archive));
+
+        Files.write(definition, "tosca_definitions_version: alien_dsl_1_3_0".getBytes());
+        Assert.assertFalse(FileUtil.isSameDeepSHA1(legacyHash, FileUtil.deepSHA1(archive), archive));
+        Assert.assertFalse(FileUtil.isSameDeepSHA1(hash, FileUtil.deepSHA1(archive), archive));
+    }
+
+    private Path createArchive(String name) throws IOException {
+        Path archive = temporaryFolder.newFolder(name).toPath();
+        Files.write(archive.resolve("definition.yml"), "tosca_definitions_version: alien_dsl_1_2_0".getBytes());
+        Files.createDirectories(archive.resolve("images"));
+        Files.write(archive.resolve("images/icon.png"), new byte[] { 1, 2, 3 });
+        return archive;
+    }
+}
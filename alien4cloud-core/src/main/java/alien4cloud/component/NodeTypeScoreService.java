@@ -1,6 +1,8 @@
 package alien4cloud.component;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
 import javax.annotation.PostConstruct;
@@ -8,17 +10,24 @@ import javax.annotation.Resource;
 
 import org.alien4cloud.tosca.model.templates.Topology;
 import org.alien4cloud.tosca.model.types.NodeType;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.mapping.MappingBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import alien4cloud.dao.IGenericSearchDAO;
-import alien4cloud.dao.model.GetMultipleDataResult;
-import alien4cloud.utils.AlienConstants;
-import alien4cloud.utils.MapUtil;
+import alien4cloud.dao.ISearchCursor;
+import alien4cloud.dao.RefreshPolicy;
+import alien4cloud.dao.model.BulkSaveResult;
 import alien4cloud.utils.version.Version;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -27,6 +36,10 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @Component
 public class NodeTypeScoreService implements Runnable {
+    private static final String USAGE_AGGREGATION = "usage";
+    private static final String NODE_TEMPLATE_TYPE_FIELD = "nodeTemplates.value.type";
+    private static final String ALIEN_SCORE_FIELD = "alienScore";
+
     @Resource(name = "alien-es-dao")
     private IGenericSearchDAO alienESDAO;
     @Resource(name = "node-type-score-scheduler")
@@ -41,6 +54,13 @@ public class NodeTypeScoreService implements Runnable {
     @Value("${components.search.boost.default}")
     private long defaultBoost;
 
+    /** Duration of the last scores update. */
+    @Getter
+    private volatile long lastRunDurationMillis;
+    /** Number of node type scores changed by the last scores update. */
+    @Getter
+    private volatile long lastRunChangedScores;
+
     /** Refresh boost for all indexed node types in the system. */
     @PostConstruct
     public void refreshBoostCompute() {
@@ -52,48 +72,84 @@ public class NodeTypeScoreService implements Runnable {
 
     @Override
     public void run() {
+        long startTime = System.currentTimeMillis();
         log.info("Updating node type scores.");
-        // Go over all indexed node types.
-        GetMultipleDataResult<NodeType> getMultipleDataResult = alienESDAO.find(NodeType.class, null, 0, AlienConstants.DEFAULT_ES_SEARCH_SIZE);
-        int from = getMultipleDataResult.getTo() + 1;
-        processNodeTypes(getMultipleDataResult.getData());
-        while (getMultipleDataResult.getData().length > 0 && from < getMultipleDataResult.getTotalResults()) {
-            getMultipleDataResult = alienESDAO.find(NodeType.class, null, from, from + AlienConstants.DEFAULT_ES_SEARCH_SIZE);
-            from = getMultipleDataResult.getTo() + 1;
-            processNodeTypes(getMultipleDataResult.getData());
+        Map<String, Long> usages = countUsages();
+
+        // Go over all indexed node types once to get their current scores and the latest version of every element.
+        List<NodeTypeScore> nodeTypeScores = Lists.newArrayList();
+        Map<String, Version> latestVersions = Maps.newHashMap();
+        try (ISearchCursor<NodeType> nodeTypes = alienESDAO.buildQuery(NodeType.class).prepareSearch().scroll()) {
+            nodeTypes.forEachRemaining(nodeType -> {
+                NodeTypeScore nodeTypeScore = new NodeTypeScore(nodeType);
+                nodeTypeScores.add(nodeTypeScore);
+                latestVersions.merge(nodeTypeScore.elementId, nodeTypeScore.version, (version, other) -> version.compareTo(other) < 0 ? other : version);
+            });
         }
-    }
 
-    private void processNodeTypes(NodeType[] indexedNodeTypes) {
-        for (NodeType nodeType : indexedNodeTypes) {
-            if (log.isDebugEnabled()) {
-                log.debug("Processing node score for type {}", nodeType.getId());
-            }
-            Map<String, String[]> usedNodeFiler = Maps.newHashMap();
-            usedNodeFiler.put("nodeTemplates.value.type", new String[] { nodeType.getElementId() });
+        Map<String, Map<String, Object>> changedScores = Maps.newHashMap();
+        for (NodeTypeScore nodeTypeScore : nodeTypeScores) {
             // count the applications that uses the node-type
-            long usageFactor = usageBoost * alienESDAO.count(Topology.class, null, usedNodeFiler);
+            long usageFactor = usageBoost * usages.getOrDefault(nodeTypeScore.elementId, 0L);
             // get the version factor (latest version of a node is better than previous version, snapshot versions do not get boost)
-            long versionFactor = isLatestVersion(nodeType) ? versionBoost : 0;
+            long versionFactor = nodeTypeScore.version.compareTo(latestVersions.get(nodeTypeScore.elementId)) < 0 ? 0 : versionBoost;
             // default boost (boost node types that have a default capability)
-            long defaultFactor = nodeType.getDefaultCapabilities() == null || nodeType.getDefaultCapabilities().isEmpty() ? 0 : defaultBoost;
-            // update the score for the node type.
-            nodeType.setAlienScore(usageFactor + defaultFactor + versionFactor);
-            alienESDAO.save(nodeType);
+            long defaultFactor = nodeTypeScore.hasDefaultCapabilities ? defaultBoost : 0;
+            long alienScore = usageFactor + defaultFactor + versionFactor;
+            if (alienScore != nodeTypeScore.alienScore) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Node score for type {} changed from {} to {}", nodeTypeScore.id, nodeTypeScore.alienScore, alienScore);
+                }
+                changedScores.put(nodeTypeScore.id, Collections.singletonMap(ALIEN_SCORE_FIELD, alienScore));
+            }
         }
+
+        // update only the scores that have changed.
+        BulkSaveResult<String> result = alienESDAO.updateBulk(NodeType.class, changedScores, RefreshPolicy.IMMEDIATE);
+        for (BulkSaveResult.Failure<String> failure : result.getFailures()) {
+            log.warn("Unable to update the score of node type {}: {}", failure.getEntity(), failure.getMessage());
+        }
+        lastRunChangedScores = result.getSavedCount();
+        lastRunDurationMillis = System.currentTimeMillis() - startTime;
+        log.info("Node type scores updated in {} ms, {} scores changed on {} node types.", lastRunDurationMillis, lastRunChangedScores, nodeTypeScores.size());
+    }
+
+    /**
+     * Count the topologies that use every node type with a single aggregation.
+     *
+     * @return The number of topologies that contains at least a node of a type by type element id.
+     */
+    private Map<String, Long> countUsages() {
+        SearchResponse searchResponse = alienESDAO.getClient().prepareSearch(alienESDAO.getIndexForType(Topology.class))
+                .setTypes(MappingBuilder.indexTypeFromClass(Topology.class)).setSearchType(SearchType.COUNT)
+                .addAggregation(AggregationBuilders.terms(USAGE_AGGREGATION).field(NODE_TEMPLATE_TYPE_FIELD).size(0)).execute().actionGet();
+        Map<String, Long> usages = Maps.newHashMap();
+        if (searchResponse.getAggregations() == null) {
+            return usages;
+        }
+        Terms usageAggregation = searchResponse.getAggregations().get(USAGE_AGGREGATION);
+        for (Terms.Bucket bucket : usageAggregation.getBuckets()) {
+            usages.put(bucket.getKey(), bucket.getDocCount());
+        }
+        return usages;
     }
 
-    private boolean isLatestVersion(NodeType nodeType) {
-        Map<String, String[]> filters = MapUtil.newHashMap(new String[] { "elementId" }, new String[][] { new String[] { nodeType.getElementId() } });
-        // TODO get a single element and order by version.
-        Version nodeVersion = new Version(((NodeType) nodeType).getArchiveVersion());
+    /**
+     * The elements of a node type required to compute its score.
+     */
+    private static class NodeTypeScore {
+        private final String id;
+        private final String elementId;
+        private final Version version;
+        private final boolean hasDefaultCapabilities;
+        private final long alienScore;
 
-        for (Object otherVersionNodeType : alienESDAO.find(NodeType.class, filters, AlienConstants.DEFAULT_ES_SEARCH_SIZE).getData()) {
-            Version otherVersion = new Version(((NodeType) otherVersionNodeType).getArchiveVersion());
-            if (nodeVersion.compareTo(otherVersion) < 0) {
-                return false;
-            }
+        private NodeTypeScore(NodeType nodeType) {
+            this.id = nodeType.getId();
+            this.elementId = nodeType.getElementId();
+            this.version = new Version(nodeType.getArchiveVersion());
+            this.hasDefaultCapabilities = nodeType.getDefaultCapabilities() != null && !nodeType.getDefaultCapabilities().isEmpty();
+            this.alienScore = nodeType.getAlienScore();
         }
-        return true;
     }
 }
@@ -16,7 +16,6 @@ import com.google.common.collect.Sets;
 
 import alien4cloud.exception.GitException;
 import alien4cloud.tosca.parser.ToscaArchiveParser;
-import alien4cloud.utils.FileUtil;
 import lombok.SneakyThrows;
 
 /**
@@ -26,15 +25,14 @@ import lombok.SneakyThrows;
 public class CsarFinderService {
 
     /**
-     * Search in the given path for folders that contains CloudServiceArchives and zip them so they.
+     * Search in the given path for folders that contains CloudServiceArchives. Archives are not zipped as they can be parsed and stored directly from their
+     * directory.
      *
      * @param searchPath The path in which to search for archives.
-     * @return a list of path that contains archives.
+     * @return a list of path of the directories that contains archives.
      */
-    public Set<Path> prepare(Path searchPath, Path zipPath) {
+    public Set<Path> prepare(Path searchPath) {
         ToscaFinderWalker toscaFinderWalker = new ToscaFinderWalker();
-        toscaFinderWalker.zipRootPath = zipPath;
-        toscaFinderWalker.rootPath = searchPath;
         try {
             Files.walkFileTree(searchPath, toscaFinderWalker);
         } catch (IOException e) {
@@ -44,14 +42,12 @@ public class CsarFinderService {
     }
 
     private static class ToscaFinderWalker extends SimpleFileVisitor<Path> {
-        private Path rootPath;
-        private Path zipRootPath;
         private Set<Path> toscaArchives = Sets.newHashSet();
 
         @Override
         public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-            if (ToscaArchiveParser.TOSCA_META_FOLDER_NAME.equals(dir.getFileName())) {
-                // zip parent folder and add the path.
+            if (dir.getFileName() != null && ToscaArchiveParser.TOSCA_META_FOLDER_NAME.equals(dir.getFileName().toString())) {
+                // the parent folder is the archive root.
                 addToscaArchive(dir.getParent());
                 return FileVisitResult.SKIP_SIBLINGS;
             }
@@ -68,17 +64,7 @@ public class CsarFinderService {
         }
 
         private void addToscaArchive(Path path) {
-            Path relativePath = rootPath.relativize(path);
-            Path zipPath = zipRootPath.resolve(relativePath).resolve("archive.zip");
-            try {
-                if (Files.exists(zipPath)) {
-                    FileUtil.delete(zipPath);
-                }
-                FileUtil.zip(path, zipPath);
-                toscaArchives.add(zipPath);
-            } catch (IOException e) {
-                throw new GitException("Failed to zip archives in order to import them.", e);
-            }
+            toscaArchives.add(path);
         }
 
         @SneakyThrows
@@ -7,7 +7,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.inject.Inject;
 
@@ -19,10 +26,16 @@ import org.alien4cloud.tosca.model.CsarDependenciesBean;
 import org.eclipse.jgit.api.Git;
 import org.springframework.beans.factory.annotation.Required;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.FileSystemUtils;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import alien4cloud.component.repository.exception.CSARUsedInActiveDeployment;
 import alien4cloud.component.repository.exception.ToscaTypeAlreadyDefinedInOtherCSAR;
@@ -33,6 +46,7 @@ import alien4cloud.git.RepositoryManager;
 import alien4cloud.model.components.CSARSource;
 import alien4cloud.model.git.CsarGitCheckoutLocation;
 import alien4cloud.model.git.CsarGitRepository;
+import alien4cloud.tosca.parser.ParsingErrorLevel;
 import alien4cloud.tosca.parser.ParsingException;
 import alien4cloud.tosca.parser.ParsingResult;
 import alien4cloud.utils.AlienConstants;
@@ -54,13 +68,26 @@ public class CsarGitService {
     private CsarService csarService;
     // TODO store archives that are not 'temp' in another location.
     private Path tempDirPath;
-    private Path tempZipDirPath;
+    @Value("${archive.git_import.parallelism:4}")
+    private int importParallelism;
+    /** Executor used to parse, validate and index the archives of a dependency level concurrently. */
+    private ExecutorService importExecutor;
 
     @Required
     @Value("${directories.alien}/${directories.upload_temp}")
     public void setTempDirPath(String tempDirPath) throws IOException {
         this.tempDirPath = FileUtil.createDirectoryIfNotExists(tempDirPath + "/git");
-        this.tempZipDirPath = FileUtil.createDirectoryIfNotExists(tempDirPath + "/gitzips");
+    }
+
+    @PostConstruct
+    public void init() {
+        importExecutor = Executors.newFixedThreadPool(Math.max(importParallelism, 1),
+                new ThreadFactoryBuilder().setNameFormat("git-import-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        importExecutor.shutdownNow();
     }
 
     /**
@@ -99,10 +126,8 @@ public class CsarGitService {
             }
         } finally {
             // cleanup
-            Path archiveZipRoot = tempZipDirPath.resolve(csarGitRepository.getId());
             Path archiveGitRoot = tempDirPath.resolve(csarGitRepository.getId());
             try {
-                FileUtil.delete(archiveZipRoot);
                 if (!csarGitRepository.isStoredLocally()) {
                     FileUtil.delete(archiveGitRoot);
                 }
@@ -126,13 +151,15 @@ public class CsarGitService {
                 RepositoryManager.pull(git, csarGitRepository.getUsername(), csarGitRepository.getPassword());
             }
             String hash = RepositoryManager.getLastHash(git);
+            Map<String, String> previousArchiveHashes = csarGitCheckoutLocation.getArchiveHashes();
 
             // now that the repository is checked out and up to date process with the import
             List<ParsingResult<Csar>> results = processImport(csarGitRepository, csarGitCheckoutLocation, hash);
 
-            if (!Objects.equals(csarGitCheckoutLocation.getLastImportedHash(), hash)) {
+            if (!Objects.equals(csarGitCheckoutLocation.getLastImportedHash(), hash)
+                    || !Objects.equals(previousArchiveHashes, csarGitCheckoutLocation.getArchiveHashes())) {
                 csarGitCheckoutLocation.setLastImportedHash(hash);
-                alienDAO.save(csarGitRepository); // update the hash for this location.
+                alienDAO.save(csarGitRepository); // update the hashes for this location.
             }
             // TODO best would be to provide with a better result to show that we didn't retried import
             return results;
@@ -142,28 +169,55 @@ public class CsarGitService {
     }
 
     private List<ParsingResult<Csar>> processImport(CsarGitRepository csarGitRepository, CsarGitCheckoutLocation csarGitCheckoutLocation, String gitHash) {
-        // find all the archives under the given hierarchy and zip them to create archives
-        Path archiveZipRoot = tempZipDirPath.resolve(csarGitRepository.getId());
+        // find all the archives under the given hierarchy, they are parsed directly from the checked out directories.
         Path archiveGitRoot = tempDirPath.resolve(csarGitRepository.getId());
         if (csarGitCheckoutLocation.getSubPath() != null && !csarGitCheckoutLocation.getSubPath().isEmpty()) {
             archiveGitRoot = archiveGitRoot.resolve(csarGitCheckoutLocation.getSubPath());
         }
-        Set<Path> archivePaths = csarFinderService.prepare(archiveGitRoot, archiveZipRoot);
+        Set<Path> archivePaths = csarFinderService.prepare(archiveGitRoot);
 
         List<ParsingResult<Csar>> parsingResult = Lists.newArrayList();
+        Map<CSARDependency, CsarDependenciesBean> csarDependenciesBeans = uploadService.preParsing(archivePaths, parsingResult);
+        Map<String, String> archiveHashes = Maps.newHashMap();
+        for (CsarDependenciesBean csarBean : csarDependenciesBeans.values()) {
+            archiveHashes.put(getArchiveKey(csarBean.getSelf()), FileUtil.deepSHA1(csarBean.getPath()));
+        }
+        Map<String, String> previousArchiveHashes = csarGitCheckoutLocation.getArchiveHashes();
+        if (previousArchiveHashes == null && Objects.equals(csarGitCheckoutLocation.getLastImportedHash(), gitHash)) {
+            // location imported before archive hashes were tracked and without commit since, consider that no archive has changed.
+            previousArchiveHashes = archiveHashes;
+        } else if (previousArchiveHashes == null) {
+            previousArchiveHashes = Maps.newHashMap();
+        }
+
+        // hashes of the archives that are up to date in alien, archives that fails to import will be retried on next import.
+        Map<String, String> importedArchiveHashes = Maps.newHashMap();
         try {
-            Map<CSARDependency, CsarDependenciesBean> csarDependenciesBeans = uploadService.preParsing(archivePaths, parsingResult);
-            List<CsarDependenciesBean> sorted = sort(csarDependenciesBeans);
-            for (CsarDependenciesBean csarBean : sorted) {
-                if (csarGitCheckoutLocation.getLastImportedHash() != null && csarGitCheckoutLocation.getLastImportedHash().equals(gitHash)
-                        && csarService.get(csarBean.getSelf().getName(), csarBean.getSelf().getVersion()) != null) {
-                    // no commit since last import and the archive still exist in the repo, so do not import
-                    // TODO notify the user that the archive has already been imported
-                    continue;
+            Set<CsarDependenciesBean> impactedArchives = Sets.newHashSet();
+            for (List<CsarDependenciesBean> level : sortByLevel(csarDependenciesBeans)) {
+                List<CsarDependenciesBean> levelToImport = Lists.newArrayList();
+                for (CsarDependenciesBean csarBean : level) {
+                    String archiveKey = getArchiveKey(csarBean.getSelf());
+                    if (!impactedArchives.contains(csarBean) && archiveHashes.get(archiveKey).equals(previousArchiveHashes.get(archiveKey))
+                            && csarService.get(csarBean.getSelf().getName(), csarBean.getSelf().getVersion()) != null) {
+                        // archive content didn't change since last import and the archive still exist in the repo, so do not import
+                        // TODO notify the user that the archive has already been imported
+                        importedArchiveHashes.put(archiveKey, archiveHashes.get(archiveKey));
+                        continue;
+                    }
+                    // archives that depends on a re-imported archive must be re-imported too.
+                    impactedArchives.addAll(csarBean.getDependents());
+                    levelToImport.add(csarBean);
+                }
+                // archives of a level don't depend on each other so they can be parsed and validated concurrently.
+                List<ParsingResult<Csar>> levelResults = uploadLevel(levelToImport);
+                for (int i = 0; i < levelResults.size(); i++) {
+                    parsingResult.add(levelResults.get(i));
+                    if (!levelResults.get(i).hasError(ParsingErrorLevel.ERROR)) {
+                        String archiveKey = getArchiveKey(levelToImport.get(i).getSelf());
+                        importedArchiveHashes.put(archiveKey, archiveHashes.get(archiveKey));
+                    }
                 }
-                // FIXME Add possibility to choose an workspace
-                ParsingResult<Csar> result = uploadService.upload(csarBean.getPath(), CSARSource.GIT, AlienConstants.GLOBAL_WORKSPACE_ID);
-                parsingResult.add(result);
             }
             return parsingResult;
         } catch (ParsingException e) {
@@ -172,55 +226,105 @@ public class CsarGitService {
         } catch (AlreadyExistException | ToscaTypeAlreadyDefinedInOtherCSAR | CSARUsedInActiveDeployment e) {
             // TODO Actually add a parsing result with error.
             return parsingResult;
+        } finally {
+            csarGitCheckoutLocation.setArchiveHashes(importedArchiveHashes);
         }
     }
 
-    private List<CsarDependenciesBean> sort(Map<CSARDependency, CsarDependenciesBean> elements) {
-        List<CsarDependenciesBean> sortedCsars = Lists.newArrayList();
+    /**
+     * Upload the archives of a dependency level concurrently. All uploads of the level are completed before the first failure (if any) is thrown.
+     *
+     * @param levelToImport The archives to import, none of them depends on another one.
+     * @return The results of the uploads in the order of the given archives.
+     */
+    private List<ParsingResult<Csar>> uploadLevel(List<CsarDependenciesBean> levelToImport)
+            throws ParsingException, CSARUsedInActiveDeployment, ToscaTypeAlreadyDefinedInOtherCSAR {
+        // archive indexing checks the roles of the current user, propagate it to the import threads.
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(importExecutor, SecurityContextHolder.getContext());
+        List<Future<ParsingResult<Csar>>> futures = Lists.newArrayList();
+        for (CsarDependenciesBean csarBean : levelToImport) {
+            // FIXME Add possibility to choose an workspace
+            futures.add(executor.submit(() -> uploadService.upload(csarBean.getPath(), CSARSource.GIT, AlienConstants.GLOBAL_WORKSPACE_ID)));
+        }
+        List<ParsingResult<Csar>> results = Lists.newArrayList();
+        Throwable failure = null;
+        for (Future<ParsingResult<Csar>> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                failure = failure == null ? e.getCause() : failure;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GitException("Interrupted while importing archives from git.", e);
+            }
+        }
+        if (failure != null) {
+            Throwables.propagateIfInstanceOf(failure, ParsingException.class);
+            Throwables.propagateIfInstanceOf(failure, CSARUsedInActiveDeployment.class);
+            Throwables.propagateIfInstanceOf(failure, ToscaTypeAlreadyDefinedInOtherCSAR.class);
+            throw Throwables.propagate(failure);
+        }
+        return results;
+    }
 
-        List<CsarDependenciesBean> independents = Lists.newArrayList();
-        for (Map.Entry<CSARDependency, CsarDependenciesBean> entry : elements.entrySet()) {
-            CsarDependenciesBean csar = entry.getValue();
-            if (csar.getDependencies() == null) {
-                // the element has no dependencies
-                independents.add(csar);
-            } else {
-                // complete the list of dependent elements
-                List<CSARDependency> toClears = Lists.newArrayList();
+    private String getArchiveKey(CSARDependency archive) {
+        return archive.getName() + ":" + archive.getVersion();
+    }
+
+    /**
+     * Sort the archives by dependency level, archives of a level depend only on archives of the previous levels (or on archives that are not in the git
+     * repository).
+     *
+     * @param elements The archives to sort.
+     * @return The archives grouped by level.
+     */
+    private List<List<CsarDependenciesBean>> sortByLevel(Map<CSARDependency, CsarDependenciesBean> elements) {
+        Map<CsarDependenciesBean, Integer> remainingDependencies = Maps.newHashMap();
+        List<CsarDependenciesBean> level = Lists.newArrayList();
+        for (CsarDependenciesBean csar : elements.values()) {
+            int dependencyCount = 0;
+            if (csar.getDependencies() != null) {
+                // complete the list of dependent elements, dependencies that are not in the git repository may be in the alien repo
                 for (CSARDependency dependency : csar.getDependencies()) {
                     CsarDependenciesBean providedDependency = elements.get(dependency);
-                    if (providedDependency == null) {
-                        // remove the dependency as it may be in the alien repo
-                        toClears.add(dependency);
-                    } else {
+                    if (providedDependency != null && providedDependency != csar) {
                         providedDependency.getDependents().add(csar);
+                        dependencyCount++;
                     }
                 }
-                for (CSARDependency toClear : toClears) {
-                    csar.getDependencies().remove(toClear);
-                }
-                if (csar.getDependencies().isEmpty()) {
-                    independents.add(csar);
-                }
+            }
+            if (dependencyCount == 0) {
+                // the element has no dependencies
+                level.add(csar);
+            } else {
+                remainingDependencies.put(csar, dependencyCount);
             }
         }
 
-        while (!independents.isEmpty()) {
-            CsarDependenciesBean independent = independents.remove(0);
-            elements.remove(independent.getSelf()); // remove from the elements
-            sortedCsars.add(independent); // element has no more dependencies
-            for (CsarDependenciesBean dependent : independent.getDependents()) {
-                dependent.getDependencies().remove(independent.getSelf());
-                if (dependent.getDependencies().isEmpty()) {
-                    independents.add(dependent);
+        List<List<CsarDependenciesBean>> levels = Lists.newArrayList();
+        while (!level.isEmpty()) {
+            levels.add(level);
+            List<CsarDependenciesBean> nextLevel = Lists.newArrayList();
+            for (CsarDependenciesBean independent : level) {
+                for (CsarDependenciesBean dependent : independent.getDependents()) {
+                    int dependencyCount = remainingDependencies.get(dependent) - 1;
+                    if (dependencyCount == 0) {
+                        remainingDependencies.remove(dependent);
+                        nextLevel.add(dependent);
+                    } else {
+                        remainingDependencies.put(dependent, dependencyCount);
+                    }
                 }
             }
+            level = nextLevel;
         }
 
-        if (elements.size() > 0) {
+        if (remainingDependencies.size() > 0) {
             // TODO there is looping dependencies throw exception or ignore ?
+            log.warn("Archives {} are not imported as they have cyclic dependencies.",
+                    remainingDependencies.keySet().stream().map(csar -> getArchiveKey(csar.getSelf())).collect(Collectors.toList()));
         }
 
-        return sortedCsars;
+        return levels;
     }
-}
\ No newline at end of file
+}
@@ -20,6 +20,7 @@ import alien4cloud.model.common.MetaPropConfiguration;
 import alien4cloud.model.common.SimpleSuggestionEntry;
 import alien4cloud.model.common.SuggestionEntry;
 import alien4cloud.model.deployment.Deployment;
+import alien4cloud.model.deployment.DeploymentLock;
 import alien4cloud.model.deployment.DeploymentTopology;
 import alien4cloud.model.git.CsarGitRepository;
 import alien4cloud.model.orchestrators.Orchestrator;
@@ -82,6 +83,7 @@ public class ElasticSearchDAO extends ESGenericSearchDAO {
         initIndice(LocationResourceTemplate.class);
 
         initIndice(Deployment.class);
+        initIndice(DeploymentLock.class);
         initIndice(CsarGitRepository.class);
 
         initIndice(DeploymentTopology.class);
@@ -24,6 +24,7 @@ import com.google.common.collect.Maps;
 import alien4cloud.application.ApplicationEnvironmentService;
 import alien4cloud.application.ApplicationService;
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.RefreshPolicy;
 import alien4cloud.dao.model.FacetedSearchResult;
 import alien4cloud.deployment.matching.services.location.TopologyLocationUtils;
 import alien4cloud.events.DeploymentCreatedEvent;
@@ -133,9 +134,10 @@ public class DeployService {
             deployment.setVersionId(deploymentTopology.getVersionId());
             deployment.setStartDate(new Date());
             setUsedServicesResourcesIds(deploymentTopology, deployment);
-            alienDao.save(deployment);
+            // the active deployment must be visible to searches as soon as the deploy call returns.
+            alienDao.save(deployment, RefreshPolicy.IMMEDIATE);
             // publish an event for the eventual managed service
-            eventPublisher.publishEvent(new DeploymentCreatedEvent(this, deployment.getId()));
+            eventPublisher.publishEvent(new DeploymentCreatedEvent(this, deployment.getId(), deployment.getOrchestratorId()));
 
             PaaSTopologyDeploymentContext deploymentContext = saveDeploymentTopologyAndGenerateDeploymentContext(deploymentTopology, deployment, locations);
 
@@ -205,6 +207,7 @@ public class DeployService {
                 }
             };
             // Build the context for deployment and deploy
+            orchestratorPluginService.operationRequested(existingDeployment.getOrchestratorId(), existingDeployment.getId());
             orchestratorPlugin.update(deploymentContext, callbackWrapper);
             log.debug("Triggered deployment of topology [{}] on location [{}], generated deployment with id [{}]", deploymentTopology.getInitialTopologyId(),
                     firstLocation.getId(), existingDeployment.getId());
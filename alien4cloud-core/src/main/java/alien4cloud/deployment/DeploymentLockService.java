@@ -1,48 +1,58 @@
 package alien4cloud.deployment;
 
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Maps;
 
-import lombok.SneakyThrows;
+import alien4cloud.deployment.locks.IDeploymentLockProvider;
+import alien4cloud.deployment.locks.IDeploymentLockProvider.IDeploymentLock;
+import alien4cloud.deployment.locks.LocalDeploymentLockProvider;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 public class DeploymentLockService {
+    /** Provider of the locks, locks are local to this instance if no provider is configured. */
+    @Autowired(required = false)
+    private IDeploymentLockProvider lockProvider;
 
-    /**
-     * This means that if a plugin deploy and then hold the lock more than 1 day, access to the deployment will not be protected anymore
-     * as the new thread which arrive will take a new lock (old lock entry has expired). But a good plugin should not hold a thread for 1 day, the bad ones will
-     * consume all the thread pool of the system.
-     */
-    private LoadingCache<String, ReadWriteLock> lockMap = CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.DAYS)
-            .build(CacheLoader.from(input -> new ReentrantReadWriteLock()));
+    /** Time spent waiting for and holding the locks of every deployment, statistics of deployments that are not used anymore are evicted. */
+    private final LoadingCache<String, LockStatistics> lockStatistics = CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.DAYS)
+            .build(CacheLoader.from(input -> new LockStatistics()));
 
     public interface ActionWithLock<T> {
         T doAction();
     }
 
+    @PostConstruct
+    public void init() {
+        if (lockProvider == null) {
+            lockProvider = new LocalDeploymentLockProvider();
+        }
+        log.info("Deployment locks are provided by {}", lockProvider.getClass().getSimpleName());
+    }
+
     /**
      * Obtain a write lock on the given deployment and then do action, release the write lock at the end
-     * 
+     *
      * @param deploymentId id of the deployment
      * @param runnable the action to be executed that requires exclusive write lock
      * @param <T> the return type of the action
      * @return the result of the action
      */
-    @SneakyThrows
     public <T> T doWithDeploymentWriteLock(String deploymentId, ActionWithLock<T> runnable) {
-        try {
-            lockMap.get(deploymentId).writeLock().lock();
-            return runnable.doAction();
-        } finally {
-            lockMap.get(deploymentId).writeLock().unlock();
-        }
+        return doWithLock(deploymentId, lockProvider::acquireWriteLock, runnable);
     }
 
     /**
@@ -53,13 +63,44 @@ public class DeploymentLockService {
      * @param <T> the return type of the action
      * @return the result of the action
      */
-    @SneakyThrows
     public <T> T doWithDeploymentReadLock(String deploymentId, ActionWithLock<T> runnable) {
+        return doWithLock(deploymentId, lockProvider::acquireReadLock, runnable);
+    }
+
+    private <T> T doWithLock(String deploymentId, Function<String, IDeploymentLock> acquire, ActionWithLock<T> runnable) {
+        LockStatistics statistics = lockStatistics.getUnchecked(deploymentId);
+        long start = System.currentTimeMillis();
+        IDeploymentLock lock = acquire.apply(deploymentId);
+        long acquired = System.currentTimeMillis();
+        statistics.waitTimeMillis.addAndGet(acquired - start);
         try {
-            lockMap.get(deploymentId).readLock().lock();
             return runnable.doAction();
         } finally {
-            lockMap.get(deploymentId).readLock().unlock();
+            lock.release();
+            statistics.holdTimeMillis.addAndGet(System.currentTimeMillis() - acquired);
         }
     }
+
+    /**
+     * Get the total time spent waiting for the lock of every deployment.
+     *
+     * @return A map of wait times in milliseconds by deployment id.
+     */
+    public Map<String, Long> getLockWaitTimes() {
+        return Maps.transformValues(Maps.newHashMap(lockStatistics.asMap()), statistics -> statistics.waitTimeMillis.get());
+    }
+
+    /**
+     * Get the total time the lock of every deployment has been held.
+     *
+     * @return A map of hold times in milliseconds by deployment id.
+     */
+    public Map<String, Long> getLockHoldTimes() {
+        return Maps.transformValues(Maps.newHashMap(lockStatistics.asMap()), statistics -> statistics.holdTimeMillis.get());
+    }
+
+    private static class LockStatistics {
+        private final AtomicLong waitTimeMillis = new AtomicLong();
+        private final AtomicLong holdTimeMillis = new AtomicLong();
+    }
 }
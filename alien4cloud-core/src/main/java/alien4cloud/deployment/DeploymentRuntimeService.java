@@ -53,6 +53,7 @@ public class DeploymentRuntimeService {
         Deployment deployment = deploymentService.getActiveDeploymentOrFail(request.getApplicationEnvironmentId());
         DeploymentTopology deploymentTopology = deploymentRuntimeStateService.getRuntimeTopologyFromEnvironment(deployment.getEnvironmentId());
         IOrchestratorPlugin orchestratorPlugin = orchestratorPluginService.getOrFail(deployment.getOrchestratorId());
+        orchestratorPluginService.operationRequested(deployment.getOrchestratorId(), deployment.getId());
         orchestratorPlugin.executeOperation(deploymentContextService.buildTopologyDeploymentContext(deployment,
                 deploymentTopologyService.getLocations(deploymentTopology), deploymentTopology), request, callback);
     }
@@ -72,6 +73,7 @@ public class DeploymentRuntimeService {
         IOrchestratorPlugin orchestratorPlugin = orchestratorPluginService.getOrFail(deployment.getOrchestratorId());
         DeploymentTopology deploymentTopology = deploymentRuntimeStateService.getRuntimeTopologyFromEnvironment(deployment.getEnvironmentId());
         PaaSDeploymentContext deploymentContext = new PaaSDeploymentContext(deployment, deploymentTopology);
+        orchestratorPluginService.operationRequested(deployment.getOrchestratorId(), deployment.getId());
         orchestratorPlugin.switchInstanceMaintenanceMode(deploymentContext, nodeTemplateId, instanceId, maintenanceModeOn);
     }
 
@@ -87,6 +89,7 @@ public class DeploymentRuntimeService {
         DeploymentTopology deploymentTopology = deploymentRuntimeStateService.getRuntimeTopologyFromEnvironment(deployment.getEnvironmentId());
         IOrchestratorPlugin orchestratorPlugin = orchestratorPluginService.getOrFail(deployment.getOrchestratorId());
         PaaSDeploymentContext deploymentContext = new PaaSDeploymentContext(deployment, deploymentTopology);
+        orchestratorPluginService.operationRequested(deployment.getOrchestratorId(), deployment.getId());
         orchestratorPlugin.switchMaintenanceMode(deploymentContext, maintenanceModeOn);
     }
 
@@ -110,6 +113,7 @@ public class DeploymentRuntimeService {
         alienMonitorDao.save(topology);
         IOrchestratorPlugin orchestratorPlugin = orchestratorPluginService.getOrFail(deployment.getOrchestratorId());
         PaaSDeploymentContext deploymentContext = new PaaSDeploymentContext(deployment, deploymentTopology);
+        orchestratorPluginService.operationRequested(deployment.getOrchestratorId(), deployment.getId());
         orchestratorPlugin.scale(deploymentContext, nodeTemplateId, instances, new IPaaSCallback() {
             @Override
             public void onFailure(Throwable throwable) {
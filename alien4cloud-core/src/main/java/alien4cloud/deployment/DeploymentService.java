@@ -15,17 +15,22 @@ import javax.inject.Inject;
 import org.apache.commons.collections4.CollectionUtils;
 import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.FilterBuilders;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import alien4cloud.dao.FilterUtil;
 import alien4cloud.dao.IESQueryBuilderHelper;
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.ISearchCursor;
+import alien4cloud.dao.RefreshPolicy;
 import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.deployment.exceptions.ImpossibleDeploymentUpdateException;
 import alien4cloud.deployment.matching.services.location.TopologyLocationUtils;
+import alien4cloud.events.DeploymentUndeployedEvent;
 import alien4cloud.exception.NotFoundException;
 import alien4cloud.model.deployment.Deployment;
 import alien4cloud.model.deployment.DeploymentTopology;
@@ -49,6 +54,8 @@ public class DeploymentService {
     private DeploymentContextService deploymentContextService;
     @Inject
     private DeploymentTopologyService deploymentTopologyService;
+    @Inject
+    private ApplicationEventPublisher eventPublisher;
 
     /**
      * Get an array of all active deployments.
@@ -56,7 +63,10 @@ public class DeploymentService {
      * @return Array of all active deployments.
      */
     public Deployment[] getActiveDeployments() {
-        return alienDao.buildQuery(Deployment.class).prepareSearch().setFilters(fromKeyValueCouples("endDate", null)).search(0, Integer.MAX_VALUE).getData();
+        try (ISearchCursor<Deployment> deployments = alienDao.buildQuery(Deployment.class).setFilters(fromKeyValueCouples("endDate", null)).prepareSearch()
+                .scroll()) {
+            return Lists.newArrayList(deployments).toArray(new Deployment[0]);
+        }
     }
 
     /**
@@ -128,16 +138,16 @@ public class DeploymentService {
      * @return active deployment if exist or the last, null if the application environment has not been deployed
      */
     public Deployment getDeployment(String applicationEnvironmentId) {
-        Map<String, String[]> activeDeploymentFilters = MapUtil.newHashMap(new String[] { "environmentId" },
+        Deployment activeDeployment = getActiveDeployment(applicationEnvironmentId);
+        if (activeDeployment != null) {
+            return activeDeployment;
+        }
+        // no active deployment, get the last one to have ended
+        Map<String, String[]> deploymentFilters = MapUtil.newHashMap(new String[] { "environmentId" },
                 new String[][] { new String[] { applicationEnvironmentId } });
-        GetMultipleDataResult<Deployment> dataResult = alienDao.search(Deployment.class, null, activeDeploymentFilters, null, null, 0, Integer.MAX_VALUE,
-                "endDate", true);
+        GetMultipleDataResult<Deployment> dataResult = alienDao.search(Deployment.class, null, deploymentFilters, null, null, 0, 1, "endDate", true);
         if (dataResult.getData() != null && dataResult.getData().length > 0) {
-            if (dataResult.getData()[dataResult.getData().length - 1].getEndDate() == null) {
-                return dataResult.getData()[dataResult.getData().length - 1];
-            } else {
-                return dataResult.getData()[0];
-            }
+            return dataResult.getData()[0];
         }
         return null;
     }
@@ -223,8 +233,9 @@ public class DeploymentService {
     private Deployment[] getOrchestratorActiveDeployments(String orchestratorId) {
         Map<String, String[]> activeDeploymentFilters = MapUtil.newHashMap(new String[] { "orchestratorId", "endDate" },
                 new String[][] { new String[] { orchestratorId }, new String[] { null } });
-        GetMultipleDataResult<Deployment> dataResult = alienDao.search(Deployment.class, null, activeDeploymentFilters, Integer.MAX_VALUE);
-        return dataResult.getData();
+        try (ISearchCursor<Deployment> deployments = alienDao.buildQuery(Deployment.class).setFilters(activeDeploymentFilters).prepareSearch().scroll()) {
+            return Lists.newArrayList(deployments).toArray(new Deployment[0]);
+        }
     }
 
     /**
@@ -235,15 +246,10 @@ public class DeploymentService {
      */
     public Map<String, Set<String>> getOrchestratorDeploymentIdsByOrchestratorId(String applicationEnvironmentId) {
         Map<String, Set<String>> result = new HashMap<>();
-        GetMultipleDataResult<Deployment> dataResult = alienDao.search(Deployment.class, null,
-                FilterUtil.fromKeyValueCouples("environmentId", applicationEnvironmentId), Integer.MAX_VALUE);
-        if (dataResult.getData() != null && dataResult.getData().length > 0) {
-            for (Deployment deployment : dataResult.getData()) {
-                if (!result.containsKey(deployment.getOrchestratorId())) {
-                    result.put(deployment.getOrchestratorId(), new HashSet<String>());
-                }
-                result.get(deployment.getOrchestratorId()).add(deployment.getOrchestratorDeploymentId());
-            }
+        try (ISearchCursor<Deployment> deployments = alienDao.buildQuery(Deployment.class)
+                .setFilters(FilterUtil.fromKeyValueCouples("environmentId", applicationEnvironmentId)).prepareSearch().scroll()) {
+            deployments.forEachRemaining(deployment -> result.computeIfAbsent(deployment.getOrchestratorId(), orchestratorId -> new HashSet<>())
+                    .add(deployment.getOrchestratorDeploymentId()));
         }
         return result;
     }
@@ -256,11 +262,12 @@ public class DeploymentService {
     public void markUndeployed(Deployment deployment) {
         if (deployment.getEndDate() == null) {
             deployment.setEndDate(new Date());
-            alienDao.save(deployment);
+            alienDao.save(deployment, RefreshPolicy.IMMEDIATE);
             // Switch the deployed field of the Deployment topology to false
             DeploymentTopology deploymentTopology = alienMonitorDao.findById(DeploymentTopology.class, deployment.getId());
             deploymentTopology.setDeployed(false);
             alienMonitorDao.save(deploymentTopology);
+            eventPublisher.publishEvent(new DeploymentUndeployedEvent(this, deployment.getId(), deployment.getOrchestratorId()));
         } else {
             log.info("Deployment <" + deployment.getId() + "> is already marked as undeployed.");
         }
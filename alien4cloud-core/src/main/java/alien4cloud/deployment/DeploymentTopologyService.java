@@ -59,7 +59,7 @@ import alien4cloud.application.TopologyCompositionService;
 import alien4cloud.component.repository.ArtifactRepositoryConstants;
 import alien4cloud.component.repository.IFileRepository;
 import alien4cloud.dao.IGenericSearchDAO;
-import alien4cloud.dao.model.GetMultipleDataResult;
+import alien4cloud.dao.ISearchCursor;
 import alien4cloud.deployment.matching.services.location.TopologyLocationUtils;
 import alien4cloud.deployment.model.DeploymentConfiguration;
 import alien4cloud.deployment.model.DeploymentSubstitutionConfiguration;
@@ -630,12 +630,10 @@ public class DeploymentTopologyService {
      * @return all deployment topology that is linked to this topology
      */
     public DeploymentTopology[] getByTopologyId(String topologyId) {
-        GetMultipleDataResult<DeploymentTopology> result = alienDAO.buildQuery(DeploymentTopology.class)
-                .setFilters(fromKeyValueCouples("versionId", topologyId)).prepareSearch().search(0, Integer.MAX_VALUE);
-        if (result.getData() != null) {
-            return result.getData();
+        try (ISearchCursor<DeploymentTopology> deploymentTopologies = alienDAO.buildQuery(DeploymentTopology.class)
+                .setFilters(fromKeyValueCouples("versionId", topologyId)).prepareSearch().scroll()) {
+            return Lists.newArrayList(deploymentTopologies).toArray(new DeploymentTopology[0]);
         }
-        return new DeploymentTopology[0];
     }
 
     /**
@@ -63,6 +63,7 @@ public class UndeployService {
             IOrchestratorPlugin orchestratorPlugin = orchestratorPluginService.getOrFail(deployment.getOrchestratorId());
             DeploymentTopology deployedTopology = deploymentRuntimeStateService.getRuntimeTopology(deployment.getId());
             PaaSDeploymentContext deploymentContext = new PaaSDeploymentContext(deployment, deployedTopology);
+            orchestratorPluginService.operationRequested(deployment.getOrchestratorId(), deployment.getId());
             orchestratorPlugin.undeploy(deploymentContext, new IPaaSCallback<ResponseEntity>() {
                 @Override
                 public void onSuccess(ResponseEntity data) {
@@ -35,6 +35,7 @@ public class WorkflowExecutionService {
         DeploymentTopology deploymentTopology = deploymentRuntimeStateService.getRuntimeTopologyFromEnvironment(deployment.getEnvironmentId());
         IOrchestratorPlugin orchestratorPlugin = orchestratorPluginService.getOrFail(deployment.getOrchestratorId());
         PaaSDeploymentContext deploymentContext = new PaaSDeploymentContext(deployment, deploymentTopology);
+        orchestratorPluginService.operationRequested(deployment.getOrchestratorId(), deployment.getId());
         orchestratorPlugin.launchWorkflow(deploymentContext, workflowName, params, iPaaSCallback);
     }
 
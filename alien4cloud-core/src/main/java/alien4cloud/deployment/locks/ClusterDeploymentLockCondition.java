@@ -0,0 +1,22 @@
+package alien4cloud.deployment.locks;
+
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import alien4cloud.utils.AlienYamlPropertiesFactoryBeanFactory;
+
+/**
+ * Condition to check if deployment locks should be shared by all the instances of the cluster. It checks that the deployment.lock.provider property is
+ * actually cluster.
+ */
+public class ClusterDeploymentLockCondition implements Condition {
+    public static final String CLUSTER_PROVIDER = "cluster";
+
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        YamlPropertiesFactoryBean propertiesFactoryBean = AlienYamlPropertiesFactoryBeanFactory.get(context.getResourceLoader());
+        return CLUSTER_PROVIDER.equals(propertiesFactoryBean.getObject().get("deployment.lock.provider"));
+    }
+}
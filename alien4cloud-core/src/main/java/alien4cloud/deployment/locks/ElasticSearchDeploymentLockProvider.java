@@ -0,0 +1,350 @@
+package alien4cloud.deployment.locks;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.index.engine.DocumentAlreadyExistsException;
+import org.elasticsearch.index.engine.VersionConflictEngineException;
+import org.elasticsearch.mapping.MappingBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import alien4cloud.dao.ElasticSearchMapper;
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.exception.TechnicalException;
+import alien4cloud.model.deployment.DeploymentLock;
+import alien4cloud.model.deployment.DeploymentLock.Lease;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Deployment locks shared by all the alien4cloud instances that use the same elastic search cluster.
+ *
+ * Operations are first serialized locally, then the instance takes a lease in the {@link DeploymentLock} document of the deployment. The document is
+ * updated with optimistic concurrency control (document version) so that concurrent instances cannot both take the lock. Leases are renewed while the lock
+ * is held and expire if the owning instance stops without releasing them. Expiration dates are compared with the clocks of the other instances, a lease of
+ * another instance is considered expired only once the clock skew margin has elapsed after its expiration date. The lock document is deleted once the
+ * last lease is released so that documents don't accumulate for every deployment ever locked.
+ */
+@Slf4j
+@Component
+@Conditional(ClusterDeploymentLockCondition.class)
+public class ElasticSearchDeploymentLockProvider implements IDeploymentLockProvider {
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO alienDAO;
+
+    private final LocalDeploymentLockProvider localLocks = new LocalDeploymentLockProvider();
+    /** Leases owned by this instance, a single lease is taken per deployment whatever the number of local threads that hold the lock. */
+    private final ConcurrentMap<String, InstanceLease> leases = Maps.newConcurrentMap();
+
+    private final long leaseMillis;
+    private final long pollIntervalMillis;
+    private final long clockSkewMarginMillis;
+    private String instanceId;
+    private ScheduledExecutorService renewalExecutor;
+
+    public ElasticSearchDeploymentLockProvider(@Value("${deployment.lock.cluster.lease_seconds:60}") long leaseSeconds,
+            @Value("${deployment.lock.cluster.poll_interval_ms:200}") long pollIntervalMillis,
+            @Value("${deployment.lock.cluster.clock_skew_margin_seconds:30}") long clockSkewMarginSeconds) {
+        this.leaseMillis = TimeUnit.SECONDS.toMillis(leaseSeconds);
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.clockSkewMarginMillis = TimeUnit.SECONDS.toMillis(clockSkewMarginSeconds);
+    }
+
+    @PostConstruct
+    public void init() {
+        String hostName;
+        try {
+            hostName = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            hostName = "unknown";
+        }
+        instanceId = hostName + "-" + UUID.randomUUID().toString();
+        renewalExecutor = Executors
+                .newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("deployment-lock-renewal").setDaemon(true).build());
+        // renew leases well before they expire so that a slow renewal doesn't lose the lock.
+        long renewalPeriod = Math.max(leaseMillis / 3, 1);
+        renewalExecutor.scheduleWithFixedDelay(this::renewLeases, renewalPeriod, renewalPeriod, TimeUnit.MILLISECONDS);
+        log.info("Deployment locks are shared by the cluster, instance id is <{}>", instanceId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (renewalExecutor != null) {
+            renewalExecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    public IDeploymentLock acquireReadLock(String deploymentId) {
+        return acquire(deploymentId, false, localLocks.acquireReadLock(deploymentId));
+    }
+
+    @Override
+    public IDeploymentLock acquireWriteLock(String deploymentId) {
+        return acquire(deploymentId, true, localLocks.acquireWriteLock(deploymentId));
+    }
+
+    private IDeploymentLock acquire(String deploymentId, boolean exclusive, IDeploymentLock localLock) {
+        try {
+            InstanceLease lease = lockInstanceLease(deploymentId);
+            try {
+                // the local lock guarantees that there are no other local holders when the write lock is acquired.
+                if (lease.holders == 0) {
+                    acquireLease(deploymentId, exclusive);
+                }
+                lease.holders++;
+            } finally {
+                lease.stateLock.unlock();
+            }
+        } catch (RuntimeException e) {
+            localLock.release();
+            throw e;
+        }
+        return () -> {
+            try {
+                release(deploymentId);
+            } finally {
+                localLock.release();
+            }
+        };
+    }
+
+    private void release(String deploymentId) {
+        InstanceLease lease = lockInstanceLease(deploymentId);
+        try {
+            lease.holders--;
+            if (lease.holders <= 0) {
+                leases.remove(deploymentId, lease);
+                releaseLease(deploymentId);
+            }
+        } finally {
+            lease.stateLock.unlock();
+        }
+    }
+
+    /**
+     * Get and lock the state of the lease of a deployment, the state is removed from the map once released so we must check that we locked the current one.
+     */
+    private InstanceLease lockInstanceLease(String deploymentId) {
+        while (true) {
+            InstanceLease lease = leases.computeIfAbsent(deploymentId, key -> new InstanceLease());
+            lease.stateLock.lock();
+            if (leases.get(deploymentId) == lease) {
+                return lease;
+            }
+            lease.stateLock.unlock();
+        }
+    }
+
+    private void acquireLease(String deploymentId, boolean exclusive) {
+        long start = System.currentTimeMillis();
+        long nextWarning = start + leaseMillis;
+        while (true) {
+            VersionedLock current = get(deploymentId);
+            DeploymentLock lock = current == null ? new DeploymentLock(deploymentId) : current.lock;
+            long now = System.currentTimeMillis();
+            removeLeases(lock, now);
+            if (lock.getWriter() == null && (!exclusive || lock.getReaders().isEmpty())) {
+                Lease lease = new Lease(instanceId, now + leaseMillis);
+                if (exclusive) {
+                    lock.setWriter(lease);
+                } else {
+                    lock.getReaders().add(lease);
+                }
+                if (save(lock, current)) {
+                    return;
+                }
+                // another instance updated the lock in the meantime, check again.
+                continue;
+            }
+            if (now > nextWarning) {
+                log.warn("Waiting for {} ms for the lock of deployment <{}> held by another instance", now - start, deploymentId);
+                nextWarning = now + leaseMillis;
+            }
+            try {
+                Thread.sleep(pollIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TechnicalException("Interrupted while waiting for the lock of deployment <" + deploymentId + ">", e);
+            }
+        }
+    }
+
+    private void releaseLease(String deploymentId) {
+        try {
+            while (true) {
+                VersionedLock current = get(deploymentId);
+                if (current == null) {
+                    return;
+                }
+                removeLeases(current.lock, System.currentTimeMillis());
+                // delete the lock document once no instance holds a lease on it.
+                boolean released = current.lock.getWriter() == null && current.lock.getReaders().isEmpty() ? delete(current)
+                        : save(current.lock, current);
+                if (released) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Unable to release the lock of deployment <{}>, it will be available once the lease expires", deploymentId, e);
+        }
+    }
+
+    private void renewLeases() {
+        for (Map.Entry<String, InstanceLease> leaseEntry : leases.entrySet()) {
+            InstanceLease lease = leaseEntry.getValue();
+            // a lease that is being acquired or released doesn't need to be renewed.
+            if (!lease.stateLock.tryLock()) {
+                continue;
+            }
+            try {
+                if (lease.holders > 0) {
+                    renewLease(leaseEntry.getKey());
+                }
+            } catch (RuntimeException e) {
+                log.error("Unable to renew the lock of deployment <{}>", leaseEntry.getKey(), e);
+            } finally {
+                lease.stateLock.unlock();
+            }
+        }
+    }
+
+    private void renewLease(String deploymentId) {
+        while (true) {
+            VersionedLock current = get(deploymentId);
+            Lease ownLease = current == null ? null : getOwnLease(current.lock);
+            if (ownLease == null) {
+                log.error("The lock of deployment <{}> has been lost (lease expired), operations may not be serialized anymore.", deploymentId);
+                return;
+            }
+            ownLease.setExpirationDate(System.currentTimeMillis() + leaseMillis);
+            if (save(current.lock, current)) {
+                return;
+            }
+        }
+    }
+
+    private Lease getOwnLease(DeploymentLock lock) {
+        if (lock.getWriter() != null && instanceId.equals(lock.getWriter().getOwner())) {
+            return lock.getWriter();
+        }
+        for (Lease reader : lock.getReaders()) {
+            if (instanceId.equals(reader.getOwner())) {
+                return reader;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remove the expired leases and the leases of the current instance (that doesn't hold any lease when acquiring or releasing the lock).
+     */
+    private void removeLeases(DeploymentLock lock, long now) {
+        if (lock.getWriter() != null && isRemovable(lock.getWriter(), now)) {
+            lock.setWriter(null);
+        }
+        lock.getReaders().removeIf(reader -> isRemovable(reader, now));
+    }
+
+    private boolean isRemovable(Lease lease, long now) {
+        // the expiration date has been computed with the clock of the owning instance that may be ahead of ours.
+        return instanceId.equals(lease.getOwner()) || lease.getExpirationDate() + clockSkewMarginMillis < now;
+    }
+
+    private VersionedLock get(String deploymentId) {
+        GetResponse response = alienDAO.getClient()
+                .prepareGet(alienDAO.getIndexForType(DeploymentLock.class), MappingBuilder.indexTypeFromClass(DeploymentLock.class), deploymentId).execute()
+                .actionGet();
+        if (!response.isExists()) {
+            return null;
+        }
+        try {
+            return new VersionedLock(ElasticSearchMapper.getInstance().readValue(response.getSourceAsString(), DeploymentLock.class), response.getVersion());
+        } catch (IOException e) {
+            throw new TechnicalException("Unable to read the lock of deployment <" + deploymentId + ">", e);
+        }
+    }
+
+    /**
+     * Save the lock if it has not been modified since it has been read.
+     *
+     * @return False if the lock has been concurrently modified.
+     */
+    private boolean save(DeploymentLock lock, VersionedLock current) {
+        IndexRequestBuilder indexRequest;
+        try {
+            indexRequest = alienDAO.getClient()
+                    .prepareIndex(alienDAO.getIndexForType(DeploymentLock.class), MappingBuilder.indexTypeFromClass(DeploymentLock.class), lock.getId())
+                    .setSource(ElasticSearchMapper.getInstance().writeValueAsString(lock));
+        } catch (IOException e) {
+            throw new TechnicalException("Unable to write the lock of deployment <" + lock.getId() + ">", e);
+        }
+        if (current == null) {
+            indexRequest.setCreate(true);
+        } else {
+            indexRequest.setVersion(current.version);
+        }
+        try {
+            indexRequest.execute().actionGet();
+            return true;
+        } catch (ElasticsearchException e) {
+            Throwable cause = ExceptionsHelper.unwrapCause(e);
+            if (cause instanceof VersionConflictEngineException || cause instanceof DocumentAlreadyExistsException) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Delete the lock if it has not been modified since it has been read.
+     *
+     * @return False if the lock has been concurrently modified.
+     */
+    private boolean delete(VersionedLock current) {
+        try {
+            alienDAO.getClient().prepareDelete(alienDAO.getIndexForType(DeploymentLock.class), MappingBuilder.indexTypeFromClass(DeploymentLock.class),
+                    current.lock.getId()).setVersion(current.version).execute().actionGet();
+            return true;
+        } catch (ElasticsearchException e) {
+            if (ExceptionsHelper.unwrapCause(e) instanceof VersionConflictEngineException) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /** State of the lease of this instance on a deployment. */
+    private static class InstanceLease {
+        private final ReentrantLock stateLock = new ReentrantLock();
+        /** Number of local lock holders (including reentrant acquisitions), guarded by the state lock. */
+        private int holders;
+    }
+
+    @AllArgsConstructor
+    private static class VersionedLock {
+        private final DeploymentLock lock;
+        private final long version;
+    }
+}
@@ -0,0 +1,33 @@
+package alien4cloud.deployment.locks;
+
+/**
+ * Provides the read/write locks that serialize the operations (deploy, undeploy, status etc.) performed on a deployment.
+ *
+ * The default provider only serializes operations within the current alien4cloud instance, a provider may coordinate all the instances of a cluster.
+ * Locks must be reentrant for the thread that holds them and a thread that holds the write lock must be able to acquire the read lock.
+ */
+public interface IDeploymentLockProvider {
+
+    /**
+     * Acquire the shared lock of a deployment, waits until the lock is available.
+     *
+     * @param deploymentId Id of the deployment on the orchestrator.
+     * @return The acquired lock, to be released by the same thread.
+     */
+    IDeploymentLock acquireReadLock(String deploymentId);
+
+    /**
+     * Acquire the exclusive lock of a deployment, waits until the lock is available.
+     *
+     * @param deploymentId Id of the deployment on the orchestrator.
+     * @return The acquired lock, to be released by the same thread.
+     */
+    IDeploymentLock acquireWriteLock(String deploymentId);
+
+    /**
+     * A lock acquired on a deployment.
+     */
+    interface IDeploymentLock {
+        void release();
+    }
+}
@@ -0,0 +1,40 @@
+package alien4cloud.deployment.locks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Deployment locks that serialize operations within the current alien4cloud instance only. This is the default provider.
+ */
+public class LocalDeploymentLockProvider implements IDeploymentLockProvider {
+
+    /**
+     * This means that if a plugin deploy and then hold the lock more than 1 day, access to the deployment will not be protected anymore
+     * as the new thread which arrive will take a new lock (old lock entry has expired). But a good plugin should not hold a thread for 1 day, the bad ones will
+     * consume all the thread pool of the system.
+     */
+    private final LoadingCache<String, ReadWriteLock> lockMap = CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.DAYS)
+            .build(CacheLoader.from(input -> new ReentrantReadWriteLock()));
+
+    @Override
+    public IDeploymentLock acquireReadLock(String deploymentId) {
+        return lock(lockMap.getUnchecked(deploymentId).readLock());
+    }
+
+    @Override
+    public IDeploymentLock acquireWriteLock(String deploymentId) {
+        return lock(lockMap.getUnchecked(deploymentId).writeLock());
+    }
+
+    private IDeploymentLock lock(Lock lock) {
+        lock.lock();
+        // keep a reference on the acquired lock, the cache entry may be replaced while the lock is held.
+        return lock::unlock;
+    }
+}
@@ -3,6 +3,8 @@ package alien4cloud.deployment.matching.plugins;
 import java.util.List;
 import java.util.Map;
 
+import com.google.common.collect.Maps;
+
 import org.alien4cloud.tosca.model.types.NodeType;
 import alien4cloud.model.deployment.matching.MatchingConfiguration;
 import alien4cloud.model.orchestrators.locations.LocationResourceTemplate;
@@ -15,4 +17,23 @@ import org.alien4cloud.tosca.model.templates.NodeTemplate;
 public interface INodeMatcherPlugin {
     List<LocationResourceTemplate> matchNode(NodeTemplate nodeTemplate, NodeType nodeType, LocationResources locationResources,
                                              Map<String, MatchingConfiguration> matchingConfigurations);
+
+    /**
+     * Match multiple nodes against the resources of a location, plugins should override it to share work between the nodes.
+     *
+     * @param nodeTemplates The node templates to match by node template name.
+     * @param nodeTypes The node types of the node templates by type name.
+     * @param locationResources The resources configured for the location.
+     * @param matchingConfigurations The matching configurations of the location by resource type.
+     * @return The matching resources for every node template name.
+     */
+    default Map<String, List<LocationResourceTemplate>> matchNodes(Map<String, NodeTemplate> nodeTemplates, Map<String, NodeType> nodeTypes,
+            LocationResources locationResources, Map<String, MatchingConfiguration> matchingConfigurations) {
+        Map<String, List<LocationResourceTemplate>> matchingResult = Maps.newHashMap();
+        for (Map.Entry<String, NodeTemplate> nodeTemplateEntry : nodeTemplates.entrySet()) {
+            NodeType nodeType = nodeTypes.get(nodeTemplateEntry.getValue().getType());
+            matchingResult.put(nodeTemplateEntry.getKey(), matchNode(nodeTemplateEntry.getValue(), nodeType, locationResources, matchingConfigurations));
+        }
+        return matchingResult;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,215 @@
+package alien4cloud.deployment.matching.services.nodes;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.alien4cloud.tosca.exceptions.ConstraintValueDoNotMatchPropertyTypeException;
+import org.alien4cloud.tosca.exceptions.ConstraintViolationException;
+import org.alien4cloud.tosca.model.definitions.AbstractPropertyValue;
+import org.alien4cloud.tosca.model.definitions.PropertyDefinition;
+import org.alien4cloud.tosca.model.definitions.ScalarPropertyValue;
+import org.alien4cloud.tosca.model.definitions.constraints.IMatchPropertyConstraint;
+import org.alien4cloud.tosca.model.templates.Capability;
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.types.CapabilityType;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.alien4cloud.tosca.normative.types.IPropertyType;
+import org.alien4cloud.tosca.normative.types.ToscaTypes;
+import org.springframework.beans.BeanUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import alien4cloud.model.deployment.matching.MatchingConfiguration;
+import alien4cloud.model.deployment.matching.MatchingFilterDefinition;
+import alien4cloud.model.orchestrators.locations.LocationResourceTemplate;
+import alien4cloud.model.orchestrators.locations.LocationResources;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Index of the resources of a location by type that allows to match many nodes against the location without scanning all the resources for every node.
+ *
+ * Every resource is indexed under its type and all the parents of its type. The matching configuration filters of every resource are compiled once with the
+ * resource values so the index is read-only once built and can be used to match nodes concurrently.
+ */
+@Slf4j
+class MatchingCandidateIndex {
+    private final Map<String, List<Candidate>> candidatesByType = Maps.newHashMap();
+    /** The matching configurations can be null when the associated orchestrator is disabled, no resources can be matched then. */
+    private final boolean enabled;
+
+    MatchingCandidateIndex(LocationResources locationResources, Map<String, MatchingConfiguration> matchingConfigurations) {
+        enabled = matchingConfigurations != null;
+        if (!enabled) {
+            return;
+        }
+        for (LocationResourceTemplate resourceTemplate : locationResources.getNodeTemplates()) {
+            NodeType candidateType = locationResources.getNodeTypes().get(resourceTemplate.getTemplate().getType());
+            if (candidateType == null) {
+                continue;
+            }
+            Candidate candidate = new Candidate(resourceTemplate,
+                    compile(resourceTemplate, candidateType, matchingConfigurations.get(candidateType.getElementId()), locationResources.getCapabilityTypes()));
+            index(candidateType.getElementId(), candidate);
+            if (candidateType.getDerivedFrom() != null) {
+                for (String parentType : candidateType.getDerivedFrom()) {
+                    index(parentType, candidate);
+                }
+            }
+        }
+    }
+
+    private void index(String type, Candidate candidate) {
+        List<Candidate> candidates = candidatesByType.computeIfAbsent(type, key -> Lists.newArrayList());
+        // a type may be listed more than once in the hierarchy, candidates are indexed in order so the last one is the only possible duplicate.
+        if (candidates.isEmpty() || candidates.get(candidates.size() - 1) != candidate) {
+            candidates.add(candidate);
+        }
+    }
+
+    /**
+     * Get the resources that can substitute a node.
+     *
+     * @param nodeTemplate The node template to match.
+     * @param nodeType The type of the node template to match.
+     * @return The matching resources in the order of the location resources.
+     */
+    List<LocationResourceTemplate> match(NodeTemplate nodeTemplate, NodeType nodeType) {
+        if (!enabled) {
+            return Lists.newArrayList();
+        }
+        List<LocationResourceTemplate> matchingResults = Lists.newArrayList();
+        for (Candidate candidate : candidatesByType.getOrDefault(nodeTemplate.getType(), Collections.emptyList())) {
+            // Only abstract node type can be match against a service
+            if (!nodeType.isAbstract() && candidate.resourceTemplate.isService()) {
+                continue;
+            }
+            if (candidate.filters.matches(nodeTemplate)) {
+                matchingResults.add(candidate.resourceTemplate);
+            }
+        }
+        return matchingResults;
+    }
+
+    private CandidateFilters compile(LocationResourceTemplate resourceTemplate, NodeType candidateType, MatchingConfiguration matchingConfiguration,
+            Map<String, CapabilityType> capabilityTypes) {
+        if (matchingConfiguration == null) {
+            return CandidateFilters.NONE;
+        }
+        NodeTemplate candidateTemplate = resourceTemplate.getTemplate();
+        List<PropertyFilter> propertyFilters = compile(matchingConfiguration.getProperties(), candidateTemplate.getProperties(),
+                candidateType.getProperties());
+        Map<String, List<PropertyFilter>> capabilityFilters = Maps.newHashMap();
+        if (matchingConfiguration.getCapabilities() != null) {
+            for (Map.Entry<String, MatchingFilterDefinition> capabilityFilterEntry : matchingConfiguration.getCapabilities().entrySet()) {
+                Capability candidateCapability = candidateTemplate.getCapabilities() == null ? null
+                        : candidateTemplate.getCapabilities().get(capabilityFilterEntry.getKey());
+                CapabilityType capabilityType = candidateCapability == null ? null : capabilityTypes.get(candidateCapability.getType());
+                if (capabilityType == null) {
+                    log.debug("Capability <{}> of resource <{}> cannot be used for matching.", capabilityFilterEntry.getKey(), resourceTemplate.getName());
+                    continue;
+                }
+                capabilityFilters.put(capabilityFilterEntry.getKey(),
+                        compile(capabilityFilterEntry.getValue().getProperties(), candidateCapability.getProperties(), capabilityType.getProperties()));
+            }
+        }
+        return new CandidateFilters(propertyFilters, capabilityFilters);
+    }
+
+    /**
+     * Build the filters for the properties that have a scalar value on the candidate, other properties are not filtered.
+     */
+    private List<PropertyFilter> compile(Map<String, List<IMatchPropertyConstraint>> sourceFilters, Map<String, AbstractPropertyValue> candidateValues,
+            Map<String, PropertyDefinition> propertyDefinitions) {
+        List<PropertyFilter> propertyFilters = Lists.newArrayList();
+        if (sourceFilters == null || candidateValues == null || propertyDefinitions == null) {
+            return propertyFilters;
+        }
+        for (Map.Entry<String, List<IMatchPropertyConstraint>> filterEntry : sourceFilters.entrySet()) {
+            AbstractPropertyValue candidatePropertyValue = candidateValues.get(filterEntry.getKey());
+            PropertyDefinition propertyDefinition = propertyDefinitions.get(filterEntry.getKey());
+            if (!(candidatePropertyValue instanceof ScalarPropertyValue) || propertyDefinition == null) {
+                continue;
+            }
+            IPropertyType<?> toscaType = ToscaTypes.fromYamlTypeName(propertyDefinition.getType());
+            if (toscaType == null) {
+                continue;
+            }
+            List<IMatchPropertyConstraint> constraints = Lists.newArrayList();
+            for (IMatchPropertyConstraint constraint : filterEntry.getValue()) {
+                // the configured constraint is shared, work on a copy that holds the candidate value
+                IMatchPropertyConstraint candidateConstraint = BeanUtils.instantiate(constraint.getClass());
+                try {
+                    candidateConstraint.setConstraintValue(toscaType, ((ScalarPropertyValue) candidatePropertyValue).getValue());
+                } catch (ConstraintValueDoNotMatchPropertyTypeException e) {
+                    log.debug("The value of property for a constraint is not valid.", e);
+                    break;
+                }
+                constraints.add(candidateConstraint);
+            }
+            propertyFilters.add(new PropertyFilter(filterEntry.getKey(), toscaType, constraints));
+        }
+        return propertyFilters;
+    }
+
+    @AllArgsConstructor
+    private static class Candidate {
+        private final LocationResourceTemplate resourceTemplate;
+        private final CandidateFilters filters;
+    }
+
+    @AllArgsConstructor
+    private static class CandidateFilters {
+        private static final CandidateFilters NONE = new CandidateFilters(Collections.emptyList(), Collections.emptyMap());
+
+        private final List<PropertyFilter> propertyFilters;
+        private final Map<String, List<PropertyFilter>> capabilityFilters;
+
+        private boolean matches(NodeTemplate nodeTemplate) {
+            if (!matches(propertyFilters, nodeTemplate.getProperties())) {
+                return false;
+            }
+            for (Map.Entry<String, List<PropertyFilter>> capabilityFilterEntry : capabilityFilters.entrySet()) {
+                Capability templateCapability = nodeTemplate.getCapabilities() == null ? null
+                        : nodeTemplate.getCapabilities().get(capabilityFilterEntry.getKey());
+                if (templateCapability != null && !matches(capabilityFilterEntry.getValue(), templateCapability.getProperties())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean matches(List<PropertyFilter> filters, Map<String, AbstractPropertyValue> templateValues) {
+            for (PropertyFilter filter : filters) {
+                if (!filter.matches(templateValues)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    @AllArgsConstructor
+    private static class PropertyFilter {
+        private final String propertyName;
+        private final IPropertyType<?> toscaType;
+        private final List<IMatchPropertyConstraint> constraints;
+
+        private boolean matches(Map<String, AbstractPropertyValue> templateValues) {
+            AbstractPropertyValue templatePropertyValue = templateValues == null ? null : templateValues.get(propertyName);
+            if (!(templatePropertyValue instanceof ScalarPropertyValue)) {
+                return true;
+            }
+            for (IMatchPropertyConstraint constraint : constraints) {
+                try {
+                    constraint.validate(toscaType, ((ScalarPropertyValue) templatePropertyValue).getValue());
+                } catch (ConstraintViolationException e) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
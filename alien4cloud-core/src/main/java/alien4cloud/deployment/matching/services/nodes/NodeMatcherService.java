@@ -73,7 +73,6 @@ public class NodeMatcherService {
 
     public Map<String, List<LocationResourceTemplate>> match(Map<String, NodeType> nodesTypes, Map<String, NodeTemplate> nodesToMatch, String locationId,
             String environmentId) {
-        Map<String, List<LocationResourceTemplate>> matchingResult = Maps.newHashMap();
         Location location = locationService.getOrFail(locationId);
 
         // fetch location resources
@@ -96,19 +95,17 @@ public class NodeMatcherService {
             typesManagedByLocation.add(nodeType.getElementId());
             typesManagedByLocation.addAll(nodeType.getDerivedFrom());
         }
-        INodeMatcherPlugin nodeMatcherPlugin = getNodeMatcherPlugin();
+        Map<String, NodeTemplate> substitutableNodes = Maps.newHashMap();
         for (Map.Entry<String, NodeTemplate> nodeTemplateEntry : nodesToMatch.entrySet()) {
-            String nodeTemplateId = nodeTemplateEntry.getKey();
             NodeTemplate nodeTemplate = nodeTemplateEntry.getValue();
             if (typesManagedByLocation.contains(nodeTemplate.getType())) {
-                NodeType nodeTemplateType = nodesTypes.get(nodeTemplate.getType());
-                if (nodeTemplateType == null) {
+                if (nodesTypes.get(nodeTemplate.getType()) == null) {
                     throw new InvalidArgumentException("The given node types map must contain the type of the node template");
                 }
-                matchingResult.put(nodeTemplateId, nodeMatcherPlugin.matchNode(nodeTemplate, nodeTemplateType, locationResources, matchingConfigurations));
+                substitutableNodes.put(nodeTemplateEntry.getKey(), nodeTemplate);
             }
         }
-        return matchingResult;
+        return getNodeMatcherPlugin().matchNodes(substitutableNodes, nodesTypes, locationResources, matchingConfigurations);
     }
 
     private void filterSelfManagedService(List<ServiceResource> services, String environmentId) {
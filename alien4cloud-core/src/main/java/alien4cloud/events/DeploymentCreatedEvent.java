@@ -11,10 +11,12 @@ public class DeploymentCreatedEvent extends AlienEvent {
     private static final long serialVersionUID = 4523559660777770642L;
 
     private String deploymentId;
+    private String orchestratorId;
 
-    public DeploymentCreatedEvent(Object source, String deploymentId) {
+    public DeploymentCreatedEvent(Object source, String deploymentId, String orchestratorId) {
         super(source);
         this.deploymentId = deploymentId;
+        this.orchestratorId = orchestratorId;
     }
 
 }
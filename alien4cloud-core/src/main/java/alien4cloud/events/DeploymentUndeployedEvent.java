@@ -0,0 +1,22 @@
+package alien4cloud.events;
+
+import lombok.Getter;
+
+/**
+ * An event published when a {@link alien4cloud.model.deployment.Deployment} is marked as undeployed.
+ */
+@Getter
+public class DeploymentUndeployedEvent extends AlienEvent {
+
+    private static final long serialVersionUID = -3126409524837066425L;
+
+    private String deploymentId;
+    private String orchestratorId;
+
+    public DeploymentUndeployedEvent(Object source, String deploymentId, String orchestratorId) {
+        super(source);
+        this.deploymentId = deploymentId;
+        this.orchestratorId = orchestratorId;
+    }
+
+}
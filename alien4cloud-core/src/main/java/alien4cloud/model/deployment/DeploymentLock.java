@@ -0,0 +1,51 @@
+package alien4cloud.model.deployment;
+
+import java.util.List;
+
+import org.elasticsearch.annotation.ESObject;
+import org.elasticsearch.annotation.Id;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.google.common.collect.Lists;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Lock on a deployment shared by all the alien4cloud instances of a cluster.
+ *
+ * Every instance that holds the lock owns a lease that must be renewed before its expiration date, leases of instances that stopped without releasing the
+ * lock expire and are ignored.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@JsonInclude(Include.NON_NULL)
+@ESObject
+public class DeploymentLock {
+    /** Id of the deployment on the orchestrator. */
+    @Id
+    private String id;
+    /** Lease of the instance that holds the lock in write (exclusive) mode. */
+    private Lease writer;
+    /** Leases of the instances that hold the lock in read (shared) mode. */
+    private List<Lease> readers = Lists.newArrayList();
+
+    public DeploymentLock(String id) {
+        this.id = id;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor(suppressConstructorProperties = true)
+    public static class Lease {
+        /** Id of the alien4cloud instance that owns the lease. */
+        private String owner;
+        /** Date (in milliseconds) after which the lease is no longer valid. */
+        private long expirationDate;
+    }
+}
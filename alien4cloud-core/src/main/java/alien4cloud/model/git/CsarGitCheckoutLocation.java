@@ -1,5 +1,9 @@
 package alien4cloud.model.git;
 
+import java.util.Map;
+
+import org.elasticsearch.annotation.ObjectField;
+
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.Getter;
@@ -20,4 +24,7 @@ public class CsarGitCheckoutLocation {
     private String subPath;
     @ApiModelProperty(value = "unused field.", hidden = true)
     private String lastImportedHash;
+    @ObjectField(enabled = false)
+    @ApiModelProperty(value = "Content hash of every archive imported from this location by archive id (name:version).", hidden = true)
+    private Map<String, String> archiveHashes;
 }
\ No newline at end of file
@@ -31,7 +31,7 @@ import com.google.common.collect.Sets;
 
 import alien4cloud.component.ICSARRepositorySearchService;
 import alien4cloud.dao.IGenericSearchDAO;
-import alien4cloud.dao.model.GetMultipleDataResult;
+import alien4cloud.dao.ISearchCursor;
 import alien4cloud.events.LocationTemplateCreated;
 import alien4cloud.exception.NotFoundException;
 import alien4cloud.model.components.IndexedModelUtils;
@@ -77,6 +77,8 @@ public class LocationResourceService implements ILocationResourceService {
     private ICsarDependencyLoader csarDependencyLoader;
     @Inject
     private PluginArchiveIndexer pluginArchiveIndexer;
+    @Inject
+    private LocationResourcesCache locationResourcesCache;
 
     /*
      * (non-Javadoc)
@@ -85,14 +87,19 @@ public class LocationResourceService implements ILocationResourceService {
      */
     @Override
     public LocationResources getLocationResources(Location location) {
-        Orchestrator orchestrator = orchestratorService.get(location.getOrchestratorId());
-        Optional<LocationResources> locationResourcesFromOrchestrator = Optional.empty();
-        if (orchestrator != null && orchestratorPluginService.get(orchestrator.getId()) != null) {
-            locationResourcesFromOrchestrator = Optional.ofNullable(getLocationResourcesFromOrchestrator(location));
-        }
+        // the plugin instance is registered with the orchestrator id and only exists when the orchestrator is enabled.
+        IOrchestratorPlugin orchestratorInstance = orchestratorPluginService.get(location.getOrchestratorId());
+        return locationResourcesCache.get(location, orchestratorInstance, () -> buildLocationResources(location, orchestratorInstance));
+    }
 
+    private LocationResources buildLocationResources(Location location, IOrchestratorPlugin orchestratorInstance) {
         // Also get resource templates from outside of the orchestrator definition - eg custom resources
         List<LocationResourceTemplate> locationResourceTemplates = getResourcesTemplates(location.getId());
+        Optional<LocationResources> locationResourcesFromOrchestrator = Optional.empty();
+        if (orchestratorInstance != null) {
+            locationResourcesFromOrchestrator = Optional.of(getLocationResourcesFromOrchestrator(location, orchestratorInstance, locationResourceTemplates));
+        }
+
         LocationResources locationResources = new LocationResources(getLocationResourceTypes(locationResourceTemplates));
         /*
          * If the orchestrator is present, take node types computed from the resources template
@@ -119,14 +126,18 @@ public class LocationResourceService implements ILocationResourceService {
      */
     @Override
     public LocationResources getLocationResourcesFromOrchestrator(Location location) {
-        LocationResources locationResources = new LocationResources();
         Orchestrator orchestrator = orchestratorService.getOrFail(location.getOrchestratorId());
         IOrchestratorPlugin orchestratorInstance = (IOrchestratorPlugin) orchestratorPluginService.getOrFail(orchestrator.getId());
+        return getLocationResourcesFromOrchestrator(location, orchestratorInstance, getResourcesTemplates(location.getId()));
+    }
+
+    private LocationResources getLocationResourcesFromOrchestrator(Location location, IOrchestratorPlugin orchestratorInstance,
+            List<LocationResourceTemplate> locationResourceTemplates) {
+        LocationResources locationResources = new LocationResources();
         ILocationConfiguratorPlugin configuratorPlugin = orchestratorInstance.getConfigurator(location.getInfrastructureType());
         List<String> allExposedTypes = configuratorPlugin.getResourcesTypes();
         fillLocationResourceTypes(allExposedTypes, locationResources, location.getDependencies());
 
-        List<LocationResourceTemplate> locationResourceTemplates = getResourcesTemplates(location.getId());
         setLocationRessource(locationResourceTemplates, locationResources);
         return locationResources;
     }
@@ -163,8 +174,11 @@ public class LocationResourceService implements ILocationResourceService {
      * Put the exposed types to the appropriate List of locationResourceTypes passed as param
      */
     public void fillLocationResourceTypes(Collection<String> exposedTypes, LocationResourceTypes locationResourceTypes, Set<CSARDependency> dependencies) {
+        // load the exposed types and then their capability types with a single request each.
+        Map<String, NodeType> exposedNodeTypes = getRequiredElementsInDependencies(NodeType.class, exposedTypes, dependencies);
+        Set<String> capabilityTypes = Sets.newHashSet();
         for (String exposedType : exposedTypes) {
-            NodeType exposedIndexedNodeType = csarRepoSearchService.getRequiredElementInDependencies(NodeType.class, exposedType, dependencies);
+            NodeType exposedIndexedNodeType = exposedNodeTypes.get(exposedType);
 
             if (exposedIndexedNodeType.isAbstract()) {
                 locationResourceTypes.getConfigurationTypes().put(exposedType, exposedIndexedNodeType);
@@ -172,13 +186,25 @@ public class LocationResourceService implements ILocationResourceService {
                 locationResourceTypes.getNodeTypes().put(exposedType, exposedIndexedNodeType);
             }
 
-            if (exposedIndexedNodeType.getCapabilities() != null && !exposedIndexedNodeType.getCapabilities().isEmpty()) {
+            if (exposedIndexedNodeType.getCapabilities() != null) {
                 for (CapabilityDefinition capabilityDefinition : exposedIndexedNodeType.getCapabilities()) {
-                    locationResourceTypes.getCapabilityTypes().put(capabilityDefinition.getType(),
-                            csarRepoSearchService.getRequiredElementInDependencies(CapabilityType.class, capabilityDefinition.getType(), dependencies));
+                    capabilityTypes.add(capabilityDefinition.getType());
                 }
             }
         }
+        locationResourceTypes.getCapabilityTypes().putAll(getRequiredElementsInDependencies(CapabilityType.class, capabilityTypes, dependencies));
+    }
+
+    private <T extends AbstractToscaType> Map<String, T> getRequiredElementsInDependencies(Class<T> elementClass, Collection<String> elementIds,
+            Set<CSARDependency> dependencies) {
+        Map<String, T> elements = csarRepoSearchService.getElementsInDependencies(elementClass, elementIds, dependencies);
+        for (String elementId : elementIds) {
+            if (!elements.containsKey(elementId)) {
+                throw new NotFoundException("Element elementId: [" + elementId + "] of type [" + elementClass.getSimpleName()
+                        + "] cannot be found in dependencies " + dependencies);
+            }
+        }
+        return elements;
     }
 
     /**
@@ -239,11 +265,10 @@ public class LocationResourceService implements ILocationResourceService {
 
     private List<LocationResourceTemplate> getResourcesTemplates(Map<String, String[]> filter) {
         // get all defined resources for this resource.
-        GetMultipleDataResult<LocationResourceTemplate> result = alienDAO.find(LocationResourceTemplate.class, filter, Integer.MAX_VALUE);
-        if (result.getData() == null) {
-            return Lists.newArrayList();
+        try (ISearchCursor<LocationResourceTemplate> resourceTemplates = alienDAO.buildQuery(LocationResourceTemplate.class).setFilters(filter)
+                .prepareSearch().scroll()) {
+            return Lists.newArrayList(resourceTemplates);
         }
-        return Lists.newArrayList(result.getData());
     }
 
     /*
@@ -348,6 +373,7 @@ public class LocationResourceService implements ILocationResourceService {
         alienDAO.delete(LocationResourceTemplate.class, resourceId);
         refreshDependencies(location);
         alienDAO.save(location);
+        locationResourcesCache.invalidate(location.getId());
     }
 
     /*
@@ -478,6 +504,7 @@ public class LocationResourceService implements ILocationResourceService {
         Location location = locationService.getOrFail(locationId);
         alienDAO.delete(LocationResourceTemplate.class, builder);
         alienDAO.save(location);
+        locationResourcesCache.invalidate(locationId);
     }
 
     /*
@@ -490,6 +517,7 @@ public class LocationResourceService implements ILocationResourceService {
     public void saveResource(Location location, LocationResourceTemplate resourceTemplate) {
         alienDAO.save(location);
         alienDAO.save(resourceTemplate);
+        locationResourcesCache.invalidate(location.getId());
     }
 
     /*
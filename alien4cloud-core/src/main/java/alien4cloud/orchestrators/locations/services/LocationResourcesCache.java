@@ -0,0 +1,149 @@
+package alien4cloud.orchestrators.locations.services;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.alien4cloud.alm.events.AfterPermissionRevokedEvent;
+import org.alien4cloud.tosca.catalog.events.AfterArchiveDeleted;
+import org.alien4cloud.tosca.catalog.events.AfterArchiveIndexed;
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import alien4cloud.model.orchestrators.locations.Location;
+import alien4cloud.model.orchestrators.locations.LocationResources;
+import alien4cloud.orchestrators.locations.events.AfterLocationDeleted;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache of the {@link LocationResources} of every location so that node matching doesn't query the orchestrator plugin, the resource templates and the
+ * types on every request.
+ *
+ * Entries are invalidated when the resources of a location are saved or deleted, when a location is deleted, when archives are indexed or deleted and when
+ * permissions on resources are revoked. An entry is also ignored if the location dependencies or the orchestrator plugin instance changed since it was built.
+ * Every read returns a copy of the cached collections that callers can modify, types and templates are shared and must be considered as read-only.
+ *
+ * Invalidations increment a generation counter (per location and global) before removing the entries and every entry records the generations read before
+ * its resources were loaded: an entry loaded while an invalidation happened may still be put in the cache but it is never returned.
+ */
+@Slf4j
+@Component
+public class LocationResourcesCache {
+    private final Cache<String, CachedLocationResources> cache;
+    private final AtomicLong globalGeneration = new AtomicLong();
+    private final Map<String, AtomicLong> locationGenerations = Maps.newConcurrentMap();
+
+    public LocationResourcesCache(@Value("${location_resources_cache.expire_after_write_minutes:60}") long expireAfterWriteMinutes) {
+        cache = CacheBuilder.newBuilder().expireAfterWrite(expireAfterWriteMinutes, TimeUnit.MINUTES).recordStats().build();
+    }
+
+    /**
+     * Get the resources of a location from the cache or build and cache them.
+     *
+     * @param location The location for which to get resources.
+     * @param orchestratorInstance The orchestrator plugin instance of the location (null if the orchestrator is not enabled).
+     * @param loader The loader to build the location resources if not cached.
+     * @return A copy of the location resources.
+     */
+    public LocationResources get(Location location, Object orchestratorInstance, Supplier<LocationResources> loader) {
+        // generations must be read before the resources are loaded so that an invalidation during the load makes the loaded entry stale.
+        long global = globalGeneration.get();
+        long local = getLocationGeneration(location.getId()).get();
+        CachedLocationResources cached = cache.getIfPresent(location.getId());
+        if (cached == null || cached.globalGeneration != global || cached.locationGeneration != local || cached.orchestratorInstance != orchestratorInstance
+                || !cached.dependencies.equals(location.getDependencies())) {
+            cached = new CachedLocationResources(global, local, orchestratorInstance, Sets.newHashSet(location.getDependencies()), loader.get());
+            cache.put(location.getId(), cached);
+        }
+        return copy(cached.locationResources);
+    }
+
+    /**
+     * Remove the resources of a location from the cache.
+     *
+     * @param locationId The id of the location.
+     */
+    public void invalidate(String locationId) {
+        log.debug("Invalidate cached resources of location {}", locationId);
+        getLocationGeneration(locationId).incrementAndGet();
+        cache.invalidate(locationId);
+    }
+
+    /**
+     * Remove the resources of all locations from the cache.
+     */
+    public void invalidateAll() {
+        globalGeneration.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @EventListener
+    public void handleLocationDeleted(AfterLocationDeleted event) {
+        invalidate(event.getLocationId());
+    }
+
+    @EventListener
+    public void handleArchiveIndexed(AfterArchiveIndexed event) {
+        // types exposed by the locations may have been updated
+        invalidateAll();
+    }
+
+    @EventListener
+    public void handleArchiveDeleted(AfterArchiveDeleted event) {
+        invalidateAll();
+    }
+
+    @EventListener(condition = "#event.on.clazz.simpleName == 'LocationResourceTemplate'")
+    public void handlePermissionRevoked(AfterPermissionRevokedEvent event) {
+        // permissions may be revoked directly through the dao (when a user or a group is deleted for example)
+        invalidateAll();
+    }
+
+    /**
+     * Get the cache statistics (hits, misses and evictions).
+     *
+     * @return The statistics of the cache.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    private AtomicLong getLocationGeneration(String locationId) {
+        // generations are never removed (even when the location is deleted) so that a stale entry can never match a new counter.
+        return locationGenerations.computeIfAbsent(locationId, id -> new AtomicLong());
+    }
+
+    private LocationResources copy(LocationResources source) {
+        LocationResources copy = new LocationResources();
+        copy.setConfigurationTypes(Maps.newHashMap(source.getConfigurationTypes()));
+        copy.setNodeTypes(Maps.newHashMap(source.getNodeTypes()));
+        copy.setProvidedTypes(Sets.newHashSet(source.getProvidedTypes()));
+        copy.setCapabilityTypes(Maps.newHashMap(source.getCapabilityTypes()));
+        copy.setAllNodeTypes(Maps.newHashMap(source.getAllNodeTypes()));
+        copy.setOnDemandTypes(Maps.newHashMap(source.getOnDemandTypes()));
+        copy.setConfigurationTemplates(Lists.newArrayList(source.getConfigurationTemplates()));
+        copy.setNodeTemplates(Lists.newArrayList(source.getNodeTemplates()));
+        return copy;
+    }
+
+    @AllArgsConstructor
+    private static class CachedLocationResources {
+        private final long globalGeneration;
+        private final long locationGeneration;
+        private final Object orchestratorInstance;
+        private final Set<CSARDependency> dependencies;
+        private final LocationResources locationResources;
+    }
+}
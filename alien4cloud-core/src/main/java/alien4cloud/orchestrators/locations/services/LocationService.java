@@ -73,6 +73,8 @@ public class LocationService {
     private ApplicationContext applicationContext;
     @Resource
     private LocationSecurityService locationSecurityService;
+    @Inject
+    private LocationResourcesCache locationResourcesCache;
 
     public Location getLocation(String orchestratorId, String locationId) {
         Location location = getOrFail(locationId);
@@ -222,6 +224,7 @@ public class LocationService {
             }
             alienDAO.save(templates.toArray(new LocationResourceTemplate[templates.size()]));
             alienDAO.save(location);
+            locationResourcesCache.invalidate(location.getId());
         }
         return templates;
     }
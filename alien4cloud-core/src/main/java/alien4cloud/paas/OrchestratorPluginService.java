@@ -1,5 +1,6 @@
 package alien4cloud.paas;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -7,20 +8,25 @@ import java.util.Map;
 import java.util.concurrent.ScheduledFuture;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.inject.Inject;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
 import com.google.common.collect.Maps;
 
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.events.DeploymentCreatedEvent;
+import alien4cloud.events.DeploymentUndeployedEvent;
 import alien4cloud.exception.AlreadyExistException;
 import alien4cloud.orchestrators.plugin.IOrchestratorPlugin;
 import alien4cloud.paas.exception.OrchestratorDisabledException;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -38,6 +44,15 @@ public class OrchestratorPluginService implements IPaasEventService {
     /** Interval in milliseconds on which to retrieve monitoring events from a PaaS provider. */
     @Value("${paas_monitor.monitor_interval_ms}")
     private long monitorIntervalMs = 1000 * 30;
+    /** Maximum interval in milliseconds between two pollings when a PaaS provider keeps returning no events. */
+    @Value("${paas_monitor.max_monitor_interval_ms:30000}")
+    private long maxMonitorIntervalMs;
+    /** Capacity of the event queue of each listener, events that don't fit in the queue of a listener are moved to the dead letters. */
+    @Value("${paas_monitor.dispatcher.queue_capacity:1000}")
+    private int dispatcherQueueCapacity;
+    /** File to which the events that a listener failed to process are appended. */
+    @Value("${paas_monitor.dispatcher.dead_letters_file:${directories.alien:.}/paas_monitor/dead_letters.json}")
+    private String dispatcherDeadLettersFile;
     @Inject
     private DeploymentStatusEventHandler deploymentStatusEventHandler;
 
@@ -46,6 +61,9 @@ public class OrchestratorPluginService implements IPaasEventService {
     @SuppressWarnings("rawtypes")
     private List<IPaasEventListener> listeners = Collections.synchronizedList(new ArrayList<IPaasEventListener>());
 
+    @Getter
+    private PaaSEventDispatcher eventDispatcher;
+
     public OrchestratorPluginService() {
         log.info("Create new PaaSProvider instance.");
     }
@@ -59,6 +77,12 @@ public class OrchestratorPluginService implements IPaasEventService {
     public void init() {
         // Deployment status event handler should be the first handler has quite important.
         listeners.add(0, deploymentStatusEventHandler);
+        eventDispatcher = new PaaSEventDispatcher(dispatcherQueueCapacity, Paths.get(dispatcherDeadLettersFile));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        eventDispatcher.shutdown();
     }
 
     /**
@@ -73,12 +97,72 @@ public class OrchestratorPluginService implements IPaasEventService {
             throw new AlreadyExistException("Cloud [" + orchestratorId + "] has already been registered");
         }
         // create the polling monitor responsible to monitor this instance.
-        PaaSProviderPollingMonitor monitor = new PaaSProviderPollingMonitor(alienDao, alienMonitorDao, instance, listeners, orchestratorId);
-        ScheduledFuture<?> monitorFuture = scheduler.scheduleAtFixedRate(monitor, monitorIntervalMs);
-        Registration registration = new Registration(instance, monitorFuture);
+        PaaSProviderPollingMonitor monitor = new PaaSProviderPollingMonitor(alienDao, alienMonitorDao, instance, listeners, eventDispatcher,
+                orchestratorId, monitorIntervalMs, maxMonitorIntervalMs);
+        Registration registration = new Registration(instance, monitor, scheduler.schedule(monitor, monitor));
         monitorRegistrations.put(orchestratorId, registration);
     }
 
+    /**
+     * Get the current polling interval of every registered orchestrator.
+     *
+     * @return A map of polling interval in milliseconds by orchestrator id.
+     */
+    public Map<String, Long> getMonitorIntervals() {
+        Map<String, Long> intervals = Maps.newHashMap();
+        for (Map.Entry<String, Registration> entry : Maps.newHashMap(monitorRegistrations).entrySet()) {
+            intervals.put(entry.getKey(), entry.getValue().monitor.getCurrentIntervalMs());
+        }
+        return intervals;
+    }
+
+    /**
+     * Get the ratio of polls that returned events for every registered orchestrator.
+     *
+     * @return A map of poll yield (between 0 and 1) by orchestrator id.
+     */
+    public Map<String, Double> getMonitorPollYields() {
+        Map<String, Double> yields = Maps.newHashMap();
+        for (Map.Entry<String, Registration> entry : Maps.newHashMap(monitorRegistrations).entrySet()) {
+            yields.put(entry.getKey(), entry.getValue().monitor.getPollYield());
+        }
+        return yields;
+    }
+
+    @EventListener
+    public void handleDeploymentCreated(DeploymentCreatedEvent event) {
+        Registration registration = monitorRegistrations.get(event.getOrchestratorId());
+        if (registration != null) {
+            registration.monitor.deploymentCreated(event.getDeploymentId());
+            // the monitor may have backed off, reschedule it so the events of the new deployment are polled at the minimum interval.
+            registration.reschedule();
+        }
+    }
+
+    @EventListener
+    public void handleDeploymentUndeployed(DeploymentUndeployedEvent event) {
+        Registration registration = monitorRegistrations.get(event.getOrchestratorId());
+        if (registration != null) {
+            registration.monitor.deploymentUndeployed(event.getDeploymentId());
+            registration.reschedule();
+        }
+    }
+
+    /**
+     * Notify the monitor of an orchestrator that an operation has been requested on one of its deployments so that the resulting events are polled at the
+     * minimum interval even if the monitor has backed off.
+     *
+     * @param orchestratorId The id of the orchestrator.
+     * @param deploymentId The id of the deployment on which the operation is performed.
+     */
+    public void operationRequested(String orchestratorId, String deploymentId) {
+        Registration registration = monitorRegistrations.get(orchestratorId);
+        if (registration != null) {
+            registration.monitor.operationRequested(deploymentId);
+            registration.reschedule();
+        }
+    }
+
     /**
      * Remove the registration for the given cloud (will stop monitoring the cloud using the registered IOrchestratorPlugin).
      *
@@ -88,7 +172,7 @@ public class OrchestratorPluginService implements IPaasEventService {
         log.info("Unregister provider with id {}", orchestratorId);
         Registration registration = monitorRegistrations.remove(orchestratorId);
         if (registration != null) {
-            registration.registration.cancel(false);
+            registration.cancel();
             return registration.instance;
         } else {
             return null;
@@ -126,6 +210,19 @@ public class OrchestratorPluginService implements IPaasEventService {
     @AllArgsConstructor(suppressConstructorProperties = true)
     private class Registration {
         private IOrchestratorPlugin instance;
+        private PaaSProviderPollingMonitor monitor;
         private ScheduledFuture<?> registration;
+
+        private synchronized void reschedule() {
+            if (registration.isCancelled()) {
+                return;
+            }
+            registration.cancel(false);
+            registration = scheduler.schedule(monitor, monitor);
+        }
+
+        private synchronized void cancel() {
+            registration.cancel(false);
+        }
     }
 }
@@ -0,0 +1,256 @@
+package alien4cloud.paas;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import alien4cloud.paas.model.AbstractMonitorEvent;
+import alien4cloud.rest.utils.JsonUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dispatch monitor events to the {@link IPaasEventListener}s asynchronously.
+ *
+ * Each listener has its own bounded queue processed by a dedicated worker thread so that a slow listener never delays the other ones nor the polling
+ * thread: when the queue of a listener is full the event is moved to the dead letters of this listener instead of blocking the dispatch. A listener
+ * receives the events in the order in which they are dispatched. The first listener of the list given to {@link #dispatch(List, AbstractMonitorEvent)}
+ * (the deployment status handler) leads the others: the other listeners process an event only once the first listener has processed it.
+ *
+ * Events that a listener fails to process (or that don't fit in its queue) are appended to the dead letters file rather than retried. Every dead letter is
+ * logged and counted, the latest ones are also kept in memory. Worker threads are stopped by {@link #shutdown()}.
+ */
+@Slf4j
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class PaaSEventDispatcher {
+    private static final int MAX_DEAD_LETTERS = 1000;
+
+    private final int queueCapacity;
+    private final Path deadLettersFile;
+    private final Map<IPaasEventListener, ListenerWorker> listenerWorkers = new ConcurrentHashMap<>();
+    private final Deque<DeadLetter> deadLetters = new ConcurrentLinkedDeque<>();
+    private final Object deadLettersFileLock = new Object();
+    private final AtomicLong deadLettersCount = new AtomicLong();
+    private final AtomicLong rejectedEventsCount = new AtomicLong();
+    private final AtomicLong lostDeadLettersCount = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * Create a new dispatcher.
+     *
+     * @param queueCapacity The capacity of the queue of each listener.
+     * @param deadLettersFile The file to which the events that a listener failed to process are appended.
+     */
+    public PaaSEventDispatcher(int queueCapacity, Path deadLettersFile) {
+        this.queueCapacity = queueCapacity;
+        this.deadLettersFile = deadLettersFile;
+    }
+
+    /**
+     * Enqueue an event for the given listeners. This method never blocks, an event that doesn't fit in the queue of a listener is moved to the dead
+     * letters.
+     *
+     * @param listeners The listeners to which to dispatch the event, the first one processes the event before the other ones.
+     * @param event The event to dispatch.
+     */
+    public void dispatch(List<IPaasEventListener> listeners, AbstractMonitorEvent event) {
+        List<IPaasEventListener> orderedListeners;
+        // listeners may be a synchronized list that is modified when plugins are loaded
+        synchronized (listeners) {
+            orderedListeners = new ArrayList<>(listeners);
+        }
+        CountDownLatch leaderProcessed = new CountDownLatch(1);
+        long enqueueDate = System.currentTimeMillis();
+        for (int i = 0; i < orderedListeners.size() && running; i++) {
+            IPaasEventListener listener = orderedListeners.get(i);
+            boolean leader = i == 0;
+            QueuedEvent queuedEvent = new QueuedEvent(event, leader ? null : leaderProcessed, leader ? leaderProcessed : null, enqueueDate);
+            if (!listenerWorkers.computeIfAbsent(listener, ListenerWorker::new).queue.offer(queuedEvent)) {
+                log.warn("Queue of listener {} is full, event {} is moved to dead letters.", listener, event);
+                rejectedEventsCount.incrementAndGet();
+                queuedEvent.processed();
+                addDeadLetter(listener, event, "Listener queue is full");
+            }
+        }
+    }
+
+    /**
+     * Get the total number of events waiting to be processed by the listeners.
+     *
+     * @return The number of events in all the listeners queues.
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (ListenerWorker worker : listenerWorkers.values()) {
+            depth += worker.queue.size();
+        }
+        return depth;
+    }
+
+    /**
+     * Get the maximum lag between the enqueue and the processing of the last processed event of every listener.
+     *
+     * @return The dispatch lag in milliseconds.
+     */
+    public long getLagMillis() {
+        long lag = 0;
+        for (ListenerWorker worker : listenerWorkers.values()) {
+            lag = Math.max(lag, worker.lastLagMillis);
+        }
+        return lag;
+    }
+
+    /**
+     * Get the number of events that failed to be processed by a listener since the dispatcher creation.
+     *
+     * @return The number of dead letters.
+     */
+    public long getDeadLettersCount() {
+        return deadLettersCount.get();
+    }
+
+    /**
+     * Get the number of events that were not enqueued for a listener because its queue was full.
+     *
+     * @return The number of rejected events, rejected events are also dead letters.
+     */
+    public long getRejectedEventsCount() {
+        return rejectedEventsCount.get();
+    }
+
+    /**
+     * Get the number of dead letters that could not be written to the dead letters file.
+     *
+     * @return The number of lost dead letters.
+     */
+    public long getLostDeadLettersCount() {
+        return lostDeadLettersCount.get();
+    }
+
+    /**
+     * Get the latest events that failed to be processed by a listener, all the dead letters are available in the dead letters file.
+     *
+     * @return The latest dead letters (at most 1000).
+     */
+    public List<DeadLetter> getDeadLetters() {
+        return new ArrayList<>(deadLetters);
+    }
+
+    /**
+     * Stop all the workers, pending events are lost.
+     */
+    public void shutdown() {
+        running = false;
+        for (ListenerWorker worker : listenerWorkers.values()) {
+            worker.thread.interrupt();
+        }
+    }
+
+    private void addDeadLetter(IPaasEventListener listener, AbstractMonitorEvent event, String error) {
+        deadLettersCount.incrementAndGet();
+        DeadLetter deadLetter = new DeadLetter(listener.getClass().getName(), event.getClass().getName(), event, error, new Date());
+        deadLetters.addLast(deadLetter);
+        while (deadLetters.size() > MAX_DEAD_LETTERS) {
+            deadLetters.pollFirst();
+        }
+        synchronized (deadLettersFileLock) {
+            try {
+                Files.createDirectories(deadLettersFile.toAbsolutePath().getParent());
+                Files.write(deadLettersFile, Collections.singletonList(JsonUtil.toString(deadLetter)), StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                lostDeadLettersCount.incrementAndGet();
+                log.error("Unable to write dead letter for event {} of listener {} to {}, the dead letter is lost", event, listener, deadLettersFile, e);
+            }
+        }
+    }
+
+    /**
+     * The queue and worker thread of a listener.
+     */
+    private class ListenerWorker {
+        private final IPaasEventListener listener;
+        private final BlockingQueue<QueuedEvent> queue;
+        private final Thread thread;
+        private volatile long lastLagMillis;
+
+        private ListenerWorker(IPaasEventListener listener) {
+            this.listener = listener;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this::process, "paas-event-dispatcher-" + listener.getClass().getSimpleName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void process() {
+            while (running) {
+                QueuedEvent queuedEvent;
+                try {
+                    queuedEvent = queue.take();
+                    if (queuedEvent.leaderProcessed != null) {
+                        queuedEvent.leaderProcessed.await();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                lastLagMillis = System.currentTimeMillis() - queuedEvent.enqueueDate;
+                try {
+                    if (listener.canHandle(queuedEvent.event)) {
+                        listener.eventHappened(queuedEvent.event);
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to dispatch event {} to listener {}, event is moved to dead letters.", queuedEvent.event, listener, e);
+                    addDeadLetter(listener, queuedEvent.event, e.getMessage());
+                } finally {
+                    queuedEvent.processed();
+                }
+            }
+        }
+    }
+
+    @AllArgsConstructor(suppressConstructorProperties = true)
+    private static class QueuedEvent {
+        private final AbstractMonitorEvent event;
+        /** Latch to wait for before processing the event, null for the leading listener. */
+        private final CountDownLatch leaderProcessed;
+        /** Latch released once the leading listener has processed the event, null for the other listeners. */
+        private final CountDownLatch processedLatch;
+        private final long enqueueDate;
+
+        private void processed() {
+            if (processedLatch != null) {
+                processedLatch.countDown();
+            }
+        }
+    }
+
+    /**
+     * An event that a listener failed to process.
+     */
+    @Getter
+    @AllArgsConstructor(suppressConstructorProperties = true)
+    public static class DeadLetter {
+        private final String listener;
+        /** Class of the event, required to read the event back from the dead letters file. */
+        private final String eventType;
+        private final AbstractMonitorEvent event;
+        private final String error;
+        private final Date date;
+    }
+}
@@ -4,31 +4,43 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.elasticsearch.mapping.QueryHelper;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
 
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.ISearchCursor;
 import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.model.deployment.Deployment;
 import alien4cloud.paas.model.AbstractMonitorEvent;
+import alien4cloud.paas.model.DeploymentStatus;
 import alien4cloud.paas.model.PaaSDeploymentStatusMonitorEvent;
 import alien4cloud.utils.MapUtil;
 import alien4cloud.utils.TypeScanner;
-import lombok.SneakyThrows;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Monitor service to watch a deployed topologies for a given PaaS provider.
+ *
+ * The monitor is also the {@link Trigger} of its own executions: the polling interval is doubled (up to a maximum) each time a poll returns no events and
+ * reset to the minimum interval as soon as events are received or an operation is requested to the orchestrator. The active deployments of the orchestrator
+ * are loaded once from elasticsearch and then maintained from the deployment creation and undeployment notifications, deployments created while the
+ * active deployments are loaded are merged once the load completes. An undeployed deployment is still polled until its UNDEPLOYED status event is received
+ * (or for a few maximum intervals if the orchestrator never sends it) so that its last events are not lost.
  */
 @SuppressWarnings("unchecked")
 @Slf4j
-public class PaaSProviderPollingMonitor implements Runnable {
+public class PaaSProviderPollingMonitor implements Runnable, Trigger {
     private static final int MAX_POLLED_EVENTS = 500;
-    private static final int MAX_LISTENER_RETRY = 3;
-    private static final long LISTENER_FAIL_RETRY_SLEEP_MS = 10;
+    private static final int ACTIVE_DEPLOYMENTS_PAGE_SIZE = 100;
+    /** Number of maximum polling intervals during which an undeployed deployment is polled while waiting for its UNDEPLOYED status event. */
+    private static final int UNDEPLOYED_GRACE_INTERVALS = 5;
 
     private final IGenericSearchDAO dao;
     private final IGenericSearchDAO monitorDAO;
@@ -36,20 +48,43 @@ public class PaaSProviderPollingMonitor implements Runnable {
     private Date lastPollingDate;
     @SuppressWarnings("rawtypes")
     private List<IPaasEventListener> listeners;
+    private final PaaSEventDispatcher eventDispatcher;
     private PaaSEventsCallback paaSEventsCallback;
     private String orchestratorId;
-    private boolean hasDeployments = false;
     private boolean getEventsInProgress = false;
+    /** Ids of the active deployments of the orchestrator, null when they have to be (re)loaded from elasticsearch. */
+    private volatile Set<String> activeDeploymentIds;
+    /** Ids of the deployments created while the active deployments are not loaded, merged in the active deployments once loaded. */
+    private final Set<String> pendingDeploymentIds = Sets.newHashSet();
+    /** Lock that guards the switch between the pending and the loaded active deployments. */
+    private final Object deploymentIdsLock = new Object();
+    /** Date until which the undeployed deployments are polled by deployment id. */
+    private final Map<String, Long> undeployedDeploymentDeadlines = Maps.newConcurrentMap();
+
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    /** Interval to wait before the next poll. */
+    @Getter
+    private volatile long currentIntervalMs;
+    private final AtomicLong pollCount = new AtomicLong();
+    private final AtomicLong fruitfulPollCount = new AtomicLong();
 
     /**
      * Create a new instance of the {@link PaaSProviderPollingMonitor} to monitor the given paas provider.
      *
      * @param paaSProvider The paas provider to monitor.
+     * @param eventDispatcher The dispatcher in charge of delivering the polled events to the listeners.
+     * @param minIntervalMs The interval between polls when the orchestrator returns events.
+     * @param maxIntervalMs The maximum interval between polls when the orchestrator keeps returning no events.
      */
     @SuppressWarnings("rawtypes")
     public PaaSProviderPollingMonitor(IGenericSearchDAO dao, IGenericSearchDAO monitorDAO, IPaaSProvider paaSProvider, List<IPaasEventListener> listeners,
-            String orchestratorId) {
+            PaaSEventDispatcher eventDispatcher, String orchestratorId, long minIntervalMs, long maxIntervalMs) {
         this.orchestratorId = orchestratorId;
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = Math.max(minIntervalMs, maxIntervalMs);
+        this.currentIntervalMs = minIntervalMs;
+        this.eventDispatcher = eventDispatcher;
         this.dao = dao;
         this.monitorDAO = monitorDAO;
         this.paaSProvider = paaSProvider;
@@ -101,30 +136,43 @@ public class PaaSProviderPollingMonitor implements Runnable {
                         log.debug(event.toString());
                     }
                 }
-                if (auditEvents != null && auditEvents.length > 0) {
-                    Date lastEventDate = lastPollingDate;
-                    for (AbstractMonitorEvent event : auditEvents) {
-                        // Enrich event with cloud id before saving them
-                        event.setOrchestratorId(orchestratorId);
-                        // If not set initialize a date for event or update the last event date (last polling)
-                        if (event.getDate() > 0) {
-                            Date eventDate = new Date(event.getDate());
-                            lastEventDate = eventDate.after(lastEventDate) ? eventDate : lastEventDate;
-                        } else {
-                            event.setDate(System.currentTimeMillis());
-                        }
-
-                        // dispatch the event to all listeners
-                        for (IPaasEventListener listener : listeners) {
-                            dispatchEvent(listener, event);
-                        }
+                if (auditEvents == null || auditEvents.length == 0) {
+                    pollCompleted(false);
+                    getEventsInProgress = false;
+                    return;
+                }
+                pollCompleted(true);
+                Date lastEventDate = lastPollingDate;
+                for (AbstractMonitorEvent event : auditEvents) {
+                    if (event instanceof PaaSDeploymentStatusMonitorEvent
+                            && DeploymentStatus.UNDEPLOYED.equals(((PaaSDeploymentStatusMonitorEvent) event).getDeploymentStatus())) {
+                        // this is the last event of the deployment, there is no need to poll it anymore.
+                        removeDeployment(event.getDeploymentId());
                     }
-                    monitorDAO.save(auditEvents);
-                    if (lastEventDate != null) {
-                        lastPollingDate = lastEventDate;
+                    // Enrich event with cloud id before saving them
+                    event.setOrchestratorId(orchestratorId);
+                    // If not set initialize a date for event or update the last event date (last polling)
+                    if (event.getDate() > 0) {
+                        Date eventDate = new Date(event.getDate());
+                        lastEventDate = eventDate.after(lastEventDate) ? eventDate : lastEventDate;
+                    } else {
+                        event.setDate(System.currentTimeMillis());
                     }
                 }
-                getEventsInProgress = false;
+                monitorDAO.save(auditEvents);
+                if (lastEventDate != null) {
+                    lastPollingDate = lastEventDate;
+                }
+            }
+            // Enqueue events for the listeners outside of the monitor lock, polling is not re-triggered until events are enqueued (getEventsInProgress).
+            try {
+                for (AbstractMonitorEvent event : auditEvents) {
+                    eventDispatcher.dispatch(listeners, event);
+                }
+            } finally {
+                synchronized (PaaSProviderPollingMonitor.this) {
+                    getEventsInProgress = false;
+                }
             }
         }
 
@@ -134,45 +182,13 @@ public class PaaSProviderPollingMonitor implements Runnable {
                 getEventsInProgress = false;
                 // Make it re-verify if has deployment returns something in order to no loop infinitely
                 // If the PaaS is down, there might be a chance that the deployment has been marked as failed
-                hasDeployments = false;
+                activeDeploymentIds = null;
+                pollCompleted(false);
                 log.error("Error happened while trying to retrieve events from PaaS provider", throwable);
             }
         }
     }
 
-    /**
-     * Dispatch an event to the registered listener.
-     *
-     * @param listener The listener to which to send the event.
-     * @param event The event to dispatch.
-     */
-    private void dispatchEvent(IPaasEventListener listener, AbstractMonitorEvent event) {
-        dispatchEvent(listener, event, 0);
-    }
-
-    /**
-     * Dispatch an event to the registered listener.
-     * 
-     * @param listener The listener to which to send the event.
-     * @param event The event to dispatch.
-     * @param retry The current retry index (0 for first dispatch)
-     */
-    @SneakyThrows
-    private void dispatchEvent(IPaasEventListener listener, AbstractMonitorEvent event, int retry) {
-        try {
-            if (listener.canHandle(event)) {
-                listener.eventHappened(event);
-            }
-        } catch (Exception e) {
-            log.error("Failed to dispatch event {} to listener {} retry {} on {}.", event.toString(), listener.toString(), retry, MAX_LISTENER_RETRY, e);
-            // Even if that fails
-            if (retry < MAX_LISTENER_RETRY) {
-                Thread.sleep(LISTENER_FAIL_RETRY_SLEEP_MS);
-                dispatchEvent(listener, event, retry + 1);
-            }
-        }
-    }
-
     @Override
     public synchronized void run() {
         if (log.isTraceEnabled()) {
@@ -182,25 +198,125 @@ public class PaaSProviderPollingMonitor implements Runnable {
             // Get events since is running
             return;
         }
-        getEventsInProgress = true;
-        if (hasDeployments) {
+        if (hasDeployments()) {
+            getEventsInProgress = true;
             if (log.isDebugEnabled()) {
                 log.debug("Polling from date {}", lastPollingDate);
             }
             paaSProvider.getEventsSince(lastPollingDate, MAX_POLLED_EVENTS, paaSEventsCallback);
+        }
+    }
+
+    @Override
+    public Date nextExecutionTime(TriggerContext triggerContext) {
+        Date lastCompletion = triggerContext.lastCompletionTime();
+        long from = lastCompletion == null ? System.currentTimeMillis() : lastCompletion.getTime();
+        return new Date(from + currentIntervalMs);
+    }
+
+    /**
+     * Notify the monitor that a deployment has been created on the orchestrator.
+     *
+     * @param deploymentId The id of the created deployment.
+     */
+    public void deploymentCreated(String deploymentId) {
+        synchronized (deploymentIdsLock) {
+            Set<String> deploymentIds = activeDeploymentIds;
+            if (deploymentIds == null) {
+                // the active deployments are being loaded and the load may not see the new deployment.
+                pendingDeploymentIds.add(deploymentId);
+            } else {
+                deploymentIds.add(deploymentId);
+            }
+        }
+        undeployedDeploymentDeadlines.remove(deploymentId);
+        currentIntervalMs = minIntervalMs;
+    }
+
+    /**
+     * Notify the monitor that an operation (update, undeploy, scale, workflow...) has been requested on a deployment of the orchestrator, events are expected
+     * soon so the polling interval is reset to the minimum.
+     *
+     * @param deploymentId The id of the deployment on which the operation is performed.
+     */
+    public void operationRequested(String deploymentId) {
+        currentIntervalMs = minIntervalMs;
+    }
+
+    /**
+     * Notify the monitor that a deployment of the orchestrator has been undeployed. The deployment is polled until its UNDEPLOYED status event is received.
+     *
+     * @param deploymentId The id of the undeployed deployment.
+     */
+    public void deploymentUndeployed(String deploymentId) {
+        boolean polled;
+        synchronized (deploymentIdsLock) {
+            Set<String> deploymentIds = activeDeploymentIds;
+            polled = deploymentIds == null ? pendingDeploymentIds.contains(deploymentId) : deploymentIds.contains(deploymentId);
+        }
+        if (polled) {
+            undeployedDeploymentDeadlines.put(deploymentId, System.currentTimeMillis() + UNDEPLOYED_GRACE_INTERVALS * maxIntervalMs);
+        }
+        currentIntervalMs = minIntervalMs;
+    }
+
+    /**
+     * Get the ratio of polls that returned at least one event.
+     *
+     * @return The ratio (between 0 and 1) of fruitful polls, 0 if the orchestrator has not been polled yet.
+     */
+    public double getPollYield() {
+        long polls = pollCount.get();
+        return polls == 0 ? 0 : (double) fruitfulPollCount.get() / polls;
+    }
+
+    private void pollCompleted(boolean hasEvents) {
+        pollCount.incrementAndGet();
+        if (hasEvents) {
+            fruitfulPollCount.incrementAndGet();
+            currentIntervalMs = minIntervalMs;
         } else {
-            getEventsInProgress = false;
-            hasDeployments = getActiveDeployment() != null;
+            currentIntervalMs = Math.min(currentIntervalMs * 2, maxIntervalMs);
         }
     }
 
-    private Deployment getActiveDeployment() {
-        Deployment deployment = null;
-        GetMultipleDataResult<Deployment> dataResult = dao.search(Deployment.class, null,
-                MapUtil.newHashMap(new String[] { "orchestratorId", "endDate" }, new String[][] { new String[] { orchestratorId }, new String[] { null } }), 1);
-        if (dataResult.getData() != null && dataResult.getData().length > 0) {
-            deployment = dataResult.getData()[0];
+    private void removeDeployment(String deploymentId) {
+        synchronized (deploymentIdsLock) {
+            Set<String> deploymentIds = activeDeploymentIds;
+            if (deploymentIds == null) {
+                pendingDeploymentIds.remove(deploymentId);
+            } else {
+                deploymentIds.remove(deploymentId);
+            }
+        }
+        undeployedDeploymentDeadlines.remove(deploymentId);
+    }
+
+    private boolean hasDeployments() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Long> undeployedDeadline : undeployedDeploymentDeadlines.entrySet()) {
+            if (undeployedDeadline.getValue() < now) {
+                log.debug("No UNDEPLOYED status event received for deployment {}, stop polling it.", undeployedDeadline.getKey());
+                removeDeployment(undeployedDeadline.getKey());
+            }
+        }
+        Set<String> deploymentIds = activeDeploymentIds;
+        if (deploymentIds == null) {
+            deploymentIds = Sets.newConcurrentHashSet();
+            try (ISearchCursor<Deployment> deployments = dao.scroll(Deployment.class, null,
+                    MapUtil.newHashMap(new String[] { "orchestratorId", "endDate" }, new String[][] { new String[] { orchestratorId }, new String[] { null } }),
+                    ACTIVE_DEPLOYMENTS_PAGE_SIZE)) {
+                while (deployments.hasNext()) {
+                    deploymentIds.add(deployments.next().getId());
+                }
+            }
+            synchronized (deploymentIdsLock) {
+                // deployments created during the load are polled even if the load didn't return them.
+                deploymentIds.addAll(pendingDeploymentIds);
+                pendingDeploymentIds.clear();
+                activeDeploymentIds = deploymentIds;
+            }
         }
-        return deployment;
+        return !deploymentIds.isEmpty();
     }
 }
@@ -0,0 +1,161 @@
+package alien4cloud.suggestions.services;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import alien4cloud.suggestions.services.SuggestionService.MatchedSuggestion;
+
+/**
+ * In memory index of the values of a suggestion entry.
+ *
+ * Values are normalized once when added and indexed by their trigrams (the normalized value being padded so that short inputs and prefixes also produce
+ * trigrams). A search only scores the values that share at least one trigram with the input, other values are scored only if the candidates are not
+ * enough to fill the requested number of results.
+ */
+class SuggestionIndex {
+    private static final char PADDING = '\u0000';
+    private static final int GRAM_SIZE = 3;
+    private static final Comparator<MatchedSuggestion> BY_PRIORITY = Comparator.comparing(MatchedSuggestion::getPriority);
+
+    private final Set<String> valueSet = Sets.newHashSet();
+    private final List<String> values = Lists.newArrayList();
+    private final List<String> normalizedValues = Lists.newArrayList();
+    /** Indexes of the values that contains a given trigram. */
+    private final Map<String, List<Integer>> postings = Maps.newHashMap();
+
+    SuggestionIndex(Collection<String> suggestions) {
+        if (suggestions != null) {
+            suggestions.forEach(this::doAdd);
+        }
+    }
+
+    /**
+     * Add a value to the index.
+     *
+     * @param value The value to add.
+     */
+    synchronized void add(String value) {
+        doAdd(value);
+    }
+
+    /**
+     * Get the first values of the index, in the order they have been added.
+     *
+     * @param limit The maximum number of values to return.
+     * @return The values.
+     */
+    synchronized List<String> getValues(int limit) {
+        return Lists.newArrayList(values.subList(0, Math.min(limit, values.size())));
+    }
+
+    /**
+     * Get the values that match the most the given input.
+     *
+     * @param input The input to match.
+     * @param limit The maximum number of values to return.
+     * @param minJaroWinkler Only values with a greater Jaro-Winkler distance to the input are returned.
+     * @return The matched values ordered by decreasing priority.
+     */
+    synchronized List<MatchedSuggestion> search(String input, int limit, double minJaroWinkler) {
+        String normalizedInput = normalize(input);
+        int resultSize = Math.min(limit, values.size());
+        if (resultSize <= 0) {
+            return Lists.newArrayList();
+        }
+        // bounded min-heap of the best matches, the weakest match is on top of the heap.
+        PriorityQueue<MatchedSuggestion> topMatches = new PriorityQueue<>(resultSize, BY_PRIORITY);
+        boolean[] scored = new boolean[values.size()];
+        for (String gram : getGrams(normalizedInput)) {
+            List<Integer> valueIndexes = postings.get(gram);
+            if (valueIndexes != null) {
+                for (int valueIndex : valueIndexes) {
+                    if (!scored[valueIndex]) {
+                        scored[valueIndex] = true;
+                        offer(topMatches, resultSize, normalizedInput, valueIndex, minJaroWinkler);
+                    }
+                }
+            }
+        }
+        if (topMatches.size() < resultSize) {
+            // not enough candidates, values that don't share any trigram with the input may still be similar enough.
+            for (int valueIndex = 0; valueIndex < scored.length; valueIndex++) {
+                if (!scored[valueIndex]) {
+                    offer(topMatches, resultSize, normalizedInput, valueIndex, minJaroWinkler);
+                }
+            }
+        }
+        List<MatchedSuggestion> matches = Lists.newArrayList(topMatches);
+        Collections.sort(matches, Collections.reverseOrder(BY_PRIORITY));
+        return matches;
+    }
+
+    private void offer(PriorityQueue<MatchedSuggestion> topMatches, int resultSize, String normalizedInput, int valueIndex, double minJaroWinkler) {
+        double priority = score(normalizedInput, normalizedValues.get(valueIndex));
+        if (priority <= minJaroWinkler) {
+            return;
+        }
+        if (topMatches.size() < resultSize) {
+            topMatches.add(new MatchedSuggestion(priority, values.get(valueIndex)));
+        } else if (topMatches.peek().getPriority() < priority) {
+            topMatches.poll();
+            topMatches.add(new MatchedSuggestion(priority, values.get(valueIndex)));
+        }
+    }
+
+    private void doAdd(String value) {
+        if (value == null || !valueSet.add(value)) {
+            return;
+        }
+        int valueIndex = values.size();
+        String normalizedValue = normalize(value);
+        values.add(value);
+        normalizedValues.add(normalizedValue);
+        for (String gram : getGrams(normalizedValue)) {
+            postings.computeIfAbsent(gram, key -> Lists.newArrayList()).add(valueIndex);
+        }
+    }
+
+    /**
+     * Compute the match score between a normalized value and a normalized suggestion.
+     *
+     * @return The Jaro-Winkler distance, 1 only if the normalized values are equals.
+     */
+    static double score(String normalizedValue, String normalizedSuggestion) {
+        double distance = StringUtils.getJaroWinklerDistance(normalizedValue, normalizedSuggestion);
+        if (distance == 1 && !normalizedValue.equals(normalizedSuggestion)) {
+            distance = 0.999;
+        }
+        return distance;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String noWhiteSpace = value.replace(" ", "");
+        return noWhiteSpace.toLowerCase();
+    }
+
+    private static Set<String> getGrams(String normalizedValue) {
+        Set<String> grams = Sets.newHashSet();
+        if (normalizedValue.isEmpty()) {
+            return grams;
+        }
+        String padded = StringUtils.repeat(PADDING, GRAM_SIZE - 1) + normalizedValue + PADDING;
+        for (int i = 0; i + GRAM_SIZE <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+}
@@ -7,11 +7,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -41,7 +43,12 @@ import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 import alien4cloud.dao.ElasticSearchDAO;
 import alien4cloud.dao.IGenericSearchDAO;
@@ -73,6 +80,12 @@ public class SuggestionService {
     /* The Levenshtein distance is a string metric for measuring the difference between two sequences. */
     private static final double MIN_JAROWINKLER = 0.0;
 
+    /** In memory indexes of the suggestion values by suggestion id, entries expire so that values added by other alien4cloud instances are taken in account. */
+    private final Cache<String, SuggestionIndex> suggestionIndexes = CacheBuilder.newBuilder().maximumSize(1000).expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+    /** Striped locks so that updates of a suggestion index wait for its loading, the loaded index could miss the values saved meanwhile otherwise. */
+    private final Striped<Lock> suggestionIndexLocks = Striped.lock(64);
+
     /**
      * This method load the defaults suggestions to ES.
      * 
@@ -85,6 +98,7 @@ public class SuggestionService {
             for (SuggestionEntry suggestionEntry : suggestions) {
                 if (!isSuggestionExist(suggestionEntry)) {
                     alienDAO.save(suggestionEntry);
+                    invalidateSuggestionIndex(suggestionEntry.getId());
                     try {
                         setSuggestionIdOnPropertyDefinition(suggestionEntry);
                     } catch (Exception e) {
@@ -253,6 +267,7 @@ public class SuggestionService {
         suggestionEntry.setTargetElementId(elementId);
         suggestionEntry.setTargetProperty(propertyName);
         alienDAO.save(suggestionEntry);
+        invalidateSuggestionIndex(suggestionEntry.getId());
         setSuggestionIdOnPropertyDefinition(suggestionEntry);
     }
 
@@ -261,6 +276,7 @@ public class SuggestionService {
      */
     public void createSimpleSuggestionEntry(SimpleSuggestionEntry suggestionEntry) {
         alienDAO.save(suggestionEntry);
+        invalidateSuggestionIndex(suggestionEntry.getId());
     }
 
     private void checkPropertyConstraints(String prefix, Class<? extends AbstractInheritableToscaType> type, String elementId, String propertyName,
@@ -351,14 +367,17 @@ public class SuggestionService {
         }
         suggestion.getSuggestions().add(newValue);
         alienDAO.save(suggestion);
-    }
-
-    private String normalizeTextForMatching(String value) {
-        if (value == null) {
-            return "";
+        Lock lock = suggestionIndexLocks.get(suggestionId);
+        lock.lock();
+        try {
+            // an index loaded before the save is completed before being updated
+            SuggestionIndex suggestionIndex = suggestionIndexes.getIfPresent(suggestionId);
+            if (suggestionIndex != null) {
+                suggestionIndex.add(newValue);
+            }
+        } finally {
+            lock.unlock();
         }
-        String noWhiteSpace = value.replace(" ", "");
-        return noWhiteSpace.toLowerCase();
     }
 
     public static class MatchedSuggestion {
@@ -381,11 +400,7 @@ public class SuggestionService {
 
     private MatchedSuggestion getMatch(String suggestion, String normalizedValue, double minJarowinkler) {
         // Compute the match score between the suggestion and the normalized value
-        String normalizedSuggestion = normalizeTextForMatching(suggestion);
-        double distance = StringUtils.getJaroWinklerDistance(normalizedValue, normalizedSuggestion);
-        if (distance == 1 && !normalizedValue.equals(normalizedSuggestion)) {
-            distance = 0.999;
-        }
+        double distance = SuggestionIndex.score(normalizedValue, SuggestionIndex.normalize(suggestion));
         if (distance > minJarowinkler) {
             return new MatchedSuggestion(distance, suggestion);
         } else {
@@ -394,7 +409,7 @@ public class SuggestionService {
     }
 
     public PriorityQueue<MatchedSuggestion> getJaroWinklerMatchedSuggestions(Set<String> allSuggestions, String input, double minJaroWinkler) {
-        String normalizedInput = normalizeTextForMatching(input);
+        String normalizedInput = SuggestionIndex.normalize(input);
         // The priority queue is here is to see what is the value that matches the suggestion the most
         PriorityQueue<MatchedSuggestion> matchedSuggestions = new PriorityQueue<>(10, Collections.reverseOrder(new Comparator<MatchedSuggestion>() {
             @Override
@@ -421,28 +436,38 @@ public class SuggestionService {
      * @return the suggestions ordered by the most match.
      */
     public String[] getJaroWinklerMatchedSuggestions(String suggestionId, String input, int limit) {
-        Set<String> allSuggestions = getSuggestions(suggestionId);
-        if (limit > allSuggestions.size()) {
-            limit = allSuggestions.size();
-        }
+        SuggestionIndex suggestionIndex = getSuggestionIndex(suggestionId);
         if (StringUtils.isBlank(input)) {
             // Finish prematurely the algorithm as the searched value is empty
-            String[] matches = new String[limit];
-            Iterator<String> allSuggestionsIterator = allSuggestions.iterator();
-            for (int i = 0; i < limit; i++) {
-                matches[i] = allSuggestionsIterator.next();
-            }
-            return matches;
+            return suggestionIndex.getValues(limit).toArray(new String[0]);
+        }
+        return suggestionIndex.search(input, limit, MIN_JAROWINKLER).stream().map(MatchedSuggestion::getValue).toArray(String[]::new);
+    }
+
+    private SuggestionIndex getSuggestionIndex(String suggestionId) {
+        SuggestionIndex suggestionIndex = suggestionIndexes.getIfPresent(suggestionId);
+        if (suggestionIndex != null) {
+            return suggestionIndex;
         }
-        PriorityQueue<MatchedSuggestion> matchedSuggestions = getJaroWinklerMatchedSuggestions(allSuggestions, input, MIN_JAROWINKLER);
-        if (limit > matchedSuggestions.size()) {
-            limit = matchedSuggestions.size();
+        Lock lock = suggestionIndexLocks.get(suggestionId);
+        lock.lock();
+        try {
+            return suggestionIndexes.get(suggestionId, () -> new SuggestionIndex(getSuggestions(suggestionId)));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } finally {
+            lock.unlock();
         }
-        String[] results = new String[limit];
-        for (int i = 0; i < limit; i++) {
-            results[i] = matchedSuggestions.poll().value;
+    }
+
+    private void invalidateSuggestionIndex(String suggestionId) {
+        Lock lock = suggestionIndexLocks.get(suggestionId);
+        lock.lock();
+        try {
+            suggestionIndexes.invalidate(suggestionId);
+        } finally {
+            lock.unlock();
         }
-        return results;
     }
 
     /**
@@ -27,6 +27,8 @@ public class TopologyDTO extends AbstractTopologyDTO<Topology> {
     private List<AbstractEditorOperation> operations;
     private String delegateType;
     private List<DependencyConflictDTO> dependencyConflicts;
+    /** Version of the dto sent on the editor websocket channel, used by clients to request only the changes of the next versions. 0 if not versioned. */
+    private long version;
 
     public TopologyDTO(Topology topology, Map<String, NodeType> nodeTypes, Map<String, RelationshipType> relationshipTypes,
             Map<String, CapabilityType> capabilityTypes, Map<String, DataType> dataTypes) {
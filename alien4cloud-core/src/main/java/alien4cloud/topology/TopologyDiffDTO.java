@@ -0,0 +1,68 @@
+package alien4cloud.topology;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.alien4cloud.tosca.editor.operations.AbstractEditorOperation;
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.model.types.CapabilityType;
+import org.alien4cloud.tosca.model.types.DataType;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.alien4cloud.tosca.model.types.RelationshipType;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import alien4cloud.utils.TreeNode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Changes to apply on a topology DTO of a given version to get the topology DTO of the next version.
+ *
+ * When the server cannot compute the changes from the client version (unknown or outdated version) the full topology DTO is sent instead and all the other
+ * elements are null.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TopologyDiffDTO {
+    /** Version of the topology DTO on which to apply the changes (the version known by the client). */
+    private Long baseVersion;
+    /** Version of the topology DTO once the changes are applied. */
+    private long version;
+    /** The full topology DTO when the client has to resync. */
+    private TopologyDTO topologyDTO;
+
+    /** The topology without node templates, set only if topology level elements (inputs, groups, workflows etc.) have changed. */
+    private Topology topology;
+    /** Node templates added or updated by name. */
+    private Map<String, NodeTemplate> updatedNodeTemplates;
+    /** Names of the removed node templates. */
+    private Set<String> removedNodeTemplates;
+    /** Types referenced for the first time. */
+    private Map<String, NodeType> nodeTypes;
+    private Map<String, RelationshipType> relationshipTypes;
+    private Map<String, CapabilityType> capabilityTypes;
+    private Map<String, DataType> dataTypes;
+    /** The archive content tree, set only if it has changed. */
+    private TreeNode archiveContentTree;
+    /** Dependency conflicts, set only if the topology level elements have changed. */
+    private List<DependencyConflictDTO> dependencyConflicts;
+    private int lastOperationIndex;
+    /** Index from which the operations of the client must be replaced by the given operations. */
+    private int operationsFrom;
+    private List<AbstractEditorOperation> operations;
+
+    /**
+     * Check if the diff is a full resync.
+     *
+     * @return True if the full topology DTO is sent.
+     */
+    public boolean isResync() {
+        return topologyDTO != null;
+    }
+}
@@ -2,8 +2,6 @@ package org.alien4cloud.alm.deployment;
 
 import static alien4cloud.dao.FilterUtil.fromKeyValueCouples;
 
-import java.util.Arrays;
-
 import javax.annotation.Resource;
 import javax.inject.Inject;
 
@@ -11,9 +9,11 @@ import org.alien4cloud.alm.service.events.ServiceUsageRequestEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
+
 import alien4cloud.application.ApplicationEnvironmentService;
 import alien4cloud.dao.IGenericSearchDAO;
-import alien4cloud.dao.model.GetMultipleDataResult;
+import alien4cloud.dao.ISearchCursor;
 import alien4cloud.model.application.ApplicationEnvironment;
 import alien4cloud.model.common.Usage;
 import alien4cloud.model.deployment.Deployment;
@@ -30,16 +30,16 @@ public class ServiceUsageReporter {
 
     @EventListener
     private void toto(ServiceUsageRequestEvent serviceChangedEvent) {
-        GetMultipleDataResult<Deployment> usageResult = alienDAO.buildQuery(Deployment.class)
-                .setFilters(fromKeyValueCouples("endDate", null, "serviceResourceIds", serviceChangedEvent.getServiceId())).prepareSearch()
-                .search(0, Integer.MAX_VALUE);
-        if (usageResult.getTotalResults() > 0) {
-            Usage[] usages = Arrays.stream(usageResult.getData()).map(deployment -> {
+        try (ISearchCursor<Deployment> deployments = alienDAO.buildQuery(Deployment.class)
+                .setFilters(fromKeyValueCouples("endDate", null, "serviceResourceIds", serviceChangedEvent.getServiceId())).prepareSearch().scroll()) {
+            Usage[] usages = Lists.newArrayList(deployments).stream().map(deployment -> {
                 ApplicationEnvironment environment = environmentService.getOrFail(deployment.getEnvironmentId());
                 String usageName = "App (" + deployment.getSourceName() + "), Env (" + environment.getName() + ")";
                 return new Usage(usageName, "Deployment", deployment.getId(), null);
             }).toArray(Usage[]::new);
-            serviceChangedEvent.addUsages(usages);
+            if (usages.length > 0) {
+                serviceChangedEvent.addUsages(usages);
+            }
         }
     }
 }
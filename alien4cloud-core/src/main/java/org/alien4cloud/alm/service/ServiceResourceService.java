@@ -39,6 +39,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.ISearchCursor;
 import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.exception.AlreadyExistException;
 import alien4cloud.exception.NotFoundException;
@@ -57,6 +58,9 @@ import alien4cloud.utils.version.Version;
  */
 @Service
 public class ServiceResourceService {
+    /** Number of services updated in a single bulk request when a location is deleted. */
+    private static final int LOCATION_UPDATE_BATCH_SIZE = 500;
+
     @Resource(name = "alien-es-dao")
     private IGenericSearchDAO alienDAO;
     @Inject
@@ -398,18 +402,29 @@ public class ServiceResourceService {
     @EventListener
     public synchronized void handleLocationDeleted(AfterLocationDeleted event) {
         // Remove the location in every service that referenced it
-        GetMultipleDataResult<ServiceResource> serviceResourceResult = alienDAO.buildQuery(ServiceResource.class)
-                .setFilters(singleKeyFilter("locationIds", event.getLocationId())).prepareSearch().search(0, Integer.MAX_VALUE);
-        if (serviceResourceResult.getData() == null) {
-            return;
+        List<ServiceResource> updatedServices = Lists.newArrayList();
+        try (ISearchCursor<ServiceResource> serviceResources = alienDAO.buildQuery(ServiceResource.class)
+                .setFilters(singleKeyFilter("locationIds", event.getLocationId())).prepareSearch().scroll(LOCATION_UPDATE_BATCH_SIZE)) {
+            while (serviceResources.hasNext()) {
+                ServiceResource serviceResource = serviceResources.next();
+                Set<String> locations = CollectionUtils.safeNewHashSet(serviceResource.getLocationIds());
+                locations.remove(event.getLocationId());
+                serviceResource.setLocationIds(locations.toArray(new String[locations.size()]));
+                updatedServices.add(serviceResource);
+                if (updatedServices.size() == LOCATION_UPDATE_BATCH_SIZE) {
+                    saveServices(updatedServices);
+                }
+            }
         }
-        for (ServiceResource serviceResource : serviceResourceResult.getData()) {
-            Set<String> locations = CollectionUtils.safeNewHashSet(serviceResource.getLocationIds());
-            locations.remove(event.getLocationId());
-            serviceResource.setLocationIds(locations.toArray(new String[locations.size()]));
+        saveServices(updatedServices);
+    }
+
+    // bulk update of the given services
+    private void saveServices(List<ServiceResource> serviceResources) {
+        if (!serviceResources.isEmpty()) {
+            alienDAO.save(serviceResources.toArray(new ServiceResource[serviceResources.size()]));
+            serviceResources.clear();
         }
-        // bulk update
-        alienDAO.save(serviceResourceResult.getData());
     }
 
     /**
@@ -419,8 +434,10 @@ public class ServiceResourceService {
      * @return
      */
     public List<ServiceResource> searchByLocation(String locationId) {
-        GetMultipleDataResult<ServiceResource> result = this.search("", singleKeyFilter("locationIds", locationId), null, false, 0, Integer.MAX_VALUE);
-        return Lists.newArrayList(result.getData());
+        try (ISearchCursor<ServiceResource> serviceResources = alienDAO.buildSearchQuery(ServiceResource.class, "").prepareSearch()
+                .setFilters(singleKeyFilter("locationIds", locationId)).setFieldSort("name", false).scroll()) {
+            return Lists.newArrayList(serviceResources);
+        }
     }
 
     /**
@@ -431,9 +448,11 @@ public class ServiceResourceService {
      * @return An array that contains all services for the given node type.
      */
     public ServiceResource[] getByNodeTypes(String nodeType, String nodeTypeVersion) {
-        return alienDAO.buildQuery(ServiceResource.class)
+        try (ISearchCursor<ServiceResource> serviceResources = alienDAO.buildQuery(ServiceResource.class)
                 .setFilters(fromKeyValueCouples("nodeInstance.nodeTemplate.type", nodeType, "nodeInstance.typeVersion", nodeTypeVersion)).prepareSearch()
-                .search(0, Integer.MAX_VALUE).getData();
+                .scroll()) {
+            return Lists.newArrayList(serviceResources).toArray(new ServiceResource[0]);
+        }
     }
 
     /**
@@ -456,12 +475,11 @@ public class ServiceResourceService {
 
     @EventListener
     public void reportArchiveUsage(ArchiveUsageRequestEvent event) {
-        ServiceResource[] serviceResources = alienDAO.buildQuery(ServiceResource.class)
+        try (ISearchCursor<ServiceResource> serviceResources = alienDAO.buildQuery(ServiceResource.class)
                 .setFilters(fromKeyValueCouples("dependency.name", event.getArchiveName(), "dependency.version", event.getArchiveVersion())).prepareSearch()
-                .search(0, Integer.MAX_VALUE).getData();
-        for (ServiceResource serviceResource : serviceResources) {
-            Usage usage = new Usage(serviceResource.getName(), ServiceResource.class.getSimpleName().toLowerCase(), serviceResource.getId(), "");
-            event.addUsage(usage);
+                .scroll()) {
+            serviceResources.forEachRemaining(serviceResource -> event
+                    .addUsage(new Usage(serviceResource.getName(), ServiceResource.class.getSimpleName().toLowerCase(), serviceResource.getId(), "")));
         }
     }
 }
@@ -63,12 +63,32 @@ public class ArchiveImageLoader {
     }
 
     private void importImage(Path archiveFile, List<ParsingError> parsingErrors, Tag iconTag) {
-        FileSystem csarFS = null;
-        Path iconPath = null;
+        if (Files.isDirectory(archiveFile)) {
+            // the archive has not been zipped (for example when imported from git), icon paths are relative to the archive root.
+            try {
+                importIcon(archiveFile.resolve(iconTag.getValue().replaceFirst("^[/\\\\]+", "")), parsingErrors, iconTag);
+            } catch (InvalidPathException e) {
+                addMissingIconError(parsingErrors, iconTag.getValue());
+            }
+            return;
+        }
+        try (FileSystem csarFS = FileSystems.newFileSystem(archiveFile, null)) {
+            importIcon(csarFS.getPath(iconTag.getValue()), parsingErrors, iconTag);
+        } catch (InvalidPathException e) {
+            addMissingIconError(parsingErrors, iconTag.getValue());
+        } catch (IOException e) {
+            parsingErrors.add(new ParsingError(ParsingErrorLevel.WARNING, ErrorCode.FAILED_TO_READ_FILE, "Icon loading", null,
+                    "IO error while loading icon at path <" + iconTag.getValue() + ">", null, iconTag.getValue()));
+        }
+    }
+
+    private void addMissingIconError(List<ParsingError> parsingErrors, String iconPath) {
+        parsingErrors.add(new ParsingError(ParsingErrorLevel.WARNING, ErrorCode.MISSING_FILE, "Icon loading", null,
+                "No icon file found at path <" + iconPath + ">", null, iconPath));
+    }
 
+    private void importIcon(Path iconPath, List<ParsingError> parsingErrors, Tag iconTag) {
         try {
-            csarFS = FileSystems.newFileSystem(archiveFile, null);
-            iconPath = csarFS.getPath(iconTag.getValue());
             if (!Files.isDirectory(iconPath)) {
                 String iconId = UUID.randomUUID().toString();
                 // Saving the image
@@ -82,9 +102,8 @@ public class ArchiveImageLoader {
                 parsingErrors.add(new ParsingError(ParsingErrorLevel.WARNING, ErrorCode.INVALID_ICON_FORMAT, "Icon loading", null,
                         "Invalid icon format at path <" + iconPath + ">", null, iconPath.toString()));
             }
-        } catch (NoSuchFileException | InvalidPathException e) {
-            parsingErrors.add(new ParsingError(ParsingErrorLevel.WARNING, ErrorCode.MISSING_FILE, "Icon loading", null,
-                    "No icon file found at path <" + iconPath + ">", null, iconPath.toString()));
+        } catch (NoSuchFileException e) {
+            addMissingIconError(parsingErrors, iconPath.toString());
         } catch (ImageUploadException e) {
             parsingErrors.add(new ParsingError(ParsingErrorLevel.WARNING, ErrorCode.INVALID_ICON_FORMAT, "Icon loading", null,
                     "Invalid icon format at path <" + iconPath + ">", null, iconPath.toString()));
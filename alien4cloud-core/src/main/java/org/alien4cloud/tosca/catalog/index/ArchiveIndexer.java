@@ -1,6 +1,7 @@
 package org.alien4cloud.tosca.catalog.index;
 
 import static alien4cloud.dao.FilterUtil.singleKeyFilter;
+import static alien4cloud.utils.AlienUtils.safe;
 
 import java.nio.file.Path;
 import java.util.List;
@@ -22,6 +23,8 @@ import org.alien4cloud.tosca.model.types.*;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.Lists;
+
 import alien4cloud.component.repository.exception.CSARUsedInActiveDeployment;
 import alien4cloud.component.repository.exception.ToscaTypeAlreadyDefinedInOtherCSAR;
 import alien4cloud.dao.IGenericSearchDAO;
@@ -35,6 +38,7 @@ import alien4cloud.tosca.model.ArchiveRoot;
 import alien4cloud.tosca.parser.ParsingError;
 import alien4cloud.tosca.parser.ParsingErrorLevel;
 import alien4cloud.tosca.parser.impl.ErrorCode;
+import alien4cloud.utils.FileUtil;
 import alien4cloud.utils.VersionUtil;
 import lombok.extern.slf4j.Slf4j;
 
@@ -149,7 +153,7 @@ public class ArchiveIndexer {
 
         if (currentIndexedArchive != null) {
             if (Objects.equals(currentIndexedArchive.getWorkspace(), archiveRoot.getArchive().getWorkspace())) {
-                if (currentIndexedArchive.getHash() != null && currentIndexedArchive.getHash().equals(archiveRoot.getArchive().getHash())) {
+                if (FileUtil.isSameDeepSHA1(currentIndexedArchive.getHash(), archiveRoot.getArchive().getHash(), archivePath)) {
                     // if the archive has not changed do nothing.
                     parsingErrors.add(new ParsingError(ParsingErrorLevel.INFO, ErrorCode.CSAR_ALREADY_INDEXED, "", null,
                             "The archive already exists in alien4cloud with an identical content (SHA-1 on archive content excluding hidden files is identical).",
@@ -325,15 +329,22 @@ public class ArchiveIndexer {
     }
 
     private void performIndexing(ArchiveRoot root) {
-        indexerService.indexInheritableElements(root.getArtifactTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(root.getCapabilityTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(root.getNodeTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(root.getRelationshipTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(root.getDataTypes(), root.getArchive().getDependencies());
+        // index all the types of the archive (and local imports) in a single batch so the index is refreshed only once.
+        List<AbstractInheritableToscaType> elements = Lists.newArrayList();
+        collectTypesToIndex(root, elements);
+        indexerService.indexInheritableElements(elements);
+    }
+
+    private void collectTypesToIndex(ArchiveRoot root, List<AbstractInheritableToscaType> elements) {
+        elements.addAll(safe(root.getArtifactTypes()).values());
+        elements.addAll(safe(root.getCapabilityTypes()).values());
+        elements.addAll(safe(root.getNodeTypes()).values());
+        elements.addAll(safe(root.getRelationshipTypes()).values());
+        elements.addAll(safe(root.getDataTypes()).values());
 
         if (root.getLocalImports() != null) {
             for (ArchiveRoot child : root.getLocalImports()) {
-                performIndexing(child);
+                collectTypesToIndex(child, elements);
             }
         }
     }
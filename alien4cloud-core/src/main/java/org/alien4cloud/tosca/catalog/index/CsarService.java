@@ -30,7 +30,7 @@ import com.google.common.collect.Sets;
 
 import alien4cloud.application.ApplicationService;
 import alien4cloud.dao.IGenericSearchDAO;
-import alien4cloud.dao.model.GetMultipleDataResult;
+import alien4cloud.dao.ISearchCursor;
 import alien4cloud.exception.AlreadyExistException;
 import alien4cloud.exception.DeleteReferencedObjectException;
 import alien4cloud.exception.NotFoundException;
@@ -106,10 +106,7 @@ public class CsarService {
      * @return an array of CSARs that depend on this name:version.
      */
     public Csar[] getDependantCsars(String name, String version) {
-        FilterBuilder filter = FilterBuilders.nestedFilter("dependencies", FilterBuilders.boolFilter()
-                .must(FilterBuilders.termFilter("dependencies.name", name)).must(FilterBuilders.termFilter("dependencies.version", version)));
-        GetMultipleDataResult<Csar> result = csarDAO.search(Csar.class, null, null, filter, null, 0, Integer.MAX_VALUE);
-        return result.getData();
+        return findAll(Csar.class, getDependencyFilter(name, version)).toArray(new Csar[0]);
     }
 
     /**
@@ -119,13 +116,26 @@ public class CsarService {
      * @return an array of <code>Topology</code>s that depend on this name:version.
      */
     public Topology[] getDependantTopologies(String name, String version) {
-        FilterBuilder filter = FilterBuilders.boolFilter()
+        return findAll(Topology.class, getDependantTopologiesFilter(name, version)).toArray(new Topology[0]);
+    }
+
+    private FilterBuilder getDependencyFilter(String name, String version) {
+        return FilterBuilders.nestedFilter("dependencies", FilterBuilders.boolFilter().must(FilterBuilders.termFilter("dependencies.name", name))
+                .must(FilterBuilders.termFilter("dependencies.version", version)));
+    }
+
+    private FilterBuilder getDependantTopologiesFilter(String name, String version) {
+        return FilterBuilders.boolFilter()
                 .mustNot(FilterBuilders.boolFilter().must(FilterBuilders.termFilter("archiveName", name))
                         .must(FilterBuilders.termFilter("archiveVersion", version)))
-                .must(FilterBuilders.nestedFilter("dependencies", FilterBuilders.boolFilter().must(FilterBuilders.termFilter("dependencies.name", name))
-                        .must(FilterBuilders.termFilter("dependencies.version", version))));
-        GetMultipleDataResult<Topology> result = csarDAO.search(Topology.class, null, null, filter, null, 0, Integer.MAX_VALUE);
-        return result.getData();
+                .must(getDependencyFilter(name, version));
+    }
+
+    // iterate over all the matching elements through a scroll rather than a single unbounded search request.
+    private <T> List<T> findAll(Class<T> clazz, FilterBuilder filter) {
+        try (ISearchCursor<T> cursor = csarDAO.buildQuery(clazz).setFilters(filter).prepareSearch().scroll()) {
+            return Lists.newArrayList(cursor);
+        }
     }
 
     public List<Csar> getTopologiesCsar(Topology... topologies) {
@@ -140,10 +150,7 @@ public class CsarService {
      * @return an array of CSARs that depend on this name:version.
      */
     public Location[] getDependantLocations(String name, String version) {
-        FilterBuilder filter = FilterBuilders.nestedFilter("dependencies", FilterBuilders.boolFilter()
-                .must(FilterBuilders.termFilter("dependencies.name", name)).must(FilterBuilders.termFilter("dependencies.version", version)));
-        GetMultipleDataResult<Location> result = csarDAO.search(Location.class, null, null, filter, null, 0, Integer.MAX_VALUE);
-        return result.getData();
+        return findAll(Location.class, getDependencyFilter(name, version)).toArray(new Location[0]);
     }
 
     /**
@@ -229,16 +236,11 @@ public class CsarService {
      */
     public boolean isDependency(String csarName, String csarVersion) {
         // a csar that is a dependency of another csar
-        Csar[] result = getDependantCsars(csarName, csarVersion);
-        if (result != null && result.length > 0) {
+        if (csarDAO.buildQuery(Csar.class).setFilters(getDependencyFilter(csarName, csarVersion)).count() > 0) {
             return true;
         }
         // check if some of the nodes are used in topologies.
-        Topology[] topologies = getDependantTopologies(csarName, csarVersion);
-        if (topologies != null && topologies.length > 0) {
-            return true;
-        }
-        return false;
+        return csarDAO.buildQuery(Topology.class).setFilters(getDependantTopologiesFilter(csarName, csarVersion)).count() > 0;
     }
 
     /**
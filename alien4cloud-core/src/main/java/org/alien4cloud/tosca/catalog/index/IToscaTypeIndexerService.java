@@ -48,6 +48,13 @@ public interface IToscaTypeIndexerService {
     void indexInheritableElements(Map<String, ? extends AbstractInheritableToscaType> archiveElements,
             Collection<CSARDependency> dependencies);
 
+    /**
+     * Index multiple elements into the repository using bulk requests, the index is refreshed only once all elements are indexed.
+     * 
+     * @param elements The elements to index.
+     */
+    void indexInheritableElements(Collection<? extends AbstractInheritableToscaType> elements);
+
     /**
      * Index a single element into the repository.
      * 
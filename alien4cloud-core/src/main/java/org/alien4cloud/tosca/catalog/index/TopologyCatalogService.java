@@ -13,6 +13,9 @@ import org.alien4cloud.tosca.model.templates.Topology;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
+
+import alien4cloud.dao.ISearchCursor;
 import alien4cloud.dao.model.FacetedSearchResult;
 import alien4cloud.exception.NotFoundException;
 import alien4cloud.utils.AlienConstants;
@@ -75,9 +78,11 @@ public class TopologyCatalogService extends AbstractToscaIndexSearchService<Topo
 
     @Override
     public Topology[] getAll(Map<String, String[]> filters, String archiveName) {
-        return alienDAO.buildQuery(Topology.class)
+        try (ISearchCursor<Topology> topologies = alienDAO.buildQuery(Topology.class)
                 .setFilters(fromKeyValueCouples(filters, "workspace", AlienConstants.GLOBAL_WORKSPACE_ID, "archiveName", archiveName)).prepareSearch()
-                .setFetchContext(SUMMARY).search(0, Integer.MAX_VALUE).getData();
+                .setFetchContext(SUMMARY).scroll()) {
+            return Lists.newArrayList(topologies).toArray(new Topology[0]);
+        }
     }
 
     @Override
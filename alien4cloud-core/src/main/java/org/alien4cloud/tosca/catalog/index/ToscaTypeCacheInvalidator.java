@@ -0,0 +1,29 @@
+package org.alien4cloud.tosca.catalog.index;
+
+import javax.inject.Inject;
+
+import org.alien4cloud.tosca.catalog.events.BeforeArchiveDeleted;
+import org.alien4cloud.tosca.catalog.events.BeforeArchiveIndexed;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import alien4cloud.tosca.context.ToscaTypeCache;
+
+/**
+ * Keeps the shared {@link ToscaTypeCache} consistent with the catalog by removing the types of archives that are deleted or re-indexed.
+ */
+@Component
+public class ToscaTypeCacheInvalidator {
+    @Inject
+    private ToscaTypeCache toscaTypeCache;
+
+    @EventListener
+    public void handleArchiveRemoved(BeforeArchiveDeleted event) {
+        toscaTypeCache.invalidate(event.getArchiveId());
+    }
+
+    @EventListener
+    public void handleArchiveUpdated(BeforeArchiveIndexed event) {
+        toscaTypeCache.invalidate(event.getArchiveRoot().getArchive().getId());
+    }
+}
@@ -16,22 +16,28 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.elasticsearch.mapping.ElasticSearchClient;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import alien4cloud.dao.ElasticSearchDAO;
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.ISearchCursor;
+import alien4cloud.dao.RefreshPolicy;
+import alien4cloud.dao.model.BulkSaveResult;
 import alien4cloud.dao.model.FetchContext;
-import alien4cloud.dao.model.GetMultipleDataResult;
+import alien4cloud.exception.IndexingServiceException;
 import alien4cloud.images.IImageDAO;
 import alien4cloud.model.common.Tag;
 import alien4cloud.model.components.IndexedModelUtils;
 import alien4cloud.tosca.context.ToscaContext;
 import alien4cloud.tosca.context.ToscaContextual;
 import org.alien4cloud.tosca.normative.types.ToscaTypes;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * This service is responsible for indexing and searching tosca types.
  */
+@Slf4j
 @Service
 public class ToscaTypeIndexerService implements IToscaTypeIndexerService {
     @Resource(name = "alien-es-dao")
@@ -52,40 +58,44 @@ public class ToscaTypeIndexerService implements IToscaTypeIndexerService {
 
     @Override
     public <T extends AbstractToscaType> Map<String, T> getArchiveElements(String archiveName, String archiveVersion, Class<T> type) {
-        GetMultipleDataResult<T> elements = alienDAO.buildQuery(type)
-                .setFilters(fromKeyValueCouples("archiveName", archiveName, "archiveVersion", archiveVersion)).prepareSearch().search(0, Integer.MAX_VALUE);
-
         Map<String, T> elementsByIds = Maps.newHashMap();
-        if (elements == null) {
-            return elementsByIds;
-        }
-
-        for (T element : elements.getData()) {
-            elementsByIds.put(element.getId(), element);
+        try (ISearchCursor<T> elements = alienDAO.buildQuery(type)
+                .setFilters(fromKeyValueCouples("archiveName", archiveName, "archiveVersion", archiveVersion)).prepareSearch().scroll()) {
+            elements.forEachRemaining(element -> elementsByIds.put(element.getId(), element));
         }
         return elementsByIds;
     }
 
     @Override
     public void deleteElements(String name, String version) {
-        GetMultipleDataResult<AbstractToscaType> result = alienDAO.buildQuery(AbstractToscaType.class)
+        // we need to delete each element, the scroll works on a snapshot of the index so deleting elements does not affect the iteration.
+        try (ISearchCursor<AbstractToscaType> elements = alienDAO.buildQuery(AbstractToscaType.class)
                 .setFilters(fromKeyValueCouples("archiveName", name, "archiveVersion", version)).prepareSearch().setFetchContext(FetchContext.SUMMARY)
-                .search(0, Integer.MAX_VALUE);
-
-        AbstractToscaType[] elements = result.getData();
-
-        // we need to delete each element
-        for (AbstractToscaType element : elements) {
-            deleteElement(element);
+                .scroll()) {
+            elements.forEachRemaining(this::deleteElement);
         }
     }
 
     @Override
     public void indexInheritableElements(Map<String, ? extends AbstractInheritableToscaType> archiveElements, Collection<CSARDependency> dependencies) {
-        for (AbstractInheritableToscaType element : safe(archiveElements).values()) {
-            alienDAO.save(element);
+        indexInheritableElements(safe(archiveElements).values());
+    }
+
+    @Override
+    public void indexInheritableElements(Collection<? extends AbstractInheritableToscaType> elements) {
+        if (elements.isEmpty()) {
+            return;
+        }
+        BulkSaveResult<AbstractInheritableToscaType> result = alienDAO.saveBulk(Lists.newArrayList(elements), RefreshPolicy.IMMEDIATE);
+        log.debug("Indexed {} tosca types in {} bulk request(s)", result.getSavedCount(), result.getBulkRequestCount());
+        if (result.hasFailures()) {
+            StringBuilder message = new StringBuilder("Failed to index ").append(result.getFailures().size()).append(" tosca type(s):");
+            for (BulkSaveResult.Failure<AbstractInheritableToscaType> failure : result.getFailures()) {
+                log.error("Failed to index tosca type <{}>: {}", failure.getEntity().getId(), failure.getMessage());
+                message.append(" <").append(failure.getEntity().getId()).append(">");
+            }
+            throw new IndexingServiceException(message.toString());
         }
-        refreshIndexForSearching();
     }
 
     @Override
@@ -3,6 +3,8 @@ package org.alien4cloud.tosca.catalog.index;
 import static alien4cloud.dao.FilterUtil.fromKeyValueCouples;
 import static alien4cloud.dao.FilterUtil.singleKeyFilter;
 
+import java.lang.reflect.Array;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -21,7 +23,13 @@ import org.elasticsearch.search.sort.SortOrder;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.ISearchCursor;
 import alien4cloud.dao.model.FacetedSearchResult;
 import alien4cloud.exception.NotFoundException;
 import alien4cloud.utils.VersionUtil;
@@ -32,6 +40,8 @@ import lombok.extern.slf4j.Slf4j;
 @Component
 @Primary
 public class ToscaTypeSearchService extends AbstractToscaIndexSearchService<AbstractToscaType> implements IToscaTypeSearchService {
+    /** Maximum number of ids in a single terms query, elastic search limits the number of clauses of a query. */
+    private static final int MAX_IDS_PER_QUERY = 500;
 
     @Resource(name = "alien-es-dao")
     private IGenericSearchDAO searchDAO;
@@ -49,8 +59,10 @@ public class ToscaTypeSearchService extends AbstractToscaIndexSearchService<Abst
 
     @Override
     public AbstractToscaType[] getArchiveTypes(String archiveName, String archiveVersion) {
-        return searchDAO.buildQuery(AbstractToscaType.class).setFilters(fromKeyValueCouples("archiveName", archiveName, "archiveVersion", archiveVersion))
-                .prepareSearch().search(0, Integer.MAX_VALUE).getData();
+        try (ISearchCursor<AbstractToscaType> types = searchDAO.buildQuery(AbstractToscaType.class)
+                .setFilters(fromKeyValueCouples("archiveName", archiveName, "archiveVersion", archiveVersion)).prepareSearch().scroll()) {
+            return Lists.newArrayList(types).toArray(new AbstractToscaType[0]);
+        }
     }
 
     @Override
@@ -87,8 +99,11 @@ public class ToscaTypeSearchService extends AbstractToscaIndexSearchService<Abst
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T extends AbstractToscaType> T[] findAll(Class<T> elementType, String elementId) {
-        return searchDAO.buildQuery(elementType).setFilters(singleKeyFilter("rawElementId", elementId)).prepareSearch().search(0, Integer.MAX_VALUE).getData();
+        try (ISearchCursor<T> elements = searchDAO.buildQuery(elementType).setFilters(singleKeyFilter("rawElementId", elementId)).prepareSearch().scroll()) {
+            return Lists.newArrayList(elements).toArray((T[]) Array.newInstance(elementType, 0));
+        }
     }
 
     /**
@@ -152,6 +167,32 @@ public class ToscaTypeSearchService extends AbstractToscaIndexSearchService<Abst
         return getLatestVersionOfElement(elementClass, boolQueryBuilder);
     }
 
+    @Override
+    public <T extends AbstractToscaType> Map<String, T> getElementsInDependencies(Class<T> elementClass, Collection<String> elementIds,
+            Set<CSARDependency> dependencies) {
+        Map<String, T> elements = Maps.newHashMap();
+        if (dependencies == null || dependencies.isEmpty() || elementIds.isEmpty()) {
+            return elements;
+        }
+        for (List<String> ids : Iterables.partition(Sets.newHashSet(elementIds), MAX_IDS_PER_QUERY)) {
+            BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery().must(QueryBuilders.termsQuery("rawElementId", ids))
+                    .must(getDependencyQuery(dependencies));
+            List<T> found = searchDAO.customFindAll(elementClass, boolQueryBuilder);
+            if (found == null) {
+                continue;
+            }
+            // keep the latest version of every element as for single element queries.
+            for (T element : found) {
+                T current = elements.get(element.getElementId());
+                if (current == null || VersionUtil.parseVersion(current.getArchiveVersion())
+                        .compareTo(VersionUtil.parseVersion(element.getArchiveVersion())) < 0) {
+                    elements.put(element.getElementId(), element);
+                }
+            }
+        }
+        return elements;
+    }
+
     @Override
     public <T extends AbstractToscaType> T getRequiredElementInDependencies(Class<T> elementClass, String elementId, Set<CSARDependency> dependencies)
             throws NotFoundException {
@@ -7,6 +7,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
 import org.alien4cloud.tosca.model.Csar;
@@ -15,11 +18,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.FileSystemUtils;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
 import alien4cloud.component.repository.exception.CSARDirectoryCreationFailureException;
 import alien4cloud.component.repository.exception.CSARStorageFailureException;
 import alien4cloud.exception.NotFoundException;
 import alien4cloud.utils.DirectoryJSonWalker;
 import alien4cloud.utils.FileUtil;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -27,7 +35,11 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * CSAR Repository implementation<br/>
  *
- * Implements {@link ICsarRepositry}
+ * Implements {@link ICsarRepositry}<br/>
+ *
+ * Operations are serialized per archive (name and version) so that operations on different archives run concurrently. The zip of an archive is generated
+ * lazily on the first request after its expanded content has been updated. An outdated zip is not deleted but atomically replaced, so the path returned by
+ * {@link #getCSAR(String, String)} remains readable after the lock is released, possibly with the content of the previous version of the archive.
  *
  * @author 'Igor Ngouagna'
  */
@@ -38,7 +50,13 @@ import lombok.extern.slf4j.Slf4j;
 public class CsarFileRepository implements ICsarRepositry {
     public static final String CSAR_EXTENSION = "csar";
     private static final String EXPANDED = "expanded";
+    /** Suffix of the marker file that indicates that the zip of an archive doesn't match its expanded content anymore. */
+    private static final String OUTDATED_SUFFIX = ".outdated";
     private Path rootPath;
+    /** Locks by archive id, a lock is removed once no thread references it anymore. */
+    @Getter(AccessLevel.NONE)
+    private final LoadingCache<String, ReadWriteLock> archiveLocks = CacheBuilder.newBuilder().weakValues()
+            .build(CacheLoader.from(archiveId -> new ReentrantReadWriteLock()));
 
     @Required
     @Value("${directories.alien}/${directories.csar_repository}")
@@ -59,10 +77,16 @@ public class CsarFileRepository implements ICsarRepositry {
     }
 
     @Override
-    public synchronized void storeCSAR(Csar csar, String yaml) {
+    public void storeCSAR(Csar csar, String yaml) {
+        doWithLock(csar.getName(), csar.getVersion(), true, () -> {
+            doStoreCSAR(csar, yaml);
+            return null;
+        });
+    }
+
+    private void doStoreCSAR(Csar csar, String yaml) {
         Path csarDirectoryPath = rootPath.resolve(csar.getName()).resolve(csar.getVersion());
-        String realName = csar.getName().concat("-").concat(csar.getVersion()).concat("." + CSAR_EXTENSION);
-        createCSARDirectory(csarDirectoryPath, realName);
+        createCSARDirectory(csarDirectoryPath);
 
         Path csarExpandedDirectoryPath = csarDirectoryPath.resolve(EXPANDED);
         try {
@@ -79,17 +103,24 @@ public class CsarFileRepository implements ICsarRepositry {
     }
 
     @Override
-    public synchronized void storeCSAR(Csar csar, Path tmpPath) {
+    public void storeCSAR(Csar csar, Path tmpPath) {
+        doWithLock(csar.getName(), csar.getVersion(), true, () -> {
+            doStoreCSAR(csar, tmpPath);
+            return null;
+        });
+    }
+
+    private void doStoreCSAR(Csar csar, Path tmpPath) {
         // check the tmpPath.
         if (!Files.isReadable(tmpPath)) {
             throw new CSARStorageFailureException("CSAR temp location <" + tmpPath.toString() + "> not found or not readable!");
         }
 
         Path csarDirectoryPath = rootPath.resolve(csar.getName()).resolve(csar.getVersion());
-        String realName = csar.getName().concat("-").concat(csar.getVersion()).concat("." + CSAR_EXTENSION);
+        String realName = getZipName(csar.getName(), csar.getVersion());
 
         // create the storage directory
-        createCSARDirectory(csarDirectoryPath, realName);
+        createCSARDirectory(csarDirectoryPath);
 
         // move the archive
         try {
@@ -113,26 +144,34 @@ public class CsarFileRepository implements ICsarRepositry {
     }
 
     @Override
-    public synchronized void updateFromExpanded(String name, String version) {
+    public void updateFromExpanded(String name, String version) {
         Path csarDirectoryPath = rootPath.resolve(name).resolve(version);
-        Path expandedPath = csarDirectoryPath.resolve("expanded");
-        String realName = name.concat("-").concat(version).concat("." + CSAR_EXTENSION);
-        Path csarTargetPath = csarDirectoryPath.resolve(realName);
+        Path expandedPath = csarDirectoryPath.resolve(EXPANDED);
+        Path csarTargetPath = csarDirectoryPath.resolve(getZipName(name, version));
+        Path outdatedMarkerPath = csarDirectoryPath.resolve(getZipName(name, version) + OUTDATED_SUFFIX);
 
-        // Update the content.json file for archive browsing.
-        Path archiveDirectoryPath = EditionContextManager.get().getLocalGitPath().getParent();
-        try {
-            DirectoryJSonWalker.directoryJson(expandedPath, csarDirectoryPath.resolve("content.json"));
-            FileUtil.zip(expandedPath, csarTargetPath);
+        doWithLock(name, version, true, () -> {
+            try {
+                // Update the content.json file for archive browsing.
+                DirectoryJSonWalker.directoryJson(expandedPath, csarDirectoryPath.resolve("content.json"));
+                // The zip is out of date, it will be generated again on the next download. It is kept until then as callers may still read it.
+                if (Files.exists(csarTargetPath) && !Files.exists(outdatedMarkerPath)) {
+                    Files.createFile(outdatedMarkerPath);
+                }
+            } catch (IOException e) {
+                throw new CSARStorageFailureException(
+                        "Error while trying to update the CSAR archive: " + name + ", Version: " + version + "...." + e.getMessage(), e);
+            }
+            return null;
+        });
+        if (EditionContextManager.get() != null) {
             EditionContextManager.get().refreshContentTree();
-        } catch (IOException e) {
-            throw new CSARStorageFailureException("Error while trying to update the CSAR archive: " + name + ", Version: " + version + "...." + e.getMessage(),
-                    e);
         }
     }
 
-    private void createCSARDirectory(Path csarDirectoryPath, String realName) {
-        if (Files.exists(csarDirectoryPath.resolve(realName))) {
+    private void createCSARDirectory(Path csarDirectoryPath) {
+        // archives stored from a directory have no zip, clear any previous content so that removed files don't remain in the repository.
+        if (Files.exists(csarDirectoryPath)) {
             log.info("Overriding CSAR with new one.");
             try {
                 FileUtil.delete(csarDirectoryPath);
@@ -153,22 +192,32 @@ public class CsarFileRepository implements ICsarRepositry {
     @Override
     public Path getCSAR(String name, String version) {
         Path csarDir = rootPath.resolve(name).resolve(version);
-        Path expandedPath = csarDir.resolve("expanded");
-        Path zippedPath = csarDir.resolve(name.concat("-").concat(version).concat("." + CSAR_EXTENSION));
-        if (Files.exists(zippedPath)) {
+        Path expandedPath = csarDir.resolve(EXPANDED);
+        Path zippedPath = csarDir.resolve(getZipName(name, version));
+        Path outdatedMarkerPath = csarDir.resolve(getZipName(name, version) + OUTDATED_SUFFIX);
+        if (doWithLock(name, version, false, () -> Files.exists(zippedPath) && !Files.exists(outdatedMarkerPath))) {
             return zippedPath;
-        } else if (Files.exists(expandedPath)) {
-            // the csar wasn't stored as a zip file. Zip the expanded dir then
-            try {
-                FileUtil.zip(expandedPath, zippedPath);
+        }
+        return doWithLock(name, version, true, () -> {
+            if (Files.exists(zippedPath) && !Files.exists(outdatedMarkerPath)) {
+                // zipped by another thread in the meantime.
                 return zippedPath;
-            } catch (IOException e) {
-                log.error("Failed to zip directory " + expandedPath, e);
-                throw new NotFoundException("CSAR: " + name + ", Version: " + version + " not found in the repository.");
+            } else if (Files.exists(expandedPath)) {
+                // the csar wasn't stored as a zip file or has been updated since. Zip the expanded dir then
+                Path tmpZippedPath = csarDir.resolve(getZipName(name, version) + ".tmp");
+                try {
+                    FileUtil.zip(expandedPath, tmpZippedPath);
+                    // readers of the previous zip keep reading it, the new zip is visible once complete.
+                    Files.move(tmpZippedPath, zippedPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    Files.deleteIfExists(outdatedMarkerPath);
+                    return zippedPath;
+                } catch (IOException e) {
+                    log.error("Failed to zip directory " + expandedPath, e);
+                    throw new NotFoundException("CSAR: " + name + ", Version: " + version + " not found in the repository.");
+                }
             }
-        }
-
-        throw new NotFoundException("CSAR: " + name + ", Version: " + version + " not found in the repository.");
+            throw new NotFoundException("CSAR: " + name + ", Version: " + version + " not found in the repository.");
+        });
     }
 
     @Override
@@ -184,9 +233,12 @@ public class CsarFileRepository implements ICsarRepositry {
     @Override
     public void removeCSAR(String name, String version) {
         Path csarDirectoryPathOfVersion = rootPath.resolve(name).resolve(version);
-        if (Files.isDirectory(csarDirectoryPathOfVersion)) {
-            FileSystemUtils.deleteRecursively(csarDirectoryPathOfVersion.toFile());
-        }
+        doWithLock(name, version, true, () -> {
+            if (Files.isDirectory(csarDirectoryPathOfVersion)) {
+                FileSystemUtils.deleteRecursively(csarDirectoryPathOfVersion.toFile());
+            }
+            return null;
+        });
 
         // If the csar has no version, delete csar folder
         File csarRootFolder = new File(rootPath.resolve(name).toUri());
@@ -194,4 +246,36 @@ public class CsarFileRepository implements ICsarRepositry {
             FileSystemUtils.deleteRecursively(csarRootFolder);
         }
     }
+
+    private String getZipName(String name, String version) {
+        return name.concat("-").concat(version).concat("." + CSAR_EXTENSION);
+    }
+
+    /**
+     * Execute an action while holding the lock of an archive.
+     *
+     * @param name The name of the archive.
+     * @param version The version of the archive.
+     * @param exclusive True if the action modifies the archive files, false if it only reads them.
+     * @param action The action to execute.
+     * @return The result of the action.
+     */
+    private <T> T doWithLock(String name, String version, boolean exclusive, Supplier<T> action) {
+        // keep a reference on the lock while it is held so it cannot be removed from the cache.
+        ReadWriteLock lock = archiveLocks.getUnchecked(name + ":" + version);
+        if (exclusive) {
+            lock.writeLock().lock();
+        } else {
+            lock.readLock().lock();
+        }
+        try {
+            return action.get();
+        } finally {
+            if (exclusive) {
+                lock.writeLock().unlock();
+            } else {
+                lock.readLock().unlock();
+            }
+        }
+    }
 }
\ No newline at end of file
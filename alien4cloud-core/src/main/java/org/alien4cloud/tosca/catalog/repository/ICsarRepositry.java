@@ -29,7 +29,7 @@ public interface ICsarRepositry {
      *
      * @param name The name of the csar.
      * @param version The version of the CSAR
-     * @return The path to the zipped csar file.
+     * @return The path to the zipped csar file, the file remains readable if the archive is concurrently updated (but not if it is removed).
      */
     Path getCSAR(String name, String version);
 
@@ -43,7 +43,7 @@ public interface ICsarRepositry {
     Path getExpandedCSAR(String name, String version);
 
     /**
-     * Update the content of zip and json content file from the actual content of the expanded directory.
+     * Update the json content file from the actual content of the expanded directory, the zip is generated again on the next {@link #getCSAR} call.
      * 
      * @param name The name of the archive.
      * @param version The version of the archive.
@@ -0,0 +1,76 @@
+package org.alien4cloud.tosca.editor;
+
+import java.io.IOException;
+
+import org.alien4cloud.tosca.model.templates.Topology;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import alien4cloud.dao.ElasticSearchMapper;
+import alien4cloud.utils.TreeNode;
+import lombok.Getter;
+
+/**
+ * In-memory snapshot of the state of an {@link EditionContext} after a given operation, used to undo/redo without replaying all the operations.
+ *
+ * The topology is kept serialized with the mapper used to store topologies in elasticsearch so restoring a checkpoint builds the same instance as fetching
+ * the topology from elasticsearch, a serialized snapshot is also compact and cannot be altered by later operations.
+ */
+@Getter
+public class EditionCheckpoint {
+    private static final ObjectMapper MAPPER = ElasticSearchMapper.getInstance();
+
+    /** Index of the last operation applied to the snapshot state (-1 for the saved state). */
+    private final int operationIndex;
+    private final byte[] topology;
+    private final byte[] archiveContentTree;
+
+    public EditionCheckpoint(int operationIndex, Topology topology, TreeNode archiveContentTree) throws IOException {
+        this.operationIndex = operationIndex;
+        this.topology = MAPPER.writeValueAsBytes(topology);
+        this.archiveContentTree = archiveContentTree == null ? null : MAPPER.writeValueAsBytes(archiveContentTree);
+    }
+
+    /**
+     * Get the memory used by the checkpoint.
+     *
+     * @return The size of the serialized snapshot in bytes.
+     */
+    public long getSize() {
+        return topology.length + (archiveContentTree == null ? 0 : archiveContentTree.length);
+    }
+
+    /**
+     * Build a new topology instance from the snapshot.
+     *
+     * @return A new topology instance.
+     */
+    public Topology restoreTopology() throws IOException {
+        return MAPPER.readValue(topology, Topology.class);
+    }
+
+    /**
+     * Build a new archive content tree from the snapshot.
+     *
+     * @return A new archive content tree.
+     */
+    public TreeNode restoreArchiveContentTree() throws IOException {
+        if (archiveContentTree == null) {
+            return null;
+        }
+        TreeNode root = MAPPER.readValue(archiveContentTree, TreeNode.class);
+        linkParents(root);
+        return root;
+    }
+
+    // parents are not serialized.
+    private void linkParents(TreeNode node) {
+        if (node.getChildren() == null) {
+            return;
+        }
+        for (TreeNode child : node.getChildren()) {
+            child.setParent(node);
+            linkParents(child);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.alien4cloud.tosca.editor;
 
 import org.alien4cloud.tosca.model.Csar;
 import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.topology.TopologyDigest;
 import alien4cloud.tosca.context.ToscaContext;
 import alien4cloud.utils.DirectoryJSonWalker;
 import alien4cloud.utils.TreeNode;
@@ -15,6 +16,8 @@ import org.alien4cloud.tosca.editor.operations.RecoverTopologyOperation;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 /**
  * Topology edition context is related to a specific topology that is currently under edition.
@@ -49,6 +52,10 @@ public class EditionContext {
     private TreeNode archiveContentTree;
     /** List of the operations generated to recover the topology */
     private RecoverTopologyOperation recoveryOperation;
+    /** In-memory snapshots of the context by index of the last applied operation, the saved state is indexed by -1. */
+    private NavigableMap<Integer, EditionCheckpoint> checkpoints = new TreeMap<>();
+    /** Fingerprints of the last topology dto built for the context, used to send only the changes to the editor clients. */
+    private TopologyDigest topologyDigest;
 
     /**
      * Create a new instance of a topology edition context from an existing topology.
@@ -64,6 +71,7 @@ public class EditionContext {
         this.localGitPath = localGitPath;
         // initialize the file tree based on the git repository location
         this.archiveContentTree = DirectoryJSonWalker.getDirectoryTree(this.localGitPath);
+        resetCheckpoints();
     }
 
     /**
@@ -78,6 +86,59 @@ public class EditionContext {
         this.archiveContentTree = DirectoryJSonWalker.getDirectoryTree(this.localGitPath);
     }
 
+    /**
+     * Restore the topology and the archive content tree from a checkpoint.
+     *
+     * @param checkpoint The checkpoint to restore.
+     * @throws IOException In case the checkpoint cannot be deserialized.
+     */
+    public void restore(EditionCheckpoint checkpoint) throws IOException {
+        this.topology = checkpoint.restoreTopology();
+        this.toscaContext = new ToscaContext.Context(topology.getDependencies());
+        this.archiveContentTree = checkpoint.restoreArchiveContentTree();
+    }
+
+    /**
+     * Snapshot the current state of the context as the state after the last operation.
+     *
+     * @throws IOException In case the state cannot be serialized.
+     */
+    public void checkpoint() throws IOException {
+        checkpoints.put(lastOperationIndex, new EditionCheckpoint(lastOperationIndex, topology, archiveContentTree));
+    }
+
+    /**
+     * Remove the checkpoints of the operations that follows the given index (when the operations are dropped from the history).
+     *
+     * @param operationIndex The index of the last operation to keep.
+     */
+    public void discardCheckpointsAfter(int operationIndex) {
+        checkpoints.tailMap(operationIndex, false).clear();
+    }
+
+    /**
+     * Remove all the checkpoints and snapshot the current state as the saved state (when the operations indexes are reset).
+     *
+     * @throws IOException In case the state cannot be serialized.
+     */
+    public void resetCheckpoints() throws IOException {
+        checkpoints.clear();
+        checkpoints.put(-1, new EditionCheckpoint(-1, topology, archiveContentTree));
+    }
+
+    /**
+     * Get the memory used by the checkpoints of this context.
+     *
+     * @return The size of all the checkpoints in bytes.
+     */
+    public long getCheckpointsSize() {
+        long size = 0;
+        for (EditionCheckpoint checkpoint : checkpoints.values()) {
+            size += checkpoint.getSize();
+        }
+        return size;
+    }
+
     public void refreshContentTree() throws IOException {
         this.archiveContentTree = DirectoryJSonWalker.getDirectoryTree(this.localGitPath);
     }
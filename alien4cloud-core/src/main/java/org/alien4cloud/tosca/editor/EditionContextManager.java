@@ -7,6 +7,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -24,10 +26,12 @@ import org.alien4cloud.tosca.editor.operations.UpdateFileOperation;
 import org.alien4cloud.tosca.model.CSARDependency;
 import org.alien4cloud.tosca.model.Csar;
 import org.alien4cloud.tosca.model.templates.Topology;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import com.google.common.cache.*;
+import com.google.common.util.concurrent.Striped;
 
 import alien4cloud.component.repository.IFileRepository;
 import alien4cloud.topology.TopologyServiceCore;
@@ -51,9 +55,23 @@ public class EditionContextManager {
     private EditorRepositoryService repositoryService;
     @Inject
     private IFileRepository artifactRepository;
+    /** Number of operations between two in-memory checkpoints of an edition context (0 disables checkpoints). */
+    @Value("${editor.checkpoint.interval:10}")
+    private int checkpointInterval;
+    /** Maximum number of checkpoints kept in an edition context in addition to the saved state. */
+    @Value("${editor.checkpoint.max_count:20}")
+    private int maxCheckpoints;
 
     // TODO make cache management time a parameter
     private LoadingCache<String, EditionContext> contextCache;
+    /** Striped locks so operations on a topology don't block the edition of unrelated topologies. */
+    private final Striped<Lock> topologyLocks = Striped.lock(64);
+    /** Number of topology lock acquisitions. */
+    private final AtomicLong lockAcquisitions = new AtomicLong();
+    /** Number of topology lock acquisitions that had to wait for another thread. */
+    private final AtomicLong contendedLockAcquisitions = new AtomicLong();
+    /** Total time spent waiting for topology locks in nano seconds. */
+    private final AtomicLong lockWaitNanos = new AtomicLong();
 
     @PostConstruct
     public void setup() {
@@ -92,11 +110,43 @@ public class EditionContextManager {
      * @param topologyId The id of the topology.
      */
     @SneakyThrows
-    public synchronized void init(String topologyId) {
-        contextThreadLocal.set(contextCache.get(topologyId));
+    public void init(String topologyId) {
+        Lock lock = lock(topologyId);
+        try {
+            contextThreadLocal.set(contextCache.get(topologyId));
+        } finally {
+            lock.unlock();
+        }
         ToscaContext.set(contextThreadLocal.get().getToscaContext());
     }
 
+    /**
+     * Execute the given action while holding the lock of the given topology.
+     *
+     * @param topologyId The id of the topology to lock.
+     * @param action The action to execute.
+     */
+    public void doWithLock(String topologyId, Runnable action) {
+        Lock lock = lock(topologyId);
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock lock(String topologyId) {
+        Lock lock = topologyLocks.get(topologyId);
+        lockAcquisitions.incrementAndGet();
+        if (!lock.tryLock()) {
+            contendedLockAcquisitions.incrementAndGet();
+            long start = System.nanoTime();
+            lock.lock();
+            lockWaitNanos.addAndGet(System.nanoTime() - start);
+        }
+        return lock;
+    }
+
     /**
      * Reset the state of the topology context to it's initial state.
      * 
@@ -108,6 +158,52 @@ public class EditionContextManager {
         ToscaContext.set(contextThreadLocal.get().getToscaContext());
     }
 
+    /**
+     * Restore the state of the topology context to the closest known state before the given operation, using the current state or in-memory checkpoints
+     * rather than fetching the topology from elasticsearch when possible.
+     *
+     * @param operationIndex The index of the operation that will be the last operation of the context.
+     * @return The index of the last operation applied to the restored state, operations after this index have to be processed.
+     * @throws IOException In case the parsing of the directory content fails.
+     */
+    public int restore(int operationIndex) throws IOException {
+        EditionContext context = contextThreadLocal.get();
+        Map.Entry<Integer, EditionCheckpoint> checkpoint = context.getCheckpoints().floorEntry(operationIndex);
+        int lastOperationIndex = context.getLastOperationIndex();
+        if (lastOperationIndex < operationIndex && (checkpoint == null || checkpoint.getKey() <= lastOperationIndex)) {
+            // redo, the current state is the closest one.
+            return lastOperationIndex;
+        }
+        if (checkpoint == null) {
+            reset();
+            return -1;
+        }
+        context.restore(checkpoint.getValue());
+        ToscaContext.set(context.getToscaContext());
+        return checkpoint.getKey();
+    }
+
+    /**
+     * Snapshot the current topology context if the number of operations reached the checkpoint interval.
+     */
+    public void checkpoint() {
+        EditionContext context = contextThreadLocal.get();
+        if (checkpointInterval <= 0 || (context.getLastOperationIndex() + 1) % checkpointInterval != 0) {
+            return;
+        }
+        try {
+            context.checkpoint();
+        } catch (IOException e) {
+            // undo/redo will replay more operations.
+            log.warn("Unable to checkpoint edition context of topology {}", context.getTopology().getId(), e);
+            return;
+        }
+        // keep the saved state and the latest checkpoints as undo is mostly performed on recent operations.
+        while (context.getCheckpoints().size() > maxCheckpoints + 1) {
+            context.getCheckpoints().remove(context.getCheckpoints().higherKey(-1));
+        }
+    }
+
     /**
      * Get the current topology edition context for the thread.
      * 
@@ -144,34 +240,37 @@ public class EditionContextManager {
     }
 
     @EventListener
-    public synchronized void handleArchiveRemoved(BeforeArchiveDeleted event) {
-        contextCache.invalidate(event.getArchiveId());
+    public void handleArchiveRemoved(BeforeArchiveDeleted event) {
+        invalidate(event.getArchiveId());
     }
 
     @EventListener
-    public synchronized void handleArchiveUpdated(BeforeArchiveIndexed event) {
-        contextCache.invalidate(event.getArchiveRoot().getArchive().getId());
+    public void handleArchiveUpdated(BeforeArchiveIndexed event) {
+        invalidate(event.getArchiveRoot().getArchive().getId());
     }
 
     @EventListener
-    public synchronized void handleArchivePromoted(BeforeArchivePromoted event) {
-        contextCache.invalidate(event.getArchiveId());
+    public void handleArchivePromoted(BeforeArchivePromoted event) {
+        invalidate(event.getArchiveId());
+    }
+
+    private void invalidate(String topologyId) {
+        doWithLock(topologyId, () -> contextCache.invalidate(topologyId));
     }
 
-    @SneakyThrows
     @EventListener
-    public synchronized void reportArchiveUsage(ArchiveUsageRequestEvent event) {
-        for (String topologyId : contextCache.asMap().keySet()) {
-            if (isTopologyUsingArchive(event.getArchiveName(), event.getArchiveVersion(), topologyId)) {
-                event.addUsage(new Usage(contextCache.get(topologyId).getCsar().getName(), "Topology editor", topologyId,
-                        contextCache.get(topologyId).getCsar().getWorkspace()));
+    public void reportArchiveUsage(ArchiveUsageRequestEvent event) {
+        // iterate over the loaded contexts only, this never triggers the loading of a context.
+        for (Map.Entry<String, EditionContext> contextEntry : contextCache.asMap().entrySet()) {
+            if (isTopologyUsingArchive(event.getArchiveName(), event.getArchiveVersion(), contextEntry.getValue())) {
+                event.addUsage(new Usage(contextEntry.getValue().getCsar().getName(), "Topology editor", contextEntry.getKey(),
+                        contextEntry.getValue().getCsar().getWorkspace()));
             }
         }
     }
 
-    @SneakyThrows
-    private boolean isTopologyUsingArchive(String archiveName, String archiveVersion, String topologyId) {
-        for (CSARDependency dependency : contextCache.get(topologyId).getToscaContext().getDependencies()) {
+    private boolean isTopologyUsingArchive(String archiveName, String archiveVersion, EditionContext editionContext) {
+        for (CSARDependency dependency : editionContext.getToscaContext().getDependencies()) {
             if (archiveName.equals(dependency.getName()) && archiveVersion.equals(dependency.getVersion())) {
                 return true;
             }
@@ -182,7 +281,47 @@ public class EditionContextManager {
     /**
      * Invalidate all cached objects
      */
-    public synchronized void clearCache() {
+    public void clearCache() {
         contextCache.invalidateAll();
     }
+
+    /**
+     * Get the memory used by the checkpoints of the loaded edition contexts.
+     *
+     * @return A map of topology id to the size of the context checkpoints in bytes.
+     */
+    public Map<String, Long> getCheckpointsSizes() {
+        Map<String, Long> sizes = Maps.newHashMap();
+        for (Map.Entry<String, EditionContext> contextEntry : contextCache.asMap().entrySet()) {
+            sizes.put(contextEntry.getKey(), contextEntry.getValue().getCheckpointsSize());
+        }
+        return sizes;
+    }
+
+    /**
+     * Get the number of topology lock acquisitions.
+     *
+     * @return The number of topology lock acquisitions.
+     */
+    public long getLockAcquisitions() {
+        return lockAcquisitions.get();
+    }
+
+    /**
+     * Get the number of topology lock acquisitions that had to wait for the lock to be released by another thread.
+     *
+     * @return The number of contended topology lock acquisitions.
+     */
+    public long getContendedLockAcquisitions() {
+        return contendedLockAcquisitions.get();
+    }
+
+    /**
+     * Get the total time spent waiting for topology locks.
+     *
+     * @return The total time spent waiting for topology locks in milliseconds.
+     */
+    public long getLockWaitTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lockWaitNanos.get());
+    }
 }
\ No newline at end of file
@@ -12,6 +12,7 @@ import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -35,6 +36,7 @@ import org.alien4cloud.tosca.topology.TopologyDTOBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.stereotype.Service;
 
@@ -54,6 +56,9 @@ import alien4cloud.utils.ReflectionUtil;
  */
 @Service
 public class EditorService {
+    /** Name of the websocket message header in which clients give the version of their topology dto. */
+    public static final String TOPOLOGY_VERSION_HEADER = "topologyVersion";
+
     @Inject
     private ApplicationContext applicationContext;
     @Inject
@@ -148,28 +153,46 @@ public class EditorService {
      *
      * @param operation, The operation under evaluation.
      */
-    private synchronized void checkSynchronization(AbstractEditorOperation operation) {
-        // there is an operation being processed so just fail (nobody could get the notification)
-        if (EditionContextManager.get().getCurrentOperation() != null) {
-            throw new EditionConcurrencyException();
-        }
-        List<AbstractEditorOperation> operations = EditionContextManager.get().getOperations();
-        // if someone performed some operations we have to ensure that the new operation is performed on top of a synchronized topology
-        if (EditionContextManager.get().getLastOperationIndex() == -1) {
-            if (operation.getPreviousOperationId() != null) {
+    private void checkSynchronization(AbstractEditorOperation operation) {
+        editionContextManager.doWithLock(EditionContextManager.getTopology().getId(), () -> {
+            // there is an operation being processed so just fail (nobody could get the notification)
+            if (EditionContextManager.get().getCurrentOperation() != null) {
                 throw new EditionConcurrencyException();
             }
-        } else if (!operations.get(EditionContextManager.get().getLastOperationIndex()).getId().equals(operation.getPreviousOperationId())) {
-            throw new EditionConcurrencyException();
-        }
-        operation.setId(UUID.randomUUID().toString());
-        EditionContextManager.get().setCurrentOperation(operation);
-        return;
+            List<AbstractEditorOperation> operations = EditionContextManager.get().getOperations();
+            // if someone performed some operations we have to ensure that the new operation is performed on top of a synchronized topology
+            if (EditionContextManager.get().getLastOperationIndex() == -1) {
+                if (operation.getPreviousOperationId() != null) {
+                    throw new EditionConcurrencyException();
+                }
+            } else if (!operations.get(EditionContextManager.get().getLastOperationIndex()).getId().equals(operation.getPreviousOperationId())) {
+                throw new EditionConcurrencyException();
+            }
+            operation.setId(UUID.randomUUID().toString());
+            EditionContextManager.get().setCurrentOperation(operation);
+        });
     }
 
     // trigger editor operation
+    public <T extends AbstractEditorOperation> TopologyDTO execute(String topologyId, T operation) {
+        return execute(topologyId, operation, () -> dtoBuilder.buildTopologyDTO(EditionContextManager.get()));
+    }
+
+    /**
+     * Execute an operation received on the editor websocket channel and return only the changes of the topology dto since the version known by the client.
+     *
+     * @param topologyId The id of the topology under edition.
+     * @param topologyVersion The version of the last topology dto received by the client (header), if null or outdated the full topology dto is returned.
+     * @param operation The operation to execute.
+     * @return The changes of the topology dto.
+     */
     @MessageMapping("/topology-editor/{topologyId}")
-    public <T extends AbstractEditorOperation> TopologyDTO execute(@DestinationVariable String topologyId, T operation) {
+    public <T extends AbstractEditorOperation> TopologyDiffDTO executeDiff(@DestinationVariable String topologyId,
+            @Header(value = TOPOLOGY_VERSION_HEADER, required = false) Long topologyVersion, T operation) {
+        return execute(topologyId, operation, () -> dtoBuilder.buildTopologyDiffDTO(EditionContextManager.get(), topologyVersion));
+    }
+
+    private <T extends AbstractEditorOperation, R> R execute(String topologyId, T operation, Supplier<R> resultBuilder) {
         // get the topology context.
         try {
             initContext(topologyId, operation);
@@ -180,7 +203,7 @@ public class EditorService {
             doExecute(operation);
 
             // return the topology context
-            return dtoBuilder.buildTopologyDTO(EditionContextManager.get());
+            return resultBuilder.get();
         } finally {
             EditionContextManager.get().setCurrentOperation(null);
             editionContextManager.destroy();
@@ -197,11 +220,13 @@ public class EditorService {
         if (EditionContextManager.get().getLastOperationIndex() != operations.size() - 1) {
             // Clear the operations to 'redo'.
             CollectionUtils.clearFrom(operations, EditionContextManager.get().getLastOperationIndex() + 1);
+            EditionContextManager.get().discardCheckpointsAfter(EditionContextManager.get().getLastOperationIndex());
         }
 
         // update the last operation and index
         EditionContextManager.get().getOperations().add(operation);
         EditionContextManager.get().setLastOperationIndex(EditionContextManager.get().getOperations().size() - 1);
+        editionContextManager.checkpoint();
     }
 
     /**
@@ -239,10 +264,10 @@ public class EditorService {
                 return dtoBuilder.buildTopologyDTO(EditionContextManager.get());
             }
 
-            // TODO Improve this by avoiding dao query for (deep) cloning topology and keeping cache for TOSCA types that are required.
-            editionContextManager.reset();
+            // restore the closest checkpoint and replay only the following operations.
+            int lastAppliedIndex = editionContextManager.restore(at);
 
-            for (int i = 0; i < at + 1; i++) {
+            for (int i = lastAppliedIndex + 1; i < at + 1; i++) {
                 AbstractEditorOperation operation = EditionContextManager.get().getOperations().get(i);
                 IEditorOperationProcessor processor = processorMap.get(operation.getClass());
                 processor.process(operation);
@@ -316,6 +341,8 @@ public class EditorService {
         // TODO add support for undo even after save, this require ability to rollback files to git state, we need file rollback support for that..
         context.setOperations(Lists.newArrayList(context.getOperations().subList(context.getLastOperationIndex() + 1, context.getOperations().size())));
         context.setLastOperationIndex(-1);
+        // operations indexes have changed, the saved state is the new base of the undo/redo.
+        context.resetCheckpoints();
     }
 
     private void saveYamlAndZipFile() throws IOException {
@@ -360,6 +387,7 @@ public class EditorService {
             // Topology has changed means that dependencies might have changed, must update the dependencies
             csarService.setDependencies(topology.getId(), topology.getDependencies());
             topologySubstitutionServive.updateSubstitutionType(topology, EditionContextManager.getCsar());
+            EditionContextManager.get().resetCheckpoints();
             return dtoBuilder.buildTopologyDTO(EditionContextManager.get());
         } catch (IOException e) {
             throw new EditorIOException("Error while pulling remote branch into local repository for " + topologyId + " for user " + username, e);
@@ -479,6 +507,7 @@ public class EditorService {
             // Topology has changed means that dependencies might have changed, must update the dependencies
             csarService.setDependencies(topology.getId(), topology.getDependencies());
             topologySubstitutionServive.updateSubstitutionType(topology, EditionContextManager.getCsar());
+            EditionContextManager.get().resetCheckpoints();
 
             // Local git commit
             repositoryService.commit(EditionContextManager.get().getCsar(), commitMessage);
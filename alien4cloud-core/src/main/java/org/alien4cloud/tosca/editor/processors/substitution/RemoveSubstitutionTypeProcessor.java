@@ -15,10 +15,12 @@ import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.FilterBuilders;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.Lists;
+
 import alien4cloud.dao.FilterUtil;
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.ISearchCursor;
 import alien4cloud.dao.model.FetchContext;
-import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.exception.DeleteReferencedObjectException;
 import alien4cloud.exception.NotFoundException;
 import alien4cloud.topology.TopologyService;
@@ -66,8 +68,10 @@ public class RemoveSubstitutionTypeProcessor implements IEditorCommitableProcess
                 .must(FilterBuilders.nestedFilter("dependencies", FilterBuilders.boolFilter().must(FilterBuilders.termFilter("dependencies.name", archiveName))
                         .must(FilterBuilders.termFilter("dependencies.version", archiveVersion))));
         Map<String, String[]> filter = FilterUtil.singleKeyFilter("nodeTemplates.value.type", elementId);
-        GetMultipleDataResult<Topology> result = alienDAO.search(Topology.class, null, filter, customFilter, FetchContext.SUMMARY, 0, Integer.MAX_VALUE);
-        return result.getData();
+        try (ISearchCursor<Topology> topologies = alienDAO.buildQuery(Topology.class).setFilters(filter, customFilter).prepareSearch()
+                .setFetchContext(FetchContext.SUMMARY).scroll()) {
+            return Lists.newArrayList(topologies).toArray(new Topology[0]);
+        }
     }
 
 }
\ No newline at end of file
@@ -1,24 +1,37 @@
 package org.alien4cloud.tosca.topology;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.alien4cloud.tosca.editor.EditionContext;
+import org.alien4cloud.tosca.editor.exception.EditorIOException;
+import org.alien4cloud.tosca.editor.operations.AbstractEditorOperation;
 import org.alien4cloud.tosca.model.CSARDependency;
 import org.alien4cloud.tosca.model.definitions.CapabilityDefinition;
 import org.alien4cloud.tosca.model.definitions.PropertyDefinition;
 import org.alien4cloud.tosca.model.definitions.RequirementDefinition;
 import org.alien4cloud.tosca.model.templates.AbstractTemplate;
 import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.RelationshipTemplate;
 import org.alien4cloud.tosca.model.templates.Topology;
 import org.alien4cloud.tosca.model.types.*;
+import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
 
+import alien4cloud.dao.ElasticSearchMapper;
 import alien4cloud.topology.AbstractTopologyDTO;
 import alien4cloud.topology.DependencyConflictDTO;
 import alien4cloud.topology.TopologyDTO;
+import alien4cloud.topology.TopologyDiffDTO;
 import alien4cloud.tosca.context.ToscaContext;
 import alien4cloud.tosca.context.ToscaContextual;
 import org.alien4cloud.tosca.normative.types.ToscaTypes;
@@ -28,8 +41,13 @@ import org.alien4cloud.tosca.normative.types.ToscaTypes;
  */
 @Service
 public class TopologyDTOBuilder {
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+    /** Versions are unique for the server so a client cannot mistake a version of a previous edition context for the current one. */
+    private final AtomicLong versionCounter = new AtomicLong(System.currentTimeMillis());
+
     /**
-     * Build a topology dto (topology and all used types) out of a topology.
+     * Build a topology dto (topology and all used types) out of a topology. The dto is not versioned, only the dtos built for the editor websocket channel
+     * through {@link #buildTopologyDiffDTO(EditionContext, Long)} are.
      * 
      * @param context The edition context from which to build the dto.
      */
@@ -48,6 +66,142 @@ public class TopologyDTOBuilder {
         return topologyDTO;
     }
 
+    /**
+     * Build the changes of the topology dto since a given version. The full topology dto is returned if the version is not the last version built for the
+     * context. Fingerprints of the topology are computed only here so that the other dto builds don't pay for them.
+     *
+     * @param context The edition context from which to build the dto.
+     * @param baseVersion The version of the topology dto known by the client, null to get the full topology dto.
+     * @return The changes to apply on the topology dto of the base version.
+     */
+    @ToscaContextual
+    public TopologyDiffDTO buildTopologyDiffDTO(EditionContext context, Long baseVersion) {
+        TopologyDiffDTO diffDTO = new TopologyDiffDTO();
+        diffDTO.setBaseVersion(baseVersion);
+        TopologyDigest previous = context.getTopologyDigest();
+        if (baseVersion == null || previous == null || previous.getVersion() != baseVersion) {
+            TopologyDTO topologyDTO = buildTopologyDTO(context);
+            TopologyDigest digest = digest(context, topologyDTO.getNodeTypes().keySet(), topologyDTO.getRelationshipTypes().keySet(),
+                    topologyDTO.getCapabilityTypes().keySet(), topologyDTO.getDataTypes().keySet());
+            // keep the version if nothing changed so that the clients that are already synchronized remain synchronized.
+            if (previous == null || !previous.isSameState(digest)) {
+                context.setTopologyDigest(digest);
+            }
+            topologyDTO.setVersion(context.getTopologyDigest().getVersion());
+            diffDTO.setTopologyDTO(topologyDTO);
+            diffDTO.setVersion(topologyDTO.getVersion());
+            return diffDTO;
+        }
+
+        Topology topology = context.getTopology();
+        Map<String, HashCode> nodeTemplateHashes = hashNodeTemplates(topology);
+        Map<String, NodeTemplate> updatedNodeTemplates = Maps.newHashMap();
+        for (Map.Entry<String, HashCode> nodeTemplateHash : nodeTemplateHashes.entrySet()) {
+            if (!nodeTemplateHash.getValue().equals(previous.getNodeTemplates().get(nodeTemplateHash.getKey()))) {
+                updatedNodeTemplates.put(nodeTemplateHash.getKey(), topology.getNodeTemplates().get(nodeTemplateHash.getKey()));
+            }
+        }
+        diffDTO.setUpdatedNodeTemplates(updatedNodeTemplates);
+        diffDTO.setRemovedNodeTemplates(Sets.newHashSet(Sets.difference(previous.getNodeTemplates().keySet(), nodeTemplateHashes.keySet())));
+
+        // types used by the updated node templates that the client doesn't know yet
+        Topology updatedTopology = new Topology();
+        updatedTopology.setNodeTemplates(updatedNodeTemplates);
+        TopologyDTO typesDTO = new TopologyDTO();
+        buildAbstractTopologyDTO(updatedTopology, typesDTO);
+        diffDTO.setNodeTypes(newTypes(typesDTO.getNodeTypes(), previous.getNodeTypes()));
+        diffDTO.setRelationshipTypes(newTypes(typesDTO.getRelationshipTypes(), previous.getRelationshipTypes()));
+        diffDTO.setCapabilityTypes(newTypes(typesDTO.getCapabilityTypes(), previous.getCapabilityTypes()));
+        diffDTO.setDataTypes(newTypes(typesDTO.getDataTypes(), previous.getDataTypes()));
+
+        Topology topologyWithoutNodes = withoutNodeTemplates(topology);
+        HashCode topologyHash = hash(topologyWithoutNodes);
+        if (!topologyHash.equals(previous.getTopology())) {
+            diffDTO.setTopology(topologyWithoutNodes);
+            diffDTO.setDependencyConflicts(getDependencyConflictDTOs(context));
+        }
+        HashCode archiveContentTreeHash = hash(context.getArchiveContentTree());
+        if (!archiveContentTreeHash.equals(previous.getArchiveContentTree())) {
+            diffDTO.setArchiveContentTree(context.getArchiveContentTree());
+        }
+
+        List<String> operationIds = operationIds(context);
+        int operationsFrom = 0;
+        while (operationsFrom < operationIds.size() && operationsFrom < previous.getOperationIds().size()
+                && operationIds.get(operationsFrom).equals(previous.getOperationIds().get(operationsFrom))) {
+            operationsFrom++;
+        }
+        diffDTO.setOperationsFrom(operationsFrom);
+        diffDTO.setOperations(Lists.newArrayList(context.getOperations().subList(operationsFrom, context.getOperations().size())));
+        diffDTO.setLastOperationIndex(context.getLastOperationIndex());
+
+        TopologyDigest digest = new TopologyDigest(versionCounter.incrementAndGet(), nodeTemplateHashes, topologyHash, archiveContentTreeHash,
+                context.getLastOperationIndex(), operationIds, union(previous.getNodeTypes(), diffDTO.getNodeTypes().keySet()),
+                union(previous.getRelationshipTypes(), diffDTO.getRelationshipTypes().keySet()),
+                union(previous.getCapabilityTypes(), diffDTO.getCapabilityTypes().keySet()), union(previous.getDataTypes(), diffDTO.getDataTypes().keySet()));
+        if (previous.isSameState(digest)) {
+            digest = previous;
+        }
+        context.setTopologyDigest(digest);
+        diffDTO.setVersion(digest.getVersion());
+        return diffDTO;
+    }
+
+    private TopologyDigest digest(EditionContext context, Set<String> nodeTypes, Set<String> relationshipTypes, Set<String> capabilityTypes,
+            Set<String> dataTypes) {
+        return new TopologyDigest(versionCounter.incrementAndGet(), hashNodeTemplates(context.getTopology()), hash(withoutNodeTemplates(context.getTopology())),
+                hash(context.getArchiveContentTree()), context.getLastOperationIndex(), operationIds(context), Sets.newHashSet(nodeTypes),
+                Sets.newHashSet(relationshipTypes), Sets.newHashSet(capabilityTypes), Sets.newHashSet(dataTypes));
+    }
+
+    private Map<String, HashCode> hashNodeTemplates(Topology topology) {
+        Map<String, HashCode> hashes = Maps.newHashMap();
+        if (topology.getNodeTemplates() != null) {
+            for (Map.Entry<String, NodeTemplate> nodeTemplate : topology.getNodeTemplates().entrySet()) {
+                hashes.put(nodeTemplate.getKey(), hash(nodeTemplate.getValue()));
+            }
+        }
+        return hashes;
+    }
+
+    private Topology withoutNodeTemplates(Topology topology) {
+        Topology copy = new Topology();
+        BeanUtils.copyProperties(topology, copy, "nodeTemplates");
+        return copy;
+    }
+
+    private HashCode hash(Object object) {
+        try {
+            return HASH_FUNCTION.hashBytes(ElasticSearchMapper.getInstance().writeValueAsBytes(object));
+        } catch (JsonProcessingException e) {
+            throw new EditorIOException("Unable to serialize topology element to compute its fingerprint.", e);
+        }
+    }
+
+    private List<String> operationIds(EditionContext context) {
+        List<String> operationIds = Lists.newArrayList();
+        for (AbstractEditorOperation operation : context.getOperations()) {
+            operationIds.add(operation.getId());
+        }
+        return operationIds;
+    }
+
+    private <T> Map<String, T> newTypes(Map<String, T> types, Set<String> knownTypes) {
+        Map<String, T> newTypes = Maps.newHashMap();
+        for (Map.Entry<String, T> type : types.entrySet()) {
+            if (!knownTypes.contains(type.getKey())) {
+                newTypes.put(type.getKey(), type.getValue());
+            }
+        }
+        return newTypes;
+    }
+
+    private Set<String> union(Set<String> knownTypes, Set<String> newTypes) {
+        Set<String> union = Sets.newHashSet(knownTypes);
+        union.addAll(newTypes);
+        return union;
+    }
+
     /**
      * Compute a list of transitive dependency conflicts from the Context.
      * @param context the EditionContext of the Topology being built.
@@ -94,6 +248,7 @@ public class TopologyDTOBuilder {
     }
 
     private <T extends Topology> void buildAbstractTopologyDTO(T topology, AbstractTopologyDTO<T> topologyDTO) {
+        prefetchTemplateTypes(topology);
         topologyDTO.setTopology(topology);
         topologyDTO.setNodeTypes(getNodeTypes(topology));
         topologyDTO.setRelationshipTypes(getRelationshipTypes(topology));
@@ -101,6 +256,26 @@ public class TopologyDTOBuilder {
         topologyDTO.setDataTypes(getDataTypes(topologyDTO));
     }
 
+    /**
+     * Load the node and relationship types of the topology with one request per kind of type rather than one per template.
+     */
+    private <T extends Topology> void prefetchTemplateTypes(T topology) {
+        Set<String> nodeTypes = Sets.newHashSet();
+        Set<String> relationshipTypes = Sets.newHashSet();
+        if (topology.getNodeTemplates() != null) {
+            for (NodeTemplate nodeTemplate : topology.getNodeTemplates().values()) {
+                nodeTypes.add(nodeTemplate.getType());
+                if (nodeTemplate.getRelationships() != null) {
+                    for (RelationshipTemplate relationshipTemplate : nodeTemplate.getRelationships().values()) {
+                        relationshipTypes.add(relationshipTemplate.getType());
+                    }
+                }
+            }
+        }
+        ToscaContext.prefetch(NodeType.class, nodeTypes);
+        ToscaContext.prefetch(RelationshipType.class, relationshipTypes);
+    }
+
     private <T extends Topology> Map<String, NodeType> getNodeTypes(T topology) {
         Map<String, NodeType> types = Maps.newHashMap();
         fillTypeMap(NodeType.class, types, topology.getNodeTemplates(), false, false);
@@ -120,6 +295,14 @@ public class TopologyDTOBuilder {
     private <T extends Topology> Map<String, CapabilityType> getCapabilityTypes(AbstractTopologyDTO<T> topologyDTO) {
         Map<String, CapabilityType> types = Maps.newHashMap();
         Map<String, NodeType> delayedNodeTypeAddMap = Maps.newHashMap();
+        Set<String> capabilityTypes = Sets.newHashSet();
+        for (NodeType nodeType : topologyDTO.getNodeTypes().values()) {
+            if (nodeType != null) {
+                nodeType.getCapabilities().forEach(capabilityDefinition -> capabilityTypes.add(capabilityDefinition.getType()));
+                nodeType.getRequirements().forEach(requirementDefinition -> capabilityTypes.add(requirementDefinition.getType()));
+            }
+        }
+        ToscaContext.prefetch(CapabilityType.class, capabilityTypes);
         for (NodeType nodeType : topologyDTO.getNodeTypes().values()) {
             if (nodeType != null) {
                 for (CapabilityDefinition capabilityDefinition : nodeType.getCapabilities()) {
@@ -162,12 +345,29 @@ public class TopologyDTOBuilder {
 
     private Map<String, DataType> getDataTypes(AbstractTopologyDTO topologyDTO) {
         Map<String, DataType> indexedDataTypes = Maps.newHashMap();
+        Set<String> dataTypes = Sets.newHashSet();
+        collectDataTypes(dataTypes, topologyDTO.getNodeTypes());
+        collectDataTypes(dataTypes, topologyDTO.getRelationshipTypes());
+        collectDataTypes(dataTypes, topologyDTO.getCapabilityTypes());
+        ToscaContext.prefetch(DataType.class, dataTypes);
         indexedDataTypes = fillDataTypes(indexedDataTypes, topologyDTO.getNodeTypes());
         indexedDataTypes = fillDataTypes(indexedDataTypes, topologyDTO.getRelationshipTypes());
         indexedDataTypes = fillDataTypes(indexedDataTypes, topologyDTO.getCapabilityTypes());
         return indexedDataTypes;
     }
 
+    private <T extends AbstractInheritableToscaType> void collectDataTypes(Set<String> dataTypes, Map<String, T> elements) {
+        for (AbstractInheritableToscaType element : elements.values()) {
+            if (element != null && element.getProperties() != null) {
+                for (PropertyDefinition propertyDefinition : element.getProperties().values()) {
+                    if (!ToscaTypes.isPrimitive(propertyDefinition.getType())) {
+                        dataTypes.add(propertyDefinition.getType());
+                    }
+                }
+            }
+        }
+    }
+
     private <T extends AbstractInheritableToscaType> Map<String, DataType> fillDataTypes(Map<String, DataType> indexedDataTypes, Map<String, T> elements) {
         for (AbstractInheritableToscaType indexedNodeType : elements.values()) {
             if (indexedNodeType != null && indexedNodeType.getProperties() != null) {
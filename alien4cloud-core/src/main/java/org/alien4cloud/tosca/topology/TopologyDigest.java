@@ -0,0 +1,46 @@
+package org.alien4cloud.tosca.topology;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.hash.HashCode;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Fingerprints of the last topology dto built for an edition context, used to send only the changes of the next versions to the editor clients.
+ */
+@Getter
+@AllArgsConstructor
+public class TopologyDigest {
+    /** Version of the topology dto, changes only when the state of the dto changes. */
+    private final long version;
+    /** Hash of every node template by node template name. */
+    private final Map<String, HashCode> nodeTemplates;
+    /** Hash of all the topology elements but the node templates. */
+    private final HashCode topology;
+    /** Hash of the archive content tree. */
+    private final HashCode archiveContentTree;
+    private final int lastOperationIndex;
+    /** Ids of the operations of the context. */
+    private final List<String> operationIds;
+    /** Names of the types already sent to the clients. */
+    private final Set<String> nodeTypes;
+    private final Set<String> relationshipTypes;
+    private final Set<String> capabilityTypes;
+    private final Set<String> dataTypes;
+
+    /**
+     * Check if another digest describes the same dto state.
+     *
+     * @param other The other digest.
+     * @return True if both digests have the same fingerprints.
+     */
+    public boolean isSameState(TopologyDigest other) {
+        return nodeTemplates.equals(other.nodeTemplates) && topology.equals(other.topology) && archiveContentTree.equals(other.archiveContentTree)
+                && lastOperationIndex == other.lastOperationIndex && operationIds.equals(other.operationIds) && nodeTypes.equals(other.nodeTypes)
+                && relationshipTypes.equals(other.relationshipTypes) && capabilityTypes.equals(other.capabilityTypes) && dataTypes.equals(other.dataTypes);
+    }
+}
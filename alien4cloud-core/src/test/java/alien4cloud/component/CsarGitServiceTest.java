@@ -2,12 +2,15 @@ package alien4cloud.component;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
 
+import org.alien4cloud.tosca.catalog.repository.ICsarRepositry;
 import org.alien4cloud.tosca.model.Csar;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.junit.Assert;
@@ -22,6 +25,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import alien4cloud.csar.services.CsarGitRepositoryService;
 import alien4cloud.csar.services.CsarGitService;
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.git.RepositoryManager;
 import alien4cloud.model.git.CsarGitCheckoutLocation;
 import alien4cloud.model.git.CsarGitRepository;
 import alien4cloud.tosca.parser.ParserTestUtil;
@@ -42,6 +46,8 @@ public class CsarGitServiceTest {
     CsarGitService csarGitService;
     @Resource
     CsarGitRepositoryService csarGitRepositoryService;
+    @Resource
+    private ICsarRepositry archiveRepositry;
     @Value("${directories.alien}/${directories.upload_temp}")
     private String alienRepoDir;
 
@@ -148,4 +154,102 @@ public class CsarGitServiceTest {
 
     }
 
+    @Test
+    public void reimportShouldOnlyImportChangedArchivesAndTheirDependents() throws IOException {
+        Path sourceRepository = Paths.get("target/git-import-test-source");
+        FileUtil.delete(sourceRepository);
+        RepositoryManager.create(sourceRepository, null);
+        writeArchive(sourceRepository, "git-import-base", "Base", null, "first version");
+        writeArchive(sourceRepository, "git-import-dependent", "Dependent", "git-import-base", "first version");
+        writeArchive(sourceRepository, "git-import-other", "Other", null, "first version");
+        Files.write(sourceRepository.resolve("git-import-other").resolve("notes.txt"), "removed later".getBytes());
+        RepositoryManager.commitAll(sourceRepository, "alien4cloud", "alien4cloud@alien4cloud.org", "initial archives");
+
+        CsarGitCheckoutLocation masterLocation = new CsarGitCheckoutLocation();
+        masterLocation.setBranchId("master");
+        List<CsarGitCheckoutLocation> importLocations = new LinkedList<>();
+        importLocations.add(masterLocation);
+        String repoId = csarGitRepositoryService.create(sourceRepository.toAbsolutePath().toUri().toString(), "", "", importLocations, true);
+
+        List<String> imported = importedArchiveNames(csarGitService.importFromGitRepository(repoId));
+        Assert.assertEquals(3, imported.size());
+        // dependencies are imported first
+        Assert.assertTrue(imported.indexOf("git-import-base") < imported.indexOf("git-import-dependent"));
+
+        // nothing changed, nothing is imported
+        Assert.assertEquals(0, csarGitService.importFromGitRepository(repoId).size());
+
+        // the dependent of a changed archive is re-imported too
+        writeArchive(sourceRepository, "git-import-base", "Base", null, "second version");
+        RepositoryManager.commitAll(sourceRepository, "alien4cloud", "alien4cloud@alien4cloud.org", "update base archive");
+        imported = importedArchiveNames(csarGitService.importFromGitRepository(repoId));
+        Assert.assertEquals(2, imported.size());
+        Assert.assertEquals("git-import-base", imported.get(0));
+        Assert.assertEquals("git-import-dependent", imported.get(1));
+
+        // files removed from git are removed from the repository
+        Files.delete(sourceRepository.resolve("git-import-other").resolve("notes.txt"));
+        RepositoryManager.commitAll(sourceRepository, "alien4cloud", "alien4cloud@alien4cloud.org", "remove notes");
+        imported = importedArchiveNames(csarGitService.importFromGitRepository(repoId));
+        Assert.assertEquals(1, imported.size());
+        Assert.assertEquals("git-import-other", imported.get(0));
+        Assert.assertFalse(Files.exists(archiveRepositry.getExpandedCSAR("git-import-other", "1.0.0-SNAPSHOT").resolve("notes.txt")));
+    }
+
+    @Test
+    public void archiveThatFailedToImportShouldBeRetried() throws IOException {
+        Path sourceRepository = Paths.get("target/git-import-test-source");
+        FileUtil.delete(sourceRepository);
+        RepositoryManager.create(sourceRepository, null);
+        writeArchive(sourceRepository, "git-import-base", "Base", null, "first version");
+        // the archive depends on an archive that doesn't exist, it fails to import.
+        writeArchive(sourceRepository, "git-import-other", "Other", "git-import-missing", "first version");
+        RepositoryManager.commitAll(sourceRepository, "alien4cloud", "alien4cloud@alien4cloud.org", "initial archives");
+
+        CsarGitCheckoutLocation masterLocation = new CsarGitCheckoutLocation();
+        masterLocation.setBranchId("master");
+        List<CsarGitCheckoutLocation> importLocations = new LinkedList<>();
+        importLocations.add(masterLocation);
+        String repoId = csarGitRepositoryService.create(sourceRepository.toAbsolutePath().toUri().toString(), "", "", importLocations, true);
+
+        List<ParsingResult<Csar>> result = csarGitService.importFromGitRepository(repoId);
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals(1, result.stream().filter(parsingResult -> parsingResult.hasError(ParsingErrorLevel.ERROR)).count());
+
+        // the failed archive is imported again even if it didn't change
+        result = csarGitService.importFromGitRepository(repoId);
+        Assert.assertEquals(1, result.size());
+        Assert.assertTrue(result.get(0).hasError(ParsingErrorLevel.ERROR));
+    }
+
+    private List<String> importedArchiveNames(List<ParsingResult<Csar>> results) {
+        for (ParsingResult<Csar> result : results) {
+            if (result.hasError(ParsingErrorLevel.ERROR)) {
+                ParserTestUtil.displayErrors(result);
+            }
+            Assert.assertFalse(result.hasError(ParsingErrorLevel.ERROR));
+        }
+        return results.stream().map(result -> result.getResult().getName()).collect(Collectors.toList());
+    }
+
+    /**
+     * Write an archive that defines a single node type, the node type derives from the type of the dependency if any.
+     */
+    private void writeArchive(Path repository, String archiveName, String typeName, String dependencyName, String description) throws IOException {
+        Path archivePath = repository.resolve(archiveName);
+        Files.createDirectories(archivePath);
+        StringBuilder yaml = new StringBuilder("tosca_definitions_version: alien_dsl_1_3_0\n\n");
+        yaml.append("metadata:\n  template_name: ").append(archiveName).append("\n  template_version: 1.0.0-SNAPSHOT\n  template_author: alien4cloud\n\n");
+        if (dependencyName != null) {
+            yaml.append("imports:\n  - \"").append(dependencyName).append(":1.0.0-SNAPSHOT\"\n\n");
+        }
+        yaml.append("node_types:\n  git.import.nodes.").append(typeName).append(":\n");
+        if (dependencyName != null) {
+            String dependencyType = dependencyName.substring("git-import-".length());
+            yaml.append("    derived_from: git.import.nodes.").append(Character.toUpperCase(dependencyType.charAt(0))).append(dependencyType.substring(1))
+                    .append("\n");
+        }
+        yaml.append("    description: ").append(description).append("\n");
+        Files.write(archivePath.resolve(archiveName + ".yml"), yaml.toString().getBytes());
+    }
 }
@@ -0,0 +1,113 @@
+package alien4cloud.component.dao;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Resource;
+
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import alien4cloud.dao.ESGenericIdDAO;
+import alien4cloud.dao.RefreshPolicy;
+import alien4cloud.dao.model.BulkSaveResult;
+import alien4cloud.model.application.Application;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+public class EsDaoBulkTest extends AbstractDAOTest {
+    /** Euro sign is encoded on 3 bytes in UTF-8. */
+    private static final String NON_ASCII_NAME = StringUtils.repeat('€', 1000);
+
+    @Resource(name = "alien-es-dao")
+    private ESGenericIdDAO dao;
+
+    private long initialBulkMaxSizeBytes;
+
+    @Before
+    public void saveBulkMaxSize() {
+        initialBulkMaxSizeBytes = dao.getBulkMaxSizeBytes();
+    }
+
+    @After
+    public void restoreBulkMaxSize() {
+        dao.setBulkMaxSizeBytes(initialBulkMaxSizeBytes);
+    }
+
+    @Test
+    public void saveBulkShouldLimitChunksByUtf8Size() {
+        // a document is about 1000 chars but 3000 bytes: only a single document fits in a chunk.
+        dao.setBulkMaxSizeBytes(4000);
+        List<Application> applications = Lists.newArrayList();
+        for (int i = 0; i < 4; i++) {
+            applications.add(createApplication("application-" + i, NON_ASCII_NAME));
+        }
+
+        BulkSaveResult<Application> result = dao.saveBulk(applications, RefreshPolicy.IMMEDIATE);
+
+        Assert.assertEquals(4, result.getBulkRequestCount());
+        Assert.assertEquals(4, result.getSavedCount());
+        Assert.assertFalse(result.hasFailures());
+        Assert.assertEquals(NON_ASCII_NAME, dao.findById(Application.class, "application-2").getName());
+    }
+
+    @Test
+    public void saveBulkShouldReportFailedDocuments() {
+        Topology topology = new Topology();
+        topology.setArchiveName("bulk-test");
+        topology.setArchiveVersion("1.0.0");
+        String topologyIndex = dao.getIndexForType(Topology.class);
+        // documents of a closed index cannot be saved while documents of other indices are.
+        nodeClient.admin().indices().prepareClose(topologyIndex).execute().actionGet();
+        try {
+            List<Object> entities = Lists.newArrayList(createApplication("application-0", "first"), topology, createApplication("application-1", "second"));
+            BulkSaveResult<Object> result = dao.saveBulk(entities, RefreshPolicy.IMMEDIATE);
+
+            Assert.assertEquals(2, result.getSavedCount());
+            Assert.assertEquals(1, result.getFailures().size());
+            Assert.assertSame(topology, result.getFailures().get(0).getEntity());
+            Assert.assertNotNull(dao.findById(Application.class, "application-1"));
+        } finally {
+            nodeClient.admin().indices().prepareOpen(topologyIndex).execute().actionGet();
+            nodeClient.admin().cluster().prepareHealth(topologyIndex).setWaitForYellowStatus().execute().actionGet();
+        }
+    }
+
+    @Test
+    public void updateBulkShouldLimitChunksByUtf8SizeAndReportMissingDocuments() {
+        dao.saveBulk(Lists.newArrayList(createApplication("application-0", "first"), createApplication("application-1", "second")),
+                RefreshPolicy.IMMEDIATE);
+        dao.setBulkMaxSizeBytes(4000);
+        Map<String, Map<String, Object>> fieldsById = Maps.newLinkedHashMap();
+        for (String id : new String[] { "application-0", "missing", "application-1" }) {
+            Map<String, Object> fields = Maps.newHashMap();
+            fields.put("name", NON_ASCII_NAME);
+            fieldsById.put(id, fields);
+        }
+
+        BulkSaveResult<String> result = dao.updateBulk(Application.class, fieldsById, RefreshPolicy.IMMEDIATE);
+
+        Assert.assertEquals(3, result.getBulkRequestCount());
+        Assert.assertEquals(2, result.getSavedCount());
+        Assert.assertEquals(1, result.getFailures().size());
+        Assert.assertEquals("missing", result.getFailures().get(0).getEntity());
+        Assert.assertEquals(NON_ASCII_NAME, dao.findById(Application.class, "application-1").getName());
+    }
+
+    private Application createApplication(String id, String name) {
+        Application application = new Application();
+        application.setId(id);
+        application.setName(name);
+        return application;
+    }
+}
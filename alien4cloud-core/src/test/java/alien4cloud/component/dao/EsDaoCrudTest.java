@@ -23,14 +23,17 @@ import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsRespon
 import org.elasticsearch.action.admin.indices.exists.types.TypesExistsRequest;
 import org.elasticsearch.action.admin.indices.exists.types.TypesExistsResponse;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.index.query.QueryBuilders;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import alien4cloud.dao.ESGenericIdDAO;
 import alien4cloud.dao.ElasticSearchDAO;
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.RefreshPolicy;
 import alien4cloud.dao.model.FetchContext;
 import alien4cloud.exception.IndexingServiceException;
 import alien4cloud.model.application.Application;
@@ -91,6 +94,23 @@ public class EsDaoCrudTest extends AbstractDAOTest {
         refresh();
     }
 
+    @Test
+    public void saveWithRefreshPolicyTest() throws IndexingServiceException {
+        ESGenericIdDAO idDao = (ESGenericIdDAO) dao;
+        long issued = idDao.getRefreshesIssued();
+        long saved = idDao.getRefreshesSaved();
+
+        dao.save(indexedNodeTypeTest, RefreshPolicy.NONE);
+        assertEquals(issued, idDao.getRefreshesIssued());
+        assertEquals(saved + 1, idDao.getRefreshesSaved());
+        // document is available by id even if the index is not refreshed.
+        assertBeanEqualsToOriginal(dao.findById(NodeType.class, indexedNodeTypeTest.getId()));
+
+        dao.save(indexedNodeTypeTest, RefreshPolicy.IMMEDIATE);
+        assertEquals(issued + 1, idDao.getRefreshesIssued());
+        assertEquals(1, dao.count(NodeType.class, null));
+    }
+
     @Test(expected = IndexingServiceException.class)
     public void indexingNotSupportedToscaComponentTest() throws IndexingServiceException {
         dao.save(new String());
@@ -185,6 +205,24 @@ public class EsDaoCrudTest extends AbstractDAOTest {
         assertDocumentExisit(ElasticSearchDAO.TOSCA_ELEMENT_INDEX, typeName1, indexedNodeTypeTest.getId(), false);
     }
 
+    @Test
+    public void deleteByQueryTest() {
+        Application[] applications = new Application[1200];
+        for (int i = 0; i < applications.length; i++) {
+            applications[i] = new Application();
+            applications[i].setId("app-" + i);
+            applications[i].setName("app-" + i);
+            applications[i].setDescription(i % 2 == 0 ? "even" : "odd");
+        }
+        dao.save(applications);
+
+        assertEquals(600, dao.delete(Application.class, QueryBuilders.termQuery("description", "even"), 1));
+        assertEquals(600, dao.count(Application.class, QueryBuilders.matchAllQuery()));
+        assertEquals(600, dao.delete(Application.class, QueryBuilders.matchAllQuery()));
+        assertEquals(0, dao.count(Application.class, QueryBuilders.matchAllQuery()));
+        assertEquals(0, dao.delete(Application.class, QueryBuilders.matchAllQuery()));
+    }
+
     @Test(expected = IndexingServiceException.class)
     public void unsupportedIndexedDeletionTest() throws JsonProcessingException, IndexingServiceException {
         saveDataToES(indexedNodeTypeTest);
@@ -9,6 +9,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -34,6 +35,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import alien4cloud.dao.ElasticSearchDAO;
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.ISearchCursor;
 import alien4cloud.dao.model.FacetedSearchFacet;
 import alien4cloud.dao.model.FacetedSearchResult;
 import alien4cloud.dao.model.FetchContext;
@@ -93,6 +95,31 @@ public class EsDaoPaginatedSearchTest extends AbstractDAOTest {
 
     }
 
+    @Test
+    public void scrollSearchTest() {
+        int maxElement = getCount(QueryBuilders.matchAllQuery());
+        assertTrue(maxElement > 0);
+
+        List<String> ids = new ArrayList<>();
+        try (ISearchCursor<NodeType> cursor = dao.scroll(NodeType.class, null, null, 3)) {
+            assertEquals(maxElement, cursor.getTotalResults());
+            cursor.forEachRemaining(nodeType -> ids.add(nodeType.getId()));
+        }
+        assertEquals(maxElement, ids.size());
+        assertEquals(maxElement, new HashSet<>(ids).size());
+
+        Map<String, String[]> filters = new HashMap<String, String[]>();
+        filters.put("capabilities.type", new String[] { "jndi" });
+        int count = 0;
+        try (ISearchCursor<NodeType> cursor = dao.buildQuery(NodeType.class).setFilters(filters).prepareSearch().scroll(2)) {
+            while (cursor.hasNext()) {
+                assertTrue(cursor.next().getCapabilities().stream().anyMatch(capabilityDefinition -> "jndi".equals(capabilityDefinition.getType())));
+                count++;
+            }
+        }
+        assertEquals(jndiTestDataList.size(), count);
+    }
+
     @Test
     public void textBasedSearchPaginatedTest() throws IndexingServiceException, IOException, InterruptedException {
 
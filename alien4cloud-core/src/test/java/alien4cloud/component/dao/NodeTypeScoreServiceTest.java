@@ -79,6 +79,7 @@ public class NodeTypeScoreServiceTest {
 
         // perform scoring
         scoreService.run();
+        Assert.assertEquals(4, scoreService.getLastRunChangedScores());
 
         // check that order on query is correct
         GetMultipleDataResult data = dao.search(NodeType.class, "", null, AlienConstants.DEFAULT_ES_SEARCH_SIZE);
@@ -91,6 +92,10 @@ public class NodeTypeScoreServiceTest {
         Assert.assertEquals(1000, ((NodeType) data.getData()[2]).getAlienScore());
         Assert.assertEquals(mordor100Id, ((NodeType) data.getData()[3]).getId());
         Assert.assertEquals(10, ((NodeType) data.getData()[3]).getAlienScore());
+
+        // scores that have not changed are not updated
+        scoreService.run();
+        Assert.assertEquals(0, scoreService.getLastRunChangedScores());
     }
 
 }
@@ -1,13 +1,23 @@
 package alien4cloud.component.repository;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
 
 import javax.annotation.Resource;
 
@@ -19,6 +29,10 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.cache.LoadingCache;
 
 import alien4cloud.component.repository.exception.CSARStorageFailureException;
 import alien4cloud.exception.NotFoundException;
@@ -58,6 +72,91 @@ public class CsarRepositoryTest {
         testGetCSARSuccessul();
     }
 
+    @Test
+    public void getCSARShouldLazilyZipArchiveStoredFromDirectory() throws IOException {
+        cleanup();
+        Path archiveDir = Files.createTempDirectory("csar-repository-test");
+        try {
+            Files.write(archiveDir.resolve("definition.yml"), "tosca_definitions_version: alien_dsl_1_2_0".getBytes());
+            storeTestCSAR(testFileName, "1.0", archiveDir.toString());
+            Path zippedPath = Paths.get(alienRepoDir).resolve(testFileName).resolve("1.0")
+                    .resolve(testFileName.concat("-").concat("1.0").concat(".").concat(ARCHIVE_EXTENSION));
+            assertFalse(Files.exists(zippedPath));
+
+            assertEquals(zippedPath.toAbsolutePath(), repo.getCSAR(testFileName, "1.0"));
+            assertTrue(Files.isRegularFile(zippedPath));
+        } finally {
+            FileUtil.delete(archiveDir);
+        }
+    }
+
+    @Test
+    public void updateFromExpandedShouldRebuildTheZipOnNextGet() throws IOException {
+        cleanup();
+        Path archiveDir = Files.createTempDirectory("csar-repository-test");
+        try {
+            Files.write(archiveDir.resolve("definition.yml"), "tosca_definitions_version: alien_dsl_1_2_0".getBytes());
+            storeTestCSAR(testFileName, "1.0", archiveDir.toString());
+            Path zippedPath = repo.getCSAR(testFileName, "1.0");
+            assertFalse(zipContains(zippedPath, "readme.txt"));
+
+            Files.write(repo.getExpandedCSAR(testFileName, "1.0").resolve("readme.txt"), "updated in the editor".getBytes());
+            repo.updateFromExpanded(testFileName, "1.0");
+            // the previous zip remains readable until it is replaced
+            assertTrue(Files.isRegularFile(zippedPath));
+            assertFalse(zipContains(zippedPath, "readme.txt"));
+
+            assertEquals(zippedPath, repo.getCSAR(testFileName, "1.0"));
+            assertTrue(zipContains(zippedPath, "readme.txt"));
+            // the zip is built in a temporary file then moved
+            try (Stream<Path> files = Files.list(zippedPath.getParent())) {
+                assertEquals(0, files.filter(file -> file.getFileName().toString().endsWith(".tmp")).count());
+            }
+        } finally {
+            FileUtil.delete(archiveDir);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void operationsOnDifferentArchivesShouldRunConcurrently() throws Exception {
+        cleanup();
+        storeTestCSAR(testFileName, "1.0", tmpPath);
+        storeTestCSAR(testFileName, "2.0", tmpPath);
+        LoadingCache<String, ReadWriteLock> archiveLocks = (LoadingCache<String, ReadWriteLock>) ReflectionTestUtils
+                .getField(AopTestUtils.getUltimateTargetObject(repo), "archiveLocks");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        // an operation that modifies the first archive is in progress
+        ReadWriteLock firstArchiveLock = archiveLocks.getUnchecked(testFileName + ":1.0");
+        firstArchiveLock.writeLock().lock();
+        boolean locked = true;
+        try {
+            Future<Path> firstArchive = executor.submit(() -> repo.getCSAR(testFileName, "1.0"));
+            Future<Path> secondArchive = executor.submit(() -> repo.getCSAR(testFileName, "2.0"));
+            assertNotNull(secondArchive.get(10, TimeUnit.SECONDS));
+            try {
+                firstArchive.get(500, TimeUnit.MILLISECONDS);
+                fail("The first archive should be locked.");
+            } catch (TimeoutException e) {
+                // expected
+            }
+            firstArchiveLock.writeLock().unlock();
+            locked = false;
+            assertNotNull(firstArchive.get(10, TimeUnit.SECONDS));
+        } finally {
+            if (locked) {
+                firstArchiveLock.writeLock().unlock();
+            }
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean zipContains(Path zipPath, String entryName) throws IOException {
+        try (ZipFile zipFile = new ZipFile(zipPath.toFile())) {
+            return zipFile.getEntry(entryName) != null;
+        }
+    }
+
     @Test(expected = CSARStorageFailureException.class)
     public void testBadTmpPathToStore() {
         cleanup();
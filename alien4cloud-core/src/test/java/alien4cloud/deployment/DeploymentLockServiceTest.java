@@ -0,0 +1,63 @@
+package alien4cloud.deployment;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeploymentLockServiceTest {
+    private DeploymentLockService deploymentLockService;
+
+    @Before
+    public void init() {
+        deploymentLockService = new DeploymentLockService();
+        deploymentLockService.init();
+    }
+
+    @Test
+    public void writeLockShouldBeReentrantAndAllowReadLock() {
+        String result = deploymentLockService.doWithDeploymentWriteLock("deployment", () -> deploymentLockService.doWithDeploymentWriteLock("deployment",
+                () -> deploymentLockService.doWithDeploymentReadLock("deployment", () -> "ok")));
+        Assert.assertEquals("ok", result);
+    }
+
+    @Test
+    public void writeLockShouldBeExclusiveAndTimesReported() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch locked = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Future<?> holder = executor.submit(() -> deploymentLockService.doWithDeploymentWriteLock("deployment", () -> {
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            Assert.assertTrue(locked.await(10, TimeUnit.SECONDS));
+            new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                release.countDown();
+            }).start();
+            // the read lock is available only once the writer released the lock.
+            deploymentLockService.doWithDeploymentReadLock("deployment", () -> null);
+            holder.get(10, TimeUnit.SECONDS);
+
+            Assert.assertTrue(deploymentLockService.getLockWaitTimes().get("deployment") > 0);
+            Assert.assertTrue(deploymentLockService.getLockHoldTimes().get("deployment") > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package alien4cloud.deployment.locks;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+
+import org.elasticsearch.mapping.MappingBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Lists;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.deployment.locks.IDeploymentLockProvider.IDeploymentLock;
+import alien4cloud.model.deployment.DeploymentLock;
+
+/**
+ * Test the deployment locks shared through elastic search, every provider instance acts as a distinct alien4cloud instance.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+public class ElasticSearchDeploymentLockProviderTest {
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO alienDAO;
+
+    private final List<ElasticSearchDeploymentLockProvider> providers = Lists.newArrayList();
+    private ExecutorService executor;
+    private String deploymentId;
+
+    @Before
+    public void init() {
+        executor = Executors.newCachedThreadPool();
+        deploymentId = UUID.randomUUID().toString();
+    }
+
+    @After
+    public void cleanup() {
+        executor.shutdownNow();
+        providers.forEach(ElasticSearchDeploymentLockProvider::shutdown);
+        providers.clear();
+    }
+
+    private ElasticSearchDeploymentLockProvider createProvider(long leaseSeconds, long clockSkewMarginSeconds) {
+        ElasticSearchDeploymentLockProvider provider = new ElasticSearchDeploymentLockProvider(leaseSeconds, 50, clockSkewMarginSeconds);
+        ReflectionTestUtils.setField(provider, "alienDAO", alienDAO);
+        provider.init();
+        providers.add(provider);
+        return provider;
+    }
+
+    /**
+     * Acquire a lock on a separate thread and hold it until the release latch is opened, locks must be released by the thread that acquired them.
+     */
+    private Future<?> hold(IDeploymentLockProvider provider, boolean exclusive, CountDownLatch acquired, CountDownLatch release) {
+        return executor.submit(() -> {
+            IDeploymentLock lock = exclusive ? provider.acquireWriteLock(deploymentId) : provider.acquireReadLock(deploymentId);
+            acquired.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.release();
+            }
+        });
+    }
+
+    private boolean lockDocumentExists() {
+        return alienDAO.getClient()
+                .prepareGet(alienDAO.getIndexForType(DeploymentLock.class), MappingBuilder.indexTypeFromClass(DeploymentLock.class), deploymentId).execute()
+                .actionGet().isExists();
+    }
+
+    @Test
+    public void writeLockShouldBeExclusiveBetweenInstances() throws Exception {
+        ElasticSearchDeploymentLockProvider first = createProvider(60, 30);
+        ElasticSearchDeploymentLockProvider second = createProvider(60, 30);
+
+        CountDownLatch firstAcquired = new CountDownLatch(1);
+        CountDownLatch firstRelease = new CountDownLatch(1);
+        Future<?> firstHolder = hold(first, true, firstAcquired, firstRelease);
+        Assert.assertTrue(firstAcquired.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertTrue(lockDocumentExists());
+
+        CountDownLatch secondAcquired = new CountDownLatch(1);
+        CountDownLatch secondRelease = new CountDownLatch(1);
+        Future<?> secondHolder = hold(second, true, secondAcquired, secondRelease);
+        Assert.assertFalse(secondAcquired.await(500, TimeUnit.MILLISECONDS));
+
+        firstRelease.countDown();
+        firstHolder.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Assert.assertTrue(secondAcquired.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        secondRelease.countDown();
+        secondHolder.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        // the lock document is deleted once no instance holds the lock
+        Assert.assertFalse(lockDocumentExists());
+    }
+
+    @Test
+    public void readLocksShouldBeSharedAndExcludeWriters() throws Exception {
+        ElasticSearchDeploymentLockProvider firstReader = createProvider(60, 30);
+        ElasticSearchDeploymentLockProvider secondReader = createProvider(60, 30);
+        ElasticSearchDeploymentLockProvider writer = createProvider(60, 30);
+
+        CountDownLatch readersAcquired = new CountDownLatch(2);
+        CountDownLatch firstReaderRelease = new CountDownLatch(1);
+        CountDownLatch secondReaderRelease = new CountDownLatch(1);
+        Future<?> firstReaderHolder = hold(firstReader, false, readersAcquired, firstReaderRelease);
+        Future<?> secondReaderHolder = hold(secondReader, false, readersAcquired, secondReaderRelease);
+        Assert.assertTrue(readersAcquired.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        CountDownLatch writerAcquired = new CountDownLatch(1);
+        CountDownLatch writerRelease = new CountDownLatch(1);
+        Future<?> writerHolder = hold(writer, true, writerAcquired, writerRelease);
+        Assert.assertFalse(writerAcquired.await(500, TimeUnit.MILLISECONDS));
+        // the writer waits for all the readers
+        firstReaderRelease.countDown();
+        firstReaderHolder.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Assert.assertFalse(writerAcquired.await(500, TimeUnit.MILLISECONDS));
+        secondReaderRelease.countDown();
+        secondReaderHolder.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Assert.assertTrue(writerAcquired.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // readers wait for the writer
+        CountDownLatch readerAcquired = new CountDownLatch(1);
+        CountDownLatch readerRelease = new CountDownLatch(1);
+        Future<?> readerHolder = hold(firstReader, false, readerAcquired, readerRelease);
+        Assert.assertFalse(readerAcquired.await(500, TimeUnit.MILLISECONDS));
+        writerRelease.countDown();
+        writerHolder.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Assert.assertTrue(readerAcquired.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        readerRelease.countDown();
+        readerHolder.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void expiredLeaseShouldBeTakenOverAfterTheClockSkewMargin() throws Exception {
+        ElasticSearchDeploymentLockProvider stopped = createProvider(1, 0);
+        ElasticSearchDeploymentLockProvider other = createProvider(60, 1);
+
+        // the instance stops without releasing its lease
+        CountDownLatch stoppedAcquired = new CountDownLatch(1);
+        hold(stopped, true, stoppedAcquired, new CountDownLatch(1));
+        Assert.assertTrue(stoppedAcquired.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        stopped.shutdown();
+        long start = System.currentTimeMillis();
+
+        CountDownLatch otherAcquired = new CountDownLatch(1);
+        CountDownLatch otherRelease = new CountDownLatch(1);
+        Future<?> otherHolder = hold(other, true, otherAcquired, otherRelease);
+        Assert.assertTrue(otherAcquired.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // the lease expires after 1 second and is considered expired after a margin of 1 more second
+        Assert.assertTrue(System.currentTimeMillis() - start >= 1500);
+        otherRelease.countDown();
+        otherHolder.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void leaseShouldBeRenewedWhileTheLockIsHeld() throws Exception {
+        ElasticSearchDeploymentLockProvider holder = createProvider(1, 0);
+        ElasticSearchDeploymentLockProvider other = createProvider(60, 0);
+
+        CountDownLatch holderAcquired = new CountDownLatch(1);
+        CountDownLatch holderRelease = new CountDownLatch(1);
+        Future<?> holderFuture = hold(holder, true, holderAcquired, holderRelease);
+        Assert.assertTrue(holderAcquired.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // the lock is held for more than twice the lease duration
+        CountDownLatch otherAcquired = new CountDownLatch(1);
+        CountDownLatch otherRelease = new CountDownLatch(1);
+        Future<?> otherHolder = hold(other, true, otherAcquired, otherRelease);
+        Assert.assertFalse(otherAcquired.await(2500, TimeUnit.MILLISECONDS));
+
+        holderRelease.countDown();
+        holderFuture.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Assert.assertTrue(otherAcquired.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        otherRelease.countDown();
+        otherHolder.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -188,6 +188,33 @@ public class DefaultNodeMatcherTest {
         assertThat(proposition.get(0).isService()).isTrue();
     }
 
+    @Test
+    public void nodes_should_be_matched_against_their_own_type() throws Exception {
+        // Given
+        Map<String, MatchingConfiguration> emptyMatchingConfigurations = new HashMap<>();
+
+        // When
+        NodeType abstractNodeType = new NodeType();
+        abstractNodeType.setElementId("test.nodes.DB");
+        abstractNodeType.setAbstract(true);
+        NodeType concreteNodeType = new NodeType();
+        concreteNodeType.setElementId("tosca.nodes.Compute");
+
+        Map<String, List<LocationResourceTemplate>> propositions = nodeMatcher.matchNodes(
+                ImmutableMap.of("db", nodeTemplate("test.nodes.DB"), "compute", nodeTemplate("tosca.nodes.Compute"), "unknown",
+                        nodeTemplate("tosca.nodes.Unknown")),
+                ImmutableMap.of("test.nodes.DB", abstractNodeType, "tosca.nodes.Compute", concreteNodeType, "tosca.nodes.Unknown", new NodeType()),
+                locationResources, emptyMatchingConfigurations);
+
+        // Then
+        assertThat(propositions).hasSize(3);
+        assertThat(propositions.get("db")).hasSize(1);
+        assertThat(propositions.get("db").get(0).isService()).isTrue();
+        assertThat(propositions.get("compute")).hasSize(1);
+        assertThat(propositions.get("compute").get(0).isService()).isFalse();
+        assertThat(propositions.get("unknown")).hasSize(0);
+    }
+
     private NodeType nodeType(String elementId, String... derivedTypes) {
         NodeType nodeType = new NodeType();
         nodeType.setAbstract(false);
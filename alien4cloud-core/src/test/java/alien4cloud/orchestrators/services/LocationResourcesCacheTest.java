@@ -0,0 +1,91 @@
+package alien4cloud.orchestrators.services;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import alien4cloud.model.orchestrators.locations.Location;
+import alien4cloud.model.orchestrators.locations.LocationResourceTemplate;
+import alien4cloud.model.orchestrators.locations.LocationResources;
+import alien4cloud.orchestrators.locations.services.LocationResourcesCache;
+
+public class LocationResourcesCacheTest {
+    private LocationResourcesCache cache;
+    private Location location;
+    private Object orchestratorInstance;
+    private AtomicInteger loadCount;
+
+    @Before
+    public void init() {
+        cache = new LocationResourcesCache(60);
+        location = new Location();
+        location.setId("location");
+        location.getDependencies().add(new CSARDependency("types", "1.0.0"));
+        orchestratorInstance = new Object();
+        loadCount = new AtomicInteger();
+    }
+
+    private LocationResources load() {
+        loadCount.incrementAndGet();
+        LocationResources locationResources = new LocationResources();
+        locationResources.getNodeTypes().put("compute", new NodeType());
+        locationResources.getNodeTemplates().add(new LocationResourceTemplate());
+        return locationResources;
+    }
+
+    @Test
+    public void resourcesShouldBeLoadedOnce() {
+        cache.get(location, orchestratorInstance, this::load);
+        LocationResources locationResources = cache.get(location, orchestratorInstance, this::load);
+        Assert.assertEquals(1, loadCount.get());
+        Assert.assertEquals(1, locationResources.getNodeTemplates().size());
+    }
+
+    @Test
+    public void readsShouldNotAffectTheCachedResources() {
+        LocationResources locationResources = cache.get(location, orchestratorInstance, this::load);
+        locationResources.getNodeTemplates().clear();
+        locationResources.getNodeTypes().clear();
+        locationResources = cache.get(location, orchestratorInstance, this::load);
+        Assert.assertEquals(1, locationResources.getNodeTemplates().size());
+        Assert.assertEquals(1, locationResources.getNodeTypes().size());
+    }
+
+    @Test
+    public void resourcesShouldBeReloadedWhenLocationChanges() {
+        cache.get(location, orchestratorInstance, this::load);
+        location.getDependencies().add(new CSARDependency("other-types", "1.0.0"));
+        cache.get(location, orchestratorInstance, this::load);
+        Assert.assertEquals(2, loadCount.get());
+        cache.get(location, new Object(), this::load);
+        Assert.assertEquals(3, loadCount.get());
+        cache.invalidate(location.getId());
+        cache.get(location, orchestratorInstance, this::load);
+        Assert.assertEquals(4, loadCount.get());
+    }
+
+    @Test
+    public void resourcesLoadedDuringAnInvalidationShouldNotBeReturned() {
+        // the location is invalidated while its resources are loaded, the loaded resources are stale.
+        cache.get(location, orchestratorInstance, () -> {
+            cache.invalidate(location.getId());
+            return load();
+        });
+        cache.get(location, orchestratorInstance, this::load);
+        Assert.assertEquals(2, loadCount.get());
+
+        cache.invalidate(location.getId());
+        cache.get(location, orchestratorInstance, () -> {
+            cache.invalidateAll();
+            return load();
+        });
+        cache.get(location, orchestratorInstance, this::load);
+        Assert.assertEquals(4, loadCount.get());
+        cache.get(location, orchestratorInstance, this::load);
+        Assert.assertEquals(4, loadCount.get());
+    }
+}
@@ -0,0 +1,274 @@
+package alien4cloud.paas;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import alien4cloud.paas.model.AbstractMonitorEvent;
+import alien4cloud.paas.model.PaaSMessageMonitorEvent;
+import alien4cloud.rest.utils.JsonUtil;
+
+/**
+ * Test the asynchronous dispatch of monitor events.
+ */
+@SuppressWarnings("rawtypes")
+public class PaaSEventDispatcherTest {
+    private Path deadLettersFile;
+    private PaaSEventDispatcher dispatcher;
+
+    @Before
+    public void before() throws IOException {
+        deadLettersFile = Paths.get("target/paas-event-dispatcher-test/dead_letters.json");
+        Files.deleteIfExists(deadLettersFile);
+        dispatcher = new PaaSEventDispatcher(100, deadLettersFile);
+    }
+
+    @After
+    public void after() {
+        dispatcher.shutdown();
+    }
+
+    private PaaSMessageMonitorEvent event(String deploymentId, String message) {
+        PaaSMessageMonitorEvent event = new PaaSMessageMonitorEvent();
+        event.setDeploymentId(deploymentId);
+        event.setMessage(message);
+        return event;
+    }
+
+    @Test
+    public void eventsOfADeploymentShouldBeDispatchedInOrder() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(20);
+        List<String> received = Collections.synchronizedList(Lists.newArrayList());
+        IPaasEventListener listener = new IPaasEventListener<AbstractMonitorEvent>() {
+            @Override
+            public void eventHappened(AbstractMonitorEvent event) {
+                if ("deployment-1".equals(event.getDeploymentId())) {
+                    received.add(((PaaSMessageMonitorEvent) event).getMessage());
+                }
+                latch.countDown();
+            }
+
+            @Override
+            public boolean canHandle(AbstractMonitorEvent event) {
+                return true;
+            }
+        };
+        List<String> expected = Lists.newArrayList();
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(Lists.newArrayList(listener), event("deployment-1", "message-" + i));
+            dispatcher.dispatch(Lists.newArrayList(listener), event("deployment-2", "message-" + i));
+            expected.add("message-" + i);
+        }
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(expected, received);
+    }
+
+    @Test
+    public void listenersShouldProcessAnEventInRegistrationOrder() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(10);
+        List<String> statuses = Collections.synchronizedList(Lists.newArrayList());
+        List<String> unorderedEvents = Collections.synchronizedList(Lists.newArrayList());
+        // a slow first listener (like the deployment status handler) must have processed the event before the next listener sees it
+        IPaasEventListener statusListener = new IPaasEventListener<AbstractMonitorEvent>() {
+            @Override
+            public void eventHappened(AbstractMonitorEvent event) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                statuses.add(((PaaSMessageMonitorEvent) event).getMessage());
+            }
+
+            @Override
+            public boolean canHandle(AbstractMonitorEvent event) {
+                return true;
+            }
+        };
+        IPaasEventListener otherListener = new IPaasEventListener<AbstractMonitorEvent>() {
+            @Override
+            public void eventHappened(AbstractMonitorEvent event) {
+                String message = ((PaaSMessageMonitorEvent) event).getMessage();
+                if (!statuses.contains(message)) {
+                    unorderedEvents.add(message);
+                }
+                latch.countDown();
+            }
+
+            @Override
+            public boolean canHandle(AbstractMonitorEvent event) {
+                return true;
+            }
+        };
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(Lists.newArrayList(statusListener, otherListener), event("deployment-" + i, "message-" + i));
+        }
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(unorderedEvents.isEmpty());
+    }
+
+    @Test
+    public void failedEventsShouldBeDispatchedToNextListeners() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        IPaasEventListener failingListener = new IPaasEventListener<AbstractMonitorEvent>() {
+            @Override
+            public void eventHappened(AbstractMonitorEvent event) {
+                throw new RuntimeException("Listener failure");
+            }
+
+            @Override
+            public boolean canHandle(AbstractMonitorEvent event) {
+                return true;
+            }
+        };
+        IPaasEventListener nextListener = new IPaasEventListener<AbstractMonitorEvent>() {
+            @Override
+            public void eventHappened(AbstractMonitorEvent event) {
+                latch.countDown();
+            }
+
+            @Override
+            public boolean canHandle(AbstractMonitorEvent event) {
+                return true;
+            }
+        };
+        dispatcher.dispatch(Lists.newArrayList(failingListener, nextListener), event("deployment-1", "message"));
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(1, dispatcher.getDeadLettersCount());
+    }
+
+    @Test
+    public void failedEventsShouldBeMovedToDeadLetters() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        IPaasEventListener failingListener = new IPaasEventListener<AbstractMonitorEvent>() {
+            @Override
+            public void eventHappened(AbstractMonitorEvent event) {
+                latch.countDown();
+                throw new RuntimeException("Listener failure");
+            }
+
+            @Override
+            public boolean canHandle(AbstractMonitorEvent event) {
+                return true;
+            }
+        };
+        dispatcher.dispatch(Lists.newArrayList(failingListener), event("deployment-1", "message"));
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        // the dead letter is added right after the listener failure.
+        for (int i = 0; i < 100 && dispatcher.getDeadLettersCount() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, dispatcher.getDeadLettersCount());
+        assertEquals("Listener failure", dispatcher.getDeadLetters().get(0).getError());
+    }
+
+    @Test
+    public void slowListenerShouldNotDelayTheOtherListeners() throws InterruptedException {
+        CountDownLatch slowListenerRelease = new CountDownLatch(1);
+        Semaphore otherListenerProcessed = new Semaphore(0);
+        IPaasEventListener statusListener = new IPaasEventListener<AbstractMonitorEvent>() {
+            @Override
+            public void eventHappened(AbstractMonitorEvent event) {
+            }
+
+            @Override
+            public boolean canHandle(AbstractMonitorEvent event) {
+                return true;
+            }
+        };
+        IPaasEventListener slowListener = new IPaasEventListener<AbstractMonitorEvent>() {
+            @Override
+            public void eventHappened(AbstractMonitorEvent event) {
+                try {
+                    slowListenerRelease.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public boolean canHandle(AbstractMonitorEvent event) {
+                return true;
+            }
+        };
+        IPaasEventListener otherListener = new IPaasEventListener<AbstractMonitorEvent>() {
+            @Override
+            public void eventHappened(AbstractMonitorEvent event) {
+                otherListenerProcessed.release();
+            }
+
+            @Override
+            public boolean canHandle(AbstractMonitorEvent event) {
+                return true;
+            }
+        };
+        try {
+            // the queues have a capacity of 100 events, neither the dispatch nor the other listeners are blocked by the slow listener
+            for (int i = 0; i < 130; i++) {
+                dispatcher.dispatch(Lists.newArrayList(statusListener, slowListener, otherListener), event("deployment-1", "message-" + i));
+                Assert.assertTrue(otherListenerProcessed.tryAcquire(10, TimeUnit.SECONDS));
+            }
+            // events that don't fit in the slow listener queue are moved to its dead letters
+            Assert.assertTrue(dispatcher.getRejectedEventsCount() >= 29);
+            assertEquals(dispatcher.getRejectedEventsCount(), dispatcher.getDeadLettersCount());
+            Assert.assertTrue(dispatcher.getDeadLetters().stream().allMatch(deadLetter -> deadLetter.getListener().equals(slowListener.getClass().getName())));
+        } finally {
+            slowListenerRelease.countDown();
+        }
+    }
+
+    @Test
+    public void deadLettersShouldBeWrittenToTheDeadLettersFile() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        IPaasEventListener failingListener = new IPaasEventListener<AbstractMonitorEvent>() {
+            @Override
+            public void eventHappened(AbstractMonitorEvent event) {
+                throw new RuntimeException("Listener failure");
+            }
+
+            @Override
+            public boolean canHandle(AbstractMonitorEvent event) {
+                return true;
+            }
+        };
+        IPaasEventListener nextListener = new IPaasEventListener<AbstractMonitorEvent>() {
+            @Override
+            public void eventHappened(AbstractMonitorEvent event) {
+                latch.countDown();
+            }
+
+            @Override
+            public boolean canHandle(AbstractMonitorEvent event) {
+                return true;
+            }
+        };
+        dispatcher.dispatch(Lists.newArrayList(failingListener, nextListener), event("deployment-1", "message"));
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        List<String> lines = Files.readAllLines(deadLettersFile, StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        Map<String, Object> deadLetter = JsonUtil.toMap(lines.get(0));
+        assertEquals(PaaSMessageMonitorEvent.class.getName(), deadLetter.get("eventType"));
+        assertEquals("Listener failure", deadLetter.get("error"));
+        PaaSMessageMonitorEvent event = JsonUtil.toObject(deadLetter.get("event"), PaaSMessageMonitorEvent.class);
+        assertEquals("message", event.getMessage());
+        assertEquals(0, dispatcher.getLostDeadLettersCount());
+    }
+}
@@ -6,7 +6,9 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.file.Paths;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Resource;
 
@@ -15,17 +17,23 @@ import org.elasticsearch.mapping.ElasticSearchClient;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.ISearchCursor;
+import alien4cloud.model.deployment.Deployment;
 import alien4cloud.paas.PaaSProviderPollingMonitor;
+import alien4cloud.paas.model.AbstractMonitorEvent;
 import alien4cloud.paas.model.DeploymentStatus;
 import alien4cloud.paas.model.PaaSDeploymentStatusMonitorEvent;
 import alien4cloud.paas.model.PaaSMessageMonitorEvent;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
 
 /**
  * Test monitoring events recovery
@@ -101,7 +109,7 @@ public class PaaSProviderPollingMonitorTest {
         // init with some events
         initEvents();
 
-        PaaSProviderPollingMonitor paaSProviderPollingMonitor = new PaaSProviderPollingMonitor(alienDao, alienMonitorDao, null, null, "CloudID");
+        PaaSProviderPollingMonitor paaSProviderPollingMonitor = new PaaSProviderPollingMonitor(alienDao, alienMonitorDao, null, null, null, "CloudID", 1000, 30000);
         Field lastPollingDateField = PaaSProviderPollingMonitor.class.getDeclaredField("lastPollingDate");
         lastPollingDateField.setAccessible(true);
         Date lastDate = (Date) lastPollingDateField.get(paaSProviderPollingMonitor);
@@ -113,7 +121,7 @@ public class PaaSProviderPollingMonitorTest {
     @Test
     public void testLoadEventsWithoutEvents() throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException {
 
-        PaaSProviderPollingMonitor paaSProviderPollingMonitor = new PaaSProviderPollingMonitor(alienDao, alienMonitorDao, null, null, "CloudID");
+        PaaSProviderPollingMonitor paaSProviderPollingMonitor = new PaaSProviderPollingMonitor(alienDao, alienMonitorDao, null, null, null, "CloudID", 1000, 30000);
         Field lastPollingDateField = PaaSProviderPollingMonitor.class.getDeclaredField("lastPollingDate");
         lastPollingDateField.setAccessible(true);
         Date lastDate = (Date) lastPollingDateField.get(paaSProviderPollingMonitor);
@@ -122,6 +130,83 @@ public class PaaSProviderPollingMonitorTest {
         assertTrue(lastDate.after(new Date()));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPollingIntervalAdaptsToPolledEvents() {
+        AtomicReference<AbstractMonitorEvent[]> polledEvents = new AtomicReference<>(new AbstractMonitorEvent[0]);
+        IPaaSProvider paaSProvider = Mockito.mock(IPaaSProvider.class);
+        Mockito.doAnswer(invocation -> {
+            ((IPaaSCallback<AbstractMonitorEvent[]>) invocation.getArguments()[2]).onSuccess(polledEvents.get());
+            return null;
+        }).when(paaSProvider).getEventsSince(Matchers.any(Date.class), Matchers.anyInt(), Matchers.any(IPaaSCallback.class));
+        PaaSEventDispatcher eventDispatcher = new PaaSEventDispatcher(10, Paths.get("target/paas-monitor-test/dead_letters.json"));
+        try {
+            PaaSProviderPollingMonitor monitor = new PaaSProviderPollingMonitor(alienDao, alienMonitorDao, paaSProvider, Lists.newArrayList(),
+                    eventDispatcher, "AdaptiveCloudID", 1000, 3000);
+
+            // no active deployment, the orchestrator is not polled.
+            monitor.run();
+            Mockito.verify(paaSProvider, Mockito.never()).getEventsSince(Matchers.any(Date.class), Matchers.anyInt(), Matchers.any(IPaaSCallback.class));
+            assertEquals(1000, monitor.getCurrentIntervalMs());
+
+            monitor.deploymentCreated("deployment");
+            monitor.run();
+            assertEquals(2000, monitor.getCurrentIntervalMs());
+            monitor.run();
+            assertEquals(3000, monitor.getCurrentIntervalMs());
+
+            PaaSMessageMonitorEvent event = new PaaSMessageMonitorEvent();
+            event.setDeploymentId("deployment");
+            event.setMessage("message");
+            polledEvents.set(new AbstractMonitorEvent[] { event });
+            monitor.run();
+            assertEquals(1000, monitor.getCurrentIntervalMs());
+            assertEquals(1d / 3, monitor.getPollYield(), 0.001);
+
+            // any operation on a deployment resets the interval after a backoff.
+            polledEvents.set(new AbstractMonitorEvent[0]);
+            monitor.run();
+            assertEquals(2000, monitor.getCurrentIntervalMs());
+            monitor.operationRequested("deployment");
+            assertEquals(1000, monitor.getCurrentIntervalMs());
+
+            // once undeployed the deployment is polled until its UNDEPLOYED status event is received.
+            monitor.deploymentUndeployed("deployment");
+            PaaSDeploymentStatusMonitorEvent undeployedEvent = new PaaSDeploymentStatusMonitorEvent();
+            undeployedEvent.setDeploymentId("deployment");
+            undeployedEvent.setDeploymentStatus(DeploymentStatus.UNDEPLOYED);
+            polledEvents.set(new AbstractMonitorEvent[] { undeployedEvent });
+            monitor.run();
+            Mockito.verify(paaSProvider, Mockito.times(5)).getEventsSince(Matchers.any(Date.class), Matchers.anyInt(), Matchers.any(IPaaSCallback.class));
+            monitor.run();
+            Mockito.verify(paaSProvider, Mockito.times(5)).getEventsSince(Matchers.any(Date.class), Matchers.anyInt(), Matchers.any(IPaaSCallback.class));
+        } finally {
+            eventDispatcher.shutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDeploymentCreatedDuringTheLoadOfActiveDeploymentsIsPolled() {
+        IPaaSProvider paaSProvider = Mockito.mock(IPaaSProvider.class);
+        IGenericSearchDAO deploymentDao = Mockito.mock(IGenericSearchDAO.class);
+        AtomicReference<PaaSProviderPollingMonitor> monitorReference = new AtomicReference<>();
+        Mockito.when(deploymentDao.scroll(Matchers.eq(Deployment.class), Matchers.<String> any(), Matchers.anyMap(), Matchers.anyInt()))
+                .thenAnswer(invocation -> {
+                    // the deployment is created while its monitor loads the active deployments and the load doesn't see it.
+                    monitorReference.get().deploymentCreated("created-during-load");
+                    ISearchCursor<Deployment> cursor = Mockito.mock(ISearchCursor.class);
+                    Mockito.when(cursor.hasNext()).thenReturn(false);
+                    return cursor;
+                });
+        PaaSProviderPollingMonitor monitor = new PaaSProviderPollingMonitor(deploymentDao, alienMonitorDao, paaSProvider, Lists.newArrayList(), null,
+                "LoadingCloudID", 1000, 3000);
+        monitorReference.set(monitor);
+
+        monitor.run();
+        Mockito.verify(paaSProvider, Mockito.times(1)).getEventsSince(Matchers.any(Date.class), Matchers.anyInt(), Matchers.any(IPaaSCallback.class));
+    }
+
     private Date addMinutesToDate(int minutes, Date beforeTime) {
         final long ONE_MINUTE_IN_MILLIS = 60000;// millisecs
         long curTimeInMs = beforeTime.getTime();
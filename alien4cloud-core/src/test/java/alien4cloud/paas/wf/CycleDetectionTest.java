@@ -221,4 +221,36 @@ public class CycleDetectionTest extends AbstractValidationTest<CycleDetection> {
         processValidation(true, 2);
     }
 
+    /**
+     * The number of paths reaching the cycle is 2^60, validation must not enumerate them and the cycle is reported once.
+     *
+     * <pre>
+     *      -- l0 --           -- l59 --        --
+     *     /        \         /         \      /  \
+     * a --           j0 ... -           j59 -- x    y
+     *     \        /         \         /      \  /
+     *      -- r0 --           -- r59 --        --
+     * </pre>
+     */
+    @Test
+    public void testManyPathsToCycle() {
+        AbstractStep last = wf.addStep(new SimpleStep("a"));
+        for (int i = 0; i < 60; i++) {
+            SimpleStep left = wf.addStep(new SimpleStep("l" + i));
+            SimpleStep right = wf.addStep(new SimpleStep("r" + i));
+            SimpleStep join = wf.addStep(new SimpleStep("j" + i));
+            WorkflowUtils.linkSteps(last, left);
+            WorkflowUtils.linkSteps(last, right);
+            WorkflowUtils.linkSteps(left, join);
+            WorkflowUtils.linkSteps(right, join);
+            last = join;
+        }
+        SimpleStep x = wf.addStep(new SimpleStep("x"));
+        SimpleStep y = wf.addStep(new SimpleStep("y"));
+        WorkflowUtils.linkSteps(last, x);
+        WorkflowUtils.linkSteps(x, y);
+        WorkflowUtils.linkSteps(y, x);
+        processValidation(true, 1);
+    }
+
 }
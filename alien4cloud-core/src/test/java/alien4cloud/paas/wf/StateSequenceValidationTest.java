@@ -284,6 +284,36 @@ public class StateSequenceValidationTest extends AbstractValidationTest<StateSeq
         processValidation(false, 0);
     }
 
+    /**
+     * The number of paths between a_cre and a_ini is 2^60, validation must not enumerate them.
+     *
+     * <pre>
+     *           -- l0 --           -- l59 --
+     *          /        \         /         \
+     * a_cre --           j0 ... -           j59 -- a_ini
+     *          \        /         \         /
+     *           -- r0 --           -- r59 --
+     * </pre>
+     */
+    @Test
+    public void testManyPathsBadOrderFail() {
+        AbstractStep a_cre = buildStateStep(wf, "nodeA", ToscaNodeLifecycleConstants.CREATED);
+        AbstractStep last = a_cre;
+        for (int i = 0; i < 60; i++) {
+            SimpleStep left = wf.addStep(new SimpleStep("l" + i));
+            SimpleStep right = wf.addStep(new SimpleStep("r" + i));
+            SimpleStep join = wf.addStep(new SimpleStep("j" + i));
+            WorkflowUtils.linkSteps(last, left);
+            WorkflowUtils.linkSteps(last, right);
+            WorkflowUtils.linkSteps(left, join);
+            WorkflowUtils.linkSteps(right, join);
+            last = join;
+        }
+        AbstractStep a_ini = buildStateStep(wf, "nodeA", ToscaNodeLifecycleConstants.INITIAL);
+        WorkflowUtils.linkSteps(last, a_ini);
+        processValidation(true, 1);
+    }
+
     private NodeActivityStep buildStateStep(Workflow wf, String nodeId, String stateName) {
         NodeActivityStep step = new NodeActivityStep();
         step.setNodeId(nodeId);
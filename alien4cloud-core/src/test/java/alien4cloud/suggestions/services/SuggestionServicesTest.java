@@ -2,6 +2,13 @@ package alien4cloud.suggestions.services;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import alien4cloud.model.common.AbstractSuggestionEntry;
 import lombok.extern.slf4j.Slf4j;
@@ -59,4 +66,65 @@ public class SuggestionServicesTest {
         log.info("Matches for blank: {}", Arrays.asList(matches));
         Assert.assertEquals(5, matches.length);
     }
+
+    @Test
+    public void suggestionIndexShouldBeUpdatedWithNewValues() {
+        SuggestionService suggestionService = new SuggestionService();
+        IGenericSearchDAO alienDAO = Mockito.mock(IGenericSearchDAO.class);
+        suggestionService.setAlienDAO(alienDAO);
+        SuggestionEntry suggestionEntry = new SuggestionEntry();
+        Set<String> images = new HashSet<>();
+        for (int i = 0; i < 5000; i++) {
+            images.add("image-" + i);
+        }
+        suggestionEntry.setSuggestions(images);
+        Mockito.when(alienDAO.findById(AbstractSuggestionEntry.class, "images")).thenReturn(suggestionEntry);
+
+        String[] matches = suggestionService.getJaroWinklerMatchedSuggestions("images", "image-4242", 3);
+        Assert.assertEquals(3, matches.length);
+        Assert.assertEquals("image-4242", matches[0]);
+
+        suggestionService.addSuggestionValueToSuggestionEntry("images", "ubuntu-16.04");
+        matches = suggestionService.getJaroWinklerMatchedSuggestions("images", "ubuntu 16.04", 1);
+        Assert.assertArrayEquals(new String[] { "ubuntu-16.04" }, matches);
+
+        // values are loaded once and then matched from the index.
+        Mockito.verify(alienDAO, Mockito.times(2)).findById(AbstractSuggestionEntry.class, "images");
+    }
+
+    @Test
+    public void valueAddedWhileTheIndexIsLoadedShouldBeIndexed() throws Exception {
+        SuggestionService suggestionService = new SuggestionService();
+        IGenericSearchDAO alienDAO = Mockito.mock(IGenericSearchDAO.class);
+        suggestionService.setAlienDAO(alienDAO);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch loaded = new CountDownLatch(1);
+        AtomicInteger findCount = new AtomicInteger();
+        Mockito.when(alienDAO.findById(AbstractSuggestionEntry.class, "images")).thenAnswer(invocation -> {
+            SuggestionEntry suggestionEntry = new SuggestionEntry();
+            suggestionEntry.setSuggestions(new HashSet<>(Arrays.asList("ubuntu-14.04", "centos-7")));
+            if (findCount.incrementAndGet() == 1) {
+                // the index is loaded from the entry read before the new value is saved
+                loading.countDown();
+                loaded.await();
+            }
+            return suggestionEntry;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> search = executor.submit(() -> suggestionService.getJaroWinklerMatchedSuggestions("images", "ubuntu", 1));
+            Assert.assertTrue(loading.await(10, TimeUnit.SECONDS));
+            Future<?> add = executor.submit(() -> suggestionService.addSuggestionValueToSuggestionEntry("images", "ubuntu-16.04"));
+            Thread.sleep(200);
+            loaded.countDown();
+            search.get(10, TimeUnit.SECONDS);
+            add.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        String[] matches = suggestionService.getJaroWinklerMatchedSuggestions("images", "ubuntu 16.04", 1);
+        Assert.assertArrayEquals(new String[] { "ubuntu-16.04" }, matches);
+    }
 }
@@ -12,6 +12,7 @@ import javax.annotation.Resource;
 
 import org.alien4cloud.tosca.catalog.ArchiveParser;
 import org.alien4cloud.tosca.catalog.index.ArchiveImageLoader;
+import org.alien4cloud.tosca.model.CsarDependenciesBean;
 import org.alien4cloud.tosca.model.types.AbstractInheritableToscaType;
 import org.junit.Assert;
 import org.junit.Before;
@@ -81,6 +82,26 @@ public class ArchiveImageLoaderTest {
         checkImages(result.getResult().getNodeTypes());
     }
 
+    @Test
+    public void importToscaElementImagesFromDirectory() throws IOException, ParsingException {
+        Path imagesPath = Paths.get("target/alien/images");
+        if (!Files.exists(imagesPath)) {
+            Files.createDirectories(imagesPath);
+        }
+
+        // archives imported from git are parsed and their images loaded without being zipped
+        ParsingResult<CsarDependenciesBean> imports = parser.parseImports(PATH_TOSCA_BASE_TYPES);
+        Assert.assertEquals("archive-image-loader-test", imports.getResult().getSelf().getName());
+        ParsingResult<ArchiveRoot> result = parser.parse(PATH_TOSCA_BASE_TYPES, AlienConstants.GLOBAL_WORKSPACE_ID);
+        imageLoader.importImages(PATH_TOSCA_BASE_TYPES, result.getResult(), result.getContext().getParsingErrors());
+
+        Assert.assertFalse(result.hasError(ParsingErrorLevel.ERROR));
+        Assert.assertFalse(result.hasError(ParsingErrorLevel.WARNING));
+        Assert.assertEquals(imports.getResult().getSelf().getVersion(), result.getResult().getArchive().getVersion());
+
+        checkImages(result.getResult().getNodeTypes());
+    }
+
     private void checkImages(Map<String, ? extends AbstractInheritableToscaType> elements) {
         boolean elementHasTags = false;
         String currentUUID = null;
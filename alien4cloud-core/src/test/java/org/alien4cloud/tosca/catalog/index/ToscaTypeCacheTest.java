@@ -0,0 +1,122 @@
+package org.alien4cloud.tosca.catalog.index;
+
+import java.util.Set;
+
+import javax.annotation.Resource;
+
+import org.alien4cloud.tosca.catalog.events.BeforeArchiveDeleted;
+import org.alien4cloud.tosca.catalog.events.BeforeArchiveIndexed;
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.Csar;
+import org.alien4cloud.tosca.model.definitions.PropertyDefinition;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import alien4cloud.tosca.context.ToscaTypeCache;
+import alien4cloud.tosca.model.ArchiveRoot;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+public class ToscaTypeCacheTest {
+    private static final String ARCHIVE_NAME = "cache-test-types";
+    private static final String ARCHIVE_VERSION = "1.0.0";
+    private static final String NODE_TYPE_ID = "cache.test.nodes.Compute";
+
+    @Resource
+    private ToscaTypeCache toscaTypeCache;
+    @Resource
+    private ApplicationContext applicationContext;
+
+    private Set<CSARDependency> dependencies;
+
+    @Before
+    public void before() {
+        toscaTypeCache.invalidateAll();
+        dependencies = Sets.newHashSet(new CSARDependency("other-types", ARCHIVE_VERSION), new CSARDependency(ARCHIVE_NAME, ARCHIVE_VERSION));
+    }
+
+    @Test
+    public void releasedTypesShouldBeCached() {
+        Assert.assertNull(toscaTypeCache.get(NodeType.class, NODE_TYPE_ID, dependencies));
+        toscaTypeCache.put(NodeType.class, createNodeType(ARCHIVE_VERSION));
+        long hitCount = toscaTypeCache.getStats().hitCount();
+
+        NodeType cached = toscaTypeCache.get(NodeType.class, NODE_TYPE_ID, dependencies);
+        Assert.assertNotNull(cached);
+        Assert.assertEquals(NODE_TYPE_ID, cached.getElementId());
+        Assert.assertEquals(Lists.newArrayList("tosca.nodes.Root"), cached.getDerivedFrom());
+        Assert.assertEquals("string", cached.getProperties().get("port").getType());
+        Assert.assertEquals(hitCount + 1, toscaTypeCache.getStats().hitCount());
+        // types of other versions of the archive are not returned
+        Assert.assertNull(toscaTypeCache.get(NodeType.class, NODE_TYPE_ID, Sets.newHashSet(new CSARDependency(ARCHIVE_NAME, "2.0.0"))));
+    }
+
+    @Test
+    public void snapshotTypesShouldNotBeCached() {
+        toscaTypeCache.put(NodeType.class, createNodeType("1.0.0-SNAPSHOT"));
+        Assert.assertEquals(0, toscaTypeCache.size());
+        Assert.assertNull(toscaTypeCache.get(NodeType.class, NODE_TYPE_ID, Sets.newHashSet(new CSARDependency(ARCHIVE_NAME, "1.0.0-SNAPSHOT"))));
+    }
+
+    @Test
+    public void mutatingTypesShouldNotAlterTheCache() {
+        NodeType nodeType = createNodeType(ARCHIVE_VERSION);
+        toscaTypeCache.put(NodeType.class, nodeType);
+        // neither the cached instance nor the returned copies are shared
+        nodeType.getProperties().clear();
+        NodeType first = toscaTypeCache.get(NodeType.class, NODE_TYPE_ID, dependencies);
+        first.getProperties().get("port").setType("integer");
+        first.getDerivedFrom().add("tosca.nodes.Compute");
+
+        NodeType second = toscaTypeCache.get(NodeType.class, NODE_TYPE_ID, dependencies);
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals("string", second.getProperties().get("port").getType());
+        Assert.assertEquals(Lists.newArrayList("tosca.nodes.Root"), second.getDerivedFrom());
+    }
+
+    @Test
+    public void typesShouldBeInvalidatedWhenArchiveIsIndexed() {
+        toscaTypeCache.put(NodeType.class, createNodeType(ARCHIVE_VERSION));
+        toscaTypeCache.put(NodeType.class, createNodeType("2.0.0"));
+
+        ArchiveRoot archiveRoot = new ArchiveRoot();
+        archiveRoot.setArchive(new Csar(ARCHIVE_NAME, ARCHIVE_VERSION));
+        applicationContext.publishEvent(new BeforeArchiveIndexed(this, archiveRoot));
+
+        Assert.assertNull(toscaTypeCache.get(NodeType.class, NODE_TYPE_ID, dependencies));
+        Assert.assertNotNull(toscaTypeCache.get(NodeType.class, NODE_TYPE_ID, Sets.newHashSet(new CSARDependency(ARCHIVE_NAME, "2.0.0"))));
+    }
+
+    @Test
+    public void typesShouldBeInvalidatedWhenArchiveIsDeleted() {
+        toscaTypeCache.put(NodeType.class, createNodeType(ARCHIVE_VERSION));
+
+        applicationContext.publishEvent(new BeforeArchiveDeleted(this, Csar.createId(ARCHIVE_NAME, ARCHIVE_VERSION)));
+
+        Assert.assertNull(toscaTypeCache.get(NodeType.class, NODE_TYPE_ID, dependencies));
+        Assert.assertEquals(0, toscaTypeCache.size());
+    }
+
+    private NodeType createNodeType(String archiveVersion) {
+        NodeType nodeType = new NodeType();
+        nodeType.setElementId(NODE_TYPE_ID);
+        nodeType.setArchiveName(ARCHIVE_NAME);
+        nodeType.setArchiveVersion(archiveVersion);
+        nodeType.setDerivedFrom(Lists.newArrayList("tosca.nodes.Root"));
+        PropertyDefinition port = new PropertyDefinition();
+        port.setType("string");
+        nodeType.setProperties(Maps.newHashMap());
+        nodeType.getProperties().put("port", port);
+        return nodeType;
+    }
+}
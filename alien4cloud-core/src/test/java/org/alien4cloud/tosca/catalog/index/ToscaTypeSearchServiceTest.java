@@ -0,0 +1,100 @@
+package org.alien4cloud.tosca.catalog.index;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import alien4cloud.dao.IGenericSearchDAO;
+
+public class ToscaTypeSearchServiceTest {
+    private ToscaTypeSearchService toscaTypeSearchService;
+    private IGenericSearchDAO searchDAO;
+    private Set<CSARDependency> dependencies;
+
+    @Before
+    public void init() {
+        toscaTypeSearchService = new ToscaTypeSearchService();
+        searchDAO = Mockito.mock(IGenericSearchDAO.class);
+        ReflectionTestUtils.setField(toscaTypeSearchService, "searchDAO", searchDAO);
+        dependencies = Sets.newHashSet(new CSARDependency("types", "1.0.0"), new CSARDependency("types", "1.1.0"));
+    }
+
+    private NodeType createNodeType(String elementId, String archiveVersion) {
+        NodeType nodeType = new NodeType();
+        nodeType.setElementId(elementId);
+        nodeType.setArchiveName("types");
+        nodeType.setArchiveVersion(archiveVersion);
+        return nodeType;
+    }
+
+    @Test
+    public void latestVersionOfElementsShouldBeReturned() {
+        Mockito.when(searchDAO.customFindAll(Mockito.eq(NodeType.class), Mockito.any(QueryBuilder.class)))
+                .thenReturn(Lists.newArrayList(createNodeType("compute", "1.1.0"), createNodeType("compute", "1.0.0"), createNodeType("network", "1.0.0")));
+
+        Map<String, NodeType> elements = toscaTypeSearchService.getElementsInDependencies(NodeType.class, Lists.newArrayList("compute", "network"),
+                dependencies);
+
+        Assert.assertEquals(2, elements.size());
+        Assert.assertEquals("1.1.0", elements.get("compute").getArchiveVersion());
+        Assert.assertEquals("1.0.0", elements.get("network").getArchiveVersion());
+        Mockito.verify(searchDAO, Mockito.times(1)).customFindAll(Mockito.eq(NodeType.class), Mockito.any(QueryBuilder.class));
+    }
+
+    @Test
+    public void missingElementsShouldNotBeInTheResult() {
+        Mockito.when(searchDAO.customFindAll(Mockito.eq(NodeType.class), Mockito.any(QueryBuilder.class)))
+                .thenReturn(Lists.newArrayList(createNodeType("compute", "1.0.0")));
+
+        Map<String, NodeType> elements = toscaTypeSearchService.getElementsInDependencies(NodeType.class, Lists.newArrayList("compute", "missing"),
+                dependencies);
+
+        Assert.assertEquals(1, elements.size());
+        Assert.assertFalse(elements.containsKey("missing"));
+
+        // the dao returns null when nothing matches
+        Mockito.when(searchDAO.customFindAll(Mockito.eq(NodeType.class), Mockito.any(QueryBuilder.class))).thenReturn(null);
+        Assert.assertTrue(toscaTypeSearchService.getElementsInDependencies(NodeType.class, Lists.newArrayList("missing"), dependencies).isEmpty());
+    }
+
+    @Test
+    public void noQueryShouldBeIssuedWithoutIdsOrDependencies() {
+        Assert.assertTrue(toscaTypeSearchService.getElementsInDependencies(NodeType.class, Lists.newArrayList(), dependencies).isEmpty());
+        Assert.assertTrue(toscaTypeSearchService.getElementsInDependencies(NodeType.class, Lists.newArrayList("compute"), Sets.newHashSet()).isEmpty());
+        Assert.assertTrue(toscaTypeSearchService.getElementsInDependencies(NodeType.class, Lists.newArrayList("compute"), null).isEmpty());
+        Mockito.verifyZeroInteractions(searchDAO);
+    }
+
+    @Test
+    public void idsShouldBeQueriedByChunksOf500() {
+        List<String> ids = Lists.newArrayList();
+        for (int i = 0; i < 1200; i++) {
+            ids.add("type-" + i);
+        }
+        // duplicated ids are queried once
+        ids.add("type-0");
+        Mockito.when(searchDAO.customFindAll(Mockito.eq(NodeType.class), Mockito.any(QueryBuilder.class))).thenReturn(Lists.newArrayList());
+
+        toscaTypeSearchService.getElementsInDependencies(NodeType.class, ids, dependencies);
+
+        ArgumentCaptor<QueryBuilder> queries = ArgumentCaptor.forClass(QueryBuilder.class);
+        Mockito.verify(searchDAO, Mockito.times(3)).customFindAll(Mockito.eq(NodeType.class), queries.capture());
+        for (int i = 0; i < 1200; i++) {
+            String quotedId = "\"type-" + i + "\"";
+            Assert.assertEquals(1, queries.getAllValues().stream().filter(query -> query.toString().contains(quotedId)).count());
+        }
+    }
+}
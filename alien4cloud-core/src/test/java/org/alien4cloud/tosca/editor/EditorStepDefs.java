@@ -45,6 +45,8 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.ContextConfiguration;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
@@ -59,6 +61,7 @@ import alien4cloud.model.application.ApplicationVersion;
 import alien4cloud.model.components.CSARSource;
 import alien4cloud.security.model.User;
 import alien4cloud.topology.TopologyDTO;
+import alien4cloud.topology.TopologyDiffDTO;
 import alien4cloud.tosca.parser.ParsingErrorLevel;
 import alien4cloud.tosca.parser.ParsingResult;
 import alien4cloud.utils.AlienConstants;
@@ -100,6 +103,10 @@ public class EditorStepDefs {
     private Exception thrownException;
 
     private Map<String, String> topologyIdToLastOperationId = new HashMap<>();
+    private Map<String, Long> topologyIdToDTOVersion = new HashMap<>();
+    /** Json of the last edited topology as built by applying the operations one after the other, by number of applied operations. */
+    private Map<Integer, JsonNode> appliedOperationsToTopology = new HashMap<>();
+    private JsonNode currentTopology;
 
     private List<Class> typesToClean = Lists.newArrayList();
     public static final Path CSAR_TARGET_PATH = Paths.get("target/csars");
@@ -138,6 +145,7 @@ public class EditorStepDefs {
         }
 
         topologyIds.clear();
+        appliedOperationsToTopology.clear();
         editionContextManager.clearCache();
     }
 
@@ -273,6 +281,28 @@ public class EditorStepDefs {
 
     @Given("^I execute the operation on the topology number (\\d+)$")
     public void i_execute_the_operation_on_topology_number(int indexOfTopologyId, DataTable operationDT) throws Throwable {
+        doExecuteOperation(buildOperation(operationDT), topologyIds.get(indexOfTopologyId));
+    }
+
+    @Given("^I execute the operation and get the changes$")
+    public void i_execute_the_operation_and_get_the_changes(DataTable operationDT) throws Throwable {
+        String topologyId = topologyIds.getLast();
+        AbstractEditorOperation operation = buildOperation(operationDT);
+        thrownException = null;
+        operation.setPreviousOperationId(topologyIdToLastOperationId.get(topologyId));
+        try {
+            TopologyDiffDTO topologyDiffDTO = editorService.executeDiff(topologyId, topologyIdToDTOVersion.get(topologyId), operation);
+            topologyIdToLastOperationId.put(topologyId, operation.getId());
+            topologyIdToDTOVersion.put(topologyId, topologyDiffDTO.getVersion());
+            dtoEvaluationContext = new StandardEvaluationContext(topologyDiffDTO);
+        } catch (Exception e) {
+            log.error("Exception occurred while executing operation", e);
+            thrownException = e;
+            exceptionEvaluationContext = new StandardEvaluationContext(e);
+        }
+    }
+
+    private AbstractEditorOperation buildOperation(DataTable operationDT) throws Exception {
         Map<String, String> operationMap = Maps.newHashMap();
         for (DataTableRow row : operationDT.getGherkinRows()) {
             operationMap.put(row.getCells().get(0), row.getCells().get(1));
@@ -288,7 +318,7 @@ public class EditorStepDefs {
                 parser.parseRaw(operationEntry.getKey()).setValue(operationContext, operationEntry.getValue());
             }
         }
-        doExecuteOperation(operation, topologyIds.get(indexOfTopologyId));
+        return operation;
     }
 
     @Given("^I execute the operation$")
@@ -317,6 +347,8 @@ public class EditorStepDefs {
             topologyIdToLastOperationId.put(topologyId, lastOperationId);
             topologyEvaluationContext = new StandardEvaluationContext(topologyDTO.getTopology());
             dtoEvaluationContext = new StandardEvaluationContext(topologyDTO);
+            currentTopology = new ObjectMapper().valueToTree(topologyDTO.getTopology());
+            appliedOperationsToTopology.put(topologyDTO.getLastOperationIndex() + 1, currentTopology);
         } catch (Exception e) {
             log.error("Exception occurred while executing operation", e);
             thrownException = e;
@@ -328,6 +360,29 @@ public class EditorStepDefs {
         doExecuteOperation(operation, topologyIds.getLast());
     }
 
+    @When("^I undo or redo to the operation index (-?\\d+)$")
+    public void i_undo_or_redo_to_the_operation_index(int operationIndex) throws Throwable {
+        thrownException = null;
+        String topologyId = topologyIds.getLast();
+        try {
+            TopologyDTO topologyDTO = editorService.undoRedo(topologyId, operationIndex, topologyIdToLastOperationId.get(topologyId));
+            topologyIdToLastOperationId.put(topologyId, operationIndex < 0 ? null : topologyDTO.getOperations().get(operationIndex).getId());
+            topologyEvaluationContext = new StandardEvaluationContext(topologyDTO.getTopology());
+            dtoEvaluationContext = new StandardEvaluationContext(topologyDTO);
+            currentTopology = new ObjectMapper().valueToTree(topologyDTO.getTopology());
+        } catch (Exception e) {
+            log.error("Exception occurred while undoing or redoing operations", e);
+            thrownException = e;
+            exceptionEvaluationContext = new StandardEvaluationContext(e);
+        }
+    }
+
+    @Then("^The topology should be the same as after applying the first (\\d+) operations$")
+    public void the_topology_should_be_the_same_as_after_applying_the_first_operations(int operationCount) throws Throwable {
+        Assert.assertNotNull(appliedOperationsToTopology.get(operationCount));
+        Assert.assertEquals(appliedOperationsToTopology.get(operationCount), currentTopology);
+    }
+
     @Then("^The SPEL expression \"([^\"]*)\" should return \"([^\"]*)\"$")
     public void evaluateSpelExpressionUsingCurrentTopologyContext(String spelExpression, String expected) {
         evaluateAndAssertExpression(topologyEvaluationContext, spelExpression, expected);
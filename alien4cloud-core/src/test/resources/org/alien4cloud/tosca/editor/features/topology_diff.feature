@@ -0,0 +1,59 @@
+Feature: Topology editor: get only the changes of the topology after an operation
+
+  Background:
+    Given I am authenticated with "ADMIN" role
+    And I create an empty topology
+
+  Scenario: Executing an operation without known topology version should return the full topology
+    When I execute the operation and get the changes
+      | type              | org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation |
+      | nodeName          | Template1                                                             |
+      | indexedNodeTypeId | tosca.nodes.Compute:1.0                                               |
+    Then No exception should be thrown
+    And The dto SPEL expression "resync" should return true
+    And The dto SPEL expression "topologyDTO.topology.nodeTemplates.size()" should return 1
+
+  Scenario: Executing an operation after an operation that did not get the changes should return the full topology
+    Given I execute the operation
+      | type              | org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation |
+      | nodeName          | Template1                                                             |
+      | indexedNodeTypeId | tosca.nodes.Compute:1.0                                               |
+    When I execute the operation and get the changes
+      | type              | org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation |
+      | nodeName          | Template2                                                             |
+      | indexedNodeTypeId | tosca.nodes.Compute:1.0                                               |
+    Then No exception should be thrown
+    And The dto SPEL expression "resync" should return true
+    And The dto SPEL expression "topologyDTO.topology.nodeTemplates.size()" should return 2
+
+  Scenario: Adding a node template should return only the new node template and operation
+    Given I execute the operation and get the changes
+      | type              | org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation |
+      | nodeName          | Template1                                                             |
+      | indexedNodeTypeId | tosca.nodes.Compute:1.0                                               |
+    When I execute the operation and get the changes
+      | type              | org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation |
+      | nodeName          | Template2                                                             |
+      | indexedNodeTypeId | tosca.nodes.Compute:1.0                                               |
+    Then No exception should be thrown
+    And The dto SPEL expression "resync" should return false
+    And The dto SPEL expression "updatedNodeTemplates.size()" should return 1
+    And The dto SPEL expression "updatedNodeTemplates['Template2'].type" should return "tosca.nodes.Compute"
+    And The dto SPEL expression "removedNodeTemplates.size()" should return 0
+    And The dto SPEL expression "nodeTypes.size()" should return 0
+    And The dto SPEL expression "operationsFrom" should return 1
+    And The dto SPEL expression "operations.size()" should return 1
+    And The dto SPEL expression "lastOperationIndex" should return 1
+
+  Scenario: Deleting a node template should return its name as removed
+    Given I execute the operation and get the changes
+      | type              | org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation |
+      | nodeName          | Template1                                                             |
+      | indexedNodeTypeId | tosca.nodes.Compute:1.0                                               |
+    When I execute the operation and get the changes
+      | type     | org.alien4cloud.tosca.editor.operations.nodetemplate.DeleteNodeOperation |
+      | nodeName | Template1                                                                |
+    Then No exception should be thrown
+    And The dto SPEL expression "resync" should return false
+    And The dto SPEL expression "updatedNodeTemplates.size()" should return 0
+    And The dto SPEL expression "removedNodeTemplates.contains('Template1')" should return true
@@ -0,0 +1,85 @@
+Feature: Topology editor: undo and redo operations across in-memory checkpoints
+
+  Background:
+    Given I am authenticated with "ADMIN" role
+    And I create an empty topology
+
+  # a checkpoint is taken every 10 operations, undo and redo must give the same topology as applying the operations one after the other.
+  Scenario: Undo and redo operations before and after a checkpoint
+    Given I execute the operation
+      | type              | org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation |
+      | nodeName          | Compute1                                                              |
+      | indexedNodeTypeId | tosca.nodes.Compute:1.0                                               |
+    And I execute the operation
+      | type              | org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation |
+      | nodeName          | Compute2                                                              |
+      | indexedNodeTypeId | tosca.nodes.Compute:1.0                                               |
+    And I execute the operation
+      | type              | org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation |
+      | nodeName          | Compute3                                                              |
+      | indexedNodeTypeId | tosca.nodes.Compute:1.0                                               |
+    And I execute the operation
+      | type              | org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation |
+      | nodeName          | Compute4                                                              |
+      | indexedNodeTypeId | tosca.nodes.Compute:1.0                                               |
+    And I execute the operation
+      | type              | org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation |
+      | nodeName          | Compute5                                                              |
+      | indexedNodeTypeId | tosca.nodes.Compute:1.0                                               |
+    And I execute the operation
+      | type              | org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation |
+      | nodeName          | Compute6                                                              |
+      | indexedNodeTypeId | tosca.nodes.Compute:1.0                                               |
+    And I execute the operation
+      | type              | org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation |
+      | nodeName          | Compute7                                                              |
+      | indexedNodeTypeId | tosca.nodes.Compute:1.0                                               |
+    And I execute the operation
+      | type              | org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation |
+      | nodeName          | Compute8                                                              |
+      | indexedNodeTypeId | tosca.nodes.Compute:1.0                                               |
+    And I execute the operation
+      | type     | org.alien4cloud.tosca.editor.operations.nodetemplate.RenameNodeOperation |
+      | nodeName | Compute1                                                                 |
+      | newName  | Renamed1                                                                 |
+    And I execute the operation
+      | type     | org.alien4cloud.tosca.editor.operations.nodetemplate.DeleteNodeOperation |
+      | nodeName | Compute2                                                                 |
+    And I execute the operation
+      | type              | org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation |
+      | nodeName          | Compute9                                                              |
+      | indexedNodeTypeId | tosca.nodes.Compute:1.0                                               |
+    And I execute the operation
+      | type     | org.alien4cloud.tosca.editor.operations.nodetemplate.RenameNodeOperation |
+      | nodeName | Compute3                                                                 |
+      | newName  | Renamed3                                                                 |
+    Then No exception should be thrown
+    And The SPEL expression "nodeTemplates.size()" should return 8
+    # restore the checkpoint of the 10th operation and replay the 11th
+    When I undo or redo to the operation index 10
+    Then No exception should be thrown
+    And The topology should be the same as after applying the first 11 operations
+    And The SPEL expression "nodeTemplates['Compute3']" should return "null"
+    # before the first checkpoint, restore the saved topology and replay operations
+    When I undo or redo to the operation index 5
+    Then No exception should be thrown
+    And The topology should be the same as after applying the first 6 operations
+    And The SPEL expression "nodeTemplates.size()" should return 6
+    # redo across the checkpoint
+    When I undo or redo to the operation index 11
+    Then No exception should be thrown
+    And The topology should be the same as after applying the first 12 operations
+    # restore the checkpoint only, it must not have been altered by the operations replayed on top of it
+    When I undo or redo to the operation index 9
+    Then No exception should be thrown
+    And The topology should be the same as after applying the first 10 operations
+    When I undo or redo to the operation index 11
+    And I undo or redo to the operation index 9
+    Then No exception should be thrown
+    And The topology should be the same as after applying the first 10 operations
+    And The SPEL expression "nodeTemplates['Renamed1'].type" should return "tosca.nodes.Compute"
+    And The SPEL expression "nodeTemplates['Compute2']" should return "null"
+    # undo everything
+    When I undo or redo to the operation index -1
+    Then No exception should be thrown
+    And The SPEL expression "nodeTemplates == null || nodeTemplates.isEmpty()" should return true
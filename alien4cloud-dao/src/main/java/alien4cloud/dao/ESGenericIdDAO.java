@@ -4,18 +4,38 @@ import java.io.IOException;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
+import javax.annotation.PreDestroy;
+
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.get.MultiGetItemResponse;
 import org.elasticsearch.action.get.MultiGetResponse;
 import org.elasticsearch.common.collect.Lists;
 import org.elasticsearch.mapping.MappingBuilder;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import alien4cloud.dao.model.BulkSaveResult;
 import alien4cloud.exception.IndexingServiceException;
 import alien4cloud.model.common.IDatableResource;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.SneakyThrows;
 
 /**
@@ -24,6 +44,31 @@ import lombok.SneakyThrows;
  * @author luc boutier
  */
 public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericIdDAO {
+    /** Refresh policy applied to write operations that don't specify one. */
+    @Getter
+    @Setter
+    @Value("${elasticSearch.refresh.policy:IMMEDIATE}")
+    private RefreshPolicy refreshPolicy = RefreshPolicy.IMMEDIATE;
+    /** Minimum interval between two refreshes of the same index when using the {@link RefreshPolicy#COALESCED} policy. */
+    @Getter
+    @Setter
+    @Value("${elasticSearch.refresh.coalesce_interval_ms:1000}")
+    private long coalesceIntervalMs = 1000;
+    /** Maximum size in bytes of the documents sent in a single bulk request by {@link #saveBulk(Collection, RefreshPolicy)} and {@link #updateBulk}. */
+    @Getter
+    @Setter
+    @Value("${elasticSearch.bulk.max_size_bytes:5242880}")
+    private long bulkMaxSizeBytes = 5 * 1024 * 1024;
+
+    /** Number of refreshes requested to elastic search by write operations (including deferred refreshes). */
+    private final AtomicLong refreshesIssued = new AtomicLong();
+    /** Number of write operations that did not trigger a refresh because of the refresh policy. */
+    private final AtomicLong refreshesSaved = new AtomicLong();
+    /** Last refresh date of each index (used for coalesced refreshes). */
+    private final Map<String, Long> lastRefreshDates = new ConcurrentHashMap<>();
+    /** Indices for which a deferred refresh is already scheduled. */
+    private final Set<String> pendingRefreshes = Sets.newConcurrentHashSet();
+    private ScheduledExecutorService refreshScheduler;
 
     @Override
     public <T> boolean exist(Class<T> clazz, String id) {
@@ -48,34 +93,140 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
     }
 
     @Override
-    @SneakyThrows({ IOException.class })
     public <T> void save(T data) {
+        save(data, refreshPolicy);
+    }
+
+    @Override
+    @SneakyThrows({ IOException.class })
+    public <T> void save(T data, RefreshPolicy refreshPolicy) {
         String indexName = getIndexForType(data.getClass());
         String typeName = MappingBuilder.indexTypeFromClass(data.getClass());
 
         updateDate(data);
         String json = getJsonMapper().writeValueAsString(data);
-        getClient().prepareIndex(indexName, typeName).setOperationThreaded(false).setSource(json).setRefresh(true).execute().actionGet();
+        getClient().prepareIndex(indexName, typeName).setOperationThreaded(false).setSource(json).setRefresh(isRefreshRequired(refreshPolicy, indexName))
+                .execute().actionGet();
     }
 
     @Override
-    @SneakyThrows({ IOException.class })
     public <T> void save(T[] entities) {
+        save(entities, refreshPolicy);
+    }
+
+    @Override
+    @SneakyThrows({ IOException.class })
+    public <T> void save(T[] entities, RefreshPolicy refreshPolicy) {
         if (entities == null || entities.length == 0) {
             return;
         }
-        BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk().setRefresh(true);
+        BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk();
+        Set<String> indices = Sets.newHashSet();
         for (T data : entities) {
             String indexName = getIndexForType(data.getClass());
             String typeName = MappingBuilder.indexTypeFromClass(data.getClass());
+            indices.add(indexName);
 
             updateDate(data);
             String json = getJsonMapper().writeValueAsString(data);
             bulkRequestBuilder.add(getClient().prepareIndex(indexName, typeName).setSource(json));
         }
+        bulkRequestBuilder.setRefresh(isRefreshRequired(refreshPolicy, indices.toArray(new String[indices.size()])));
         bulkRequestBuilder.execute().actionGet();
     }
 
+    @Override
+    public <T> BulkSaveResult<T> saveBulk(Collection<T> entities, RefreshPolicy refreshPolicy) {
+        BulkSaveResult<T> result = new BulkSaveResult<>();
+        if (entities == null || entities.isEmpty()) {
+            return result;
+        }
+        List<T> entityList = new ArrayList<>(entities);
+        // serialization is the most expensive part of the indexing on the client side, json mapper is thread safe so we can process entities in parallel.
+        List<byte[]> jsons = entityList.parallelStream().map(this::toIndexedJson).collect(Collectors.toList());
+
+        Set<String> indices = Sets.newHashSet();
+        int chunkStart = 0;
+        long chunkSize = 0;
+        BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk();
+        for (int i = 0; i < entityList.size(); i++) {
+            T data = entityList.get(i);
+            byte[] json = jsons.get(i);
+            if (bulkRequestBuilder.numberOfActions() > 0 && chunkSize + json.length > bulkMaxSizeBytes) {
+                executeBulk(bulkRequestBuilder, entityList, chunkStart, result);
+                bulkRequestBuilder = getClient().prepareBulk();
+                chunkStart = i;
+                chunkSize = 0;
+            }
+            String indexName = getIndexForType(data.getClass());
+            indices.add(indexName);
+            bulkRequestBuilder.add(getClient().prepareIndex(indexName, MappingBuilder.indexTypeFromClass(data.getClass())).setSource(json));
+            chunkSize += json.length;
+        }
+        executeBulk(bulkRequestBuilder, entityList, chunkStart, result);
+
+        // refresh once for the whole operation rather than once per bulk request.
+        String[] indexNames = indices.toArray(new String[indices.size()]);
+        if (isRefreshRequired(refreshPolicy, indexNames)) {
+            getClient().admin().indices().prepareRefresh(indexNames).execute().actionGet();
+        }
+        return result;
+    }
+
+    @Override
+    @SneakyThrows({ IOException.class })
+    public BulkSaveResult<String> updateBulk(Class<?> clazz, Map<String, Map<String, Object>> fieldsById, RefreshPolicy refreshPolicy) {
+        BulkSaveResult<String> result = new BulkSaveResult<>();
+        if (fieldsById == null || fieldsById.isEmpty()) {
+            return result;
+        }
+        String indexName = getIndexForType(clazz);
+        String typeName = MappingBuilder.indexTypeFromClass(clazz);
+        List<String> ids = new ArrayList<>(fieldsById.keySet());
+
+        int chunkStart = 0;
+        long chunkSize = 0;
+        BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk();
+        for (int i = 0; i < ids.size(); i++) {
+            byte[] json = getJsonMapper().writeValueAsBytes(fieldsById.get(ids.get(i)));
+            if (bulkRequestBuilder.numberOfActions() > 0 && chunkSize + json.length > bulkMaxSizeBytes) {
+                executeBulk(bulkRequestBuilder, ids, chunkStart, result);
+                bulkRequestBuilder = getClient().prepareBulk();
+                chunkStart = i;
+                chunkSize = 0;
+            }
+            bulkRequestBuilder.add(getClient().prepareUpdate(indexName, typeName, ids.get(i)).setDoc(json));
+            chunkSize += json.length;
+        }
+        executeBulk(bulkRequestBuilder, ids, chunkStart, result);
+
+        if (isRefreshRequired(refreshPolicy, indexName)) {
+            getClient().admin().indices().prepareRefresh(indexName).execute().actionGet();
+        }
+        return result;
+    }
+
+    /** Serialize a document to UTF-8 encoded json, bulk requests are limited by the size in bytes of the documents. */
+    @SneakyThrows({ IOException.class })
+    private <T> byte[] toIndexedJson(T data) {
+        updateDate(data);
+        return getJsonMapper().writeValueAsBytes(data);
+    }
+
+    private <T> void executeBulk(BulkRequestBuilder bulkRequestBuilder, List<T> entities, int offset, BulkSaveResult<T> result) {
+        result.addBulkRequest();
+        BulkResponse response = bulkRequestBuilder.execute().actionGet();
+        int saved = 0;
+        for (BulkItemResponse itemResponse : response.getItems()) {
+            if (itemResponse.isFailed()) {
+                result.addFailure(entities.get(offset + itemResponse.getItemId()), itemResponse.getFailureMessage());
+            } else {
+                saved++;
+            }
+        }
+        result.addSaved(saved);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     @SneakyThrows({ IOException.class })
@@ -124,10 +275,99 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
 
     @Override
     public void delete(Class<?> clazz, String id) {
+        delete(clazz, id, refreshPolicy);
+    }
+
+    @Override
+    public void delete(Class<?> clazz, String id, RefreshPolicy refreshPolicy) {
         assertIdNotNullFor(id, "delete");
         String indexName = getIndexForType(clazz);
         String typeName = MappingBuilder.indexTypeFromClass(clazz);
-        getClient().prepareDelete(indexName, typeName, id).setRefresh(true).execute().actionGet();
+        getClient().prepareDelete(indexName, typeName, id).setRefresh(isRefreshRequired(refreshPolicy, indexName)).execute().actionGet();
+    }
+
+    /**
+     * Check if a write request on the given indices must trigger a refresh according to the given policy. When using the {@link RefreshPolicy#COALESCED}
+     * policy and the index has been refreshed recently, a deferred refresh of the index is scheduled instead.
+     *
+     * @param refreshPolicy The refresh policy to apply, if null the dao default refresh policy is used.
+     * @param indices The indices affected by the write request.
+     * @return true if the write request must force a refresh, false if not.
+     */
+    protected boolean isRefreshRequired(RefreshPolicy refreshPolicy, String... indices) {
+        RefreshPolicy policy = refreshPolicy == null ? this.refreshPolicy : refreshPolicy;
+        switch (policy) {
+        case IMMEDIATE:
+            refreshesIssued.incrementAndGet();
+            return true;
+        case COALESCED:
+            long now = System.currentTimeMillis();
+            boolean refresh = false;
+            for (String index : indices) {
+                Long lastRefreshDate = lastRefreshDates.get(index);
+                if (lastRefreshDate == null || now - lastRefreshDate >= coalesceIntervalMs) {
+                    lastRefreshDates.put(index, now);
+                    refresh = true;
+                } else {
+                    scheduleRefresh(index, lastRefreshDate + coalesceIntervalMs - now);
+                }
+            }
+            if (refresh) {
+                refreshesIssued.incrementAndGet();
+            } else {
+                refreshesSaved.incrementAndGet();
+            }
+            return refresh;
+        default:
+            refreshesSaved.incrementAndGet();
+            return false;
+        }
+    }
+
+    private synchronized void scheduleRefresh(String index, long delay) {
+        if (!pendingRefreshes.add(index)) {
+            return; // a refresh is already scheduled and will cover this write.
+        }
+        if (refreshScheduler == null) {
+            refreshScheduler = Executors
+                    .newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("es-dao-refresh-%d").setDaemon(true).build());
+        }
+        refreshScheduler.schedule(() -> {
+            pendingRefreshes.remove(index);
+            lastRefreshDates.put(index, System.currentTimeMillis());
+            try {
+                getClient().admin().indices().prepareRefresh(index).execute().actionGet();
+                refreshesIssued.incrementAndGet();
+            } catch (Exception e) {
+                ESIndexMapper.getLog().warn("Failed to refresh index <" + index + ">", e);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the number of refreshes issued to elastic search by write operations of this dao.
+     *
+     * @return The number of refreshes issued.
+     */
+    public long getRefreshesIssued() {
+        return refreshesIssued.get();
+    }
+
+    /**
+     * Get the number of write operations of this dao that did not trigger a refresh because of the refresh policy.
+     *
+     * @return The number of refreshes saved.
+     */
+    public long getRefreshesSaved() {
+        return refreshesSaved.get();
+    }
+
+    @PreDestroy
+    public synchronized void stopRefreshScheduler() {
+        if (refreshScheduler != null) {
+            refreshScheduler.shutdownNow();
+            refreshScheduler = null;
+        }
     }
 
     private void assertIdNotNullFor(String id, String operation) {
@@ -7,16 +7,23 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import javax.annotation.Resource;
 
+import org.elasticsearch.action.ListenableActionFuture;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.count.CountRequestBuilder;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.lucene.search.function.CombineFunction;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
@@ -37,6 +44,7 @@ import org.elasticsearch.search.aggregations.metrics.tophits.TopHitsBuilder;
 import org.elasticsearch.search.sort.SortBuilder;
 import org.elasticsearch.search.sort.SortBuilders;
 import org.elasticsearch.search.sort.SortOrder;
+import org.springframework.beans.factory.annotation.Value;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -47,6 +55,8 @@ import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.rest.utils.JsonUtil;
 import alien4cloud.utils.ElasticSearchUtil;
 import alien4cloud.utils.MapUtil;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
@@ -57,10 +67,32 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearchDAO {
+    private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
     @Resource
     private ElasticSearchClient esClient;
     @Resource
     private QueryHelper queryHelper;
+    /** Default number of results fetched by every scroll request of a search cursor. */
+    @Getter
+    @Setter
+    @Value("${elasticSearch.scroll.page_size:500}")
+    private int scrollPageSize = 500;
+    /** Number of documents fetched from each shard by every scroll request of a delete by query. */
+    @Getter
+    @Setter
+    @Value("${elasticSearch.delete.scroll_size:500}")
+    private int deleteScrollSize = 500;
+    /** Default pause in milliseconds between two bulk requests of a delete by query so large purges do not starve other requests. */
+    @Getter
+    @Setter
+    @Value("${elasticSearch.delete.throttle_ms:0}")
+    private long deleteThrottleMs = 0;
+    /** Minimum number of hits in a search response for the hits to be deserialized in parallel. */
+    @Getter
+    @Setter
+    @Value("${elasticSearch.search.parallel_mapping_threshold:100}")
+    private int parallelMappingThreshold = 100;
 
     @Override
     public <T> long count(Class<T> clazz, QueryBuilder query) {
@@ -79,32 +111,62 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
     }
 
     @Override
-    public void delete(Class<?> clazz, QueryBuilder query) {
-        String indexName = getIndexForType(clazz);
-        String typeName = MappingBuilder.indexTypeFromClass(clazz);
+    public long delete(Class<?> clazz, QueryBuilder query) {
+        return delete(clazz, query, deleteThrottleMs);
+    }
 
-        // get all elements and then use a bulk delete to remove data.
-        SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(indexName).setTypes(getTypesFromClass(clazz)).setQuery(query).setNoFields()
-                .setFetchSource(false);
-        searchRequestBuilder.setFrom(0).setSize(1000);
-        SearchResponse response = searchRequestBuilder.execute().actionGet();
+    @Override
+    public long delete(Class<?> clazz, QueryBuilder query, long throttleMs) {
+        String indexName = getIndexForType(clazz);
 
-        while (somethingFound(response)) {
-            BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk().setRefresh(true);
+        // scan all matching elements and use a bulk delete for every page, the next page is fetched while the current bulk executes.
+        SearchResponse response = getClient().prepareSearch(indexName).setTypes(getTypesFromClass(clazz)).setQuery(query).setNoFields().setFetchSource(false)
+                .setSearchType(SearchType.SCAN).setScroll(SCROLL_KEEP_ALIVE).setSize(deleteScrollSize).execute().actionGet();
+        String scrollId = response.getScrollId();
+        long deleted = 0;
+        try {
+            response = getClient().prepareSearchScroll(scrollId).setScroll(SCROLL_KEEP_ALIVE).execute().actionGet();
+            scrollId = response.getScrollId();
+            while (response.getHits().getHits().length > 0) {
+                ListenableActionFuture<SearchResponse> nextPage = getClient().prepareSearchScroll(scrollId).setScroll(SCROLL_KEEP_ALIVE).execute();
+
+                BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk();
+                for (SearchHit hit : response.getHits().getHits()) {
+                    bulkRequestBuilder.add(getClient().prepareDelete(hit.getIndex(), hit.getType(), hit.getId()));
+                }
+                deleted += executeDeleteBulk(bulkRequestBuilder);
 
-            for (int i = 0; i < response.getHits().hits().length; i++) {
-                String id = response.getHits().hits()[i].getId();
-                bulkRequestBuilder.add(getClient().prepareDelete(indexName, typeName, id));
+                response = nextPage.actionGet();
+                scrollId = response.getScrollId();
+                if (throttleMs > 0 && response.getHits().getHits().length > 0) {
+                    Thread.sleep(throttleMs);
+                }
             }
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while deleting data of type <{}>, <{}> elements deleted.", clazz.getName(), deleted);
+            Thread.currentThread().interrupt();
+        } finally {
+            getClient().prepareClearScroll().addScrollId(scrollId).execute();
+        }
 
-            bulkRequestBuilder.execute().actionGet();
+        // refresh once for the whole operation rather than once per bulk request.
+        if (deleted > 0 && isRefreshRequired(RefreshPolicy.IMMEDIATE, indexName)) {
+            getClient().admin().indices().prepareRefresh(indexName).execute().actionGet();
+        }
+        return deleted;
+    }
 
-            if (response.getHits().totalHits() == response.getHits().hits().length) {
-                response = null;
+    private long executeDeleteBulk(BulkRequestBuilder bulkRequestBuilder) {
+        BulkResponse bulkResponse = bulkRequestBuilder.execute().actionGet();
+        long deleted = 0;
+        for (BulkItemResponse itemResponse : bulkResponse.getItems()) {
+            if (itemResponse.isFailed()) {
+                log.warn("Failed to delete element <{}> of type <{}>: {}", itemResponse.getId(), itemResponse.getType(), itemResponse.getFailureMessage());
             } else {
-                response = searchRequestBuilder.execute().actionGet();
+                deleted++;
             }
         }
+        return deleted;
     }
 
     @SneakyThrows({ IOException.class })
@@ -214,6 +276,11 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         return toGetMultipleDataResult(Object.class, searchResponse, from);
     }
 
+    @Override
+    public <T> ISearchCursor<T> scroll(Class<T> clazz, String searchText, Map<String, String[]> filters, int pageSize) {
+        return buildSearchQuery(clazz, searchText).setFilters(filters).prepareSearch().scroll(pageSize);
+    }
+
     @Override
     public <T> FacetedSearchResult facetedSearch(Class<T> clazz, String searchText, Map<String, String[]> filters, int maxElements) {
         return facetedSearch(clazz, searchText, filters, null, 0, maxElements);
@@ -289,13 +356,10 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
             return null;
         }
 
-        List<T> result = new ArrayList<>();
-
-        for (int i = 0; i < searchResponse.getHits().getHits().length; i++) {
-            result.add(hitToObject(clazz, searchResponse.getHits().getAt(i)));
-        }
-
-        return result;
+        SearchHit[] hits = searchResponse.getHits().getHits();
+        T[] resultData = (T[]) Array.newInstance(clazz, hits.length);
+        mapHits(hits, resultData, hit -> readHit(clazz, hit));
+        return Lists.newArrayList(resultData);
     }
 
     private <T> void fillMultipleDataResult(Class<T> clazz, SearchResponse searchResponse, GetMultipleDataResult<T> finalResponse, int from,
@@ -311,11 +375,11 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         String[] resultTypes = new String[searchResponse.getHits().getHits().length];
 
         T[] resultData = (T[]) Array.newInstance(clazz, resultTypes.length);
-        for (int i = 0; i < resultTypes.length; i++) {
-            SearchHit hit = searchResponse.getHits().getAt(i);
-            resultTypes[i] = hit.getType();
-            resultData[i] = hitToObject(hit);
+        SearchHit[] hits = searchResponse.getHits().getHits();
+        for (int i = 0; i < hits.length; i++) {
+            resultTypes[i] = hits[i].getType();
         }
+        mapHits(hits, resultData, hit -> readHit((Class<? extends T>) getClassFromType(hit.getType()), hit));
         finalResponse.setData(resultData);
 
         finalResponse.setTypes(resultTypes);
@@ -326,7 +390,16 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
     }
 
     public <T> T hitToObject(Class<T> clazz, SearchHit hit) throws IOException {
-        T obj = (T) getJsonMapper().readValue(hit.getSourceAsString(), clazz);
+        // parse directly from the source bytes rather than building an intermediate string.
+        BytesReference source = hit.sourceRef();
+        T obj;
+        if (source == null) {
+            obj = getJsonMapper().readValue(hit.getSourceAsString(), clazz);
+        } else if (source.hasArray()) {
+            obj = getJsonMapper().readValue(source.array(), source.arrayOffset(), source.length(), clazz);
+        } else {
+            obj = getJsonMapper().readValue(source.streamInput(), clazz);
+        }
         Field generatedId = getClassTogeneratedIdFields().get(clazz);
         if (generatedId != null) {
             try {
@@ -338,6 +411,22 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         return obj;
     }
 
+    /**
+     * Deserialize the given hits into the target array, hits are deserialized in parallel when there is at least parallelMappingThreshold of them.
+     */
+    private <T> void mapHits(SearchHit[] hits, T[] target, Function<SearchHit, T> mapper) {
+        IntStream indexes = IntStream.range(0, hits.length);
+        if (hits.length >= parallelMappingThreshold) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> target[i] = mapper.apply(hits[i]));
+    }
+
+    @SneakyThrows({ IOException.class })
+    private <T> T readHit(Class<T> clazz, SearchHit hit) {
+        return hitToObject(clazz, hit);
+    }
+
     private <T> IESSearchQueryBuilderHelper<T> getSearchBuilderHelper(Class<T> clazz, String searchText, Map<String, String[]> filters,
             FilterBuilder customFilter, String fetchContext, String fieldSort, boolean sortOrder) {
         IESSearchQueryBuilderHelper<T> builderHelper = buildSearchQuery(clazz, searchText).setFilters(filters, customFilter)
@@ -515,6 +604,68 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         return new EsQueryBuilderHelper((QueryHelper.QueryBuilderHelper) queryHelper.buildQuery(prefixField, searchQuery), clazz);
     }
 
+    /**
+     * Search cursor that fetches the results page by page using an elastic search scroll.
+     */
+    private class ScrollSearchCursor<T> implements ISearchCursor<T> {
+        private final Class<T> clazz;
+        @Getter
+        private final long totalResults;
+        private long fetchedResults = 0;
+        private String scrollId;
+        private T[] page;
+        private int pageIndex;
+        private boolean closed = false;
+
+        private ScrollSearchCursor(Class<T> clazz, SearchResponse response) {
+            this.clazz = clazz;
+            this.totalResults = response.getHits().getTotalHits();
+            loadPage(response);
+        }
+
+        private void loadPage(SearchResponse response) {
+            scrollId = response.getScrollId();
+            page = toGetMultipleDataResult(clazz, response, 0).getData();
+            pageIndex = 0;
+            fetchedResults += page.length;
+            if (page.length == 0 || fetchedResults >= totalResults) {
+                // no need to wait for the end of the iteration to release the scroll.
+                close();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (pageIndex < page.length) {
+                return true;
+            }
+            if (closed) {
+                return false;
+            }
+            loadPage(getClient().prepareSearchScroll(scrollId).setScroll(SCROLL_KEEP_ALIVE).execute().actionGet());
+            return pageIndex < page.length;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page[pageIndex++];
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (scrollId != null) {
+                getClient().prepareClearScroll().addScrollId(scrollId).execute();
+            }
+        }
+    }
+
     /**
      * Extends the QueryBuilderHelper to provide class based indices and types.
      */
@@ -563,6 +714,17 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
             return toGetMultipleDataResult(clazz, super.execute(from, size), from);
         }
 
+        @Override
+        public ISearchCursor<T> scroll() {
+            return scroll(scrollPageSize);
+        }
+
+        @Override
+        public ISearchCursor<T> scroll(int pageSize) {
+            searchRequestBuilder.setScroll(SCROLL_KEEP_ALIVE);
+            return new ScrollSearchCursor<>(clazz, super.execute(0, pageSize));
+        }
+
         @Override
         public FacetedSearchResult facetedSearch(int from, int size) {
             super.facets();
@@ -34,6 +34,21 @@ public interface IESSearchQueryBuilderHelper<T> extends IESQueryBuilderHelper<T>
      */
     GetMultipleDataResult<T> search(int from, int size);
 
+    /**
+     * Execute the search query and iterate over all the results using the default page size (elasticSearch.scroll.page_size).
+     *
+     * @return A cursor over all the results of the query.
+     */
+    ISearchCursor<T> scroll();
+
+    /**
+     * Execute the search query and iterate over all the results, only a single page of results is kept in memory.
+     *
+     * @param pageSize The number of results to fetch from elastic search on every round trip.
+     * @return A cursor over all the results of the query.
+     */
+    ISearchCursor<T> scroll(int pageSize);
+
     /**
      * Execute a search query using the defined query with facets (aggregations).
      *
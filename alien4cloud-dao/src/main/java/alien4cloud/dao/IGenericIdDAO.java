@@ -1,6 +1,10 @@
 package alien4cloud.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+
+import alien4cloud.dao.model.BulkSaveResult;
 
 /**
  * A DAO that allows accessing data by Id or / and multiple Ids.
@@ -15,6 +19,14 @@ public interface IGenericIdDAO {
      */
     <T> void save(T entity);
 
+    /**
+     * Saves an entity into the repository using a specific refresh policy rather than the dao default one.
+     * 
+     * @param entity the entity to save
+     * @param refreshPolicy The refresh policy to apply for this operation (for example {@link RefreshPolicy#IMMEDIATE} for read-your-own-write paths).
+     */
+    <T> void save(T entity, RefreshPolicy refreshPolicy);
+
     /**
      * Bulk save multiple entities into the repository
      * 
@@ -22,6 +34,35 @@ public interface IGenericIdDAO {
      */
     <T> void save(T[] entities);
 
+    /**
+     * Bulk save multiple entities into the repository using a specific refresh policy rather than the dao default one.
+     * 
+     * @param entities The entities to save.
+     * @param refreshPolicy The refresh policy to apply for this operation.
+     */
+    <T> void save(T[] entities, RefreshPolicy refreshPolicy);
+
+    /**
+     * Save a large number of entities into the repository. Entities are serialized in parallel and sent in multiple bulk requests limited by size, indices
+     * are refreshed (according to the refresh policy) only once all bulk requests have been executed.
+     * 
+     * @param entities The entities to save.
+     * @param refreshPolicy The refresh policy to apply once all entities have been saved.
+     * @return The result of the bulk save including failures for entities that could not be saved.
+     */
+    <T> BulkSaveResult<T> saveBulk(Collection<T> entities, RefreshPolicy refreshPolicy);
+
+    /**
+     * Partially update a large number of documents of the same type. Only the given fields are sent to elastic search, updates are sent in multiple bulk
+     * requests limited by size and indices are refreshed (according to the refresh policy) only once all bulk requests have been executed.
+     * 
+     * @param clazz The class of the documents to update.
+     * @param fieldsById The fields to update (by field name) for every document id.
+     * @param refreshPolicy The refresh policy to apply once all documents have been updated.
+     * @return The result of the bulk update including failures for the ids of the documents that could not be updated.
+     */
+    BulkSaveResult<String> updateBulk(Class<?> clazz, Map<String, Map<String, Object>> fieldsById, RefreshPolicy refreshPolicy);
+
     /**
      * Find an instance from the given class.
      * 
@@ -57,4 +98,13 @@ public interface IGenericIdDAO {
      * @param id The id of the object to delete.
      */
     void delete(Class<?> clazz, String id);
+
+    /**
+     * Delete an instance from the given class using a specific refresh policy rather than the dao default one.
+     * 
+     * @param clazz The class of the object to delete.
+     * @param id The id of the object to delete.
+     * @param refreshPolicy The refresh policy to apply for this operation.
+     */
+    void delete(Class<?> clazz, String id, RefreshPolicy refreshPolicy);
 }
\ No newline at end of file
@@ -64,10 +64,21 @@ public interface IGenericSearchDAO extends IGenericIdDAO {
     /**
      * Delete a data by query
      *
-     * @param clazz
-     * @param query
+     * @param clazz The type of data to delete.
+     * @param query The query that matches the data to delete.
+     * @return The number of deleted elements.
      */
-    void delete(Class<?> clazz, QueryBuilder query);
+    long delete(Class<?> clazz, QueryBuilder query);
+
+    /**
+     * Delete a data by query, pausing between each deleted page of data so large deletions don't starve other requests.
+     *
+     * @param clazz The type of data to delete.
+     * @param query The query that matches the data to delete.
+     * @param throttleMs The pause in milliseconds between two bulk deletions, 0 to disable throttling.
+     * @return The number of deleted elements.
+     */
+    long delete(Class<?> clazz, QueryBuilder query, long throttleMs);
 
     /**
      * Run a custom query on elastic search for the given class.
@@ -141,6 +152,18 @@ public interface IGenericSearchDAO extends IGenericIdDAO {
      */
     <T> GetMultipleDataResult<T> search(Class<T> clazz, String searchText, Map<String, String[]> filters, int from, int maxElements);
 
+    /**
+     * Iterate over all the data matching a search without loading the whole result set in memory, data is fetched page by page using an elastic search
+     * scroll.
+     *
+     * @param clazz The type of data to query.
+     * @param searchText The search text if any.
+     * @param filters The filters for the search or null if no filters.
+     * @param pageSize The number of elements to fetch from elastic search on every round trip.
+     * @return A cursor over the matching data, it must be closed if the iteration is not complete.
+     */
+    <T> ISearchCursor<T> scroll(Class<T> clazz, String searchText, Map<String, String[]> filters, int pageSize);
+
     /**
      * Same as {@link IGenericSearchDAO#search(Class, String, Map, int)}, but with pagination supported.
      *
@@ -0,0 +1,25 @@
+package alien4cloud.dao;
+
+import java.util.Iterator;
+
+/**
+ * Iterate over all the results of a search request, results are fetched page by page from elastic search so only a single page is kept in memory.
+ *
+ * The cursor is closed automatically once all results have been iterated, it must be closed explicitly when the iteration is stopped before.
+ *
+ * @param <T> The type of the results.
+ */
+public interface ISearchCursor<T> extends Iterator<T>, AutoCloseable {
+    /**
+     * Get the total number of results matching the search request.
+     *
+     * @return The total number of results.
+     */
+    long getTotalResults();
+
+    /**
+     * Release the search context on elastic search.
+     */
+    @Override
+    void close();
+}
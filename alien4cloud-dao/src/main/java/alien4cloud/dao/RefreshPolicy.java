@@ -0,0 +1,15 @@
+package alien4cloud.dao;
+
+/**
+ * Defines how the elastic search indices are refreshed after a write operation (save or delete) performed through the DAO.
+ */
+public enum RefreshPolicy {
+    /** Refresh the index as part of the write request so that the data is visible to the very next search (read-your-own-write). */
+    IMMEDIATE,
+    /** Never force a refresh, data becomes visible to searches on the next elastic search periodic refresh (index.refresh_interval). */
+    NONE,
+    /**
+     * Refresh each index at most once per configured interval. Writes performed within the interval are made visible by a single deferred refresh.
+     */
+    COALESCED
+}
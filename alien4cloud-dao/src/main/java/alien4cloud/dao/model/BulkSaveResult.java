@@ -0,0 +1,49 @@
+package alien4cloud.dao.model;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a bulk save operation, contains the number of entities saved and the entities that could not be saved.
+ */
+@Getter
+@NoArgsConstructor
+public class BulkSaveResult<T> {
+    /** Number of entities successfully saved. */
+    private int savedCount;
+    /** Number of bulk requests sent to elastic search. */
+    private int bulkRequestCount;
+    /** Failures for entities that could not be saved. */
+    private final List<Failure<T>> failures = Lists.newArrayList();
+
+    public void addSaved(int count) {
+        savedCount += count;
+    }
+
+    public void addBulkRequest() {
+        bulkRequestCount++;
+    }
+
+    public void addFailure(T entity, String message) {
+        failures.add(new Failure<>(entity, message));
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    /**
+     * Failure of a single entity in a bulk save.
+     */
+    @Getter
+    @AllArgsConstructor(suppressConstructorProperties = true)
+    public static class Failure<T> {
+        private final T entity;
+        private final String message;
+    }
+}
@@ -0,0 +1,122 @@
+package alien4cloud.webconfiguration;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.inject.Inject;
+
+import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+import alien4cloud.audit.AuditTraceWriter;
+import alien4cloud.component.NodeTypeScoreService;
+import alien4cloud.dao.ESGenericIdDAO;
+import alien4cloud.deployment.DeploymentLockService;
+import alien4cloud.orchestrators.locations.services.LocationResourcesCache;
+import alien4cloud.paas.OrchestratorPluginService;
+import alien4cloud.paas.PaaSEventDispatcher;
+import alien4cloud.security.spring.AuthenticationCache;
+import alien4cloud.security.spring.ldap.LdapAuthenticationProvider;
+import alien4cloud.security.spring.ldap.LdapUserSyncStatus;
+import alien4cloud.tosca.context.ToscaTypeCache;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Register gauges for the internal statistics exposed by alien4cloud services so they are available through the metrics endpoint.
+ */
+@Slf4j
+@Component
+public class ServiceMetricsRegistrar {
+    @Inject
+    private MetricRegistry metricRegistry;
+    @Resource(name = "alien-es-dao")
+    private ESGenericIdDAO alienDao;
+    @Resource(name = "alien-monitor-es-dao")
+    private ESGenericIdDAO alienMonitorDao;
+    @Inject
+    private ToscaTypeCache toscaTypeCache;
+    @Inject
+    private LocationResourcesCache locationResourcesCache;
+    @Inject
+    private EditionContextManager editionContextManager;
+    @Inject
+    private OrchestratorPluginService orchestratorPluginService;
+    @Inject
+    private NodeTypeScoreService nodeTypeScoreService;
+    @Inject
+    private AuditTraceWriter auditTraceWriter;
+    @Inject
+    private DeploymentLockService deploymentLockService;
+    @Inject
+    private AuthenticationCache authenticationCache;
+    /** Only available when ldap is enabled. */
+    @Autowired(required = false)
+    private LdapAuthenticationProvider ldapAuthenticationProvider;
+
+    @PostConstruct
+    public void registerGauges() {
+        log.info("Registering services gauges");
+        registerDaoGauges("alien-es-dao", alienDao);
+        registerDaoGauges("alien-monitor-es-dao", alienMonitorDao);
+
+        metricRegistry.register(name(ToscaTypeCache.class, "hits"), (Gauge<Long>) () -> toscaTypeCache.getStats().hitCount());
+        metricRegistry.register(name(ToscaTypeCache.class, "misses"), (Gauge<Long>) () -> toscaTypeCache.getStats().missCount());
+        metricRegistry.register(name(ToscaTypeCache.class, "evictions"), (Gauge<Long>) () -> toscaTypeCache.getStats().evictionCount());
+        metricRegistry.register(name(ToscaTypeCache.class, "size"), (Gauge<Long>) () -> toscaTypeCache.size());
+
+        metricRegistry.register(name(LocationResourcesCache.class, "hits"), (Gauge<Long>) () -> locationResourcesCache.getStats().hitCount());
+        metricRegistry.register(name(LocationResourcesCache.class, "misses"), (Gauge<Long>) () -> locationResourcesCache.getStats().missCount());
+
+        metricRegistry.register(name(EditionContextManager.class, "lockAcquisitions"), (Gauge<Long>) editionContextManager::getLockAcquisitions);
+        metricRegistry.register(name(EditionContextManager.class, "contendedLockAcquisitions"),
+                (Gauge<Long>) editionContextManager::getContendedLockAcquisitions);
+        metricRegistry.register(name(EditionContextManager.class, "lockWaitTimeMillis"), (Gauge<Long>) editionContextManager::getLockWaitTimeMillis);
+        metricRegistry.register(name(EditionContextManager.class, "checkpointsBytes"), (Gauge<Map<String, Long>>) editionContextManager::getCheckpointsSizes);
+
+        PaaSEventDispatcher eventDispatcher = orchestratorPluginService.getEventDispatcher();
+        metricRegistry.register(name(PaaSEventDispatcher.class, "queueDepth"), (Gauge<Integer>) eventDispatcher::getQueueDepth);
+        metricRegistry.register(name(PaaSEventDispatcher.class, "lagMillis"), (Gauge<Long>) eventDispatcher::getLagMillis);
+        metricRegistry.register(name(PaaSEventDispatcher.class, "deadLetters"), (Gauge<Long>) eventDispatcher::getDeadLettersCount);
+        metricRegistry.register(name(PaaSEventDispatcher.class, "rejectedEvents"), (Gauge<Long>) eventDispatcher::getRejectedEventsCount);
+        metricRegistry.register(name(PaaSEventDispatcher.class, "lostDeadLetters"), (Gauge<Long>) eventDispatcher::getLostDeadLettersCount);
+        metricRegistry.register(name(OrchestratorPluginService.class, "monitorIntervals"),
+                (Gauge<Map<String, Long>>) orchestratorPluginService::getMonitorIntervals);
+        metricRegistry.register(name(OrchestratorPluginService.class, "monitorPollYields"),
+                (Gauge<Map<String, Double>>) orchestratorPluginService::getMonitorPollYields);
+
+        metricRegistry.register(name(DeploymentLockService.class, "lockWaitTimeMillis"), (Gauge<Map<String, Long>>) deploymentLockService::getLockWaitTimes);
+        metricRegistry.register(name(DeploymentLockService.class, "lockHoldTimeMillis"), (Gauge<Map<String, Long>>) deploymentLockService::getLockHoldTimes);
+
+        metricRegistry.register(name(NodeTypeScoreService.class, "lastRunDurationMillis"), (Gauge<Long>) nodeTypeScoreService::getLastRunDurationMillis);
+        metricRegistry.register(name(NodeTypeScoreService.class, "lastRunChangedScores"), (Gauge<Long>) nodeTypeScoreService::getLastRunChangedScores);
+
+        metricRegistry.register(name(AuditTraceWriter.class, "bufferDepth"), (Gauge<Integer>) auditTraceWriter::getBufferDepth);
+        metricRegistry.register(name(AuditTraceWriter.class, "writtenTraces"), (Gauge<Long>) auditTraceWriter::getWrittenTraces);
+        metricRegistry.register(name(AuditTraceWriter.class, "droppedTraces"), (Gauge<Long>) auditTraceWriter::getDroppedTraces);
+        metricRegistry.register(name(AuditTraceWriter.class, "spilledTraces"), (Gauge<Long>) auditTraceWriter::getSpilledTraces);
+
+        metricRegistry.register(name(AuthenticationCache.class, "hits"), (Gauge<Long>) () -> authenticationCache.getStats().hitCount());
+        metricRegistry.register(name(AuthenticationCache.class, "misses"), (Gauge<Long>) () -> authenticationCache.getStats().missCount());
+
+        if (ldapAuthenticationProvider != null) {
+            LdapUserSyncStatus syncStatus = ldapAuthenticationProvider.getSyncStatus();
+            metricRegistry.register(name(LdapUserSyncStatus.class, "running"), (Gauge<Boolean>) syncStatus::isRunning);
+            metricRegistry.register(name(LdapUserSyncStatus.class, "processedUsers"), (Gauge<Long>) syncStatus.getProcessedUsers()::get);
+            metricRegistry.register(name(LdapUserSyncStatus.class, "updatedUsers"), (Gauge<Long>) syncStatus.getUpdatedUsers()::get);
+            metricRegistry.register(name(LdapUserSyncStatus.class, "lastDurationMillis"), (Gauge<Long>) syncStatus::getLastDurationMillis);
+            metricRegistry.register(name(LdapUserSyncStatus.class, "lastSuccessDate"), (Gauge<Long>) syncStatus::getLastSuccessDate);
+        }
+    }
+
+    private void registerDaoGauges(String daoName, ESGenericIdDAO dao) {
+        metricRegistry.register(name(ESGenericIdDAO.class, daoName, "refreshesIssued"), (Gauge<Long>) dao::getRefreshesIssued);
+        metricRegistry.register(name(ESGenericIdDAO.class, daoName, "refreshesSaved"), (Gauge<Long>) dao::getRefreshesSaved);
+    }
+}
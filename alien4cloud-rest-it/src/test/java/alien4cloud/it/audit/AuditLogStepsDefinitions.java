@@ -23,23 +23,34 @@ import cucumber.api.java.en.When;
 
 public class AuditLogStepsDefinitions {
 
+    /** Audit traces are written asynchronously, searches are retried until the expected traces are visible. */
+    private static final long AUDIT_SEARCH_TIMEOUT_MS = 10000;
+
     private AuditConfigurationDTO currentAuditConfiguration = null;
 
+    private FacetedSearchResult searchAuditTraces(int size, int expectedTotalResults) throws Throwable {
+        FilteredSearchRequest req = new FilteredSearchRequest("", 0, size, null);
+        String jSon = JsonUtil.toString(req);
+        long deadline = System.currentTimeMillis() + AUDIT_SEARCH_TIMEOUT_MS;
+        while (true) {
+            String restResponse = Context.getRestClientInstance().postJSon("/rest/v1/audit/search", jSon);
+            FacetedSearchResult searchResult = JsonUtil.read(restResponse, FacetedSearchResult.class).getData();
+            if (searchResult.getTotalResults() >= expectedTotalResults || System.currentTimeMillis() > deadline) {
+                return searchResult;
+            }
+            Thread.sleep(500);
+        }
+    }
+
     @Then("^I should have no audit trace in Alien$")
     public void I_should_have_no_audit_trace_in_Alien() throws Throwable {
-        FilteredSearchRequest req = new FilteredSearchRequest("", 0, 1, null);
-        String jSon = JsonUtil.toString(req);
-        String restResponse = Context.getRestClientInstance().postJSon("/rest/v1/audit/search", jSon);
-        FacetedSearchResult searchResult = JsonUtil.read(restResponse, FacetedSearchResult.class).getData();
+        FacetedSearchResult searchResult = searchAuditTraces(1, 0);
         Assert.assertEquals(0, searchResult.getTotalResults());
     }
 
     @Then("^I should have (\\d+) audit traces in Alien:$")
     public void I_should_have_audit_traces_in_Alien(int numberOfResult, DataTable rawExpectedAuditTraces) throws Throwable {
-        FilteredSearchRequest req = new FilteredSearchRequest("", 0, numberOfResult, null);
-        String jSon = JsonUtil.toString(req);
-        String restResponse = Context.getRestClientInstance().postJSon("/rest/v1/audit/search", jSon);
-        FacetedSearchResult searchResult = JsonUtil.read(restResponse, FacetedSearchResult.class).getData();
+        FacetedSearchResult searchResult = searchAuditTraces(numberOfResult, numberOfResult);
         Assert.assertEquals(numberOfResult, searchResult.getTotalResults());
         Object[] searchData = searchResult.getData();
         List<AuditTrace> actualTraces = Lists.newArrayList();
@@ -32,22 +32,27 @@ public class AuditService {
 
     @Resource(name = "alien-audit-dao")
     private IGenericSearchDAO alienDAO;
+    @Resource
+    private AuditTraceWriter auditTraceWriter;
 
     /**
-     * Cache the instance of audit configuration bad idea ?
+     * Cached instance of the audit configuration, volatile so that the configuration can be read on every request without locking.
      */
-    private AuditConfiguration auditConfiguration;
+    private volatile AuditConfiguration auditConfiguration;
 
     /**
      * Get the audit configuration, this method will cache the configuration in memory
      * 
      * @return the audit configuration
      */
-    public synchronized AuditConfiguration getAuditConfiguration() {
-        if (this.auditConfiguration == null) {
-            this.auditConfiguration = alienDAO.findById(AuditConfiguration.class, AuditConfiguration.ID);
+    public AuditConfiguration getAuditConfiguration() {
+        AuditConfiguration configuration = this.auditConfiguration;
+        if (configuration == null) {
+            // concurrent requests may load the configuration more than once, this is harmless
+            configuration = alienDAO.findById(AuditConfiguration.class, AuditConfiguration.ID);
+            this.auditConfiguration = configuration;
         }
-        return this.auditConfiguration;
+        return configuration;
     }
 
     public synchronized void saveAuditConfiguration(AuditConfiguration auditConfiguration) {
@@ -55,8 +60,13 @@ public class AuditService {
         this.auditConfiguration = auditConfiguration;
     }
 
+    /**
+     * Submit an audit trace to be saved asynchronously.
+     *
+     * @param auditTrace The trace to save.
+     */
     public void saveAuditTrace(AuditTrace auditTrace) {
-        alienDAO.save(auditTrace);
+        auditTraceWriter.submit(auditTrace);
     }
 
     public AuditConfiguration getMandatoryAuditConfiguration() {
@@ -67,6 +77,9 @@ public class AuditService {
         return auditConfiguration;
     }
 
+    /**
+     * Search the audit traces. Traces are written asynchronously so the traces of the latest requests may not be visible yet.
+     */
     public FacetedSearchResult searchAuditTrace(String query, Map<String, String[]> filters, int from, int size) {
         FilterBuilder authorizationFilter = AuthorizationUtil.getResourceAuthorizationFilters();
         return alienDAO.facetedSearch(AuditTrace.class, query, filters, authorizationFilter, null, from, size, "timestamp", true);
@@ -0,0 +1,279 @@
+package alien4cloud.audit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.Lists;
+
+import alien4cloud.audit.model.AuditTrace;
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.RefreshPolicy;
+import alien4cloud.dao.model.BulkSaveResult;
+import alien4cloud.rest.utils.JsonUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write audit traces asynchronously so that auditing doesn't slow down the audited requests.
+ *
+ * Traces are buffered in a bounded in-memory queue and saved in bulk by a background writer. When the buffer is full the configured
+ * {@link OverflowPolicy} applies. Traces spilled to the local file are written back to elastic search once the buffer is drained. Batches don't force
+ * an index refresh so written traces become searchable with the next coalesced refresh.
+ */
+@Slf4j
+@Component
+public class AuditTraceWriter {
+    /** Maximum time a flush waits for the traces being written by the background writer. */
+    private static final long FLUSH_TIMEOUT_MS = 10000;
+
+    /** Behavior when a trace is submitted while the buffer is full. */
+    public enum OverflowPolicy {
+        /** Block the audited request until the writer frees space in the buffer. */
+        BLOCK,
+        /** Drop the oldest buffered trace to make room for the new one. */
+        DROP_OLDEST,
+        /** Append the trace to a local file, spilled traces are written once the buffer is drained. */
+        SPILL
+    }
+
+    @Resource(name = "alien-audit-dao")
+    private IGenericSearchDAO alienDAO;
+
+    private final BlockingQueue<AuditTrace> buffer;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflowPolicy;
+    private final Path spillFile;
+    private final Object spillLock = new Object();
+
+    /** Number of traces added to the buffer and number of buffered traces that have been written or dropped, used to wait for in-flight traces. */
+    private final AtomicLong enqueuedTraces = new AtomicLong();
+    private final AtomicLong processedTraces = new AtomicLong();
+    private final AtomicLong writtenTraces = new AtomicLong();
+    private final AtomicLong droppedTraces = new AtomicLong();
+    private final AtomicLong spilledTraces = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AuditTraceWriter(@Value("${audit.writer.buffer_size:10000}") int bufferSize, @Value("${audit.writer.batch_size:500}") int batchSize,
+            @Value("${audit.writer.flush_interval_ms:1000}") long flushIntervalMs,
+            @Value("${audit.writer.overflow_policy:BLOCK}") OverflowPolicy overflowPolicy,
+            @Value("${audit.writer.spill_file:${directories.alien:.}/audit/spilled_traces.json}") String spillFile) {
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.spillFile = Paths.get(spillFile);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::writeLoop, "audit-trace-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Audit trace writer started with {} overflow policy", overflowPolicy);
+    }
+
+    /**
+     * Stop the background writer and write all the pending traces.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            try {
+                writerThread.join(flushIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Unable to write pending audit traces on shutdown, {} traces are lost", buffer.size(), e);
+        }
+    }
+
+    /**
+     * Submit a trace to be written by the background writer.
+     *
+     * @param auditTrace The trace to write.
+     */
+    public void submit(AuditTrace auditTrace) {
+        switch (overflowPolicy) {
+        case BLOCK:
+            try {
+                buffer.put(auditTrace);
+                enqueuedTraces.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                droppedTraces.incrementAndGet();
+                log.warn("Interrupted while waiting for audit buffer, trace is dropped {}", auditTrace);
+            }
+            break;
+        case DROP_OLDEST:
+            while (!buffer.offer(auditTrace)) {
+                if (buffer.poll() != null) {
+                    droppedTraces.incrementAndGet();
+                    processedTraces.incrementAndGet();
+                }
+            }
+            enqueuedTraces.incrementAndGet();
+            break;
+        case SPILL:
+            if (buffer.offer(auditTrace)) {
+                enqueuedTraces.incrementAndGet();
+            } else {
+                spill(Collections.singletonList(auditTrace));
+            }
+            break;
+        }
+    }
+
+    /**
+     * Write all the buffered and spilled traces on the calling thread and wait for the traces being written by the background writer.
+     */
+    public void flush() {
+        long target = enqueuedTraces.get();
+        List<AuditTrace> batch = Lists.newArrayList();
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            writeBuffered(batch);
+            batch = Lists.newArrayList();
+        }
+        writeSpilledTraces();
+        long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MS;
+        try {
+            while (processedTraces.get() < target && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get the number of traces waiting in the buffer.
+     *
+     * @return The number of buffered traces.
+     */
+    public int getBufferDepth() {
+        return buffer.size();
+    }
+
+    public long getWrittenTraces() {
+        return writtenTraces.get();
+    }
+
+    public long getDroppedTraces() {
+        return droppedTraces.get();
+    }
+
+    public long getSpilledTraces() {
+        return spilledTraces.get();
+    }
+
+    private void writeLoop() {
+        while (running) {
+            try {
+                AuditTrace auditTrace = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (auditTrace == null) {
+                    // the buffer is empty, this is the right time to write traces that have been spilled.
+                    writeSpilledTraces();
+                    continue;
+                }
+                List<AuditTrace> batch = Lists.newArrayList(auditTrace);
+                buffer.drainTo(batch, batchSize - 1);
+                writeBuffered(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Unexpected error in audit trace writer", e);
+            }
+        }
+    }
+
+    private void writeBuffered(List<AuditTrace> batch) {
+        try {
+            write(batch);
+        } finally {
+            processedTraces.addAndGet(batch.size());
+        }
+    }
+
+    private void write(List<AuditTrace> batch) {
+        try {
+            BulkSaveResult<AuditTrace> result = alienDAO.saveBulk(batch, RefreshPolicy.COALESCED);
+            writtenTraces.addAndGet(result.getSavedCount());
+            for (BulkSaveResult.Failure<AuditTrace> failure : result.getFailures()) {
+                log.warn("Unable to save audit trace {}: {}", failure.getEntity(), failure.getMessage());
+            }
+        } catch (Exception e) {
+            if (overflowPolicy == OverflowPolicy.SPILL) {
+                log.warn("Unable to save {} audit traces, traces are spilled to {}", batch.size(), spillFile, e);
+                spill(batch);
+            } else {
+                droppedTraces.addAndGet(batch.size());
+                log.warn("Unable to save {} audit traces", batch.size(), e);
+            }
+        }
+    }
+
+    private void spill(List<AuditTrace> auditTraces) {
+        synchronized (spillLock) {
+            try {
+                List<String> lines = Lists.newArrayListWithExpectedSize(auditTraces.size());
+                for (AuditTrace auditTrace : auditTraces) {
+                    lines.add(JsonUtil.toString(auditTrace));
+                }
+                Files.createDirectories(spillFile.toAbsolutePath().getParent());
+                Files.write(spillFile, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                spilledTraces.addAndGet(auditTraces.size());
+            } catch (IOException e) {
+                droppedTraces.addAndGet(auditTraces.size());
+                log.error("Unable to spill {} audit traces to {}", auditTraces.size(), spillFile, e);
+            }
+        }
+    }
+
+    private void writeSpilledTraces() {
+        List<AuditTrace> spilled = Lists.newArrayList();
+        synchronized (spillLock) {
+            if (!Files.exists(spillFile)) {
+                return;
+            }
+            try {
+                for (String line : Files.readAllLines(spillFile, StandardCharsets.UTF_8)) {
+                    spilled.add(JsonUtil.readObject(line, AuditTrace.class));
+                }
+                Files.delete(spillFile);
+            } catch (IOException e) {
+                log.error("Unable to read spilled audit traces from {}", spillFile, e);
+                return;
+            }
+        }
+        log.info("Writing {} audit traces spilled to {}", spilled.size(), spillFile);
+        for (List<AuditTrace> batch : Lists.partition(spilled, batchSize)) {
+            write(Lists.newArrayList(batch));
+        }
+    }
+}
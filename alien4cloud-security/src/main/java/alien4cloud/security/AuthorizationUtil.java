@@ -7,6 +7,7 @@ import java.util.Set;
 import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.FilterBuilders;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -29,6 +30,7 @@ import alien4cloud.security.model.User;
 import alien4cloud.security.spring.Alien4CloudAccessDeniedHandler;
 import alien4cloud.security.spring.FailureAuthenticationEntryPoint;
 import alien4cloud.utils.AlienConstants;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -40,10 +42,20 @@ public final class AuthorizationUtil {
 
     private static IAlienGroupDao alienGroupDao;
     private static Alien4CloudAccessDeniedHandler accessDeniedHandler;
+    /** The all users group is resolved for every authentication and authorization check, it is kept for a short time. */
+    private static long allUsersGroupCacheTtlMillis;
+    private static volatile CachedGroup allUsersGroup;
 
     @Autowired
     public void setAlienGroupDao(IAlienGroupDao alienGroupDao) {
         AuthorizationUtil.alienGroupDao = alienGroupDao;
+        invalidateAllUsersGroup();
+    }
+
+    @Value("${alien_security.all_users_group_cache_ttl_seconds:30}")
+    public void setAllUsersGroupCacheTtl(long allUsersGroupCacheTtlSeconds) {
+        AuthorizationUtil.allUsersGroupCacheTtlMillis = allUsersGroupCacheTtlSeconds * 1000;
+        invalidateAllUsersGroup();
     }
 
     @Autowired
@@ -340,14 +352,34 @@ public final class AuthorizationUtil {
      * @return
      */
     private static Group getAllUsersGroup() {
+        CachedGroup cachedGroup = allUsersGroup;
+        long now = System.currentTimeMillis();
+        if (cachedGroup != null && now < cachedGroup.expirationDate) {
+            return cachedGroup.group;
+        }
         Group group = alienGroupDao.findByName(AlienConstants.GROUP_NAME_ALL_USERS);
         if (group == null) {
             log.warn("Default all users group <{}> not found", AlienConstants.GROUP_NAME_ALL_USERS);
-            return null;
+        }
+        if (allUsersGroupCacheTtlMillis > 0) {
+            allUsersGroup = new CachedGroup(group, now + allUsersGroupCacheTtlMillis);
         }
         return group;
     }
 
+    /**
+     * Remove the cached all users group so that the next authorization check reloads it, must be called when groups are modified.
+     */
+    public static void invalidateAllUsersGroup() {
+        allUsersGroup = null;
+    }
+
+    @AllArgsConstructor
+    private static class CachedGroup {
+        private final Group group;
+        private final long expirationDate;
+    }
+
     /**
      * Create an authentication token from an Alien user
      *
@@ -22,6 +22,7 @@ import com.google.common.collect.Sets;
 import alien4cloud.exception.AlreadyExistException;
 import alien4cloud.exception.InvalidArgumentException;
 import alien4cloud.exception.NotFoundException;
+import alien4cloud.security.AuthorizationUtil;
 import alien4cloud.security.event.GroupDeletedEvent;
 import alien4cloud.security.event.UserDeletedEvent;
 import alien4cloud.security.groups.rest.UpdateGroupRequest;
@@ -57,12 +58,13 @@ public class GroupService {
             // If group name has changed, must check unicity
             checkGroupNameUniqueness(group.getName());
         }
-        alienGroupDao.save(group);
+        save(group);
     }
 
     public void deleteGroup(String groupId) throws IOException, ClassNotFoundException {
         Group group = retrieveGroup(groupId);
         alienGroupDao.delete(groupId);
+        AuthorizationUtil.invalidateAllUsersGroup();
         publisher.publishEvent(new GroupDeletedEvent(this, group));
     }
 
@@ -74,7 +76,7 @@ public class GroupService {
         users.add(user.getUsername());
         group.setUsers(users);
 
-        alienGroupDao.save(group);
+        save(group);
 
         // update groupRoles in the user
         userService.addGroupToUser(group, user);
@@ -90,7 +92,7 @@ public class GroupService {
         User user = userService.retrieveUser(username);
 
         group.getUsers().remove(user.getUsername());
-        alienGroupDao.save(group);
+        save(group);
 
         // update groupRoles in users objects
         userService.removeGroupFromUser(user, group);
@@ -122,7 +124,7 @@ public class GroupService {
             group.setUsers(usersSet);
         }
 
-        alienGroupDao.save(group);
+        save(group);
 
         if (CollectionUtils.isNotEmpty(usersList)) {
             for (User user : usersList) {
@@ -140,7 +142,7 @@ public class GroupService {
         rolesSet.add(Role.getStringFormatedRole(role));
         group.setRoles(rolesSet);
 
-        alienGroupDao.save(group);
+        save(group);
 
         // update groupRoles in users objects
         if (CollectionUtils.isNotEmpty(group.getUsers())) {
@@ -165,7 +167,7 @@ public class GroupService {
         }
 
         group.getRoles().remove(Role.getStringFormatedRole(role));
-        alienGroupDao.save(group);
+        save(group);
 
         // update groupRoles in users objects
         if (CollectionUtils.isNotEmpty(group.getUsers())) {
@@ -176,6 +178,12 @@ public class GroupService {
 
     }
 
+    private void save(Group group) {
+        alienGroupDao.save(group);
+        // the roles of the all users group are cached for authorizations
+        AuthorizationUtil.invalidateAllUsersGroup();
+    }
+
     /**
      * check if the given groupId is unique in the system
      * 
@@ -203,7 +211,7 @@ public class GroupService {
             Group group = retrieveGroup(groupId);
             if (safe(group.getUsers()).contains(user.getUsername())) {
                 group.getUsers().remove(user.getUsername());
-                alienGroupDao.save(group);
+                save(group);
             }
         }
     }
@@ -27,6 +27,8 @@ import lombok.extern.slf4j.Slf4j;
 public class Alien4CloudAuthenticationProvider implements AuthenticationProvider {
     @Resource
     private IAlienUserDao alienUserDao;
+    @Resource
+    private AuthenticationCache authenticationCache;
     protected AuthenticationProvider wrappedProvider = null;
 
     @Resource
@@ -59,14 +61,24 @@ public class Alien4CloudAuthenticationProvider implements AuthenticationProvider
         if (user == null) {
             return authenticateNewUser(authentication, password);
         }
+        if (authenticationCache.isVerified(login, password)) {
+            // credentials have been checked recently, skip the bcrypt check or the call to the wrapped provider
+            return AuthorizationUtil.createAuthenticationToken(user, password);
+        }
 
+        Authentication result;
         if (user.isInternalDirectory()) {
-            return internalAuthentication(user, password);
+            result = internalAuthentication(user, password);
         } else if (wrappedProvider == null) {
             log.error("The user <" + login + "> is not internal but no wrapped provider has been defined. Unable to authenticate.");
             return null;
+        } else {
+            result = delegateAuthenticate(authentication, user, password);
         }
-        return delegateAuthenticate(authentication, user, password);
+        if (result.isAuthenticated()) {
+            authenticationCache.putVerified(login, password);
+        }
+        return result;
     }
 
     private Authentication internalAuthentication(User user, String password) {
@@ -156,6 +168,10 @@ public class Alien4CloudAuthenticationProvider implements AuthenticationProvider
         this.alienUserDao = alienUserDao;
     }
 
+    public void setAuthenticationCache(AuthenticationCache authenticationCache) {
+        this.authenticationCache = authenticationCache;
+    }
+
     @Override
     public boolean supports(Class<?> authenticationClass) {
         return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authenticationClass);
@@ -0,0 +1,103 @@
+package alien4cloud.security.spring;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hashing;
+
+import alien4cloud.security.event.UserDeletedEvent;
+import lombok.AllArgsConstructor;
+
+/**
+ * Short lived cache of the credentials that have been successfully verified so that clients using basic authentication on every request don't trigger a
+ * bcrypt check or an LDAP bind every time.
+ *
+ * Passwords are never kept, only a salted hash of the verified password is stored. Entries are removed when a user is updated or deleted.
+ */
+@Component
+public class AuthenticationCache {
+    private static final int SALT_LENGTH = 16;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final boolean enabled;
+    private final Cache<String, VerifiedCredentials> cache;
+
+    public AuthenticationCache(@Value("${alien_security.authentication_cache.ttl_seconds:60}") long ttlSeconds,
+            @Value("${alien_security.authentication_cache.max_size:1000}") long maxSize) {
+        this.enabled = ttlSeconds > 0 && maxSize > 0;
+        this.cache = CacheBuilder.newBuilder().expireAfterWrite(Math.max(ttlSeconds, 0), TimeUnit.SECONDS).maximumSize(Math.max(maxSize, 0)).recordStats()
+                .build();
+    }
+
+    /**
+     * Check if the given credentials have been verified recently.
+     *
+     * @param username The name of the user.
+     * @param password The password provided by the user.
+     * @return True if the same credentials have been successfully verified less than the cache ttl ago.
+     */
+    public boolean isVerified(String username, String password) {
+        if (!enabled || username == null || password == null) {
+            return false;
+        }
+        VerifiedCredentials verifiedCredentials = cache.getIfPresent(username);
+        return verifiedCredentials != null && MessageDigest.isEqual(verifiedCredentials.hash, hash(verifiedCredentials.salt, password));
+    }
+
+    /**
+     * Register credentials that have been successfully verified.
+     *
+     * @param username The name of the user.
+     * @param password The verified password.
+     */
+    public void putVerified(String username, String password) {
+        if (!enabled || username == null || password == null) {
+            return;
+        }
+        byte[] salt = new byte[SALT_LENGTH];
+        secureRandom.nextBytes(salt);
+        cache.put(username, new VerifiedCredentials(salt, hash(salt, password)));
+    }
+
+    /**
+     * Remove the verified credentials of a user.
+     *
+     * @param username The name of the user.
+     */
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    @EventListener
+    public void handleUserDeleted(UserDeletedEvent event) {
+        invalidate(event.getUser().getUsername());
+    }
+
+    /**
+     * Get the cache statistics (hits, misses and evictions).
+     *
+     * @return The statistics of the cache.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    private byte[] hash(byte[] salt, String password) {
+        return Hashing.sha256().newHasher().putBytes(salt).putString(password, StandardCharsets.UTF_8).hash().asBytes();
+    }
+
+    @AllArgsConstructor
+    private static class VerifiedCredentials {
+        private final byte[] salt;
+        private final byte[] hash;
+    }
+}
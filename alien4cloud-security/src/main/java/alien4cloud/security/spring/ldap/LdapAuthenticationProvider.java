@@ -1,11 +1,24 @@
 package alien4cloud.security.spring.ldap;
 
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -15,6 +28,7 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import alien4cloud.security.users.IAlienUserDao;
@@ -23,6 +37,7 @@ import alien4cloud.security.model.User;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Provider responsible to authenticate agains LDAP.
@@ -32,6 +47,7 @@ import com.google.common.collect.Maps;
 @Conditional(LdapCondition.class)
 @Component("ldap-provider")
 public class LdapAuthenticationProvider implements AuthenticationProvider {
+    private static final String LDAP_GENERALIZED_TIME_FORMAT = "yyyyMMddHHmmss'Z'";
 
     @Resource
     private LdapUserDao ldapUserDao;
@@ -45,8 +61,25 @@ public class LdapAuthenticationProvider implements AuthenticationProvider {
     private String[] roleMappings;
     private Map<String, String> parsedRoleMappings;
 
+    /** Number of users requested in a single LDAP page and saved in a single bulk request. */
+    @Value("${ldap.sync.page_size:500}")
+    private int syncPageSize = 500;
+    /** Number of pages of users processed concurrently. */
+    @Value("${ldap.sync.parallelism:4}")
+    private int syncParallelism = 4;
+    /** Interval between two synchronizations of the users modified in LDAP, 0 to synchronize users only at startup. */
+    @Value("${ldap.sync.interval_minutes:0}")
+    private long syncIntervalMinutes;
+    /** Margin applied on the last synchronization date to cover clock differences with the LDAP server. */
+    @Value("${ldap.sync.modify_timestamp_margin_minutes:5}")
+    private long modifyTimestampMarginMinutes = 5;
+
+    @Getter
+    private final LdapUserSyncStatus syncStatus = new LdapUserSyncStatus();
+    private ScheduledExecutorService syncScheduler;
+
     @PostConstruct
-    public void importLdapUsers() {
+    public void init() {
         // parse role mappings
         for (String roleMapping : roleMappings) {
             String[] mapping = roleMapping.split("=");
@@ -61,27 +94,128 @@ public class LdapAuthenticationProvider implements AuthenticationProvider {
             }
             parsedRoleMappings.put(mapping[0], mapping[1]);
         }
+        checkRoles();
 
         if (ldapUserDao.getLdapTemplate().getContextSource() != null) {
-            List<User> users = ldapUserDao.getUsers();
-            checkRoles();
-            for (User user : users) {
-                // refresh roles based on ldap.
-                User alienUser = alienUserDao.find(user.getUsername());
-                if (alienUser == null) {
-                    // eventually update if a mapping exists for this user.
-                    mapLdapRoles(user, user);
-                    if(user.getRoles() == null || user.getRoles().length == 0) {
-                        // initialize the user with default roles.
-                        user.setRoles(defaultRoles);
-                    }
-                    alienUserDao.save(user);
-                } else {
-                    mapLdapRoles(user, alienUser);
-                    alienUserDao.save(alienUser);
-                }
+            // users are imported in background so that a large directory doesn't delay the startup.
+            syncScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("ldap-user-sync-%d").setDaemon(true).build());
+            syncScheduler.execute(this::importLdapUsers);
+            if (syncIntervalMinutes > 0) {
+                syncScheduler.scheduleWithFixedDelay(this::importModifiedLdapUsers, syncIntervalMinutes, syncIntervalMinutes, TimeUnit.MINUTES);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (syncScheduler != null) {
+            syncScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Import all the users from LDAP, creates the missing users and updates the users whose roles or attributes have changed.
+     */
+    public void importLdapUsers() {
+        synchronizeUsers(false);
+    }
+
+    /**
+     * Import the users modified in LDAP since the last successful synchronization.
+     */
+    public void importModifiedLdapUsers() {
+        synchronizeUsers(syncStatus.getLastSuccessDate() > 0);
+    }
+
+    private synchronized void synchronizeUsers(boolean incremental) {
+        String modifiedSince = null;
+        if (incremental) {
+            SimpleDateFormat generalizedTimeFormat = new SimpleDateFormat(LDAP_GENERALIZED_TIME_FORMAT);
+            generalizedTimeFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+            modifiedSince = generalizedTimeFormat.format(new Date(syncStatus.getLastSuccessDate() - TimeUnit.MINUTES.toMillis(modifyTimestampMarginMinutes)));
+        }
+        log.info("Synchronizing {} users from LDAP", incremental ? "modified" : "all");
+        syncStatus.start(incremental);
+        // pages are processed by a bounded pool, the LDAP search thread processes the page itself when all workers are busy.
+        ThreadPoolExecutor pageExecutor = new ThreadPoolExecutor(syncParallelism, syncParallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(syncParallelism), new ThreadFactoryBuilder().setNameFormat("ldap-user-sync-page-%d").build(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        List<Future<?>> pages = Lists.newArrayList();
+        boolean success = false;
+        try {
+            ldapUserDao.searchUsers(modifiedSince, syncPageSize, users -> pages.add(pageExecutor.submit(() -> synchronizePage(users))));
+            for (Future<?> page : pages) {
+                page.get();
             }
+            success = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("LDAP users synchronization has been interrupted");
+        } catch (Exception e) {
+            log.error("Failed to synchronize users from LDAP", e);
+        } finally {
+            pageExecutor.shutdownNow();
+            syncStatus.end(success);
         }
+        log.info("LDAP users synchronization processed {} users and updated {} users in {} ms", syncStatus.getProcessedUsers().get(),
+                syncStatus.getUpdatedUsers().get(), syncStatus.getLastDurationMillis());
+    }
+
+    private void synchronizePage(List<User> ldapUsers) {
+        if (ldapUsers.isEmpty()) {
+            return;
+        }
+        Map<String, User> alienUsers = Maps.newHashMap();
+        List<User> existingUsers = alienUserDao.find(ldapUsers.stream().map(User::getUsername).toArray(String[]::new));
+        if (existingUsers != null) {
+            for (User existingUser : existingUsers) {
+                alienUsers.put(existingUser.getUsername(), existingUser);
+            }
+        }
+        List<User> changedUsers = Lists.newArrayList();
+        for (User user : ldapUsers) {
+            User alienUser = alienUsers.get(user.getUsername());
+            if (alienUser == null) {
+                initNewUserRoles(user);
+                changedUsers.add(user);
+            } else if (updateFromLdap(user, alienUser)) {
+                changedUsers.add(alienUser);
+            }
+        }
+        if (!changedUsers.isEmpty()) {
+            alienUserDao.save(changedUsers);
+        }
+        syncStatus.pageProcessed(ldapUsers.size(), changedUsers.size());
+    }
+
+    /**
+     * Initialize the roles of a user that doesn't exist yet in alien from its mapped LDAP roles or from the default roles.
+     */
+    private void initNewUserRoles(User user) {
+        // eventually update if a mapping exists for this user.
+        mapLdapRoles(user, user);
+        if (user.getRoles() == null || user.getRoles().length == 0) {
+            // initialize the user with default roles.
+            user.setRoles(defaultRoles);
+        }
+    }
+
+    /**
+     * Update the roles and attributes of an alien user from its LDAP definition.
+     *
+     * @return True if the alien user has been modified.
+     */
+    private boolean updateFromLdap(User ldapUser, User alienUser) {
+        String[] roles = alienUser.getRoles();
+        mapLdapRoles(ldapUser, alienUser);
+        boolean changed = !Arrays.equals(roles, alienUser.getRoles()) || !Objects.equals(ldapUser.getFirstName(), alienUser.getFirstName())
+                || !Objects.equals(ldapUser.getLastName(), alienUser.getLastName()) || !Objects.equals(ldapUser.getEmail(), alienUser.getEmail())
+                || ldapUser.isAccountNonExpired() != alienUser.isAccountNonExpired();
+        alienUser.setFirstName(ldapUser.getFirstName());
+        alienUser.setLastName(ldapUser.getLastName());
+        alienUser.setEmail(ldapUser.getEmail());
+        alienUser.setAccountNonExpired(ldapUser.isAccountNonExpired());
+        return changed;
     }
 
     @Override
@@ -90,9 +224,22 @@ public class LdapAuthenticationProvider implements AuthenticationProvider {
         String password = authentication.getCredentials().toString();
 
         if (ldapUserDao.authenticate(login, password)) {
+            User user = alienUserDao.find(login);
+            if (user == null) {
+                // the user logs in before being imported by the synchronization, the user will be created with its LDAP definition and roles.
+                User ldapUser = ldapUserDao.getById(login);
+                if (ldapUser != null) {
+                    initNewUserRoles(ldapUser);
+                    List<GrantedAuthority> authorities = Lists.newArrayList();
+                    for (String role : ldapUser.getRoles()) {
+                        authorities.add(new SimpleGrantedAuthority(role));
+                    }
+                    return new UsernamePasswordAuthenticationToken(ldapUser, password, authorities);
+                }
+            }
             List<? extends GrantedAuthority> emptyList = Lists.newArrayList();
             Authentication auth = new UsernamePasswordAuthenticationToken(login, password, emptyList);
-            updateLdapUserRoles(login, auth);
+            updateLdapUserRoles(login, user, auth);
             return auth;
         } else {
             log.debug("Wrong password for user <" + login + ">");
@@ -100,16 +247,19 @@ public class LdapAuthenticationProvider implements AuthenticationProvider {
         }
     }
 
-    private void updateLdapUserRoles(String login, Authentication auth) {
+    private void updateLdapUserRoles(String login, User user, Authentication auth) {
         if (auth.isAuthenticated() && parsedRoleMappings != null) {
             // refresh roles if loaded from mapping
             User ldapUser = ldapUserDao.getById(login);
-            User user = alienUserDao.find(login);
-
-            if (ldapUser != null) {
-                mapLdapRoles(ldapUser, user);
+            if (ldapUser == null || user == null) {
+                return;
+            }
+            String[] roles = user.getRoles();
+            mapLdapRoles(ldapUser, user);
+            // write back the user only when the mapped roles changed, most logins don't change anything
+            if (!Arrays.equals(roles, user.getRoles())) {
+                alienUserDao.save(user);
             }
-            alienUserDao.save(user);
         }
     }
 
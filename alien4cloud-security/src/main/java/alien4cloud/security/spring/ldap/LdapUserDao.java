@@ -1,15 +1,19 @@
 package alien4cloud.security.spring.ldap;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.annotation.Resource;
+import javax.naming.directory.SearchControls;
 
 import lombok.Getter;
 import lombok.Setter;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Conditional;
+import org.springframework.ldap.control.PagedResultsDirContextProcessor;
 import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.ldap.core.support.SingleContextSource;
 import org.springframework.stereotype.Component;
 
 import alien4cloud.security.model.User;
@@ -34,6 +38,9 @@ public class LdapUserDao {
     @Value("${ldap.mapping.id}")
     private String userIdKey;
 
+    @Value("${ldap.sync.modify_timestamp_attribute:modifyTimestamp}")
+    private String modifyTimestampKey;
+
     /**
      * Authenticate the user against ldap.
      * 
@@ -53,6 +60,28 @@ public class LdapUserDao {
         return ldapTemplate.search("", this.filter, userLdapAttributeMapper);
     }
 
+    /**
+     * Iterate over the users from LDAP page by page using the LDAP paged results control.
+     * 
+     * @param modifiedSince If not null only the users modified since this date (LDAP generalized time) are returned.
+     * @param pageSize The maximum number of users in a page.
+     * @param pageConsumer The consumer called for every page of users.
+     */
+    public void searchUsers(String modifiedSince, int pageSize, Consumer<List<User>> pageConsumer) {
+        String searchFilter = modifiedSince == null ? this.filter : "(&" + this.filter + "(" + modifyTimestampKey + ">=" + modifiedSince + "))";
+        SearchControls searchControls = new SearchControls();
+        searchControls.setSearchScope(SearchControls.SUBTREE_SCOPE);
+        PagedResultsDirContextProcessor pagedResultsProcessor = new PagedResultsDirContextProcessor(pageSize);
+        // paged results cookies are bound to a connection, all pages must be requested using the same one.
+        SingleContextSource.doWithSingleContext(ldapTemplate.getContextSource(), operations -> {
+            do {
+                List<User> users = operations.search("", searchFilter, searchControls, userLdapAttributeMapper, pagedResultsProcessor);
+                pageConsumer.accept(users);
+            } while (pagedResultsProcessor.hasMore());
+            return null;
+        });
+    }
+
     /**
      * Find a user based on it's username/id
      * 
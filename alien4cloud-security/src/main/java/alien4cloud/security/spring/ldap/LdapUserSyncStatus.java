@@ -0,0 +1,47 @@
+package alien4cloud.security.spring.ldap;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+
+/**
+ * Progress and timing of the synchronization of the LDAP users into alien4cloud.
+ */
+@Getter
+public class LdapUserSyncStatus {
+    /** True while a synchronization is running. */
+    private volatile boolean running;
+    /** True if the current (or last) synchronization only processes the users modified since the previous one. */
+    private volatile boolean incremental;
+    /** Start date of the current (or last) synchronization. */
+    private volatile long startDate;
+    /** Duration of the last completed synchronization. */
+    private volatile long lastDurationMillis;
+    /** Start date of the last synchronization that completed successfully. */
+    private volatile long lastSuccessDate;
+    /** Number of LDAP users processed by the current (or last) synchronization. */
+    private final AtomicLong processedUsers = new AtomicLong();
+    /** Number of alien4cloud users created or updated by the current (or last) synchronization. */
+    private final AtomicLong updatedUsers = new AtomicLong();
+
+    void start(boolean incremental) {
+        this.incremental = incremental;
+        this.startDate = System.currentTimeMillis();
+        this.processedUsers.set(0);
+        this.updatedUsers.set(0);
+        this.running = true;
+    }
+
+    void pageProcessed(int processed, int updated) {
+        processedUsers.addAndGet(processed);
+        updatedUsers.addAndGet(updated);
+    }
+
+    void end(boolean success) {
+        lastDurationMillis = System.currentTimeMillis() - startDate;
+        if (success) {
+            lastSuccessDate = startDate;
+        }
+        running = false;
+    }
+}
@@ -3,6 +3,7 @@ package alien4cloud.security.users;
 import java.beans.IntrospectionException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -16,11 +17,15 @@ import org.springframework.stereotype.Component;
 import com.google.common.collect.Maps;
 
 import alien4cloud.dao.ESGenericSearchDAO;
+import alien4cloud.dao.RefreshPolicy;
+import alien4cloud.dao.model.BulkSaveResult;
 import alien4cloud.dao.model.FacetedSearchResult;
 import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.exception.IndexingServiceException;
 import alien4cloud.security.model.User;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Component("user-dao")
 public class ElasticSearchUserDao extends ESGenericSearchDAO implements IAlienUserDao {
     @Resource
@@ -44,6 +49,14 @@ public class ElasticSearchUserDao extends ESGenericSearchDAO implements IAlienUs
         super.save(user);
     }
 
+    @Override
+    public void save(Collection<User> users) {
+        BulkSaveResult<User> result = super.saveBulk(users, RefreshPolicy.IMMEDIATE);
+        for (BulkSaveResult.Failure<User> failure : result.getFailures()) {
+            log.warn("Unable to save user {}: {}", failure.getEntity().getUsername(), failure.getMessage());
+        }
+    }
+
     @Override
     public User find(String username) {
         return super.findById(User.class, username);
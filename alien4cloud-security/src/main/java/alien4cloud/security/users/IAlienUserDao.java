@@ -1,5 +1,6 @@
 package alien4cloud.security.users;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +23,13 @@ public interface IAlienUserDao {
      */
     void save(User user);
 
+    /**
+     * Create or update multiple users in the store with bulk requests.
+     * 
+     * @param users The users to store.
+     */
+    void save(Collection<User> users);
+
     /**
      * Read a user from the store.
      * 
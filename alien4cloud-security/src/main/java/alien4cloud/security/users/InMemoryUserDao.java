@@ -1,5 +1,6 @@
 package alien4cloud.security.users;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -27,6 +28,11 @@ public class InMemoryUserDao implements IAlienUserDao {
         userMap.put(user.getUsername(), user);
     }
 
+    @Override
+    public void save(Collection<User> users) {
+        users.forEach(this::save);
+    }
+
     @Override
     public User find(String username) {
         return userMap.get(username);
@@ -31,6 +31,7 @@ import alien4cloud.security.groups.IAlienGroupDao;
 import alien4cloud.security.model.Group;
 import alien4cloud.security.model.Role;
 import alien4cloud.security.model.User;
+import alien4cloud.security.spring.AuthenticationCache;
 import alien4cloud.security.users.rest.UpdateUserRequest;
 import alien4cloud.utils.ReflectionUtil;
 
@@ -41,6 +42,8 @@ public class UserService {
     private IAlienUserDao alienUserDao;
     @Resource
     private IAlienGroupDao alienGroupDao;
+    @Resource
+    private AuthenticationCache authenticationCache;
 
     @Value("${alien_security.admin.ensure}")
     private boolean ensure;
@@ -128,6 +131,7 @@ public class UserService {
             user.setPassword(BCrypt.hashpw(userUpdateRequest.getPassword(), BCrypt.gensalt()));
         }
         alienUserDao.save(user);
+        authenticationCache.invalidate(userName);
     }
 
     /**
@@ -0,0 +1,104 @@
+package alien4cloud.audit;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Lists;
+
+import alien4cloud.audit.model.AuditTrace;
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.RefreshPolicy;
+import alien4cloud.dao.model.BulkSaveResult;
+
+/**
+ * Test the buffering of audit traces, the background writer is not started so that traces are written only when flushed.
+ */
+@SuppressWarnings("unchecked")
+public class AuditTraceWriterTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private IGenericSearchDAO alienDAO;
+    private List<String> savedActions;
+
+    @Before
+    public void init() {
+        alienDAO = Mockito.mock(IGenericSearchDAO.class);
+        savedActions = Lists.newArrayList();
+        Mockito.when(alienDAO.saveBulk(Mockito.anyCollection(), Mockito.eq(RefreshPolicy.COALESCED))).thenAnswer(invocation -> {
+            for (AuditTrace auditTrace : (List<AuditTrace>) invocation.getArguments()[0]) {
+                savedActions.add(auditTrace.getAction());
+            }
+            return new BulkSaveResult<>();
+        });
+    }
+
+    private AuditTraceWriter writer(AuditTraceWriter.OverflowPolicy overflowPolicy, Path spillFile) {
+        AuditTraceWriter writer = new AuditTraceWriter(2, 10, 1000, overflowPolicy, spillFile.toString());
+        ReflectionTestUtils.setField(writer, "alienDAO", alienDAO);
+        return writer;
+    }
+
+    private AuditTrace trace(String action) {
+        AuditTrace auditTrace = new AuditTrace();
+        auditTrace.setAction(action);
+        return auditTrace;
+    }
+
+    @Test
+    public void oldestTracesShouldBeDroppedWhenBufferIsFull() throws Exception {
+        AuditTraceWriter writer = writer(AuditTraceWriter.OverflowPolicy.DROP_OLDEST, temporaryFolder.getRoot().toPath().resolve("spill.json"));
+        writer.submit(trace("first"));
+        writer.submit(trace("second"));
+        writer.submit(trace("third"));
+        Assert.assertEquals(2, writer.getBufferDepth());
+        Assert.assertEquals(1, writer.getDroppedTraces());
+
+        writer.flush();
+        Assert.assertEquals(Lists.newArrayList("second", "third"), savedActions);
+    }
+
+    @Test
+    public void tracesShouldBeSpilledWhenBufferIsFullAndWrittenOnFlush() throws Exception {
+        Path spillFile = temporaryFolder.getRoot().toPath().resolve("audit").resolve("spill.json");
+        AuditTraceWriter writer = writer(AuditTraceWriter.OverflowPolicy.SPILL, spillFile);
+        writer.submit(trace("first"));
+        writer.submit(trace("second"));
+        writer.submit(trace("third"));
+        Assert.assertEquals(2, writer.getBufferDepth());
+        Assert.assertEquals(1, writer.getSpilledTraces());
+        Assert.assertTrue(Files.exists(spillFile));
+
+        writer.flush();
+        Assert.assertEquals(Lists.newArrayList("first", "second", "third"), savedActions);
+        Assert.assertFalse(Files.exists(spillFile));
+        Assert.assertEquals(0, writer.getDroppedTraces());
+    }
+
+    @Test
+    public void failedWritesShouldBeSpilled() throws Exception {
+        Path spillFile = temporaryFolder.getRoot().toPath().resolve("spill.json");
+        AuditTraceWriter writer = writer(AuditTraceWriter.OverflowPolicy.SPILL, spillFile);
+        BulkSaveResult<AuditTrace> success = new BulkSaveResult<>();
+        Mockito.when(alienDAO.saveBulk(Mockito.anyCollection(), Mockito.eq(RefreshPolicy.COALESCED))).thenThrow(new RuntimeException("unavailable"))
+                .thenReturn(success);
+        writer.submit(trace("first"));
+        // the failed batch is spilled and written back with the spilled traces
+        writer.flush();
+        Assert.assertEquals(1, writer.getSpilledTraces());
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(alienDAO, Mockito.times(2)).saveBulk(captor.capture(), Mockito.eq(RefreshPolicy.COALESCED));
+        Assert.assertEquals("first", ((AuditTrace) captor.getAllValues().get(1).get(0)).getAction());
+        Assert.assertFalse(Files.exists(spillFile));
+    }
+}
@@ -0,0 +1,30 @@
+package alien4cloud.security;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import alien4cloud.security.spring.AuthenticationCache;
+
+public class AuthenticationCacheTest {
+
+    @Test
+    public void onlyVerifiedCredentialsShouldBeAccepted() {
+        AuthenticationCache authenticationCache = new AuthenticationCache(60, 10);
+        Assert.assertFalse(authenticationCache.isVerified("user", "password"));
+
+        authenticationCache.putVerified("user", "password");
+        Assert.assertTrue(authenticationCache.isVerified("user", "password"));
+        Assert.assertFalse(authenticationCache.isVerified("user", "wrongpassword"));
+        Assert.assertFalse(authenticationCache.isVerified("other", "password"));
+
+        authenticationCache.invalidate("user");
+        Assert.assertFalse(authenticationCache.isVerified("user", "password"));
+    }
+
+    @Test
+    public void cacheShouldBeDisabledWithoutTtl() {
+        AuthenticationCache authenticationCache = new AuthenticationCache(0, 10);
+        authenticationCache.putVerified("user", "password");
+        Assert.assertFalse(authenticationCache.isVerified("user", "password"));
+    }
+}
@@ -1,25 +1,33 @@
 package alien4cloud.security;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.annotation.Resource;
 import javax.naming.NamingException;
 
 import alien4cloud.security.model.User;
 import alien4cloud.security.users.IAlienUserDao;
+import org.junit.Assert;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.MethodSorters;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
-import org.springframework.ldap.core.ContextSource;
 import org.springframework.ldap.core.LdapTemplate;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Lists;
 
 import alien4cloud.security.spring.ldap.LdapAuthenticationProvider;
+import alien4cloud.security.spring.ldap.LdapUserDao;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration("classpath:ldap-authentication-provider-security-test.xml")
@@ -33,25 +41,45 @@ public class LdapAuthenticationProviderTest extends AbstractLdapTest {
     private LdapAuthenticationProvider ldapAuthenticationProvider;
 
     @Test
+    @SuppressWarnings("unchecked")
     public void testLdapUserImport() throws NamingException {
-        Mockito.when(ldapTemplate.getContextSource()).thenReturn(Mockito.mock(ContextSource.class));
+        Mockito.reset(alienUserDao);
         int userCount = 10;
-        List<User> users = prepareGetAllUserMock(userCount);
-
-        // for each user we should check if it exists in the user repository and only if not then we add it.
-        for (int i = 0; i < users.size(); i++) {
-            User user = users.get(i);
-            if (i % 2 == 0) {
-                user.setLastName("test");
-                Mockito.when(alienUserDao.find(user.getUsername())).thenReturn(user);
-            } else {
-                Mockito.when(alienUserDao.find(user.getUsername())).thenReturn(user);
-            }
+        List<User> users = createUserList(userCount);
+
+        // even users already exist in the user repository, some of them with outdated attributes, odd users have to be created.
+        List<User> existingUsers = Lists.newArrayList();
+        for (int i = 0; i < users.size(); i += 2) {
+            User existingUser = new User();
+            existingUser.setUsername(users.get(i).getUsername());
+            existingUser.setFirstName(users.get(i).getFirstName());
+            existingUser.setLastName(i % 4 == 0 ? "outdated" : users.get(i).getLastName());
+            existingUser.setEmail(users.get(i).getEmail());
+            existingUsers.add(existingUser);
         }
+        String[] usernames = users.stream().map(User::getUsername).toArray(String[]::new);
+        Mockito.when(alienUserDao.find(usernames)).thenReturn(existingUsers);
 
-        ldapAuthenticationProvider.importLdapUsers();
+        LdapUserDao ldapUserDaoMock = Mockito.mock(LdapUserDao.class);
+        Mockito.doAnswer(invocation -> {
+            ((Consumer<List<User>>) invocation.getArguments()[2]).accept(users);
+            return null;
+        }).when(ldapUserDaoMock).searchUsers((String) Mockito.isNull(), Mockito.anyInt(), Mockito.any(Consumer.class));
+        ReflectionTestUtils.setField(ldapAuthenticationProvider, "ldapUserDao", ldapUserDaoMock);
+        try {
+            ldapAuthenticationProvider.importLdapUsers();
+        } finally {
+            ReflectionTestUtils.setField(ldapAuthenticationProvider, "ldapUserDao", ldapUserDao);
+        }
 
-        Mockito.verify(alienUserDao, Mockito.times(users.size())).save(Mockito.any(User.class));
+        // only the created and the updated users are saved, in a single bulk request.
+        ArgumentCaptor<Collection> savedUsers = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(alienUserDao, Mockito.times(1)).save(savedUsers.capture());
+        Mockito.verify(alienUserDao, Mockito.never()).save(Mockito.any(User.class));
+        Assert.assertEquals(8, savedUsers.getValue().size());
+        Assert.assertEquals(userCount, ldapAuthenticationProvider.getSyncStatus().getProcessedUsers().get());
+        Assert.assertEquals(8, ldapAuthenticationProvider.getSyncStatus().getUpdatedUsers().get());
+        Assert.assertFalse(ldapAuthenticationProvider.getSyncStatus().isRunning());
     }
 
     @Test
@@ -63,6 +91,35 @@ public class LdapAuthenticationProviderTest extends AbstractLdapTest {
         ldapAuthenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(userName, password));
     }
 
+    @Test
+    public void testAuthenticateNotImportedUserShouldHaveDefaultRoles() {
+        Mockito.reset(alienUserDao);
+        String userName = "new-user";
+        String password = "password";
+        User ldapUser = new User();
+        ldapUser.setUsername(userName);
+        ldapUser.setEmail("new-user@alien4cloud.org");
+
+        // the user logs in before the synchronization imported it
+        LdapUserDao ldapUserDaoMock = Mockito.mock(LdapUserDao.class);
+        Mockito.when(ldapUserDaoMock.authenticate(userName, password)).thenReturn(true);
+        Mockito.when(ldapUserDaoMock.getById(userName)).thenReturn(ldapUser);
+        ReflectionTestUtils.setField(ldapAuthenticationProvider, "ldapUserDao", ldapUserDaoMock);
+        Authentication authentication;
+        try {
+            authentication = ldapAuthenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(userName, password));
+        } finally {
+            ReflectionTestUtils.setField(ldapAuthenticationProvider, "ldapUserDao", ldapUserDao);
+        }
+
+        Assert.assertTrue(authentication.isAuthenticated());
+        Assert.assertEquals(userName, authentication.getName());
+        Assert.assertSame(ldapUser, authentication.getPrincipal());
+        Assert.assertArrayEquals(new String[] { "COMPONENTS_BROWSER" }, ldapUser.getRoles());
+        Assert.assertEquals(1, authentication.getAuthorities().size());
+        Assert.assertEquals("COMPONENTS_BROWSER", authentication.getAuthorities().iterator().next().getAuthority());
+    }
+
     @Test(expected = BadCredentialsException.class)
     public void testAuthenticateShouldFailIfWrontPassword() {
         String userName = "admin";
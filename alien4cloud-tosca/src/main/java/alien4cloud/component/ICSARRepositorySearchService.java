@@ -1,11 +1,15 @@
 package alien4cloud.component;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
 import org.alien4cloud.tosca.model.CSARDependency;
 import org.alien4cloud.tosca.model.Csar;
 import org.alien4cloud.tosca.model.types.AbstractToscaType;
 
+import com.google.common.collect.Maps;
+
 import alien4cloud.exception.NotFoundException;
 
 /**
@@ -52,6 +56,27 @@ public interface ICSARRepositorySearchService {
      */
     <T extends AbstractToscaType> T getElementInDependencies(Class<T> elementClass, String elementId, Set<CSARDependency> dependencies);
 
+    /**
+     * Get many elements of the same class from defined dependencies. Implementations should fetch all the elements at once, the default implementation
+     * looks for elements one by one.
+     *
+     * @param elementClass The element class.
+     * @param elementIds The TOSCA element ids of the elements (without archive version).
+     * @param dependencies A list of CSAR in which the elements may be defined.
+     * @return A map of the elements found by element id, elements that are not found are not in the map.
+     */
+    default <T extends AbstractToscaType> Map<String, T> getElementsInDependencies(Class<T> elementClass, Collection<String> elementIds,
+            Set<CSARDependency> dependencies) {
+        Map<String, T> elements = Maps.newHashMap();
+        for (String elementId : elementIds) {
+            T element = getElementInDependencies(elementClass, elementId, dependencies);
+            if (element != null) {
+                elements.put(elementId, element);
+            }
+        }
+        return elements;
+    }
+
     /**
      * Get an element from defined dependencies.
      *
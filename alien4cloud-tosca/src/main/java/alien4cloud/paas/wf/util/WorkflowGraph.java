@@ -0,0 +1,221 @@
+package alien4cloud.paas.wf.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import alien4cloud.paas.wf.AbstractStep;
+import alien4cloud.paas.wf.Workflow;
+
+/**
+ * An adjacency index of the steps of a workflow that allows to analyse the graph in polynomial time (rather than enumerating all the paths of the graph
+ * which number can grow exponentially with the number of steps).
+ * <p>
+ * The graph is explored once using a depth first search that both detects the cycles (back edges of the search) and computes the strongly connected
+ * components of the graph (Tarjan). The reachability between components is then computed on the condensed graph which is acyclic.
+ * <p>
+ * The search starts from the graph entries (steps without predecessors, so connected to 'start') in the steps order, remaining steps (in cycles not
+ * connected to start) are explored afterward.
+ */
+public class WorkflowGraph {
+    private static final int WHITE = 0;
+    private static final int GRAY = 1;
+    private static final int BLACK = 2;
+
+    private final List<AbstractStep> steps;
+    private final Map<AbstractStep, Integer> stepIndexes;
+    private final int[][] successors;
+
+    /** Cycles detected by the search, described as a succession of step names, the first step being repeated at the end. */
+    private final List<List<String>> cycles = new ArrayList<>();
+    /** Strongly connected component of each step, components are numbered in reverse topological order. */
+    private final int[] components;
+    private int componentCount;
+    /** Components reachable from each component (including itself). */
+    private BitSet[] reachableComponents;
+
+    public WorkflowGraph(Workflow workflow) {
+        steps = new ArrayList<>(workflow.getSteps().values());
+        stepIndexes = new HashMap<>(steps.size() * 2);
+        for (int i = 0; i < steps.size(); i++) {
+            stepIndexes.put(steps.get(i), i);
+        }
+        successors = new int[steps.size()][];
+        for (int i = 0; i < steps.size(); i++) {
+            AbstractStep step = steps.get(i);
+            if (step.getFollowingSteps() == null) {
+                successors[i] = new int[0];
+                continue;
+            }
+            successors[i] = new int[step.getFollowingSteps().size()];
+            int j = 0;
+            for (String followingId : step.getFollowingSteps()) {
+                successors[i][j++] = stepIndexes.get(WorkflowGraphUtils.getRequiredStep(workflow, followingId));
+            }
+        }
+        components = new int[steps.size()];
+        analyse();
+    }
+
+    /**
+     * Get the cycles of the workflow, one cycle is reported for every back edge of the graph exploration.
+     *
+     * @return The cycles as succession of step names (for example [A, B, C, A]), an empty list if the graph is acyclic.
+     */
+    public List<List<String>> getCycles() {
+        return cycles;
+    }
+
+    /**
+     * Check if there is a path from a step to another one. A step is always reachable from itself.
+     *
+     * @param from The origin step.
+     * @param to The target step.
+     * @return True if the target step can be reached from the origin step.
+     */
+    public boolean isReachable(AbstractStep from, AbstractStep to) {
+        return reachableComponents[components[indexOf(from)]].get(components[indexOf(to)]);
+    }
+
+    /**
+     * Get a comparator that sorts steps in a topological order of the graph (steps of a same cycle are sorted according to the workflow steps order).
+     *
+     * @return A comparator of steps of this graph.
+     */
+    public Comparator<AbstractStep> topologicalOrder() {
+        // components are numbered in reverse topological order.
+        return Comparator.<AbstractStep> comparingInt(step -> -components[indexOf(step)]).thenComparingInt(this::indexOf);
+    }
+
+    private int indexOf(AbstractStep step) {
+        Integer index = stepIndexes.get(step);
+        if (index == null) {
+            throw new IllegalArgumentException(String.format("The step <%s> is not part of the workflow graph", step.getName()));
+        }
+        return index;
+    }
+
+    private void analyse() {
+        int stepCount = steps.size();
+        int[] colors = new int[stepCount];
+        int[] discoveryIndexes = new int[stepCount];
+        int[] lowLinks = new int[stepCount];
+        boolean[] onComponentStack = new boolean[stepCount];
+        int[] componentStack = new int[stepCount];
+        int componentStackSize = 0;
+        // the current path of the exploration and the next successor to explore for each step of the path
+        int[] path = new int[stepCount];
+        int[] nextSuccessors = new int[stepCount];
+        int[] pathPositions = new int[stepCount];
+        int discoveryCounter = 0;
+
+        for (int root : explorationRoots()) {
+            if (colors[root] != WHITE) {
+                continue;
+            }
+            int depth = 0;
+            path[0] = root;
+            nextSuccessors[root] = 0;
+            pathPositions[root] = 0;
+            colors[root] = GRAY;
+            discoveryIndexes[root] = lowLinks[root] = discoveryCounter++;
+            componentStack[componentStackSize++] = root;
+            onComponentStack[root] = true;
+            while (depth >= 0) {
+                int current = path[depth];
+                if (nextSuccessors[current] < successors[current].length) {
+                    int successor = successors[current][nextSuccessors[current]++];
+                    if (colors[successor] == WHITE) {
+                        depth++;
+                        path[depth] = successor;
+                        nextSuccessors[successor] = 0;
+                        pathPositions[successor] = depth;
+                        colors[successor] = GRAY;
+                        discoveryIndexes[successor] = lowLinks[successor] = discoveryCounter++;
+                        componentStack[componentStackSize++] = successor;
+                        onComponentStack[successor] = true;
+                    } else {
+                        if (colors[successor] == GRAY) {
+                            // back edge: the successor is on the current path
+                            cycles.add(cycleNames(path, pathPositions[successor], depth));
+                        }
+                        if (onComponentStack[successor]) {
+                            lowLinks[current] = Math.min(lowLinks[current], discoveryIndexes[successor]);
+                        }
+                    }
+                } else {
+                    colors[current] = BLACK;
+                    if (lowLinks[current] == discoveryIndexes[current]) {
+                        int member;
+                        do {
+                            member = componentStack[--componentStackSize];
+                            onComponentStack[member] = false;
+                            components[member] = componentCount;
+                        } while (member != current);
+                        componentCount++;
+                    }
+                    depth--;
+                    if (depth >= 0) {
+                        lowLinks[path[depth]] = Math.min(lowLinks[path[depth]], lowLinks[current]);
+                    }
+                }
+            }
+        }
+        computeReachability();
+    }
+
+    /**
+     * Entries first then all the steps so that steps in cycles not connected to start are explored too.
+     */
+    private int[] explorationRoots() {
+        int[] roots = new int[steps.size() * 2];
+        int count = 0;
+        for (int i = 0; i < steps.size(); i++) {
+            AbstractStep step = steps.get(i);
+            if (step.getPrecedingSteps() == null || step.getPrecedingSteps().isEmpty()) {
+                roots[count++] = i;
+            }
+        }
+        for (int i = 0; i < steps.size(); i++) {
+            roots[count++] = i;
+        }
+        return Arrays.copyOf(roots, count);
+    }
+
+    private List<String> cycleNames(int[] path, int from, int to) {
+        List<String> cycle = new ArrayList<>(to - from + 2);
+        for (int i = from; i <= to; i++) {
+            cycle.add(steps.get(path[i]).getName());
+        }
+        cycle.add(steps.get(path[from]).getName());
+        return cycle;
+    }
+
+    private void computeReachability() {
+        List<List<Integer>> componentMembers = new ArrayList<>(componentCount);
+        for (int i = 0; i < componentCount; i++) {
+            componentMembers.add(new ArrayList<>());
+        }
+        for (int i = 0; i < steps.size(); i++) {
+            componentMembers.get(components[i]).add(i);
+        }
+        reachableComponents = new BitSet[componentCount];
+        // successors of a component always have a lower number so they are processed first.
+        for (int component = 0; component < componentCount; component++) {
+            BitSet reachable = new BitSet(componentCount);
+            reachable.set(component);
+            for (int member : componentMembers.get(component)) {
+                for (int successor : successors[member]) {
+                    if (components[successor] != component) {
+                        reachable.or(reachableComponents[components[successor]]);
+                    }
+                }
+            }
+            reachableComponents[component] = reachable;
+        }
+    }
+}
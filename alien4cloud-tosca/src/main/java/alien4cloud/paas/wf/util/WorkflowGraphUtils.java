@@ -29,6 +29,8 @@ public class WorkflowGraphUtils {
      * Build the paths of the graph starting from the entry points (steps without predecessors, so connected to 'start').
      * <p>
      * Will also detect orphans brothers in the entire graph (cycles not connected to start).
+     * <p>
+     * The number of paths can grow exponentially with the number of steps, use {@link WorkflowGraph} to analyse the graph.
      */
     public static List<Path> getWorkflowGraphPaths(Workflow workflow) {
         // the result
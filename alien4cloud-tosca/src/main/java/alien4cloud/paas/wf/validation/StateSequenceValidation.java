@@ -4,25 +4,21 @@ import static org.alien4cloud.tosca.normative.constants.NormativeWorkflowNameCon
 import static org.alien4cloud.tosca.normative.constants.NormativeWorkflowNameConstants.UNINSTALL;
 
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 
 import org.elasticsearch.common.collect.Lists;
 import org.elasticsearch.common.collect.Maps;
-import org.elasticsearch.common.collect.Sets;
 
 import alien4cloud.paas.plan.ToscaNodeLifecycleConstants;
 import alien4cloud.paas.wf.AbstractStep;
 import alien4cloud.paas.wf.NodeActivityStep;
-import alien4cloud.paas.wf.Path;
 import alien4cloud.paas.wf.SetStateActivity;
 import alien4cloud.paas.wf.Workflow;
 import alien4cloud.paas.wf.WorkflowsBuilderService.TopologyContext;
 import alien4cloud.paas.wf.exception.WorkflowException;
-import alien4cloud.paas.wf.util.WorkflowGraphUtils;
+import alien4cloud.paas.wf.util.WorkflowGraph;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -41,14 +37,12 @@ import lombok.extern.slf4j.Slf4j;
  * <p>
  * Actually the rule is: for each node, all set state steps must be <b>at least on a same path</b> and they should be in the <b>correct order</b> on this path.
  * <p>
- * To achieve such check, for each node we:
+ * To achieve such check without enumerating the paths of the workflow, for each node we:
  * <ul>
- * <li>list the state step states and the paths they are found on (a step can be on several paths).
- * <li>get the intersection of all these path : this way we should have at least 1 path containing all steps.
- * <li>check the order on these paths.
+ * <li>sort the set state steps in the topological order of the workflow graph.
+ * <li>check that each step can be reached from the previous one : if so all steps are on a same path, in this order.
+ * <li>check the order of the states along this sequence.
  * </ul>
- * <p>
- * Maybe a more efficient algo can be found (1 pass ?) ... Feel free to have fun !
  */
 @Slf4j
 public class StateSequenceValidation implements Rule {
@@ -85,111 +79,73 @@ public class StateSequenceValidation implements Rule {
             return null;
         }
         List<AbstractWorkflowError> errors = Lists.newArrayList();
-        List<Path> paths = WorkflowGraphUtils.getWorkflowGraphPaths(workflow);
-        Map<String, Map<NodeActivityStep, Set<Path>>> pathsPerNodePerStepMap = getPathsPerNodePerStepMap(paths);
-        Map<String, Set<Path>> pathsPerNodeMap = getPathsPerNodeIntersectionMap(pathsPerNodePerStepMap);
-        // now we have to ensure that for the remaining paths, the order is correct between steps
-        for (Entry<String, Set<Path>> pathSetEntry : pathsPerNodeMap.entrySet()) {
-            String nodeId = pathSetEntry.getKey();
-            if (pathSetEntry.getValue().isEmpty()) {
-                // the intersection is empty : this means that step are in parallel
+        WorkflowGraph graph = new WorkflowGraph(workflow);
+        for (Entry<String, List<NodeActivityStep>> stepsEntry : getSetStateStepsPerNodeMap(workflow).entrySet()) {
+            String nodeId = stepsEntry.getKey();
+            List<NodeActivityStep> steps = stepsEntry.getValue();
+            steps.sort(graph.topologicalOrder());
+            if (isOnASamePath(graph, steps)) {
+                ensureOrderIsCorrect(steps, stateSequence, errors);
+            } else {
+                // no path contains all the steps : this means that step are in parallel
                 // TODO: which one ?
                 errors.add(new ParallelSetStatesError(nodeId));
             }
-            for (Path path : pathSetEntry.getValue()) {
-                ensureOrderIsCorrect(nodeId, path, stateSequence, errors);
-            }
         }
         return errors;
     }
 
-    private void ensureOrderIsCorrect(String nodeId, Path path, Map<String, Integer> stateSequence, List<AbstractWorkflowError> errors) {
-        Iterator<AbstractStep> steps = path.iterator();
-        NodeActivityStep lastDetectedStep = null;
-        while (steps.hasNext()) {
-            AbstractStep step = steps.next();
-            if (step instanceof NodeActivityStep && ((NodeActivityStep) step).getNodeId().equals(nodeId)
-                    && ((NodeActivityStep) step).getActivity() instanceof SetStateActivity) {
-                String stateName = ((SetStateActivity) ((NodeActivityStep) step).getActivity()).getStateName();
-                Integer stateIdx = stateSequence.get(stateName);
-                if (stateIdx == null) {
-                    // if the state is null, it can be a custom state, we don't care about it
-                    continue;
-                }
-                if (lastDetectedStep == null) {
-                    lastDetectedStep = (NodeActivityStep) step;
-                } else {
-                    String lastDetectedState = ((SetStateActivity) ((NodeActivityStep) lastDetectedStep).getActivity()).getStateName();
-                    Integer lastDetectedStateIdx = stateSequence.get(lastDetectedState);
-                    Integer currentDetectedStateIdx = stateSequence.get(stateName);
-                    if (lastDetectedStateIdx.compareTo(currentDetectedStateIdx) > 0) {
-                        errors.add(new BadStateSequenceError(lastDetectedStep.getName(), step.getName()));
-                        // throw new BadStateOrderException(String.format("Issue in the state sequence for node '%s': '%s' can not be set after the state '%s'",
-                        // nodeId, stateName,
-                        // lastDetectedState));
-                    } else {
-                        lastDetectedStep = (NodeActivityStep) step;
-                    }
-                }
+    private boolean isOnASamePath(WorkflowGraph graph, List<NodeActivityStep> sortedSteps) {
+        for (int i = 1; i < sortedSteps.size(); i++) {
+            if (!graph.isReachable(sortedSteps.get(i - 1), sortedSteps.get(i))) {
+                return false;
             }
         }
+        return true;
     }
 
-    /**
-     * Per node, just keep the intersection between all the {@link Path} sets.
-     */
-    private Map<String, Set<Path>> getPathsPerNodeIntersectionMap(Map<String, Map<NodeActivityStep, Set<Path>>> pathsPerNodePerStepMap) {
-        Map<String, Set<Path>> pathsPerNodeIntersectionMap = Maps.newHashMap();
-        for (Entry<String, Map<NodeActivityStep, Set<Path>>> entry : pathsPerNodePerStepMap.entrySet()) {
-            String nodeId = entry.getKey();
-            Map<NodeActivityStep, Set<Path>> pathsPerStep = entry.getValue();
-            Iterator<Set<Path>> paths = pathsPerStep.values().iterator();
-            if (pathsPerStep.size() == 1) {
-                pathsPerNodeIntersectionMap.put(nodeId, paths.next());
-                paths.remove();
+    private void ensureOrderIsCorrect(List<NodeActivityStep> sortedSteps, Map<String, Integer> stateSequence, List<AbstractWorkflowError> errors) {
+        NodeActivityStep lastDetectedStep = null;
+        for (NodeActivityStep step : sortedSteps) {
+            String stateName = ((SetStateActivity) step.getActivity()).getStateName();
+            Integer stateIdx = stateSequence.get(stateName);
+            if (stateIdx == null) {
+                // if the state is null, it can be a custom state, we don't care about it
+                continue;
+            }
+            if (lastDetectedStep == null) {
+                lastDetectedStep = step;
             } else {
-                Set<Path> lastPaths = paths.next();
-                paths.remove();
-                while (paths.hasNext()) {
-                    Set<Path> intersection = Sets.intersection(lastPaths, paths.next());
-                    paths.remove();
-                    lastPaths = intersection;
+                String lastDetectedState = ((SetStateActivity) lastDetectedStep.getActivity()).getStateName();
+                Integer lastDetectedStateIdx = stateSequence.get(lastDetectedState);
+                if (lastDetectedStateIdx.compareTo(stateIdx) > 0) {
+                    errors.add(new BadStateSequenceError(lastDetectedStep.getName(), step.getName()));
+                } else {
+                    lastDetectedStep = step;
                 }
-                pathsPerNodeIntersectionMap.put(nodeId, lastPaths);
             }
         }
-        return pathsPerNodeIntersectionMap;
     }
 
     /**
-     * For each node / step, constitute a set containing all the paths in which this node has steps of type 'set state'.
-     * 
-     * @return a map using nodeId as key and the list of concerned {@link Path}s as value.
+     * For each node, list the steps of type 'set state'.
+     *
+     * @return a map using nodeId as key and the list of the node's set state steps as value.
      */
-    private Map<String, Map<NodeActivityStep, Set<Path>>> getPathsPerNodePerStepMap(List<Path> paths) {
-        Map<String, Map<NodeActivityStep, Set<Path>>> pathsPerNodePerStepMap = Maps.newHashMap();
-        for (Path path : paths) {
-            Iterator<AbstractStep> steps = path.iterator();
-            while (steps.hasNext()) {
-                AbstractStep step = steps.next();
-                if (step instanceof NodeActivityStep && ((NodeActivityStep) step).getActivity() instanceof SetStateActivity) {
-                    NodeActivityStep nodeActivityStep = (NodeActivityStep) step;
-                    String node = nodeActivityStep.getNodeId();
-                    Map<NodeActivityStep, Set<Path>> pathsPerStepMap = pathsPerNodePerStepMap.get(node);
-                    if (pathsPerStepMap == null) {
-                        pathsPerStepMap = Maps.newHashMap();
-                        pathsPerNodePerStepMap.put(node, pathsPerStepMap);
-                    }
-                    Set<Path> pathsPerStep = pathsPerStepMap.get(nodeActivityStep);
-                    if (pathsPerStep == null) {
-                        pathsPerStep = Sets.newHashSet();
-                        pathsPerStepMap.put(nodeActivityStep, pathsPerStep);
-                    }
-                    pathsPerStep.add(path);
+    private Map<String, List<NodeActivityStep>> getSetStateStepsPerNodeMap(Workflow workflow) {
+        Map<String, List<NodeActivityStep>> stepsPerNodeMap = Maps.newLinkedHashMap();
+        for (AbstractStep step : workflow.getSteps().values()) {
+            if (step instanceof NodeActivityStep && ((NodeActivityStep) step).getActivity() instanceof SetStateActivity) {
+                NodeActivityStep nodeActivityStep = (NodeActivityStep) step;
+                List<NodeActivityStep> nodeSteps = stepsPerNodeMap.get(nodeActivityStep.getNodeId());
+                if (nodeSteps == null) {
+                    nodeSteps = Lists.newArrayList();
+                    stepsPerNodeMap.put(nodeActivityStep.getNodeId(), nodeSteps);
                 }
+                nodeSteps.add(nodeActivityStep);
             }
         }
-        return pathsPerNodePerStepMap;
+        return stepsPerNodeMap;
     }
 
     private Map<String, Integer> getStateSequence(Workflow workflow) {
@@ -23,6 +23,9 @@ import static alien4cloud.utils.AlienUtils.safe;
 public class ToscaContext {
     @Setter
     private static ICSARRepositorySearchService csarRepositorySearchService;
+    /** Process wide cache of released types, may be null (no shared caching). */
+    @Setter
+    private static ToscaTypeCache toscaTypeCache;
     private final static ThreadLocal<Context> contextThreadLocal = new ThreadLocal<>();
 
     /**
@@ -77,6 +80,20 @@ public class ToscaContext {
         return contextThreadLocal.get().getElement(elementClass, elementId, true);
     }
 
+    /**
+     * Load many elements of the same class in the current context at once, rather than issuing one query per element when they are requested.
+     *
+     * @param elementClass The class of the elements to load.
+     * @param elementIds The ids of the elements to load, ids of elements that are already loaded or that are not found are ignored.
+     * @param <T> The type of elements.
+     */
+    public static <T extends AbstractToscaType> void prefetch(Class<T> elementClass, Collection<String> elementIds) {
+        Context context = contextThreadLocal.get();
+        if (context != null) {
+            context.prefetch(elementClass, elementIds);
+        }
+    }
+
     /**
      * Destroy the tosca context.
      */
@@ -276,15 +293,58 @@ public class ToscaContext {
                 }
             }
 
-            T element = required ? csarRepositorySearchService.getRequiredElementInDependencies(elementClass, elementId, dependencies)
+            T element = toscaTypeCache == null ? null : toscaTypeCache.get(elementClass, elementId, dependencies);
+            if (element != null) {
+                typeElements.put(elementId, element);
+                return element;
+            }
+
+            element = required ? csarRepositorySearchService.getRequiredElementInDependencies(elementClass, elementId, dependencies)
                     : csarRepositorySearchService.getElementInDependencies(elementClass, elementId, dependencies);
             if (element != null) {
                 typeElements.put(elementId, element);
+                if (toscaTypeCache != null) {
+                    toscaTypeCache.put(elementClass, element);
+                }
             }
             log.debug("Retrieve element {} {}", element, dependencies);
             return element;
         }
 
+        /**
+         * Load many elements of the same class from the process wide cache or from ES with a single request.
+         *
+         * @param elementClass The class of the elements to load.
+         * @param elementIds The ids of the elements to load.
+         * @param <T> The type of elements.
+         */
+        public <T extends AbstractToscaType> void prefetch(Class<T> elementClass, Collection<String> elementIds) {
+            Map<String, AbstractToscaType> typeElements = toscaTypesCache.computeIfAbsent(elementClass.getSimpleName(), key -> new HashMap<>());
+            Set<String> toLoad = new HashSet<>();
+            for (String elementId : elementIds) {
+                if (elementId == null || typeElements.containsKey(elementId)) {
+                    continue;
+                }
+                T element = toscaTypeCache == null ? null : toscaTypeCache.get(elementClass, elementId, dependencies);
+                if (element == null) {
+                    toLoad.add(elementId);
+                } else {
+                    typeElements.put(elementId, element);
+                }
+            }
+            if (toLoad.isEmpty()) {
+                return;
+            }
+            Map<String, T> loaded = csarRepositorySearchService.getElementsInDependencies(elementClass, toLoad, dependencies);
+            for (T element : loaded.values()) {
+                typeElements.put(element.getElementId(), element);
+                if (toscaTypeCache != null) {
+                    toscaTypeCache.put(elementClass, element);
+                }
+            }
+            log.debug("Prefetched {} of {} {} elements", loaded.size(), toLoad.size(), elementClass.getSimpleName());
+        }
+
         public <T extends AbstractToscaType> Optional<AbstractToscaType> getElement(Class<T> elementClass, Predicate<AbstractToscaType> filter) {
             String elementType = elementClass.getSimpleName();
             Map<String, AbstractToscaType> typeElements = toscaTypesCache.get(elementType);
@@ -0,0 +1,146 @@
+package alien4cloud.tosca.context;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.Csar;
+import org.alien4cloud.tosca.model.types.AbstractToscaType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import alien4cloud.utils.VersionUtil;
+import alien4cloud.utils.jackson.ConditionalAttributes;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Process wide cache of TOSCA types shared by all the {@link ToscaContext.Context} instances.
+ *
+ * Only types from released (non SNAPSHOT) archives are cached as released archives are immutable, the cache is still invalidated when an archive is deleted
+ * or re-indexed. Types are cached as json snapshots (serialized as they are in elasticsearch) and every get returns a new copy so that a caller mutating
+ * the types of its context doesn't alter the types of other contexts or threads.
+ */
+@Slf4j
+@Component
+public class ToscaTypeCache {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Cache<TypeKey, CachedType> cache;
+    private final ObjectWriter writer = MAPPER.writer().withAttribute(ConditionalAttributes.ES, "true").withAttribute(ConditionalAttributes.ES_1_2, "true");
+
+    public ToscaTypeCache(@Value("${tosca.type_cache.max_size:5000}") long maximumSize) {
+        cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+
+    /**
+     * Get a type from the cache.
+     *
+     * @param elementClass The class of the element to look for.
+     * @param elementId The id of the element to look for.
+     * @param dependencies The dependencies in which to look for the element.
+     * @param <T> The type of element.
+     * @return A copy of the cached element if any is found in one of the released dependencies, null if no element is cached.
+     */
+    public <T extends AbstractToscaType> T get(Class<T> elementClass, String elementId, Set<CSARDependency> dependencies) {
+        // A type id can only be defined in a single archive (name) so at most one of the dependencies can define the type.
+        for (CSARDependency dependency : dependencies) {
+            if (!VersionUtil.isSnapshot(dependency.getVersion())) {
+                CachedType cachedType = cache.getIfPresent(new TypeKey(elementClass, elementId, dependency.getName(), dependency.getVersion()));
+                if (cachedType != null) {
+                    return elementClass.cast(read(cachedType));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add a type to the cache if it belongs to a released archive.
+     *
+     * @param elementClass The class of the element that has been requested.
+     * @param element The element to cache, later changes to the element are not reflected in the cache.
+     */
+    public void put(Class<? extends AbstractToscaType> elementClass, AbstractToscaType element) {
+        if (element.getArchiveVersion() == null || VersionUtil.isSnapshot(element.getArchiveVersion())) {
+            return;
+        }
+        cache.put(new TypeKey(elementClass, element.getElementId(), element.getArchiveName(), element.getArchiveVersion()),
+                new CachedType(element.getClass(), write(element)));
+    }
+
+    /**
+     * Remove all the types of an archive from the cache.
+     *
+     * @param archiveId The id of the archive.
+     */
+    public void invalidate(String archiveId) {
+        log.debug("Invalidate cached types of archive {}", archiveId);
+        cache.asMap().keySet().removeIf(key -> Csar.createId(key.archiveName, key.archiveVersion).equals(archiveId));
+    }
+
+    /**
+     * Remove all types from the cache.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Get the cache statistics (hits, misses and evictions).
+     *
+     * @return The statistics of the cache.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Get the number of types currently cached.
+     *
+     * @return The number of types in the cache.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    @SneakyThrows(IOException.class)
+    private byte[] write(AbstractToscaType element) {
+        return writer.writeValueAsBytes(element);
+    }
+
+    @SneakyThrows(IOException.class)
+    private AbstractToscaType read(CachedType cachedType) {
+        return MAPPER.readerFor(cachedType.type).withAttribute(ConditionalAttributes.ES, "true").withAttribute(ConditionalAttributes.ES_1_2, "true")
+                .readValue(cachedType.json);
+    }
+
+    @AllArgsConstructor
+    private static class CachedType {
+        private final Class<? extends AbstractToscaType> type;
+        private final byte[] json;
+    }
+
+    @EqualsAndHashCode
+    private static class TypeKey {
+        private final String elementClass;
+        private final String elementId;
+        private final String archiveName;
+        private final String archiveVersion;
+
+        private TypeKey(Class<?> elementClass, String elementId, String archiveName, String archiveVersion) {
+            this.elementClass = elementClass.getName();
+            this.elementId = elementId;
+            this.archiveName = archiveName;
+            this.archiveVersion = archiveVersion;
+        }
+    }
+}
@@ -4,13 +4,17 @@ import static alien4cloud.utils.AlienUtils.safe;
 
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.Resource;
 
 import org.alien4cloud.tosca.model.templates.NodeGroup;
 import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.RelationshipTemplate;
 import org.alien4cloud.tosca.model.templates.Topology;
 import org.alien4cloud.tosca.model.types.AbstractToscaType;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.alien4cloud.tosca.model.types.RelationshipType;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
@@ -81,6 +85,9 @@ public class TopologyPostProcessor implements IPostProcessor<Topology> {
             groupPostProcessor.process(nodeGroup);
         }
 
+        // load all the types used by the topology at once rather than one by one when node templates are processed.
+        prefetchTypes(instance);
+
         // Node templates validation
         for (Map.Entry<String, NodeTemplate> nodeTemplateEntry : safe(instance.getNodeTemplates()).entrySet()) {
             nodeTemplateEntry.getValue().setName(nodeTemplateEntry.getKey());
@@ -109,6 +116,19 @@ public class TopologyPostProcessor implements IPostProcessor<Topology> {
         finalizeParsedWorkflows(topologyContext, node);
     }
 
+    private void prefetchTypes(Topology instance) {
+        Set<String> nodeTypes = Sets.newHashSet();
+        Set<String> relationshipTypes = Sets.newHashSet();
+        for (NodeTemplate nodeTemplate : safe(instance.getNodeTemplates()).values()) {
+            nodeTypes.add(nodeTemplate.getType());
+            for (RelationshipTemplate relationshipTemplate : safe(nodeTemplate.getRelationships()).values()) {
+                relationshipTypes.add(relationshipTemplate.getType());
+            }
+        }
+        ToscaContext.prefetch(NodeType.class, nodeTypes);
+        ToscaContext.prefetch(RelationshipType.class, relationshipTypes);
+    }
+
     private void setDependencies(Topology instance, ArchiveRoot archiveRoot) {
         if (archiveRoot.getArchive().getDependencies() == null) {
             return;
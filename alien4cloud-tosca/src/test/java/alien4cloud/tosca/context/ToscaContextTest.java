@@ -0,0 +1,102 @@
+package alien4cloud.tosca.context;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import alien4cloud.component.ICSARRepositorySearchService;
+
+public class ToscaContextTest {
+    private ICSARRepositorySearchService initialSearchService;
+    private ToscaTypeCache initialTypeCache;
+    private ICSARRepositorySearchService searchService;
+    private ToscaTypeCache toscaTypeCache;
+
+    @Before
+    public void init() {
+        // the tosca context services are static, restore them for the other tests.
+        initialSearchService = (ICSARRepositorySearchService) ReflectionTestUtils.getField(ToscaContext.class, "csarRepositorySearchService");
+        initialTypeCache = (ToscaTypeCache) ReflectionTestUtils.getField(ToscaContext.class, "toscaTypeCache");
+        searchService = Mockito.mock(ICSARRepositorySearchService.class);
+        toscaTypeCache = new ToscaTypeCache(100);
+        ToscaContext.setCsarRepositorySearchService(searchService);
+        ToscaContext.setToscaTypeCache(toscaTypeCache);
+        ToscaContext.init(Sets.newHashSet(new CSARDependency("types", "1.0.0")));
+    }
+
+    @After
+    public void cleanup() {
+        ToscaContext.destroy();
+        ToscaContext.setCsarRepositorySearchService(initialSearchService);
+        ToscaContext.setToscaTypeCache(initialTypeCache);
+    }
+
+    private NodeType createNodeType(String elementId) {
+        NodeType nodeType = new NodeType();
+        nodeType.setElementId(elementId);
+        nodeType.setArchiveName("types");
+        nodeType.setArchiveVersion("1.0.0");
+        return nodeType;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void prefetchShouldLoadAllTheMissingElementsInASingleRequest() {
+        toscaTypeCache.put(NodeType.class, createNodeType("cached"));
+        Map<String, NodeType> found = Maps.newHashMap();
+        found.put("compute", createNodeType("compute"));
+        found.put("network", createNodeType("network"));
+        Mockito.when(searchService.getElementsInDependencies(Mockito.eq(NodeType.class), Mockito.anyCollection(), Mockito.anySet())).thenReturn(found);
+
+        ToscaContext.prefetch(NodeType.class, Lists.newArrayList("cached", "compute", "network", "missing", null));
+
+        // elements of the process wide cache are not requested
+        ArgumentCaptor<Collection> requestedIds = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(searchService, Mockito.times(1)).getElementsInDependencies(Mockito.eq(NodeType.class), requestedIds.capture(), Mockito.anySet());
+        Assert.assertEquals(Sets.newHashSet("compute", "network", "missing"), Sets.newHashSet(requestedIds.getValue()));
+        // prefetched elements are served by the context and shared with the process wide cache
+        Assert.assertEquals("compute", ToscaContext.get(NodeType.class, "compute").getElementId());
+        Assert.assertEquals("network", ToscaContext.get(NodeType.class, "network").getElementId());
+        Assert.assertEquals("cached", ToscaContext.get(NodeType.class, "cached").getElementId());
+        Assert.assertNotNull(toscaTypeCache.get(NodeType.class, "compute", ToscaContext.get().getDependencies()));
+        Mockito.verify(searchService, Mockito.never()).getElementInDependencies(Mockito.eq(NodeType.class), Mockito.anyString(), Mockito.anySet());
+
+        // a missing element is still looked for when requested
+        ToscaContext.get(NodeType.class, "missing");
+        Mockito.verify(searchService, Mockito.times(1)).getElementInDependencies(Mockito.eq(NodeType.class), Mockito.eq("missing"), Mockito.anySet());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void prefetchShouldNotRequestLoadedElements() {
+        Mockito.when(searchService.getElementInDependencies(Mockito.eq(NodeType.class), Mockito.eq("compute"), Mockito.anySet()))
+                .thenReturn(createNodeType("compute"));
+        ToscaContext.get(NodeType.class, "compute");
+
+        ToscaContext.prefetch(NodeType.class, Lists.newArrayList("compute"));
+
+        Mockito.verify(searchService, Mockito.never()).getElementsInDependencies(Mockito.eq(NodeType.class), Mockito.anyCollection(), Mockito.anySet());
+    }
+
+    @Test
+    public void prefetchWithoutContextShouldBeIgnored() {
+        ToscaContext.destroy();
+
+        ToscaContext.prefetch(NodeType.class, Lists.newArrayList("compute"));
+
+        Mockito.verifyZeroInteractions(searchService);
+    }
+}